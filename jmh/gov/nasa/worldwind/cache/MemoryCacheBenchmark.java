@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.cache;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Measures {@link MemoryCache} add and get throughput when the cache is shared by several threads, as the sector
+ * geometry, texture and elevation caches are shared by the render thread, the tessellator and the retrieval threads.
+ * Run with <code>-t</code> to change the number of contending threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class MemoryCacheBenchmark
+{
+    protected static final int NUM_KEYS = 1 << 14;
+    protected static final int ENTRY_SIZE = 100;
+
+    @Param({"gov.nasa.worldwind.cache.BasicMemoryCache", "gov.nasa.worldwind.cache.SegmentedLRUMemoryCache"})
+    public String cacheClassName;
+
+    /** The fraction of the key space the cache can hold. Keys outside the cache cause adds and evictions. */
+    @Param({"0.5"})
+    public double residentFraction;
+
+    protected MemoryCache cache;
+    protected Integer[] keys;
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        long capacity = (long) (NUM_KEYS * ENTRY_SIZE * this.residentFraction);
+        this.cache = (MemoryCache) Class.forName(this.cacheClassName).getConstructor(long.class, long.class)
+            .newInstance((long) (0.85 * capacity), capacity);
+
+        this.keys = new Integer[NUM_KEYS];
+        for (int i = 0; i < NUM_KEYS; i++)
+        {
+            this.keys[i] = i;
+        }
+
+        for (int i = 0; i < NUM_KEYS; i++)
+        {
+            this.cache.add(this.keys[i], this.keys[i], ENTRY_SIZE);
+        }
+    }
+
+    /** Reads a skewed distribution of keys, adding any that are missing, as tile caches are used. */
+    @Benchmark
+    public Object getOrAdd()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Squaring a uniform variable favors low keys, approximating the locality of tiles in view.
+        double u = random.nextDouble();
+        Integer key = this.keys[(int) (u * u * NUM_KEYS)];
+
+        Object o = this.cache.getObject(key);
+        if (o == null)
+        {
+            this.cache.add(key, key, ENTRY_SIZE);
+            o = key;
+        }
+
+        return o;
+    }
+
+    /** Reads keys uniformly without adding, isolating the cost of recording accesses. */
+    @Benchmark
+    public Object get()
+    {
+        return this.cache.getObject(this.keys[ThreadLocalRandom.current().nextInt(NUM_KEYS)]);
+    }
+}
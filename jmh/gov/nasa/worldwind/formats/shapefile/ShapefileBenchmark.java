@@ -0,0 +1,69 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.shapefile;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures opening a shapefile and iterating all of its records with {@link Shapefile#hasNext()} and {@link
+ * Shapefile#nextRecord()}. The shapefile is read from the project's <code>testData</code> directory, so the benchmark
+ * must be run with the project directory as the working directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShapefileBenchmark
+{
+    @Param({"testData/shapefiles/state_bounds.shp", "testData/shapefiles/BayArea.shp"})
+    public String path;
+
+    @Benchmark
+    public int iterateRecords()
+    {
+        Shapefile shapefile = new Shapefile(this.path);
+        try
+        {
+            int numPoints = 0;
+            while (shapefile.hasNext())
+            {
+                numPoints += shapefile.nextRecord().getNumberOfPoints();
+            }
+            return numPoints;
+        }
+        finally
+        {
+            shapefile.close();
+        }
+    }
+}
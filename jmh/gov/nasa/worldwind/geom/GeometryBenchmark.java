@@ -0,0 +1,130 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.geom;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the great circle computations in {@link LatLon} and {@link Sector}, and {@link Matrix} multiplication and
+ * inversion. Each benchmark operates on a fixed, pseudo-random set of inputs so results are comparable across runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark
+{
+    protected static final int NUM_INPUTS = 1024;
+    protected static final int INPUT_MASK = NUM_INPUTS - 1;
+
+    protected LatLon[] locations;
+    protected List<LatLon> locationList;
+    protected Matrix[] matrices;
+    protected int index;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(1);
+
+        this.locations = new LatLon[NUM_INPUTS];
+        for (int i = 0; i < NUM_INPUTS; i++)
+        {
+            this.locations[i] = LatLon.fromDegrees(-80 + 160 * random.nextDouble(), -180 + 360 * random.nextDouble());
+        }
+        this.locationList = Arrays.asList(this.locations);
+
+        this.matrices = new Matrix[NUM_INPUTS];
+        for (int i = 0; i < NUM_INPUTS; i++)
+        {
+            Matrix rotation = Matrix.fromRotationXYZ(Angle.fromDegrees(360 * random.nextDouble()),
+                Angle.fromDegrees(360 * random.nextDouble()), Angle.fromDegrees(360 * random.nextDouble()));
+            Matrix translation = Matrix.fromTranslation(1e6 * random.nextDouble(), 1e6 * random.nextDouble(),
+                1e6 * random.nextDouble());
+            this.matrices[i] = translation.multiply(rotation);
+        }
+    }
+
+    protected int next()
+    {
+        return this.index = (this.index + 1) & INPUT_MASK;
+    }
+
+    @Benchmark
+    public Angle greatCircleDistance()
+    {
+        int i = this.next();
+        return LatLon.greatCircleDistance(this.locations[i], this.locations[(i + 1) & INPUT_MASK]);
+    }
+
+    @Benchmark
+    public Angle greatCircleAzimuth()
+    {
+        int i = this.next();
+        return LatLon.greatCircleAzimuth(this.locations[i], this.locations[(i + 1) & INPUT_MASK]);
+    }
+
+    @Benchmark
+    public LatLon interpolateGreatCircle()
+    {
+        int i = this.next();
+        return LatLon.interpolateGreatCircle(0.25, this.locations[i], this.locations[(i + 1) & INPUT_MASK]);
+    }
+
+    @Benchmark
+    public LatLon[] greatCircleArcExtremeLocations()
+    {
+        int i = this.next();
+        return LatLon.greatCircleArcExtremeLocations(this.locations[i], this.locations[(i + 1) & INPUT_MASK]);
+    }
+
+    @Benchmark
+    public Sector boundingSector()
+    {
+        return Sector.boundingSector(this.locationList);
+    }
+
+    @Benchmark
+    public Matrix matrixMultiply()
+    {
+        int i = this.next();
+        return this.matrices[i].multiply(this.matrices[(i + 1) & INPUT_MASK]);
+    }
+
+    @Benchmark
+    public Matrix matrixInverse()
+    {
+        return this.matrices[this.next()].getInverse();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.geom.coords;
+
+import gov.nasa.worldwind.geom.Angle;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing MGRS strings one at a time with {@link MGRSCoord#fromString(String,
+ * gov.nasa.worldwind.globes.Globe)} and as a batch with {@link BatchCoordConverter#mgrsToLatLon}, sequentially and in
+ * parallel. The strings are formatted from random locations between 80 degrees south and 84 degrees north.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MGRSBatchBenchmark
+{
+    @Param({"1000", "100000"})
+    public int coordCount;
+
+    @Param({"scalar", "batch", "parallelBatch"})
+    public String converterType;
+
+    protected String[] strings;
+    protected char[] chars;
+    protected int[] starts;
+    protected int[] lengths;
+    protected double[] latitudes;
+    protected double[] longitudes;
+    protected BatchCoordConverter converter;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(1);
+        this.strings = new String[this.coordCount];
+        this.starts = new int[this.coordCount];
+        this.lengths = new int[this.coordCount];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < this.coordCount; i++)
+        {
+            this.strings[i] = MGRSCoord.fromLatLon(Angle.fromDegrees(-80 + 164 * random.nextDouble()),
+                Angle.fromDegrees(-180 + 360 * random.nextDouble())).toString();
+            this.starts[i] = sb.length();
+            this.lengths[i] = this.strings[i].length();
+            sb.append(this.strings[i]);
+        }
+
+        this.chars = sb.toString().toCharArray();
+        this.latitudes = new double[this.coordCount];
+        this.longitudes = new double[this.coordCount];
+        this.converter = new BatchCoordConverter();
+        this.converter.setSplitThreshold("parallelBatch".equals(this.converterType) ? 4096 : Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public double convert()
+    {
+        if ("scalar".equals(this.converterType))
+        {
+            double sum = 0;
+            for (String s : this.strings)
+            {
+                sum += MGRSCoord.fromString(s, null).getLatitude().degrees;
+            }
+            return sum;
+        }
+
+        this.converter.mgrsToLatLon(this.chars, this.starts, this.lengths, 0, this.coordCount, this.latitudes,
+            this.longitudes);
+        return this.latitudes[this.coordCount - 1];
+    }
+}
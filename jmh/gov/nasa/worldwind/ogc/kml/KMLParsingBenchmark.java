@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.util.WWXML;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of a generated KML document through {@link KMLRoot#parse(Object...)}, and DOM parsing of the same
+ * document through {@link WWXML#openDocumentStream(InputStream)}. The document holds placemarks with line strings,
+ * polygons and shared styles, and is generated in memory so that file system access is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KMLParsingBenchmark
+{
+    @Param({"1000"})
+    public int numPlacemarks;
+
+    @Param({"100"})
+    public int numCoordinates;
+
+    protected byte[] document;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(1);
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document>\n");
+        sb.append("<Style id=\"line\"><LineStyle><color>ff0000ff</color><width>2</width></LineStyle></Style>\n");
+        sb.append("<Style id=\"poly\"><PolyStyle><color>7f00ff00</color></PolyStyle></Style>\n");
+
+        for (int i = 0; i < this.numPlacemarks; i++)
+        {
+            boolean polygon = (i % 2) == 1;
+            sb.append("<Placemark><name>Placemark ").append(i).append("</name>");
+            sb.append("<styleUrl>#").append(polygon ? "poly" : "line").append("</styleUrl>");
+            sb.append(polygon ? "<Polygon><outerBoundaryIs><LinearRing><coordinates>" : "<LineString><coordinates>");
+
+            double lat = -60 + 120 * random.nextDouble();
+            double lon = -170 + 340 * random.nextDouble();
+            for (int j = 0; j < this.numCoordinates; j++)
+            {
+                sb.append(lon + 0.001 * j).append(',').append(lat + 0.001 * Math.sin(j)).append(',')
+                    .append(10 * j).append(' ');
+            }
+
+            sb.append(polygon ? "</coordinates></LinearRing></outerBoundaryIs></Polygon>"
+                : "</coordinates></LineString>");
+            sb.append("</Placemark>\n");
+        }
+
+        sb.append("</Document></kml>\n");
+        this.document = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object parseKML() throws Exception
+    {
+        KMLRoot root = new KMLRoot(new ByteArrayInputStream(this.document), KMLConstants.KML_MIME_TYPE);
+        return root.parse();
+    }
+
+    @Benchmark
+    public Object parseDocument()
+    {
+        return WWXML.openDocumentStream(new ByteArrayInputStream(this.document));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.pick;
+
+import gov.nasa.worldwind.geom.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single ray pick through {@link GeometricPickSupport}'s bounding volume hierarchy against a linear scan of
+ * the same extents. The hierarchy is built once, as it is when several picks are resolved in the same frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometricPickBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int shapeCount;
+
+    protected GeometricPickSupport pickSupport;
+    protected Sphere[] spheres;
+    protected Line[] rays;
+    protected int rayIndex;
+
+    @Setup
+    public void setUp()
+    {
+        Random random = new Random(1);
+        this.pickSupport = new GeometricPickSupport();
+        this.spheres = new Sphere[this.shapeCount];
+        for (int i = 0; i < this.shapeCount; i++)
+        {
+            Vec4 center = new Vec4(random.nextDouble() * 1e6, random.nextDouble() * 1e6, random.nextDouble() * 1e4);
+            this.spheres[i] = new Sphere(center, 100 + random.nextDouble() * 1e3);
+            this.pickSupport.addExtent(this.spheres[i], this.spheres[i], null);
+        }
+
+        this.rays = new Line[64];
+        for (int i = 0; i < this.rays.length; i++)
+        {
+            Vec4 origin = new Vec4(random.nextDouble() * 1e6, random.nextDouble() * 1e6, 1e5);
+            this.rays[i] = new Line(origin, new Vec4(0, 0, -1));
+        }
+
+        this.pickSupport.pick(this.rays[0], null, null, null); // builds the hierarchy
+    }
+
+    protected Line nextRay()
+    {
+        this.rayIndex = (this.rayIndex + 1) % this.rays.length;
+        return this.rays[this.rayIndex];
+    }
+
+    @Benchmark
+    public int hierarchy()
+    {
+        return this.pickSupport.pick(this.nextRay(), null, null, null).size();
+    }
+
+    @Benchmark
+    public int linearScan()
+    {
+        Line ray = this.nextRay();
+        int count = 0;
+        for (Sphere sphere : this.spheres)
+        {
+            if (sphere.intersect(ray) != null)
+                count++;
+        }
+
+        return count;
+    }
+}
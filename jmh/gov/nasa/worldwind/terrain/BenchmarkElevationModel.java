@@ -0,0 +1,123 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.*;
+
+import java.nio.FloatBuffer;
+
+/**
+ * A {@link BasicElevationModel} whose tiles are generated in memory, so that elevation lookups can be measured without
+ * a file store or network retrieval. Elevations are a smooth synthetic surface in the range [-500, 1500] meters.
+ */
+public class BenchmarkElevationModel extends BasicElevationModel
+{
+    public BenchmarkElevationModel(Sector sector, int numLevels, int tileSize)
+    {
+        super(createParams(sector, numLevels, tileSize));
+
+        for (Level level : this.getLevels().getLevels())
+        {
+            this.loadLevel(level);
+        }
+    }
+
+    protected static AVList createParams(Sector sector, int numLevels, int tileSize)
+    {
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.SECTOR, sector);
+        params.setValue(AVKey.TILE_ORIGIN, new LatLon(sector.getMinLatitude(), sector.getMinLongitude()));
+        params.setValue(AVKey.LEVEL_ZERO_TILE_DELTA, new LatLon(sector.getDeltaLat(), sector.getDeltaLon()));
+        params.setValue(AVKey.NUM_LEVELS, numLevels);
+        params.setValue(AVKey.TILE_WIDTH, tileSize);
+        params.setValue(AVKey.TILE_HEIGHT, tileSize);
+        params.setValue(AVKey.DATA_CACHE_NAME, "Benchmark/Elevations");
+        params.setValue(AVKey.DATASET_NAME, "Benchmark");
+        params.setValue(AVKey.FORMAT_SUFFIX, ".bil");
+        params.setValue(AVKey.ELEVATION_MIN, -500d);
+        params.setValue(AVKey.ELEVATION_MAX, 1500d);
+        params.setValue(AVKey.NETWORK_RETRIEVAL_ENABLED, false);
+        return params;
+    }
+
+    protected void loadLevel(Level level)
+    {
+        Sector sector = this.getLevels().getSector();
+        LatLon delta = level.getTileDelta();
+        LatLon origin = this.getLevels().getTileOrigin();
+        int firstRow = Tile.computeRow(delta.getLatitude(), sector.getMinLatitude(), origin.getLatitude());
+        int lastRow = Tile.computeRow(delta.getLatitude(), sector.getMaxLatitude(), origin.getLatitude());
+        int firstCol = Tile.computeColumn(delta.getLongitude(), sector.getMinLongitude(), origin.getLongitude());
+        int lastCol = Tile.computeColumn(delta.getLongitude(), sector.getMaxLongitude(), origin.getLongitude());
+
+        for (int row = firstRow; row <= lastRow; row++)
+        {
+            for (int col = firstCol; col <= lastCol; col++)
+            {
+                ElevationTile tile = this.createTile(
+                    new TileKey(level.getLevelNumber(), row, col, level.getCacheName()));
+                if (!tile.getSector().intersectsInterior(sector))
+                    continue;
+
+                BufferWrapper elevations = this.makeElevations(tile);
+                tile.setElevations(elevations, this);
+                this.addTileToCache(tile, elevations);
+            }
+        }
+    }
+
+    protected BufferWrapper makeElevations(ElevationTile tile)
+    {
+        Sector sector = tile.getSector();
+        int width = tile.getWidth();
+        int height = tile.getHeight();
+        FloatBuffer buffer = FloatBuffer.allocate(width * height);
+
+        for (int j = 0; j < height; j++)
+        {
+            double lat = sector.getMaxLatitude().radians - j * sector.getDeltaLatRadians() / (height - 1);
+            for (int i = 0; i < width; i++)
+            {
+                double lon = sector.getMinLongitude().radians + i * sector.getDeltaLonRadians() / (width - 1);
+                buffer.put((float) (500 + 1000 * Math.sin(200 * lat) * Math.cos(200 * lon)));
+            }
+        }
+
+        buffer.rewind();
+        return new BufferWrapper.FloatBufferWrapper(buffer);
+    }
+
+    /** Tiles are generated in memory; there is nothing to retrieve. */
+    @Override
+    protected void requestTile(TileKey key)
+    {
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.geom.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures elevation queries against a {@link BasicElevationModel} whose tiles are all resident in memory: bulk
+ * queries through {@link BasicElevationModel#getElevations(Sector, List, double, double[])} and its array-based
+ * counterpart, and single-point interpolation through {@link BasicElevationModel#lookupElevation(Angle, Angle,
+ * BasicElevationModel.ElevationTile)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElevationModelBenchmark
+{
+    /** The number of locations along each side of the query grid. */
+    @Param({"32", "128"})
+    public int gridSize;
+
+    protected BenchmarkElevationModel elevationModel;
+    protected Sector querySector;
+    protected List<LatLon> locations;
+    protected double[] latitudes;
+    protected double[] longitudes;
+    protected double[] buffer;
+    protected double targetResolution;
+    protected BasicElevationModel.ElevationTile tile;
+    protected Angle[] tileLatitudes;
+    protected Angle[] tileLongitudes;
+
+    @Setup
+    public void setUp()
+    {
+        Sector sector = Sector.fromDegrees(36, 37, -122, -121);
+        this.elevationModel = new BenchmarkElevationModel(sector, 4, 150);
+        this.querySector = Sector.fromDegrees(36.2, 36.7, -121.8, -121.3);
+        this.targetResolution = this.elevationModel.getBestResolution(this.querySector);
+
+        this.locations = new ArrayList<LatLon>(this.gridSize * this.gridSize);
+        for (int j = 0; j < this.gridSize; j++)
+        {
+            double lat = this.querySector.getMinLatitude().degrees
+                + j * this.querySector.getDeltaLatDegrees() / (this.gridSize - 1);
+            for (int i = 0; i < this.gridSize; i++)
+            {
+                double lon = this.querySector.getMinLongitude().degrees
+                    + i * this.querySector.getDeltaLonDegrees() / (this.gridSize - 1);
+                this.locations.add(LatLon.fromDegrees(lat, lon));
+            }
+        }
+        this.buffer = new double[this.locations.size()];
+
+        this.latitudes = new double[this.locations.size()];
+        this.longitudes = new double[this.locations.size()];
+        for (int i = 0; i < this.locations.size(); i++)
+        {
+            this.latitudes[i] = this.locations.get(i).getLatitude().degrees;
+            this.longitudes[i] = this.locations.get(i).getLongitude().degrees;
+        }
+
+        BasicElevationModel.Elevations elevations = this.elevationModel.getElevations(this.querySector,
+            this.elevationModel.getLevels(), this.elevationModel.getLevels().getLastLevel().getLevelNumber());
+        this.tile = elevations.tiles.iterator().next();
+
+        Random random = new Random(1);
+        Sector tileSector = this.tile.getSector();
+        this.tileLatitudes = new Angle[1024];
+        this.tileLongitudes = new Angle[1024];
+        for (int i = 0; i < this.tileLatitudes.length; i++)
+        {
+            this.tileLatitudes[i] = Angle.fromDegrees(
+                tileSector.getMinLatitude().degrees + random.nextDouble() * tileSector.getDeltaLatDegrees());
+            this.tileLongitudes[i] = Angle.fromDegrees(
+                tileSector.getMinLongitude().degrees + random.nextDouble() * tileSector.getDeltaLonDegrees());
+        }
+    }
+
+    @Benchmark
+    public double getElevations()
+    {
+        return this.elevationModel.getElevations(this.querySector, this.locations, this.targetResolution,
+            this.buffer);
+    }
+
+    @Benchmark
+    public double getElevationsArray()
+    {
+        return this.elevationModel.getElevations(this.querySector, this.latitudes, this.longitudes,
+            this.targetResolution, this.buffer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public double lookupElevation()
+    {
+        double sum = 0;
+        for (int i = 0; i < this.tileLatitudes.length; i++)
+        {
+            sum += this.elevationModel.lookupElevation(this.tileLatitudes[i], this.tileLongitudes[i], this.tile);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.BasicModel;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.render.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RectangularTessellator#buildVerts(DrawContext, RectangularTessellator.RectTile, boolean)}, the
+ * per-tile vertex generation performed whenever terrain geometry is created or refreshed. The globe's elevations come
+ * from an in-memory {@link BenchmarkElevationModel}, and no OpenGL context is required.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RectangularTessellatorBenchmark
+{
+    @Param({"20", "40"})
+    public int density;
+
+    @Param({"true", "false"})
+    public boolean makeSkirts;
+
+    protected DrawContextImpl dc;
+    protected BenchmarkTessellator tessellator;
+    protected RectangularTessellator.RectTile tile;
+
+    /** Exposes the state the tessellator normally establishes in <code>tessellate</code>. */
+    protected static class BenchmarkTessellator extends RectangularTessellator
+    {
+        public RectTile createLevelZeroTile(DrawContext dc, Sector sector, int density)
+        {
+            this.globe = dc.getGlobe();
+            this.density = density;
+            return this.createTile(dc, sector, 0);
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        Sector sector = Sector.fromDegrees(36, 37, -122, -121);
+        Globe globe = new Earth();
+        globe.setElevationModel(new BenchmarkElevationModel(sector, 4, 150));
+
+        this.dc = new DrawContextImpl();
+        this.dc.setModel(new BasicModel(globe, null));
+        this.dc.setVerticalExaggeration(1);
+        this.dc.setGLRuntimeCapabilities(new GLRuntimeCapabilities());
+
+        this.tessellator = new BenchmarkTessellator();
+        this.tile = this.tessellator.createLevelZeroTile(this.dc,
+            Sector.fromDegrees(36.25, 36.5, -121.75, -121.5), this.density);
+        this.tessellator.buildVerts(this.dc, this.tile, this.makeSkirts);
+    }
+
+    /** Regenerates the vertices of a tile that already has render info, as happens when cached geometry expires. */
+    @Benchmark
+    public Object rebuildVerts()
+    {
+        this.tessellator.buildVerts(this.dc, this.tile, this.makeSkirts);
+        return this.tile.ri;
+    }
+
+    /** Generates the vertices of a tile that has no render info, as happens when a tile first comes into view. */
+    @Benchmark
+    public Object buildVerts()
+    {
+        this.tile.ri = null;
+        this.tessellator.buildVerts(this.dc, this.tile, this.makeSkirts);
+        return this.tile.ri;
+    }
+}
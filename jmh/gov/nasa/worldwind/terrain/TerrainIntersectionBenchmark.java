@@ -0,0 +1,150 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of batch line/terrain intersection through {@link HighResolutionTerrain#intersect(List,
+ * HighResolutionTerrain.IntersectionCallback)}, which runs on a shared {@link TerrainIntersectionEngine}, against the
+ * previous approach of creating a fixed pool of ten threads for each batch and submitting one task per segment in input
+ * order. Each batch is a radar-style fan of segments from a single elevated origin, with the segments shuffled so that
+ * input order does not follow the terrain. The globe's elevations come from an in-memory {@link
+ * BenchmarkElevationModel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TerrainIntersectionBenchmark
+{
+    /** The number of segments in each batch. */
+    @Param({"256", "2048"})
+    public int segmentCount;
+
+    protected HighResolutionTerrain terrain;
+    protected List<Position> positions;
+    protected CountingCallback callback = new CountingCallback();
+
+    protected static class CountingCallback implements HighResolutionTerrain.IntersectionCallback
+    {
+        protected final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void intersection(Position pA, Position pB, Intersection[] intersections)
+        {
+            this.count.incrementAndGet();
+        }
+
+        @Override
+        public void exception(Exception exception)
+        {
+            this.count.incrementAndGet();
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        Sector sector = Sector.fromDegrees(36, 37, -122, -121);
+        Globe globe = new Earth();
+        globe.setElevationModel(new BenchmarkElevationModel(sector, 4, 150));
+        this.terrain = new HighResolutionTerrain(globe, sector, 100d, 1d);
+
+        LatLon center = sector.getCentroid();
+        Position origin = new Position(center, 2000);
+        List<Position[]> segments = new ArrayList<Position[]>(this.segmentCount);
+        for (int i = 0; i < this.segmentCount; i++)
+        {
+            Angle azimuth = Angle.fromDegrees(360d * i / this.segmentCount);
+            LatLon target = LatLon.greatCircleEndPosition(center, azimuth, Angle.fromDegrees(0.3));
+            segments.add(new Position[] {origin, new Position(target, 0)});
+        }
+        Collections.shuffle(segments, new Random(1));
+
+        this.positions = new ArrayList<Position>(2 * this.segmentCount);
+        for (Position[] segment : segments)
+        {
+            this.positions.add(segment[0]);
+            this.positions.add(segment[1]);
+        }
+    }
+
+    /** Intersects a batch on the terrain's shared intersection engine. */
+    @Benchmark
+    public int sharedEngine() throws InterruptedException
+    {
+        this.terrain.intersect(this.positions, this.callback);
+        return this.callback.count.get();
+    }
+
+    /** Intersects a batch on a thread pool created for the batch, one task per segment in input order. */
+    @Benchmark
+    public int poolPerBatch() throws InterruptedException
+    {
+        ExecutorService service = Executors.newFixedThreadPool(10);
+
+        for (int i = 0; i < this.positions.size(); i += 2)
+        {
+            final Position pA = this.positions.get(i);
+            final Position pB = this.positions.get(i + 1);
+
+            service.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        Intersection[] intersections = terrain.intersect(pA, pB);
+                        if (intersections != null)
+                        {
+                            callback.intersection(pA, pB, intersections);
+                        }
+                    }
+                    catch (Exception e)
+                    {
+                        callback.exception(e);
+                    }
+                }
+            });
+        }
+
+        service.shutdown();
+        service.awaitTermination(100, TimeUnit.DAYS);
+        return this.callback.count.get();
+    }
+}
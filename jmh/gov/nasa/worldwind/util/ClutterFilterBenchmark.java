@@ -0,0 +1,129 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.render.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one frame of label decluttering by {@link BasicClutterFilter}, which compares each label to every label
+ * already accepted, and {@link GridClutterFilter}, which compares each label only to the accepted labels in the grid
+ * cells it covers. The labels are scattered over a 1920 x 1080 screen. Accepted labels are counted rather than added
+ * to a draw context's ordered renderable queue, so only the filters are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClutterFilterBenchmark
+{
+    @Param({"1000", "10000", "100000"})
+    public int labelCount;
+
+    @Param({"basic", "grid"})
+    public String filterType;
+
+    protected ClutterFilter filter;
+    protected CountingDrawContext dc;
+    protected List<Declutterable> labels;
+
+    protected static class Label implements Declutterable
+    {
+        protected final Rectangle2D bounds;
+
+        public Label(Rectangle2D bounds)
+        {
+            this.bounds = bounds;
+        }
+
+        public boolean isEnableDecluttering()
+        {
+            return true;
+        }
+
+        public Rectangle2D getBounds(DrawContext dc)
+        {
+            return this.bounds;
+        }
+
+        public double getDistanceFromEye()
+        {
+            return 0;
+        }
+
+        public void pick(DrawContext dc, Point pickPoint)
+        {
+        }
+
+        public void render(DrawContext dc)
+        {
+        }
+    }
+
+    protected static class CountingDrawContext extends DrawContextImpl
+    {
+        protected int count;
+
+        @Override
+        public void addOrderedRenderable(OrderedRenderable orderedRenderable)
+        {
+            this.count++;
+        }
+    }
+
+    @Setup
+    public void setUp()
+    {
+        this.filter = "grid".equals(this.filterType) ? new GridClutterFilter() : new BasicClutterFilter();
+        this.dc = new CountingDrawContext();
+
+        Random random = new Random(1);
+        this.labels = new ArrayList<Declutterable>(this.labelCount);
+        for (int i = 0; i < this.labelCount; i++)
+        {
+            this.labels.add(new Label(new Rectangle2D.Double(random.nextDouble() * 1920, random.nextDouble() * 1080,
+                40 + random.nextInt(80), 14)));
+        }
+    }
+
+    @Benchmark
+    public int apply()
+    {
+        this.dc.count = 0;
+        this.filter.apply(this.dc, this.labels);
+        return this.dc.count;
+    }
+}
@@ -96,6 +96,8 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String DATA_FILE_STORE_CLASS_NAME = "gov.nasa.worldwind.avkey.DataFileStoreClassName";
     final String DATA_FILE_STORE_CONFIGURATION_FILE_NAME
         = "gov.nasa.worldwind.avkey.DataFileStoreConfigurationFileName";
+    final String DATA_FILE_STORE_INDEX_CAPACITY = "gov.nasa.worldwind.avkey.DataFileStoreIndexCapacity";
+    final String DATA_FILE_STORE_INDEX_SCAN_ENABLED = "gov.nasa.worldwind.avkey.DataFileStoreIndexScanEnabled";
     final String DATASET_NAME = "gov.nasa.worldwind.avkey.DatasetNameKey";
     final String DATA_RASTER_READER_FACTORY_CLASS_NAME = "gov.nasa.worldwind.avkey.DataRasterReaderFactoryClassName";
     final String DATASET_TYPE = "gov.nasa.worldwind.avkey.DatasetTypeKey";
@@ -189,6 +191,8 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String HORIZONTAL = "gov.nasa.worldwind.avkey.Horizontal";
     final String HOT_SPOT = "gov.nasa.worldwind.avkey.HotSpot";
     final String HOVER_TEXT = "gov.nasa.worldwind.avkey.HoverText";
+    final String HTTP_CONDITIONAL_REQUESTS_ENABLED = "gov.nasa.worldwind.avkey.HTTPConditionalRequestsEnabled";
+    final String HTTP_MAX_CONNECTIONS_PER_HOST = "gov.nasa.worldwind.avkey.HTTPMaxConnectionsPerHost";
     final String HTTP_SSL_CONTEXT = "gov.nasa.worldwind.avkey.HTTP.SSLContext";
 
     final String ICON_NAME = "gov.nasa.worldwind.avkey.IconName";
@@ -248,7 +252,21 @@ public interface AVKey // TODO: Eliminate unused constants, if any
 
     final String MAX_ACTIVE_ALTITUDE = "gov.nasa.worldwind.avkey.MaxActiveAltitude";
     final String MAX_MESSAGE_REPEAT = "gov.nasa.worldwind.avkey.MaxMessageRepeat";
+    /**
+     * Indicates the {@link gov.nasa.worldwind.cache.MemoryCache} implementation created by {@link
+     * gov.nasa.worldwind.cache.MemoryCacheSet#createCache(String, long, long)}. The implementation for an individual
+     * cache may be specified by appending a period and the cache's key to this key, for example
+     * <code>gov.nasa.worldwind.avkey.MemoryCacheClassName.gov.nasa.worldwind.layers.TextureTile</code>. The class must
+     * provide a public constructor taking the low water and capacity as <code>long</code> arguments.
+     */
+    final String MEMORY_CACHE_CLASS_NAME = "gov.nasa.worldwind.avkey.MemoryCacheClassName";
     final String MEMORY_CACHE_SET_CLASS_NAME = "gov.nasa.worldwind.avkey.MemoryCacheSetClassName";
+    /**
+     * Indicates whether tiled image layers and elevation models map cached DDS and BIL tiles into memory rather than
+     * reading them onto the heap. When used as a key, the corresponding value must be a Boolean or a string "true" or
+     * "false".
+     */
+    final String MEMORY_MAPPED_TILE_READS_ENABLED = "gov.nasa.worldwind.avkey.MemoryMappedTileReadsEnabled";
     /**
      * Indicates the location that MIL-STD-2525 tactical symbols and tactical point graphics retrieve their icons from.
      * When used as a key, the corresponding value must be a string indicating a URL to a remote server, a URL to a
@@ -385,6 +403,8 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     /** Does not modify the item size when the window changes size. */
     final String RESIZE_KEEP_FIXED_SIZE = "gov.nasa.worldwind.CompassLayer.ResizeKeepFixedSize";
     final String RETAIN_LEVEL_ZERO_TILES = "gov.nasa.worldwind.avkey.RetainLevelZeroTiles";
+    final String RETRIEVAL_HOST_CONCURRENCY_LIMIT = "gov.nasa.worldwind.avkey.RetrievalHostConcurrencyLimit";
+    final String RETRIEVAL_MAX_CONCURRENT_REQUESTS = "gov.nasa.worldwind.avkey.RetrievalMaxConcurrentRequests";
     final String RETRIEVAL_POOL_SIZE = "gov.nasa.worldwind.avkey.RetrievalPoolSize";
     final String RETRIEVE_PROPERTIES_FROM_SERVICE = "gov.nasa.worldwind.avkey.RetrievePropertiesFromService";
     final String RETRIEVAL_QUEUE_SIZE = "gov.nasa.worldwind.avkey.RetrievalQueueSize";
@@ -466,6 +486,11 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String TASK_POOL_SIZE = "gov.nasa.worldwind.avkey.TaskPoolSize";
     final String TASK_QUEUE_SIZE = "gov.nasa.worldwind.avkey.TaskQueueSize";
     final String TASK_SERVICE_CLASS_NAME = "gov.nasa.worldwind.avkey.TaskServiceClassName";
+    /**
+     * Indicates the number of threads used by the shared {@link gov.nasa.worldwind.terrain.TerrainIntersectionEngine}.
+     * When used as a key, the corresponding value must be an Integer or a string containing an integer.
+     */
+    final String TERRAIN_INTERSECTION_POOL_SIZE = "gov.nasa.worldwind.avkey.TerrainIntersectionPoolSize";
     final String TEXT = "gov.nasa.worldwind.avkey.Text";
     final String TEXT_EFFECT_NONE = "gov.nasa.worldwind.avkey.TextEffectNone";
     final String TEXT_EFFECT_OUTLINE = "gov.nasa.worldwind.avkey.TextEffectOutline";
@@ -482,6 +507,19 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String TILED_RASTER_PRODUCER_LARGE_DATASET_THRESHOLD =
         "gov.nasa.worldwind.avkey.TiledRasterProducerLargeDatasetThreshold";
     final String TILED_RASTER_PRODUCER_LIMIT_MAX_LEVEL = "gov.nasa.worldwind.avkey.TiledRasterProducer.LimitMaxLevel";
+    /**
+     * Indicates the number of threads a {@link gov.nasa.worldwind.data.TiledRasterProducer} uses to create tiles. When
+     * used as a key, the corresponding value must be an Integer or a string containing an integer. Production is
+     * serial if the value is one or is not specified. Reads from a single source raster are serialized, so tiles drawn
+     * from the same source do not gain from additional threads.
+     */
+    final String TILED_RASTER_PRODUCER_PARALLELISM = "gov.nasa.worldwind.avkey.TiledRasterProducerParallelism";
+    /**
+     * The name of the property change event a {@link gov.nasa.worldwind.data.TiledRasterProducer} sends when it
+     * completes the tiles beneath a level-zero tile. The event's new value is the level-zero {@link
+     * gov.nasa.worldwind.util.Tile}.
+     */
+    final String TILED_RASTER_PRODUCER_SUBTREE_COMPLETE = "gov.nasa.worldwind.avkey.TiledRasterProducerSubtreeComplete";
     final String TILT = "gov.nasa.worldwind.avkey.Tilt";
     final String TITLE = "gov.nasa.worldwind.avkey.Title";
     final String TOP = "gov.nasa.worldwind.avkey.Top";
@@ -514,6 +552,17 @@ public interface AVKey // TODO: Eliminate unused constants, if any
     final String VIEW_CLASS_NAME = "gov.nasa.worldwind.avkey.ViewClassName";
     final String VIEW_INPUT_HANDLER_CLASS_NAME = "gov.nasa.worldwind.avkey.ViewInputHandlerClassName";
     final String VIEW_QUIET = "gov.nasa.worldwind.avkey.ViewQuiet";
+    /**
+     * Indicates whether VPF tables are mapped into memory and their rows decoded as they are accessed, rather than read
+     * and decoded in full. When used as a key, the corresponding value must be a Boolean or a string "true" or
+     * "false".
+     */
+    final String VPF_MEMORY_MAPPED_TABLES_ENABLED = "gov.nasa.worldwind.avkey.VPFMemoryMappedTablesEnabled";
+    /**
+     * Indicates the size in bytes of the memory cache holding the decoded primitives of VPF coverage tiles. When used
+     * as a key, the corresponding value must be a Long or a string giving the number of bytes.
+     */
+    final String VPF_PRIMITIVE_CACHE_SIZE = "gov.nasa.worldwind.avkey.VPFPrimitiveCacheSize";
 
     // Viewing operations
     final String VIEW_OPERATION = "gov.nasa.worldwind.avkey.ViewOperation";
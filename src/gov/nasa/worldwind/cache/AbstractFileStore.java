@@ -524,44 +524,85 @@ public abstract class AbstractFileStore extends WWObjectImpl implements FileStor
 
         if (checkClassPath)
         {
-            java.net.URL url = this.getClass().getClassLoader().getResource(fileName);
+            java.net.URL url = this.findInClassPath(fileName);
             if (url != null)
                 return url;
-
-            // Check for a thread context class loader. This allows the file store to find resources in a case
-            // in which different parts of the application are handled by different class loaders.
-            ClassLoader tccl = Thread.currentThread().getContextClassLoader();
-            if (tccl != null)
-            {
-                url = tccl.getResource(fileName);
-                if (url != null)
-                    return url;
-            }
         }
 
+        return this.findInLocations(fileName);
+    }
+
+    /**
+     * Searches the class path for a file.
+     *
+     * @param fileName the name of the file to find.
+     *
+     * @return a handle to the file if it exists in the class path, otherwise null.
+     */
+    protected java.net.URL findInClassPath(String fileName)
+    {
+        java.net.URL url = this.getClass().getClassLoader().getResource(fileName);
+        if (url != null)
+            return url;
+
+        // Check for a thread context class loader. This allows the file store to find resources in a case
+        // in which different parts of the application are handled by different class loaders.
+        ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+        if (tccl != null)
+            return tccl.getResource(fileName);
+
+        return null;
+    }
+
+    /**
+     * Searches the file store's read locations, in order, for a file.
+     *
+     * @param fileName the name of the file to find.
+     *
+     * @return a handle to the file in the first read location containing it, or null if no location contains it.
+     */
+    protected java.net.URL findInLocations(String fileName)
+    {
         for (StoreLocation location : this.readLocations)
         {
-            java.io.File dir = location.getFile();
-            if (!dir.exists())
-                continue;
+            java.net.URL url = this.findInLocation(location, fileName);
+            if (url != null)
+                return url;
+        }
 
-            java.io.File file = new java.io.File(makeAbsolutePath(dir, fileName));
-            if (file.exists())
+        return null;
+    }
+
+    /**
+     * Searches one read location for a file, and marks the file used if the location contains it.
+     *
+     * @param location the location to search.
+     * @param fileName the name of the file to find.
+     *
+     * @return a handle to the file if the location contains it, otherwise null.
+     */
+    protected java.net.URL findInLocation(StoreLocation location, String fileName)
+    {
+        java.io.File dir = location.getFile();
+        if (!dir.exists())
+            return null;
+
+        java.io.File file = new java.io.File(makeAbsolutePath(dir, fileName));
+        if (file.exists())
+        {
+            try
             {
-                try
-                {
-                    if (location.isMarkWhenUsed())
-                        markFileUsed(file);
-                    else
-                        markFileUsed(file.getParentFile());
+                if (location.isMarkWhenUsed())
+                    markFileUsed(file);
+                else
+                    markFileUsed(file.getParentFile());
 
-                    return file.toURI().toURL();
-                }
-                catch (java.net.MalformedURLException e)
-                {
-                    Logging.logger().log(Level.SEVERE,
-                        Logging.getMessage("FileStore.ExceptionCreatingURLForFile", file.getPath()), e);
-                }
+                return file.toURI().toURL();
+            }
+            catch (java.net.MalformedURLException e)
+            {
+                Logging.logger().log(Level.SEVERE,
+                    Logging.getMessage("FileStore.ExceptionCreatingURLForFile", file.getPath()), e);
             }
         }
 
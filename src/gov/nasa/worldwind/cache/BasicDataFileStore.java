@@ -36,10 +36,27 @@ import java.beans.PropertyChangeEvent;
 import java.io.*;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 /**
  * Basic implementation of {@link FileStore}.
+ * <p>
+ * The store's lookups do not take a store-wide lock, so that threads checking for cached files, such as the rendering
+ * thread, do not wait on retrieval post-processors writing files. The database of requested addresses and the list of
+ * absent resources are divided into shards by address, and the state of an address changes only while its shard is
+ * locked.
+ * <p>
+ * Files found in the store's read locations are recorded in an index, so that finding the same file again does not
+ * search the read locations again. An index hit is still checked against the file system, and the entry is removed
+ * if the file has been deleted outside the store. Files removed through the store are removed from the index. If {@link
+ * AVKey#DATA_FILE_STORE_INDEX_SCAN_ENABLED} is true in the WorldWind configuration, a background thread fills the index
+ * by scanning the read locations when the store is created. The index holds at most {@link
+ * AVKey#DATA_FILE_STORE_INDEX_CAPACITY} files. Because the index records only files that exist, a file absent from it
+ * is still looked for in the file system.
  *
  * @author Tom Gaskins
  * @version $Id: BasicDataFileStore.java 1950 2014-04-20 18:52:47Z tgaskins $
@@ -60,15 +77,70 @@ public class BasicDataFileStore extends AbstractFileStore
         "image/png"
     );
 
-    /** The map of cached entries. */
+    /** The number of shards of the cache database. */
+    protected static final int SHARD_COUNT = 16;
+    /** The default maximum number of files in the file index. */
+    protected static final int DEFAULT_INDEX_CAPACITY = 100000;
+
+    /**
+     * The entries and absent resources of the addresses assigned to one shard of the cache database. The shard is also
+     * the lock held while the state of one of its entries changes.
+     */
+    protected static class Shard
+    {
+        /** The map of cached entries. */
+        protected final MemoryCache db;
+        /** Absent-resource list to keep track of resources that were requested by requestFile but failed. */
+        protected final AbsentResourceList absentResources;
+
+        public Shard(MemoryCache db, AbsentResourceList absentResources)
+        {
+            this.db = db;
+            this.absentResources = absentResources;
+        }
+    }
+
+    /** A file found in one of the store's read locations. */
+    protected static class IndexEntry
+    {
+        protected final StoreLocation location;
+        protected volatile File file; // created when the entry is first used
+        protected volatile URL url; // created when the entry is first used
+        protected volatile boolean marked; // true once the file has been marked used
+
+        public IndexEntry(StoreLocation location, URL url, boolean marked)
+        {
+            this.location = location;
+            this.url = url;
+            this.marked = marked;
+        }
+    }
+
+    /**
+     * The map of cached entries.
+     *
+     * @deprecated The cache database is divided into shards, see {@link #shards}. This store no longer reads or writes
+     *             this map.
+     */
+    @Deprecated
     protected BasicMemoryCache db = new BasicMemoryCache((long) 3e5, (long) 5e5);
     /**
-     * Absent-resource list to keep track of resources that were requested by requestFile but failed. The default list
-     * holds a maximum of 2000 entries, allows 3 attempts separated by 500 milliseconds before marking a resource
-     * semi-permanently absent, and allows additional attempts after 60 seconds. The {@link #getAbsentResourceList()}
-     * method may be overridden by subclasses if they wish to provide an alternatively configured absent-resource list.
+     * Absent-resource list to keep track of resources that were requested by requestFile but failed.
+     *
+     * @deprecated Each shard of the cache database has its own absent-resource list, see {@link
+     *             #getAbsentResourceList(String)}. This store no longer reads or writes this list.
      */
+    @Deprecated
     protected AbsentResourceList absentResources = new AbsentResourceList(2000, 3, 500, 60000);
+    /**
+     * The shards of the cache database. See {@link #createShards()}, which may be overridden by subclasses that wish to
+     * configure the shards differently.
+     */
+    protected final Shard[] shards = this.createShards();
+    /** The index of files found in the read locations, keyed by normalized file store name. */
+    protected final ConcurrentHashMap<String, IndexEntry> fileIndex = new ConcurrentHashMap<String, IndexEntry>();
+    protected final int fileIndexCapacity = Configuration.getIntegerValue(AVKey.DATA_FILE_STORE_INDEX_CAPACITY,
+        DEFAULT_INDEX_CAPACITY);
     /**
      * The list of content types used to determine an unknown file format in <code>requestFile</code>. If a URL is
      * requested that does not have a format suffix, <code>requestFile</code> appends a suffix appropriate for the
@@ -159,6 +231,9 @@ public class BasicDataFileStore extends AbstractFileStore
     {
         super.initialize(xmlConfigStream);
 
+        if (Configuration.getBooleanValue(AVKey.DATA_FILE_STORE_INDEX_SCAN_ENABLED, false))
+            this.startIndexScan();
+
         String s = Configuration.getStringValue(AVKey.CACHE_CONTENT_TYPES);
         if (s != null)
         {
@@ -175,15 +250,67 @@ public class BasicDataFileStore extends AbstractFileStore
     }
 
     /**
-     * Returns this file store's absent-resource list.
+     * Creates the shards of the cache database. Together the default shards hold the same number of entries as a
+     * single database of 500 KB capacity. Each shard's absent-resource list allows 3 attempts separated by 500
+     * milliseconds before marking a resource semi-permanently absent, and allows additional attempts after 60 seconds.
      *
-     * @return the file store's absent-resource list.
+     * @return the shards. The number of shards must be a power of two.
      */
+    protected Shard[] createShards()
+    {
+        Shard[] shards = new Shard[SHARD_COUNT];
+
+        for (int i = 0; i < shards.length; i++)
+        {
+            shards[i] = new Shard(new SegmentedLRUMemoryCache((long) 3e5 / SHARD_COUNT, (long) 5e5 / SHARD_COUNT),
+                new AbsentResourceList(2000 / SHARD_COUNT, 3, 500, 60000));
+        }
+
+        return shards;
+    }
+
+    /**
+     * Returns the shard of the cache database holding an address.
+     *
+     * @param address the address.
+     *
+     * @return the address' shard.
+     */
+    protected Shard getShard(String address)
+    {
+        int h = address.hashCode();
+
+        return this.shards[(h ^ (h >>> 16)) & (this.shards.length - 1)];
+    }
+
+    /**
+     * Returns this file store's former absent-resource list. This method is a no-op kept for compatibility: the store
+     * neither reads nor updates the returned list. Resources marked absent in it are still requested, and resources
+     * the store finds absent are not marked in it. Overriding this method has no effect on the store.
+     *
+     * @return the file store's former absent-resource list.
+     *
+     * @deprecated Each shard of the cache database has its own absent-resource list. Use {@link
+     *             #getAbsentResourceList(String)}.
+     */
+    @Deprecated
     protected AbsentResourceList getAbsentResourceList()
     {
         return this.absentResources;
     }
 
+    /**
+     * Returns the absent-resource list of the shard holding an address.
+     *
+     * @param address the address.
+     *
+     * @return the absent-resource list for the address.
+     */
+    protected AbsentResourceList getAbsentResourceList(String address)
+    {
+        return this.getShard(address).absentResources;
+    }
+
     /**
      * Returns this file store's list of content types.
      *
@@ -199,7 +326,7 @@ public class BasicDataFileStore extends AbstractFileStore
         if (address == null)
             return null;
 
-        DBEntry entry = (DBEntry) this.db.getObject(address);
+        DBEntry entry = (DBEntry) this.getShard(address).db.getObject(address);
         return entry != null ? entry.contentType : null;
     }
 
@@ -208,11 +335,14 @@ public class BasicDataFileStore extends AbstractFileStore
         if (address == null)
             return 0;
 
-        DBEntry entry = (DBEntry) this.db.getObject(address);
+        DBEntry entry = (DBEntry) this.getShard(address).db.getObject(address);
         return entry != null ? entry.expiration : 0;
     }
 
-    /** Holds information for entries in the cache database. */
+    /**
+     * Holds information for entries in the cache database. Entries are read without locking. Writers hold the entry's
+     * shard lock and set the state last, so a reader that sees an entry's state also sees the fields written before it.
+     */
     protected static class DBEntry implements Cacheable
     {
         protected final static int NONE = 0;
@@ -220,11 +350,11 @@ public class BasicDataFileStore extends AbstractFileStore
         protected final static int LOCAL = 2;
 
         protected String name;
-        protected String contentType;
-        protected long expiration;
-        protected URL localUrl;
-        protected long lastUpdateTime;
-        protected int state;
+        protected volatile String contentType;
+        protected volatile long expiration;
+        protected volatile URL localUrl;
+        protected volatile long lastUpdateTime;
+        protected volatile int state;
 
         public DBEntry(String name)
         {
@@ -240,7 +370,7 @@ public class BasicDataFileStore extends AbstractFileStore
     }
 
     /** {@inheritDoc} */
-    public synchronized void removeFile(String address)
+    public void removeFile(String address)
     {
         if (address == null)
         {
@@ -249,19 +379,24 @@ public class BasicDataFileStore extends AbstractFileStore
             throw new IllegalStateException(message);
         }
 
-        DBEntry entry = (DBEntry) this.db.getObject(address);
-        if (entry == null)
-            return; // Nothing to delete
+        Shard shard = this.getShard(address);
+        synchronized (shard)
+        {
+            DBEntry entry = (DBEntry) shard.db.getObject(address);
+            if (entry == null)
+                return; // Nothing to delete
 
-        // Delete the cache file
-        this.removeFile(entry.localUrl);
+            // Delete the cache file
+            if (entry.localUrl != null)
+                this.removeFile(entry.localUrl);
 
-        // Remove the entry from the database
-        this.db.remove(address);
+            // Remove the entry from the database
+            shard.db.remove(address);
+        }
     }
 
     /** {@inheritDoc} */
-    public synchronized URL requestFile(String address)
+    public URL requestFile(String address)
     {
         if (address == null)
         {
@@ -276,7 +411,7 @@ public class BasicDataFileStore extends AbstractFileStore
     }
 
     /** {@inheritDoc} */
-    public synchronized URL requestFile(String address, boolean cacheRemoteFile)
+    public URL requestFile(String address, boolean cacheRemoteFile)
     {
         if (address == null)
         {
@@ -285,20 +420,21 @@ public class BasicDataFileStore extends AbstractFileStore
             throw new IllegalStateException(message);
         }
 
-        if (this.getAbsentResourceList().isResourceAbsent(address))
+        if (this.getAbsentResourceList(address).isResourceAbsent(address))
             return null;
 
-        DBEntry entry = (DBEntry) this.db.getObject(address);
+        DBEntry entry = (DBEntry) this.getShard(address).db.getObject(address);
         if (entry != null)
         {
+            int state = entry.state; // read the state first, since it's written last
             long now = System.currentTimeMillis();
             boolean expired = entry.expiration != 0 && now > entry.expiration;
 
             // Return the resource if it is local and has not expired.
-            if (entry.state == DBEntry.LOCAL && !expired)
+            if (state == DBEntry.LOCAL && !expired)
                 return entry.localUrl;
 
-            if (entry.state == DBEntry.PENDING && (now - entry.lastUpdateTime <= TIMEOUT))
+            if (state == DBEntry.PENDING && (now - entry.lastUpdateTime <= TIMEOUT))
                 return null;
         }
 
@@ -317,10 +453,10 @@ public class BasicDataFileStore extends AbstractFileStore
 
         // If the address' URL is not null but the file was not found locally, try to make it local. Store the retrieved
         // file in the cache if cacheRemoteFile is true, otherwise store it in a temporary location.
-        if (url != null && !this.getAbsentResourceList().isResourceAbsent(address))
+        if (url != null && !this.getAbsentResourceList(address).isResourceAbsent(address))
             this.makeLocal(address, url, cacheRemoteFile);
         else if (url == null)
-            this.getAbsentResourceList().markResourceAbsent(address); // no URL for address and not a local file
+            this.getAbsentResourceList(address).markResourceAbsent(address); // no URL for address and not a local file
 
         return null;
     }
@@ -341,7 +477,7 @@ public class BasicDataFileStore extends AbstractFileStore
      *
      * @throws IllegalArgumentException if the specified address is null.
      */
-    protected synchronized URL getLocalFileUrl(String address, URL retrievalUrl, boolean searchLocalCache)
+    protected URL getLocalFileUrl(String address, URL retrievalUrl, boolean searchLocalCache)
     {
         if (address == null)
         {
@@ -361,7 +497,7 @@ public class BasicDataFileStore extends AbstractFileStore
                     cacheFileUrl = jarUrl;
                 else
                 {
-                    getAbsentResourceList().markResourceAbsent(address);
+                    this.getAbsentResourceList(address).markResourceAbsent(address);
                     return null;
                 }
             }
@@ -420,10 +556,12 @@ public class BasicDataFileStore extends AbstractFileStore
         {
             DBEntry entry = new DBEntry(address);
             entry.localUrl = cacheFileUrl;
-            entry.state = DBEntry.LOCAL;
             entry.contentType = WWIO.makeMimeTypeForSuffix(WWIO.getSuffix(cacheFileUrl.getPath()));
-            this.db.add(address, entry);
-            this.getAbsentResourceList().unmarkResourceAbsent(address);
+            entry.state = DBEntry.LOCAL;
+
+            Shard shard = this.getShard(address);
+            shard.db.add(address, entry);
+            shard.absentResources.unmarkResourceAbsent(address);
 
             return cacheFileUrl;
         }
@@ -464,14 +602,24 @@ public class BasicDataFileStore extends AbstractFileStore
      * @param saveInLocalCache <code>true</code> to add the file to the cache, or <code>false</code> to save it in a
      *                         temporary location.
      */
-    protected synchronized void makeLocal(String address, URL url, boolean saveInLocalCache)
+    protected void makeLocal(String address, URL url, boolean saveInLocalCache)
     {
         if (WorldWind.getNetworkStatus().isHostUnavailable(url) || !WorldWind.getRetrievalService().isAvailable())
             return;
 
-        DBEntry newEntry = new DBEntry(address);
-        this.db.add(address, newEntry);
-        newEntry.state = DBEntry.PENDING;
+        Shard shard = this.getShard(address);
+        synchronized (shard)
+        {
+            // Another thread may have started retrieving the address since the caller examined its entry.
+            DBEntry entry = (DBEntry) shard.db.getObject(address);
+            if (entry != null && entry.state == DBEntry.PENDING
+                && System.currentTimeMillis() - entry.lastUpdateTime <= TIMEOUT)
+                return;
+
+            DBEntry newEntry = new DBEntry(address);
+            newEntry.state = DBEntry.PENDING;
+            shard.db.add(address, newEntry);
+        }
 
         Retriever retriever = URLRetriever.createRetriever(url, new PostProcessor(address, url, saveInLocalCache));
 
@@ -563,7 +711,7 @@ public class BasicDataFileStore extends AbstractFileStore
         @Override
         protected void markResourceAbsent()
         {
-            BasicDataFileStore.this.getAbsentResourceList().markResourceAbsent(this.address);
+            BasicDataFileStore.this.getAbsentResourceList(this.address).markResourceAbsent(this.address);
         }
 
         /** {@inheritDoc} Overridden to save text files in the cache. */
@@ -584,17 +732,269 @@ public class BasicDataFileStore extends AbstractFileStore
      * @param expiration   time (in milliseconds since the Epoch) at which this entry expires, or zero to indicate that
      *                     there is no expiration time.
      */
-    protected synchronized void updateEntry(String address, URL localFileUrl, long expiration)
+    protected void updateEntry(String address, URL localFileUrl, long expiration)
+    {
+        Shard shard = this.getShard(address);
+        synchronized (shard)
+        {
+            DBEntry entry = (DBEntry) shard.db.getObject(address);
+            if (entry == null)
+                return;
+
+            entry.localUrl = localFileUrl;
+            entry.contentType = WWIO.makeMimeTypeForSuffix(WWIO.getSuffix(localFileUrl.getPath()));
+            entry.expiration = expiration;
+            entry.lastUpdateTime = System.currentTimeMillis();
+            entry.state = DBEntry.LOCAL;
+        }
+    }
+
+    //**************************************************************//
+    //********************  File Index  ****************************//
+    //**************************************************************//
+
+    /**
+     * Starts a background thread that scans the store's read locations and adds the files they contain to the file
+     * index, until the index is full. Files in earlier read locations take precedence over files of the same name in
+     * later ones, as they do in {@link #findFile(String, boolean)}.
+     *
+     * @return the scanning thread, which has been started. Interrupt the thread to stop the scan.
+     */
+    public Thread startIndexScan()
+    {
+        Thread thread = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                scanLocations();
+            }
+        });
+        thread.setName("WorldWind File Store Index Scan");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+        return thread;
+    }
+
+    /**
+     * Returns the number of files in the file index.
+     *
+     * @return the number of indexed files.
+     */
+    public int getIndexedFileCount()
+    {
+        return this.fileIndex.size();
+    }
+
+    protected void scanLocations()
+    {
+        for (StoreLocation location : this.readLocations)
+        {
+            if (Thread.currentThread().isInterrupted() || this.fileIndex.size() >= this.fileIndexCapacity)
+                return;
+
+            this.scanLocation(location);
+        }
+    }
+
+    protected void scanLocation(final StoreLocation location)
+    {
+        final File dir = location.getFile();
+        if (!dir.isDirectory())
+            return;
+
+        final Path root = dir.toPath();
+        try
+        {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attributes)
+                {
+                    if (Thread.currentThread().isInterrupted() || fileIndex.size() >= fileIndexCapacity)
+                        return FileVisitResult.TERMINATE;
+
+                    if (attributes.isRegularFile())
+                    {
+                        String key = normalizeFileStoreName(root.relativize(path).toString());
+                        fileIndex.putIfAbsent(key, new IndexEntry(location, null, false));
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException e)
+                {
+                    return FileVisitResult.CONTINUE; // the file may have been removed during the scan
+                }
+            });
+        }
+        catch (IOException e)
+        {
+            Logging.logger().log(Level.FINE, Logging.getMessage("FileStore.ExceptionScanningLocation", dir), e);
+        }
+    }
+
+    /** {@inheritDoc} Overridden to look for the file in the file index before the file system. */
+    @Override
+    protected URL findInLocations(String fileName)
+    {
+        String key = normalizeFileStoreName(fileName);
+
+        IndexEntry entry = this.fileIndex.get(key);
+        if (entry != null && this.isIndexEntryValid(key, entry))
+        {
+            URL url = this.useIndexEntry(key, entry);
+            if (url != null)
+                return url;
+        }
+
+        for (StoreLocation location : this.readLocations)
+        {
+            URL url = this.findInLocation(location, fileName);
+            if (url != null)
+            {
+                if (this.fileIndex.size() < this.fileIndexCapacity)
+                    this.fileIndex.put(key, new IndexEntry(location, url, true));
+                return url;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the file an index entry refers to.
+     *
+     * @param key   the file's normalized file store name.
+     * @param entry the file's index entry.
+     *
+     * @return the indexed file.
+     */
+    protected File getIndexedFile(String key, IndexEntry entry)
+    {
+        File file = entry.file;
+        if (file == null)
+        {
+            file = new File(makeAbsolutePath(entry.location.getFile(), key));
+            entry.file = file;
+        }
+
+        return file;
+    }
+
+    /**
+     * Indicates whether an indexed file still exists. Files can be deleted without the store's knowledge, for example
+     * by another process or by the user, so each index hit is checked against the file system. The entry of a file
+     * that no longer exists is removed from the index.
+     *
+     * @param key   the file's normalized file store name.
+     * @param entry the file's index entry.
+     *
+     * @return true if the file exists, otherwise false.
+     */
+    protected boolean isIndexEntryValid(String key, IndexEntry entry)
+    {
+        if (this.getIndexedFile(key, entry).exists())
+            return true;
+
+        this.fileIndex.remove(key, entry);
+        return false;
+    }
+
+    /**
+     * Returns the URL of an indexed file. The file is marked used the first time its entry is used.
+     *
+     * @param key   the file's normalized file store name.
+     * @param entry the file's index entry.
+     *
+     * @return the URL of the file, or null if a URL cannot be formed for it.
+     */
+    protected URL useIndexEntry(String key, IndexEntry entry)
     {
-        DBEntry entry = (DBEntry) this.db.getObject(address);
-        if (entry == null)
+        if (entry.url != null && entry.marked)
+            return entry.url;
+
+        File file = this.getIndexedFile(key, entry);
+
+        if (!entry.marked)
+        {
+            entry.marked = true;
+            if (entry.location.isMarkWhenUsed())
+                markFileUsed(file);
+            else
+                markFileUsed(file.getParentFile());
+        }
+
+        if (entry.url == null)
+        {
+            try
+            {
+                entry.url = file.toURI().toURL();
+            }
+            catch (MalformedURLException e)
+            {
+                Logging.logger().log(Level.SEVERE,
+                    Logging.getMessage("FileStore.ExceptionCreatingURLForFile", file.getPath()), e);
+                this.fileIndex.remove(key, entry);
+                return null;
+            }
+        }
+
+        return entry.url;
+    }
+
+    /** {@inheritDoc} Overridden to answer from the file index when the file is indexed and still exists. */
+    @Override
+    public boolean containsFile(String fileName)
+    {
+        if (fileName != null)
+        {
+            String key = normalizeFileStoreName(fileName);
+            IndexEntry entry = this.fileIndex.get(key);
+            if (entry != null && this.isIndexEntryValid(key, entry))
+                return true;
+        }
+
+        return super.containsFile(fileName);
+    }
+
+    /** {@inheritDoc} Overridden to remove the file from the file index. */
+    @Override
+    public void removeFile(URL url)
+    {
+        super.removeFile(url);
+
+        File file = WWIO.convertURLToFile(url);
+        if (file == null)
             return;
 
-        entry.state = DBEntry.LOCAL;
-        entry.localUrl = localFileUrl;
-        entry.contentType = WWIO.makeMimeTypeForSuffix(WWIO.getSuffix(localFileUrl.getPath()));
-        entry.expiration = expiration;
-        entry.lastUpdateTime = System.currentTimeMillis();
+        // Compare whole path names, so that a location does not match a sibling whose name begins with its name.
+        Path path = file.getAbsoluteFile().toPath();
+        for (StoreLocation location : this.readLocations)
+        {
+            Path locationPath = location.getFile().getAbsoluteFile().toPath();
+            if (path.startsWith(locationPath) && !path.equals(locationPath))
+                this.fileIndex.remove(normalizeFileStoreName(locationPath.relativize(path).toString()));
+        }
+    }
+
+    /** {@inheritDoc} Overridden to clear the file index, since the order of the read locations changes. */
+    @Override
+    public void addLocation(int index, String newPath, boolean isInstall)
+    {
+        super.addLocation(index, newPath, isInstall);
+        this.fileIndex.clear();
+    }
+
+    /** {@inheritDoc} Overridden to clear the file index, since the read locations change. */
+    @Override
+    public void removeLocation(String path)
+    {
+        super.removeLocation(path);
+        this.fileIndex.clear();
     }
 
     /**
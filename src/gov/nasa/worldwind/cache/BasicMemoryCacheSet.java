@@ -27,10 +27,13 @@
  */
 package gov.nasa.worldwind.cache;
 
+import gov.nasa.worldwind.Configuration;
+import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.util.*;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
 
 /**
  * @author tag
@@ -85,6 +88,36 @@ public class BasicMemoryCacheSet implements MemoryCacheSet
         return cache;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The cache class is read from the configuration property {@link AVKey#MEMORY_CACHE_CLASS_NAME} followed by a
+     * period and the cache key, then from {@link AVKey#MEMORY_CACHE_CLASS_NAME} alone. A {@link BasicMemoryCache} is
+     * created if neither property is specified or the configured class cannot be instantiated.
+     */
+    public MemoryCache createCache(String key, long loWater, long capacity)
+    {
+        String className = key != null ? Configuration.getStringValue(AVKey.MEMORY_CACHE_CLASS_NAME + "." + key) : null;
+        if (WWUtil.isEmpty(className))
+            className = Configuration.getStringValue(AVKey.MEMORY_CACHE_CLASS_NAME);
+
+        if (!WWUtil.isEmpty(className))
+        {
+            try
+            {
+                Class<?> c = Class.forName(className.trim());
+                return (MemoryCache) c.getConstructor(long.class, long.class).newInstance(loWater, capacity);
+            }
+            catch (Exception e)
+            {
+                String message = Logging.getMessage("MemoryCacheSet.CannotCreateCache", className, key);
+                Logging.logger().log(Level.WARNING, message, e);
+            }
+        }
+
+        return new BasicMemoryCache(loWater, capacity);
+    }
+
     public synchronized void clear()
     {
         for (MemoryCache cache : this.caches.values())
@@ -43,6 +43,23 @@ public interface MemoryCacheSet
 
     MemoryCache addCache(String key, MemoryCache cache);
 
+    /**
+     * Creates a new memory cache for the specified cache key. The cache is not added to this set. Implementations may
+     * determine the cache class from the configuration, allowing applications to choose a different cache for
+     * individual keys; see {@link gov.nasa.worldwind.avlist.AVKey#MEMORY_CACHE_CLASS_NAME}. The default implementation
+     * returns a {@link BasicMemoryCache}.
+     *
+     * @param key      the key the cache will be added under.
+     * @param loWater  the low water level of the new cache.
+     * @param capacity the capacity of the new cache.
+     *
+     * @return a new memory cache.
+     */
+    default MemoryCache createCache(String key, long loWater, long capacity)
+    {
+        return new BasicMemoryCache(loWater, capacity);
+    }
+
     Collection<PerformanceStatistic> getPerformanceStatistics();
 
     void clear();
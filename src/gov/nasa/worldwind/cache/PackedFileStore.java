@@ -0,0 +1,1084 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.cache;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * A {@link FileStore} that packs cached tiles into a small number of large, append-only pack files rather than storing
+ * each tile as its own file. This avoids exhausting the file system's inodes when the cache holds millions of tiles,
+ * makes copying and deleting the cache fast, and lets {@link #findFile(String, boolean)} answer from memory.
+ * <p>
+ * The store is a drop-in replacement for {@link BasicDataFileStore}; specify its class name for {@link
+ * AVKey#DATA_FILE_STORE_CLASS_NAME} in the WorldWind configuration to use it. Clients write and read tiles as they do
+ * with any file store:
+ * <ul> <li>{@link #newFile(String)} returns a file in the write location, as usual, and notes the file as
+ * <i>staged</i>. Until it is packed, a staged file is found and read like any other cached file.</li> <li>A background
+ * thread periodically moves staged files that have not been modified for a short time into the current pack file, and
+ * deletes them. Files whose suffix is not in the store's list of packed suffixes, such as configuration files, are not
+ * packed.</li> <li>{@link #findFile(String, boolean)} returns a URL with the <code>wwpack</code> protocol for a packed
+ * file. The URL can be opened with {@link URL#openStream()} and reports the time the file was packed as its last
+ * modification time, so {@link WWIO#isFileOutOfDate(java.net.URL, long)} applies the usual expiry rules to it.</li>
+ * <li>{@link #removeFile(java.net.URL)} removes a packed file.</li> </ul>
+ * <p>
+ * Each record of a pack file holds a file's name, its modification time and its contents. The index of packed files,
+ * keyed by file store name, is held in memory and rebuilt from the pack files when the store is created. A record for a
+ * name supersedes earlier records for that name, and removal appends a record with no contents, so the pack files are
+ * never modified in place. {@link #compact()} copies the live records of pack files that are mostly obsolete into the
+ * current pack and deletes the old files; the background thread compacts automatically. {@link
+ * #removeFilesOlderThan(long)} expires packed files in bulk.
+ * <p>
+ * Packed URLs are bound to the store that created them: a URL re-created from its string form cannot be opened.
+ */
+public class PackedFileStore extends BasicDataFileStore implements Disposable
+{
+    /** The protocol of URLs referring to packed files. */
+    public static final String PROTOCOL = WWIO.PACKED_FILE_PROTOCOL;
+    /** The name of the directory, beneath the write location, holding the pack files. */
+    protected static final String PACK_DIRECTORY_NAME = "wwpacks";
+    protected static final String PACK_FILE_PREFIX = "pack-";
+    protected static final String PACK_FILE_SUFFIX = ".wwp";
+    protected static final int PACK_FILE_MAGIC = 0x5757504B; // "WWPK"
+    protected static final int PACK_FILE_VERSION = 1;
+    protected static final int PACK_HEADER_LENGTH = 8;
+    protected static final int RECORD_MAGIC = 0x57575245; // "WWRE"
+    /** The record length that marks a removal. */
+    protected static final int REMOVED = -1;
+    /** The default size at which a new pack file is started. */
+    protected static final long DEFAULT_MAX_PACK_SIZE = 256L * 1024 * 1024;
+    /** The time a staged file must go unmodified before it is packed, in milliseconds. */
+    protected static final long DEFAULT_SETTLE_TIME = 2000;
+    /** The interval between background packing and compaction passes, in milliseconds. */
+    protected static final long DEFAULT_MAINTENANCE_INTERVAL = 5000;
+    /** The fraction of obsolete bytes at which a pack file is compacted. */
+    protected static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+    /** The default suffixes of the files that are packed. */
+    protected static final List<String> DEFAULT_PACKED_SUFFIXES = Arrays.asList(
+        "bil", "dds", "gif", "jpeg", "jpg", "png");
+
+    /** The location of a packed file's contents. */
+    protected static class PackEntry
+    {
+        protected final Pack pack;
+        protected final long offset;
+        protected final int length;
+        protected final long lastModified;
+
+        public PackEntry(Pack pack, long offset, int length, long lastModified)
+        {
+            this.pack = pack;
+            this.offset = offset;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /** One pack file. */
+    protected static class Pack
+    {
+        protected final int id;
+        protected final File file;
+        protected volatile FileChannel channel;
+        protected volatile boolean deleted;
+        protected long size; // guarded by the store's pack lock
+        /** The number of content bytes in the pack, and the number of those belonging to current records. */
+        protected final AtomicLong contentBytes = new AtomicLong();
+        protected final AtomicLong liveBytes = new AtomicLong();
+
+        public Pack(int id, File file)
+        {
+            this.id = id;
+            this.file = file;
+        }
+
+        protected FileChannel getChannel() throws IOException
+        {
+            FileChannel channel = this.channel;
+            if (channel != null && channel.isOpen())
+                return channel;
+
+            // The channel is closed when a thread reading it is interrupted. Reopen it for the other threads.
+            synchronized (this)
+            {
+                if (this.deleted)
+                    throw new FileNotFoundException(this.file.getPath());
+
+                if (this.channel == null || !this.channel.isOpen())
+                {
+                    this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+
+                return this.channel;
+            }
+        }
+
+        protected synchronized void close()
+        {
+            WWIO.closeStream(this.channel, this.file.getPath());
+            this.channel = null;
+        }
+
+        protected double getObsoleteFraction()
+        {
+            long content = this.contentBytes.get();
+
+            return content > 0 ? 1 - (double) this.liveBytes.get() / content : 0;
+        }
+    }
+
+    protected final ConcurrentHashMap<String, PackEntry> packIndex = new ConcurrentHashMap<String, PackEntry>();
+    protected final ConcurrentHashMap<Integer, Pack> packs = new ConcurrentHashMap<Integer, Pack>();
+    /** The names given out by {@link #newFile(String)} and not yet packed, with the time they were given out. */
+    protected final ConcurrentHashMap<String, Long> stagedNames = new ConcurrentHashMap<String, Long>();
+    protected final Object packLock = new Object();
+    protected final Object maintenanceLock = new Object();
+    protected final URLStreamHandler urlHandler = new PackURLStreamHandler();
+    protected List<String> packedSuffixes = new ArrayList<String>(DEFAULT_PACKED_SUFFIXES);
+    protected long maxPackSize = DEFAULT_MAX_PACK_SIZE;
+    protected long settleTime = DEFAULT_SETTLE_TIME;
+    protected double compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    protected File packDirectory;
+    protected Pack currentPack; // guarded by packLock
+    protected ScheduledExecutorService maintenanceService;
+
+    /**
+     * Create an instance.
+     *
+     * @throws IllegalStateException if the configuration file name cannot be determined from {@link Configuration} or
+     *                               the configuration file cannot be found.
+     */
+    public PackedFileStore()
+    {
+        super();
+
+        this.initializePacks();
+    }
+
+    /**
+     * Create an instance to manage a specified directory.
+     *
+     * @param directoryPath the directory to manage as a file store.
+     */
+    public PackedFileStore(File directoryPath)
+    {
+        super(directoryPath);
+
+        this.initializePacks();
+    }
+
+    /**
+     * Creates the pack directory, reads the existing pack files and starts the background thread. Called by the
+     * constructors once the file store's locations are established.
+     */
+    protected void initializePacks()
+    {
+        if (this.getWriteLocation() == null)
+            return; // without a write location the store behaves as a BasicDataFileStore
+
+        this.packDirectory = new File(this.getWriteLocation(), PACK_DIRECTORY_NAME);
+        if (!this.packDirectory.isDirectory() && !this.packDirectory.mkdirs())
+        {
+            String message = Logging.getMessage("generic.CannotCreateFile", this.packDirectory);
+            Logging.logger().severe(message);
+            this.packDirectory = null;
+            return;
+        }
+
+        this.openPacks();
+        this.startMaintenance();
+    }
+
+    /** Stops the background thread and closes the pack files. The store cannot be used afterwards. */
+    public void dispose()
+    {
+        if (this.maintenanceService != null)
+            this.maintenanceService.shutdownNow();
+
+        synchronized (this.packLock)
+        {
+            for (Pack pack : this.packs.values())
+            {
+                pack.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of packed files.
+     *
+     * @return the number of files held in pack files.
+     */
+    public int getPackedFileCount()
+    {
+        return this.packIndex.size();
+    }
+
+    /**
+     * Returns the number of pack files.
+     *
+     * @return the number of pack files.
+     */
+    public int getPackCount()
+    {
+        return this.packs.size();
+    }
+
+    /**
+     * Returns the average size of the packed files beneath a directory of the file store. Bulk downloaders estimate
+     * download sizes from the sizes of the cached tiles, which are not files in the write location once packed.
+     *
+     * @param path       the directory's file store path.
+     * @param maxSamples the most files to include in the average.
+     *
+     * @return the average size of the packed files, in bytes, or 0 if no packed file lies beneath the directory.
+     *
+     * @throws IllegalArgumentException if the path is null.
+     */
+    public long computeAveragePackedFileSize(String path, int maxSamples)
+    {
+        if (path == null)
+        {
+            String message = Logging.getMessage("nullValue.PathIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        String prefix = normalizeFileStoreName(path) + "/";
+        long size = 0;
+        int count = 0;
+
+        for (Map.Entry<String, PackEntry> entry : this.packIndex.entrySet())
+        {
+            if (count >= maxSamples)
+                break;
+
+            if (entry.getKey().startsWith(prefix))
+            {
+                size += entry.getValue().length;
+                count++;
+            }
+        }
+
+        return count > 0 ? size / count : 0;
+    }
+
+    //**************************************************************//
+    //********************  File Store Interface  ******************//
+    //**************************************************************//
+
+    /**
+     * {@inheritDoc} Files whose suffix is one of the packed suffixes are noted as staged, and later moved into a pack
+     * file.
+     */
+    @Override
+    public File newFile(String fileName)
+    {
+        File file = super.newFile(fileName);
+
+        if (file != null && this.isPackable(fileName))
+            this.stagedNames.put(normalizeFileStoreName(fileName), System.currentTimeMillis());
+
+        return file;
+    }
+
+    /** {@inheritDoc} Overridden to look for packed files before files in the file system. */
+    @Override
+    protected URL findInLocations(String fileName)
+    {
+        String key = normalizeFileStoreName(fileName);
+
+        // A staged file supersedes a packed file of the same name.
+        if (!this.stagedNames.containsKey(key) && this.packIndex.containsKey(key))
+            return this.makeURL(key);
+
+        return super.findInLocations(fileName);
+    }
+
+    @Override
+    public boolean containsFile(String fileName)
+    {
+        if (fileName != null && this.packIndex.containsKey(normalizeFileStoreName(fileName)))
+            return true;
+
+        return super.containsFile(fileName);
+    }
+
+    /** {@inheritDoc} Overridden to remove packed files. */
+    @Override
+    public void removeFile(URL url)
+    {
+        if (url == null)
+        {
+            String msg = Logging.getMessage("nullValue.URLIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (PROTOCOL.equals(url.getProtocol()))
+            this.removePackedFile(getName(url));
+        else
+            super.removeFile(url);
+    }
+
+    //**************************************************************//
+    //********************  Packing  *******************************//
+    //**************************************************************//
+
+    /**
+     * Indicates whether a file is packed, which is determined by its suffix.
+     *
+     * @param fileName the file's name.
+     *
+     * @return true if the file is packed, otherwise false.
+     */
+    protected boolean isPackable(String fileName)
+    {
+        if (this.packDirectory == null || new File(fileName).isAbsolute())
+            return false;
+
+        String suffix = WWIO.getSuffix(fileName);
+
+        return suffix != null && this.packedSuffixes.contains(suffix.toLowerCase());
+    }
+
+    /**
+     * Moves staged files that have not been modified for the settle time into the current pack file.
+     *
+     * @return the number of files packed.
+     */
+    public int packStagedFiles()
+    {
+        if (this.packDirectory == null)
+            return 0;
+
+        int count = 0;
+
+        synchronized (this.maintenanceLock)
+        {
+            long now = System.currentTimeMillis();
+
+            for (Map.Entry<String, Long> staged : this.stagedNames.entrySet())
+            {
+                if (Thread.currentThread().isInterrupted())
+                    break;
+
+                if (now - staged.getValue() < this.settleTime)
+                    continue;
+
+                File file = new File(this.getWriteLocation(), staged.getKey());
+                if (file.exists())
+                {
+                    if (now - file.lastModified() < this.settleTime)
+                        continue; // the file may still be being written
+
+                    if (this.packFile(staged.getKey(), file))
+                        count++;
+                }
+
+                this.stagedNames.remove(staged.getKey(), staged.getValue());
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Packs the files of the packed suffixes already in the write location, such as those written before the store
+     * was used or written by another file store. Files modified within the settle time are not packed.
+     *
+     * @return the number of files packed.
+     */
+    public int packLooseFiles()
+    {
+        if (this.packDirectory == null)
+            return 0;
+
+        final List<Path> paths = new ArrayList<Path>();
+        final Path root = this.getWriteLocation().toPath();
+        final Path packRoot = this.packDirectory.toPath();
+        try
+        {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes)
+                {
+                    return dir.equals(packRoot) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path path, BasicFileAttributes attributes)
+                {
+                    if (attributes.isRegularFile() && isPackable(root.relativize(path).toString()))
+                        paths.add(path);
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path path, IOException e)
+                {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("FileStore.ExceptionScanningLocation", root);
+            Logging.logger().log(Level.SEVERE, message, e);
+        }
+
+        int count = 0;
+
+        synchronized (this.maintenanceLock)
+        {
+            long now = System.currentTimeMillis();
+
+            for (Path path : paths)
+            {
+                File file = path.toFile();
+                String key = normalizeFileStoreName(root.relativize(path).toString());
+                if (now - file.lastModified() >= this.settleTime && !this.stagedNames.containsKey(key)
+                    && this.packFile(key, file))
+                {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Appends a file to the current pack file and deletes the file.
+     *
+     * @param key  the file's normalized file store name.
+     * @param file the file.
+     *
+     * @return true if the file was packed, otherwise false.
+     */
+    protected boolean packFile(String key, File file)
+    {
+        try
+        {
+            long lastModified = file.lastModified();
+            byte[] contents = Files.readAllBytes(file.toPath());
+
+            this.appendRecord(key, lastModified, contents);
+            this.stagedNames.remove(key);
+
+            // The packed copy now supersedes the file, unless the file was rewritten while it was being packed.
+            if (file.lastModified() == lastModified && !file.delete())
+                Logging.logger().fine(Logging.getMessage("generic.CannotDeleteFile", file));
+
+            this.fileIndex.remove(key);
+            return true;
+        }
+        catch (IOException e)
+        {
+            Logging.logger().log(Level.SEVERE, Logging.getMessage("PackedFileStore.ExceptionPackingFile", file), e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes a packed file by appending a removal record to the current pack file.
+     *
+     * @param key the file's normalized file store name.
+     */
+    protected void removePackedFile(String key)
+    {
+        if (!this.packIndex.containsKey(key))
+            return;
+
+        try
+        {
+            this.appendRecord(key, System.currentTimeMillis(), null);
+        }
+        catch (IOException e)
+        {
+            // The file is removed from the index regardless, but is restored when the store is next created.
+            this.removeIndexEntry(key);
+            Logging.logger().log(Level.SEVERE, Logging.getMessage("PackedFileStore.ExceptionWritingPack", key), e);
+        }
+    }
+
+    /**
+     * Removes all packed files last modified before a specified time.
+     *
+     * @param time the time, in milliseconds since the Epoch, before which files are removed.
+     *
+     * @return the number of files removed.
+     */
+    public int removeFilesOlderThan(long time)
+    {
+        int count = 0;
+
+        for (Map.Entry<String, PackEntry> entry : this.packIndex.entrySet())
+        {
+            if (entry.getValue().lastModified < time)
+            {
+                this.removePackedFile(entry.getKey());
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Copies the current records of each pack file whose fraction of obsolete contents exceeds the compaction
+     * threshold into the current pack file, then deletes the old pack file.
+     *
+     * @return the number of pack files compacted.
+     */
+    public int compact()
+    {
+        int count = 0;
+
+        synchronized (this.maintenanceLock)
+        {
+            for (Pack pack : new ArrayList<Pack>(this.packs.values()))
+            {
+                if (Thread.currentThread().isInterrupted())
+                    break;
+
+                if (pack.getObsoleteFraction() <= this.compactionThreshold)
+                    continue;
+
+                try
+                {
+                    this.compactPack(pack);
+                    count++;
+                }
+                catch (IOException e)
+                {
+                    Logging.logger().log(Level.SEVERE,
+                        Logging.getMessage("PackedFileStore.ExceptionWritingPack", pack.file), e);
+                }
+            }
+        }
+
+        return count;
+    }
+
+    protected void compactPack(Pack pack) throws IOException
+    {
+        synchronized (this.packLock)
+        {
+            if (pack == this.currentPack)
+                this.startPack();
+        }
+
+        for (Map.Entry<String, PackEntry> entry : this.packIndex.entrySet())
+        {
+            PackEntry packEntry = entry.getValue();
+            if (packEntry.pack != pack)
+                continue;
+
+            byte[] contents = this.readContents(packEntry);
+            synchronized (this.packLock)
+            {
+                // Copy the record only if it's still current.
+                if (this.packIndex.get(entry.getKey()) == packEntry)
+                    this.appendRecord(entry.getKey(), packEntry.lastModified, contents);
+            }
+        }
+
+        synchronized (this.packLock)
+        {
+            // Removal records must be kept while an earlier pack may hold a record they supersede.
+            boolean earlierPacks = false;
+            for (Integer id : this.packs.keySet())
+            {
+                earlierPacks |= id < pack.id;
+            }
+
+            if (earlierPacks)
+            {
+                for (String key : this.readRemovedNames(pack))
+                {
+                    if (!this.packIndex.containsKey(key))
+                        this.appendRecord(key, System.currentTimeMillis(), null);
+                }
+            }
+
+            this.packs.remove(pack.id);
+            pack.deleted = true;
+            pack.close();
+            if (!pack.file.delete())
+                Logging.logger().warning(Logging.getMessage("generic.CannotDeleteFile", pack.file));
+        }
+    }
+
+    /**
+     * Returns the names of the files whose removal is recorded in a pack file.
+     *
+     * @param pack the pack file.
+     *
+     * @return the names of the removed files.
+     *
+     * @throws IOException if the pack file cannot be read.
+     */
+    protected Set<String> readRemovedNames(Pack pack) throws IOException
+    {
+        Set<String> names = new HashSet<String>();
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(pack.file)));
+        try
+        {
+            long position = PACK_HEADER_LENGTH;
+            skipFully(input, PACK_HEADER_LENGTH);
+
+            while (position < pack.size)
+            {
+                input.readInt();
+                byte[] name = new byte[input.readUnsignedShort()];
+                input.readFully(name);
+                input.readLong();
+                int contentLength = input.readInt();
+
+                if (contentLength == REMOVED)
+                    names.add(new String(name, StandardCharsets.UTF_8));
+                else
+                    skipFully(input, contentLength);
+
+                position += 4 + 2 + name.length + 8 + 4 + Math.max(contentLength, 0);
+            }
+        }
+        finally
+        {
+            WWIO.closeStream(input, pack.file.getPath());
+        }
+
+        return names;
+    }
+
+    /**
+     * Appends a record to the current pack file and updates the index.
+     *
+     * @param key          the file's normalized file store name.
+     * @param lastModified the file's modification time.
+     * @param contents     the file's contents, or null to record the file's removal.
+     *
+     * @throws IOException if the record cannot be written.
+     */
+    protected void appendRecord(String key, long lastModified, byte[] contents) throws IOException
+    {
+        byte[] name = key.getBytes(StandardCharsets.UTF_8);
+        int length = contents != null ? contents.length : REMOVED;
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 2 + name.length + 8 + 4 + (contents != null ? length : 0));
+        buffer.putInt(RECORD_MAGIC);
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        buffer.putLong(lastModified);
+        buffer.putInt(length);
+        if (contents != null)
+            buffer.put(contents);
+        buffer.flip();
+
+        synchronized (this.packLock)
+        {
+            if (this.currentPack == null || this.currentPack.size + buffer.remaining() > this.maxPackSize)
+                this.startPack();
+
+            Pack pack = this.currentPack;
+            long position = pack.size;
+            FileChannel channel = pack.getChannel();
+            while (buffer.hasRemaining())
+            {
+                position += channel.write(buffer, position);
+            }
+
+            if (contents != null)
+            {
+                pack.contentBytes.addAndGet(length);
+                this.putIndexEntry(key, new PackEntry(pack, position - length, length, lastModified));
+            }
+            else
+            {
+                this.removeIndexEntry(key);
+            }
+
+            pack.size = position;
+        }
+    }
+
+    protected void putIndexEntry(String key, PackEntry entry)
+    {
+        entry.pack.liveBytes.addAndGet(entry.length);
+
+        PackEntry previous = this.packIndex.put(key, entry);
+        if (previous != null)
+            previous.pack.liveBytes.addAndGet(-previous.length);
+    }
+
+    protected void removeIndexEntry(String key)
+    {
+        PackEntry previous = this.packIndex.remove(key);
+        if (previous != null)
+            previous.pack.liveBytes.addAndGet(-previous.length);
+    }
+
+    /** Starts a new pack file. Must be called while holding the pack lock. */
+    protected void startPack() throws IOException
+    {
+        int id = 0;
+        for (Integer existing : this.packs.keySet())
+        {
+            id = Math.max(id, existing + 1);
+        }
+
+        Pack pack = new Pack(id, new File(this.packDirectory, String.format("%s%05d%s", PACK_FILE_PREFIX, id,
+            PACK_FILE_SUFFIX)));
+
+        ByteBuffer header = ByteBuffer.allocate(PACK_HEADER_LENGTH);
+        header.putInt(PACK_FILE_MAGIC);
+        header.putInt(PACK_FILE_VERSION);
+        header.flip();
+
+        FileChannel channel = pack.getChannel();
+        channel.truncate(0);
+        while (header.hasRemaining())
+        {
+            channel.write(header, header.position());
+        }
+        pack.size = PACK_HEADER_LENGTH;
+
+        this.packs.put(id, pack);
+        this.currentPack = pack;
+    }
+
+    /** Opens the existing pack files and builds the index from their records. */
+    protected void openPacks()
+    {
+        File[] files = this.packDirectory.listFiles(new FilenameFilter()
+        {
+            public boolean accept(File dir, String name)
+            {
+                return name.startsWith(PACK_FILE_PREFIX) && name.endsWith(PACK_FILE_SUFFIX);
+            }
+        });
+        if (files == null)
+            return;
+
+        Arrays.sort(files); // pack files are numbered in the order they were started
+
+        synchronized (this.packLock)
+        {
+            for (File file : files)
+            {
+                String idString = file.getName().substring(PACK_FILE_PREFIX.length(),
+                    file.getName().length() - PACK_FILE_SUFFIX.length());
+                Integer id = WWUtil.makeInteger(idString);
+                if (id == null)
+                    continue;
+
+                Pack pack = new Pack(id, file);
+                try
+                {
+                    this.readPack(pack);
+                    this.packs.put(id, pack);
+                    this.currentPack = pack;
+                }
+                catch (IOException e)
+                {
+                    Logging.logger().log(Level.SEVERE,
+                        Logging.getMessage("PackedFileStore.ExceptionReadingPack", file), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the records of a pack file to the index. A pack file that ends with an incomplete record, left by a process
+     * that ended while writing it, is truncated after its last complete record.
+     *
+     * @param pack the pack file to read.
+     *
+     * @throws IOException if the pack file cannot be read or is not a pack file.
+     */
+    protected void readPack(Pack pack) throws IOException
+    {
+        long length = pack.file.length();
+        long position = PACK_HEADER_LENGTH;
+
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(pack.file)));
+        try
+        {
+            if (length < PACK_HEADER_LENGTH || input.readInt() != PACK_FILE_MAGIC
+                || input.readInt() != PACK_FILE_VERSION)
+            {
+                throw new IOException(Logging.getMessage("PackedFileStore.InvalidPackFile", pack.file));
+            }
+
+            while (position < length)
+            {
+                int headerLength = 4 + 2;
+                if (position + headerLength > length || input.readInt() != RECORD_MAGIC)
+                    break;
+
+                int nameLength = input.readUnsignedShort();
+                headerLength += nameLength + 8 + 4;
+                if (position + headerLength > length)
+                    break;
+
+                byte[] name = new byte[nameLength];
+                input.readFully(name);
+                long lastModified = input.readLong();
+                int contentLength = input.readInt();
+                if (contentLength != REMOVED && position + headerLength + contentLength > length)
+                    break;
+
+                String key = new String(name, StandardCharsets.UTF_8);
+                if (contentLength == REMOVED)
+                {
+                    this.removeIndexEntry(key);
+                }
+                else
+                {
+                    pack.contentBytes.addAndGet(contentLength);
+                    this.putIndexEntry(key, new PackEntry(pack, position + headerLength, contentLength,
+                        lastModified));
+                    skipFully(input, contentLength);
+                }
+
+                position += headerLength + Math.max(contentLength, 0);
+            }
+        }
+        finally
+        {
+            WWIO.closeStream(input, pack.file.getPath());
+        }
+
+        pack.size = position;
+        if (position < length)
+        {
+            Logging.logger().warning(Logging.getMessage("PackedFileStore.TruncatingPackFile", pack.file, position));
+            pack.getChannel().truncate(position);
+        }
+    }
+
+    protected static void skipFully(DataInputStream input, int count) throws IOException
+    {
+        while (count > 0)
+        {
+            int skipped = input.skipBytes(count);
+            if (skipped <= 0)
+                throw new EOFException();
+
+            count -= skipped;
+        }
+    }
+
+    protected void startMaintenance()
+    {
+        this.maintenanceService = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable);
+                thread.setName("WorldWind Packed File Store");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+
+        this.maintenanceService.scheduleWithFixedDelay(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    packStagedFiles();
+                    compact();
+                }
+                catch (Exception e)
+                {
+                    Logging.logger().log(Level.SEVERE, e.getMessage(), e);
+                }
+            }
+        }, DEFAULT_MAINTENANCE_INTERVAL, DEFAULT_MAINTENANCE_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    //**************************************************************//
+    //********************  Packed File URLs  **********************//
+    //**************************************************************//
+
+    protected URL makeURL(String key)
+    {
+        try
+        {
+            return new URL(PROTOCOL, null, -1, "/" + key, this.urlHandler);
+        }
+        catch (MalformedURLException e)
+        {
+            Logging.logger().log(Level.SEVERE, Logging.getMessage("FileStore.ExceptionCreatingURLForFile", key), e);
+            return null;
+        }
+    }
+
+    protected static String getName(URL url)
+    {
+        return normalizeFileStoreName(url.getPath());
+    }
+
+    /**
+     * Reads the contents of a packed file.
+     *
+     * @param entry the file's index entry.
+     *
+     * @return the file's contents.
+     *
+     * @throws IOException if the contents cannot be read.
+     */
+    protected byte[] readContents(PackEntry entry) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+
+        while (buffer.hasRemaining())
+        {
+            int count;
+            try
+            {
+                count = entry.pack.getChannel().read(buffer, entry.offset + buffer.position());
+            }
+            catch (ClosedByInterruptException e)
+            {
+                throw e;
+            }
+            catch (ClosedChannelException e)
+            {
+                continue; // another thread's interrupt closed the channel; it's reopened on the next attempt
+            }
+
+            if (count < 0)
+                throw new EOFException(entry.pack.file.getPath());
+        }
+
+        return buffer.array();
+    }
+
+    /** Opens connections to packed files. */
+    protected class PackURLStreamHandler extends URLStreamHandler
+    {
+        @Override
+        protected URLConnection openConnection(URL url)
+        {
+            return new PackURLConnection(url);
+        }
+    }
+
+    /** A connection to a packed file. The file's contents are read when the connection connects. */
+    protected class PackURLConnection extends URLConnection
+    {
+        protected PackEntry entry;
+        protected byte[] contents;
+
+        public PackURLConnection(URL url)
+        {
+            super(url);
+        }
+
+        @Override
+        public void connect() throws IOException
+        {
+            if (this.connected)
+                return;
+
+            // The file may move to another pack during compaction. Look it up again if its pack is deleted.
+            for (int attempt = 0; ; attempt++)
+            {
+                this.entry = packIndex.get(getName(this.url));
+                if (this.entry == null)
+                    throw new FileNotFoundException(this.url.toString());
+
+                try
+                {
+                    this.contents = readContents(this.entry);
+                    break;
+                }
+                catch (FileNotFoundException e)
+                {
+                    if (attempt > 0 || !this.entry.pack.deleted)
+                        throw e;
+                }
+            }
+
+            this.connected = true;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException
+        {
+            this.connect();
+
+            return new ByteArrayInputStream(this.contents);
+        }
+
+        @Override
+        public long getLastModified()
+        {
+            PackEntry entry = this.entry != null ? this.entry : packIndex.get(getName(this.url));
+
+            return entry != null ? entry.lastModified : 0;
+        }
+
+        @Override
+        public int getContentLength()
+        {
+            PackEntry entry = this.entry != null ? this.entry : packIndex.get(getName(this.url));
+
+            return entry != null ? entry.length : -1;
+        }
+
+        @Override
+        public String getContentType()
+        {
+            return WWIO.makeMimeTypeForSuffix(WWIO.getSuffix(this.url.getPath()));
+        }
+    }
+}
@@ -0,0 +1,638 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.cache;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link MemoryCache} that evicts entries according to a segmented least-recently-used policy and never blocks
+ * readers. It has the same capacity, low water and {@link MemoryCache.CacheListener} semantics as {@link
+ * BasicMemoryCache}, but is intended for caches that are read concurrently by many threads, such as the sector
+ * geometry, texture tile and elevation tile caches.
+ * <p>
+ * Entries are kept in two recency lists. Newly added entries enter the <i>probation</i> segment and are promoted to the
+ * <i>protected</i> segment when they are read again. The protected segment is limited to a fraction of the cache
+ * capacity; entries that overflow it are demoted back to probation. When the cache must make space, entries are
+ * evicted from the least recently used end of the probation segment first, then from the protected segment. Eviction
+ * therefore costs time proportional to the number of entries evicted rather than the number of entries in the cache.
+ * <p>
+ * {@link #getObject(Object)} does not acquire a lock. Reads are recorded in a set of striped, lossy buffers and applied
+ * to the recency lists in batches by whichever thread next holds the eviction lock. Under heavy contention some reads
+ * may not be recorded, which only affects the precision of the recency ordering. Additions and removals acquire the
+ * eviction lock.
+ */
+public class SegmentedLRUMemoryCache implements MemoryCache
+{
+    /** The default fraction of the cache capacity that may be occupied by the protected segment. */
+    protected static final double DEFAULT_PROTECTED_FRACTION = 0.8;
+    /** The number of slots in each read buffer stripe. Must be a power of two. */
+    protected static final int READ_BUFFER_SIZE = 32;
+    protected static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    protected static final int SEGMENT_NONE = 0;
+    protected static final int SEGMENT_PROBATION = 1;
+    protected static final int SEGMENT_PROTECTED = 2;
+
+    protected static class CacheEntry
+    {
+        protected final Object key;
+        protected final Object clientObject;
+        protected final long clientObjectSize;
+        // The following fields are guarded by the eviction lock.
+        protected CacheEntry prev;
+        protected CacheEntry next;
+        protected int segment = SEGMENT_NONE;
+
+        public CacheEntry(Object key, Object clientObject, long clientObjectSize)
+        {
+            this.key = key;
+            this.clientObject = clientObject;
+            this.clientObjectSize = clientObjectSize;
+        }
+
+        public String toString()
+        {
+            return key.toString() + " " + clientObject.toString() + " " + clientObjectSize;
+        }
+    }
+
+    /** An intrusive doubly linked list of cache entries ordered from least to most recently used. */
+    protected static class AccessOrderList
+    {
+        protected final CacheEntry head; // sentinel; head.next is the least recently used entry
+        protected long size;
+
+        public AccessOrderList()
+        {
+            this.head = new CacheEntry(null, null, 0);
+            this.head.prev = this.head;
+            this.head.next = this.head;
+        }
+
+        public boolean isEmpty()
+        {
+            return this.head.next == this.head;
+        }
+
+        public CacheEntry first()
+        {
+            return this.isEmpty() ? null : this.head.next;
+        }
+
+        public void addLast(CacheEntry entry)
+        {
+            entry.prev = this.head.prev;
+            entry.next = this.head;
+            this.head.prev.next = entry;
+            this.head.prev = entry;
+            this.size += entry.clientObjectSize;
+        }
+
+        public void remove(CacheEntry entry)
+        {
+            entry.prev.next = entry.next;
+            entry.next.prev = entry.prev;
+            entry.prev = null;
+            entry.next = null;
+            this.size -= entry.clientObjectSize;
+        }
+
+        public void moveToLast(CacheEntry entry)
+        {
+            this.remove(entry);
+            this.addLast(entry);
+        }
+
+        public void clear()
+        {
+            this.head.prev = this.head;
+            this.head.next = this.head;
+            this.size = 0;
+        }
+    }
+
+    /** One stripe of the lossy read buffer. Readers overwrite the oldest slot when the stripe is full. */
+    protected static class ReadBuffer
+    {
+        protected final AtomicReferenceArray<CacheEntry> slots = new AtomicReferenceArray<CacheEntry>(
+            READ_BUFFER_SIZE);
+        protected final AtomicInteger writeCount = new AtomicInteger();
+
+        /**
+         * Records a read of the specified entry.
+         *
+         * @param entry the entry that was read.
+         *
+         * @return true if the buffer has filled and should be drained.
+         */
+        public boolean record(CacheEntry entry)
+        {
+            int index = this.writeCount.getAndIncrement() & READ_BUFFER_MASK;
+            this.slots.lazySet(index, entry);
+            return index == READ_BUFFER_MASK;
+        }
+    }
+
+    protected final ConcurrentHashMap<Object, CacheEntry> entries = new ConcurrentHashMap<Object, CacheEntry>();
+    protected final CopyOnWriteArrayList<MemoryCache.CacheListener> listeners =
+        new CopyOnWriteArrayList<MemoryCache.CacheListener>();
+    protected final AtomicLong capacity = new AtomicLong();
+    protected final AtomicLong currentUsedCapacity = new AtomicLong();
+    protected volatile long lowWater;
+    protected volatile double protectedFraction = DEFAULT_PROTECTED_FRACTION;
+    protected String name = "";
+
+    protected final ReentrantLock evictionLock = new ReentrantLock();
+    protected final AccessOrderList probation = new AccessOrderList();
+    protected final AccessOrderList protectedSegment = new AccessOrderList();
+    protected final ReadBuffer[] readBuffers;
+
+    /**
+     * Constructs a new cache using <code>capacity</code> for maximum size, and <code>loWater</code> for the low water.
+     *
+     * @param loWater  the low water level.
+     * @param capacity the maximum capacity.
+     */
+    public SegmentedLRUMemoryCache(long loWater, long capacity)
+    {
+        this.capacity.set(capacity);
+        this.lowWater = loWater;
+
+        int numStripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1) << 1;
+        this.readBuffers = new ReadBuffer[numStripes];
+        for (int i = 0; i < numStripes; i++)
+        {
+            this.readBuffers[i] = new ReadBuffer();
+        }
+    }
+
+    /** @return the number of objects currently stored in this cache. */
+    public int getNumObjects()
+    {
+        return this.entries.size();
+    }
+
+    /** @return the capacity of the cache. */
+    public long getCapacity()
+    {
+        return this.capacity.get();
+    }
+
+    /** @return the number of cache units that the cache currently holds. */
+    public long getUsedCapacity()
+    {
+        return this.currentUsedCapacity.get();
+    }
+
+    /** @return the amount of free space left in the cache (in cache units). */
+    public long getFreeCapacity()
+    {
+        return Math.max(this.capacity.get() - this.currentUsedCapacity.get(), 0);
+    }
+
+    public void setName(String name)
+    {
+        this.name = name != null ? name : "";
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Indicates the fraction of the cache capacity that may be occupied by entries that have been read at least once
+     * since they were added.
+     *
+     * @return the protected segment fraction, in the range [0, 1].
+     */
+    public double getProtectedFraction()
+    {
+        return this.protectedFraction;
+    }
+
+    /**
+     * Specifies the fraction of the cache capacity that may be occupied by entries that have been read at least once
+     * since they were added. Larger values favor entries that are read repeatedly over entries that were recently
+     * added but not read again.
+     *
+     * @param fraction the protected segment fraction, in the range [0, 1].
+     *
+     * @throws IllegalArgumentException if <code>fraction</code> is outside the range [0, 1].
+     */
+    public void setProtectedFraction(double fraction)
+    {
+        if (fraction < 0 || fraction > 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", fraction);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.protectedFraction = fraction;
+    }
+
+    /**
+     * Adds a  cache listener, MemoryCache listeners are used to notify classes when an item is removed from the cache.
+     *
+     * @param listener The new <code>CacheListener</code>.
+     *
+     * @throws IllegalArgumentException is <code>listener</code> is null.
+     */
+    public void addCacheListener(MemoryCache.CacheListener listener)
+    {
+        if (listener == null)
+        {
+            String message = Logging.getMessage("BasicMemoryCache.nullListenerAdded");
+            Logging.logger().warning(message);
+            throw new IllegalArgumentException(message);
+        }
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a cache listener, objects using this listener will no longer receive notification of cache events.
+     *
+     * @param listener The <code>CacheListener</code> to remove.
+     *
+     * @throws IllegalArgumentException if <code>listener</code> is null.
+     */
+    public void removeCacheListener(MemoryCache.CacheListener listener)
+    {
+        if (listener == null)
+        {
+            String message = Logging.getMessage("BasicMemoryCache.nullListenerRemoved");
+            Logging.logger().warning(message);
+            throw new IllegalArgumentException(message);
+        }
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Sets the new capacity for the cache. Entries that no longer fit are evicted the next time an entry is added. See
+     * {@link BasicMemoryCache#setCapacity(long)} for the interaction between capacity and low water.
+     *
+     * @param newCapacity the new capacity of the cache.
+     */
+    public void setCapacity(long newCapacity)
+    {
+        this.capacity.set(newCapacity);
+    }
+
+    /**
+     * Sets the new low water level in cache units, which controls how aggresively the cache discards items. When the
+     * cache fills, it removes items until it reaches the low water level.
+     *
+     * @param loWater the new low water level.
+     */
+    public void setLowWater(long loWater)
+    {
+        if (loWater < this.capacity.get() && loWater >= 0)
+        {
+            this.lowWater = loWater;
+        }
+    }
+
+    /**
+     * Returns the low water level in cache units. When the cache fills, it removes items until it reaches the low water
+     * level.
+     *
+     * @return the low water level.
+     */
+    public long getLowWater()
+    {
+        return this.lowWater;
+    }
+
+    /**
+     * Returns true if the cache contains the item referenced by key. This method does not mark the item as accessed and
+     * does not block.
+     *
+     * @param key The key of a specific object.
+     *
+     * @return true if the cache holds the item referenced by key.
+     *
+     * @throws IllegalArgumentException if <code>key</code> is null.
+     */
+    public boolean contains(Object key)
+    {
+        if (key == null)
+        {
+            String msg = Logging.getMessage("nullValue.KeyIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        return this.entries.containsKey(key);
+    }
+
+    /**
+     * Adds an object to the cache. The add fails if the object or key is null, or if the size is zero, negative or
+     * greater than the maximmum capacity.
+     *
+     * @param key              The unique reference key that identifies this object.
+     * @param clientObject     The actual object to be cached.
+     * @param clientObjectSize The size of the object in cache units.
+     *
+     * @return returns true if clientObject was added, false otherwise.
+     */
+    public boolean add(Object key, Object clientObject, long clientObjectSize)
+    {
+        long cap = this.capacity.get();
+
+        if (key == null || clientObject == null || clientObjectSize <= 0 || clientObjectSize > cap)
+        {
+            String message = Logging.getMessage("BasicMemoryCache.CacheItemNotAdded");
+
+            if (clientObjectSize > cap)
+            {
+                message += " - " + Logging.getMessage("BasicMemoryCache.ItemTooLargeForCache");
+            }
+
+            Logging.logger().warning(message);
+
+            return false;
+        }
+
+        CacheEntry entry = new CacheEntry(key, clientObject, clientObjectSize);
+
+        this.evictionLock.lock();
+        try
+        {
+            this.drainReadBuffers();
+
+            CacheEntry existing = this.entries.get(key);
+            if (existing != null) // replacing
+            {
+                this.removeEntry(existing);
+            }
+
+            if (this.currentUsedCapacity.get() + clientObjectSize > cap)
+            {
+                this.makeSpace(clientObjectSize);
+            }
+
+            this.currentUsedCapacity.addAndGet(clientObjectSize);
+            this.entries.put(key, entry);
+            entry.segment = SEGMENT_PROBATION;
+            this.probation.addLast(entry);
+        }
+        finally
+        {
+            this.evictionLock.unlock();
+        }
+
+        return true;
+    }
+
+    public boolean add(Object key, Cacheable clientObject)
+    {
+        return this.add(key, clientObject, clientObject.getSizeInBytes());
+    }
+
+    /**
+     * Remove the object reference by key from the cache. If no object with the corresponding key is found, this method
+     * returns immediately.
+     *
+     * @param key the key of the object to be removed.
+     */
+    public void remove(Object key)
+    {
+        if (key == null)
+        {
+            Logging.logger().finer("nullValue.KeyIsNull");
+
+            return;
+        }
+
+        if (!this.entries.containsKey(key))
+            return;
+
+        this.evictionLock.lock();
+        try
+        {
+            CacheEntry entry = this.entries.get(key);
+            if (entry != null)
+                this.removeEntry(entry);
+        }
+        finally
+        {
+            this.evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Obtain the object referenced by key without removing it. Apart from adding an object, this is the only way to
+     * mark an object as recently used. This method never blocks.
+     *
+     * @param key The key for the object to be found.
+     *
+     * @return the object referenced by key if it is present, null otherwise.
+     */
+    public Object getObject(Object key)
+    {
+        if (key == null)
+        {
+            Logging.logger().finer("nullValue.KeyIsNull");
+
+            return null;
+        }
+
+        CacheEntry entry = this.entries.get(key);
+        if (entry == null)
+            return null;
+
+        if (this.readBufferFor(Thread.currentThread()).record(entry))
+            this.tryDrainReadBuffers();
+
+        return entry.clientObject;
+    }
+
+    /** Empties the cache. */
+    public void clear()
+    {
+        this.evictionLock.lock();
+        try
+        {
+            this.drainReadBuffers();
+
+            for (CacheEntry entry : this.entries.values())
+            {
+                this.removeEntry(entry);
+            }
+        }
+        finally
+        {
+            this.evictionLock.unlock();
+        }
+    }
+
+    protected ReadBuffer readBufferFor(Thread thread)
+    {
+        long id = thread.getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return this.readBuffers[(hash >>> 16) & (this.readBuffers.length - 1)];
+    }
+
+    /** Applies the buffered reads if the eviction lock is free, and otherwise returns immediately. */
+    protected void tryDrainReadBuffers()
+    {
+        if (this.evictionLock.tryLock())
+        {
+            try
+            {
+                this.drainReadBuffers();
+            }
+            finally
+            {
+                this.evictionLock.unlock();
+            }
+        }
+    }
+
+    /** Applies the buffered reads to the recency lists. MUST BE CALLED WHILE HOLDING THE EVICTION LOCK. */
+    protected void drainReadBuffers()
+    {
+        for (ReadBuffer buffer : this.readBuffers)
+        {
+            for (int i = 0; i < READ_BUFFER_SIZE; i++)
+            {
+                CacheEntry entry = buffer.slots.getAndSet(i, null);
+                if (entry != null)
+                    this.onAccess(entry);
+            }
+        }
+    }
+
+    /**
+     * Promotes an entry that has been read. MUST BE CALLED WHILE HOLDING THE EVICTION LOCK.
+     *
+     * @param entry the entry that was read.
+     */
+    protected void onAccess(CacheEntry entry)
+    {
+        if (entry.segment == SEGMENT_PROTECTED)
+        {
+            this.protectedSegment.moveToLast(entry);
+        }
+        else if (entry.segment == SEGMENT_PROBATION)
+        {
+            this.probation.remove(entry);
+            entry.segment = SEGMENT_PROTECTED;
+            this.protectedSegment.addLast(entry);
+
+            // Demote the least recently used protected entries when the protected segment overflows.
+            long maxProtected = (long) (this.protectedFraction * this.capacity.get());
+            while (this.protectedSegment.size > maxProtected && !this.protectedSegment.isEmpty())
+            {
+                CacheEntry demoted = this.protectedSegment.first();
+                this.protectedSegment.remove(demoted);
+                demoted.segment = SEGMENT_PROBATION;
+                this.probation.addLast(demoted);
+            }
+        }
+        // Otherwise the entry was removed after the read was recorded.
+    }
+
+    /**
+     * Removes <code>entry</code> from the cache. To remove an entry using its key, use <code>remove()</code>. MUST BE
+     * CALLED WHILE HOLDING THE EVICTION LOCK.
+     *
+     * @param entry The entry (as opposed to key) of the item to be removed.
+     */
+    protected void removeEntry(CacheEntry entry)
+    {
+        // all removal passes through this function,
+        // so the reduction in "currentUsedCapacity" and listener notification is done here
+
+        if (this.entries.remove(entry.key, entry))
+        {
+            if (entry.segment == SEGMENT_PROBATION)
+                this.probation.remove(entry);
+            else if (entry.segment == SEGMENT_PROTECTED)
+                this.protectedSegment.remove(entry);
+            entry.segment = SEGMENT_NONE;
+
+            this.currentUsedCapacity.addAndGet(-entry.clientObjectSize);
+
+            for (MemoryCache.CacheListener listener : this.listeners)
+            {
+                try
+                {
+                    listener.entryRemoved(entry.key, entry.clientObject);
+                }
+                catch (Exception e)
+                {
+                    listener.removalException(e, entry.key, entry.clientObject);
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes at least <code>spaceRequired</code> space in the cache. If spaceRequired is less than (capacity-lowWater),
+     * makes more space. Does nothing if capacity is less than spaceRequired. MUST BE CALLED WHILE HOLDING THE EVICTION
+     * LOCK.
+     *
+     * @param spaceRequired the amount of space required.
+     */
+    protected void makeSpace(long spaceRequired)
+    {
+        if (spaceRequired > this.capacity.get() || spaceRequired < 0)
+            return;
+
+        while (this.getFreeCapacity() < spaceRequired || this.getUsedCapacity() > this.lowWater)
+        {
+            CacheEntry victim = this.probation.first();
+            if (victim == null)
+                victim = this.protectedSegment.first();
+            if (victim == null)
+                break;
+
+            this.removeEntry(victim);
+        }
+    }
+
+    /**
+     * a <code>String</code> representation of this object is returned.&nbsp; This representation consists of maximum
+     * size, current used capacity and number of currently cached items.
+     *
+     * @return a <code>String</code> representation of this object.
+     */
+    @Override
+    public String toString()
+    {
+        return "MemoryCache " + this.name + " max size = " + this.getCapacity() + " current size = "
+            + this.currentUsedCapacity.get() + " number of items: " + this.getNumObjects();
+    }
+}
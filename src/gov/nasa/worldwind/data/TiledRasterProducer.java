@@ -51,6 +51,8 @@ public abstract class TiledRasterProducer extends AbstractDataStoreProducer
     private static final int DEFAULT_TILE_WIDTH_AND_HEIGHT = 512;
     private static final int DEFAULT_SINGLE_LEVEL_TILE_WIDTH_AND_HEIGHT = 512;
     private static final double DEFAULT_LEVEL_ZERO_TILE_DELTA = 36d;
+    // The number of levels above the final level whose subtrees are composed on a single thread.
+    private static final int DEFAULT_SERIAL_SUBTREE_LEVELS = 2;
 
     // List of source data rasters.
     private java.util.List<DataRaster> dataRasterList = new java.util.ArrayList<DataRaster>();
@@ -60,7 +62,13 @@ public abstract class TiledRasterProducer extends AbstractDataStoreProducer
     private final java.util.concurrent.ExecutorService tileWriteService;
     private final java.util.concurrent.Semaphore tileWriteSemaphore;
     private final Object fileLock = new Object();
+    // Parallel production state. The pool is null when production is serial.
+    private java.util.concurrent.ForkJoinPool productionPool;
+    private int forkLevelLimit;
+    private final java.util.concurrent.atomic.AtomicReference<java.io.IOException> productionFailure =
+        new java.util.concurrent.atomic.AtomicReference<java.io.IOException>();
     // Progress counters.
+    private final Object progressLock = new Object();
     private int tile;
     private int tileCount;
 
@@ -515,6 +523,26 @@ public abstract class TiledRasterProducer extends AbstractDataStoreProducer
     //********************  LevelSet Installation  *****************//
     //**************************************************************//
 
+    /**
+     * Creates and installs the tiles of a level set. Each level-zero tile is the root of an independent subtree, whose
+     * tiles are created from the bottom up: the final level's tiles from the data sources, and each other tile from its
+     * four children.
+     * <p>
+     * If the production parameters specify a {@link AVKey#TILED_RASTER_PRODUCER_PARALLELISM} greater than one, or the
+     * WorldWind configuration does, the subtrees are produced in parallel on a {@link
+     * java.util.concurrent.ForkJoinPool} of that parallelism. Sibling tiles are then created concurrently down to the
+     * last few levels, below which each subtree is created on a single thread. The tiles produced are identical to
+     * those of serial production. Memory is bounded by the raster cache, which limits the source data resident at
+     * once, and by the tile write semaphore, which blocks production while the tile writers are busy.
+     * <p>
+     * A property change event named {@link AVKey#TILED_RASTER_PRODUCER_SUBTREE_COMPLETE} is sent as each level-zero
+     * subtree completes, in addition to the {@link AVKey#PROGRESS} events sent as each tile is created.
+     *
+     * @param levelSet the level set to install.
+     * @param params   the production parameters.
+     *
+     * @throws java.io.IOException if a tile cannot be created.
+     */
     protected void installLevelSet(LevelSet levelSet, AVList params) throws java.io.IOException
     {
         // Exit if the caller has instructed us to stop production.
@@ -537,39 +565,149 @@ public abstract class TiledRasterProducer extends AbstractDataStoreProducer
         int lastRow = Tile.computeRow(dLat, sector.getMaxLatitude(), latOrigin);
         int lastCol = Tile.computeColumn(dLon, sector.getMaxLongitude(), lonOrigin);
 
-        buildLoop:
+        java.util.List<Tile> levelZeroTiles = new java.util.ArrayList<Tile>();
+        Angle p1 = Tile.computeRowLatitude(firstRow, dLat, latOrigin);
+        for (int row = firstRow; row <= lastRow; row++)
         {
-            Angle p1 = Tile.computeRowLatitude(firstRow, dLat, latOrigin);
-            for (int row = firstRow; row <= lastRow; row++)
+            Angle p2 = p1.add(dLat);
+            Angle t1 = Tile.computeColumnLongitude(firstCol, dLon, lonOrigin);
+            for (int col = firstCol; col <= lastCol; col++)
             {
-                Angle p2 = p1.add(dLat);
-                Angle t1 = Tile.computeColumnLongitude(firstCol, dLon, lonOrigin);
-                for (int col = firstCol; col <= lastCol; col++)
-                {
-                    // Exit if the caller has instructed us to stop production.
-                    Thread.yield();
-                    if (this.isStopped())
-                        break buildLoop;
+                Angle t2 = t1.add(dLon);
+                levelZeroTiles.add(new Tile(new Sector(p1, p2, t1, t2), level, row, col));
+                t1 = t2;
+            }
+            p1 = p2;
+        }
+
+        int parallelism = this.getParallelism(params);
+        if (parallelism > 1)
+            this.installSubtreesInParallel(levelSet, levelZeroTiles, params, parallelism);
+        else
+            this.installSubtrees(levelSet, levelZeroTiles, params);
+    }
 
-                    Angle t2 = t1.add(dLon);
+    protected void installSubtrees(LevelSet levelSet, Iterable<Tile> levelZeroTiles, AVList params)
+        throws java.io.IOException
+    {
+        for (Tile tile : levelZeroTiles)
+        {
+            // Exit if the caller has instructed us to stop production.
+            Thread.yield();
+            if (this.isStopped())
+                break;
 
-                    Tile tile = new Tile(new Sector(p1, p2, t1, t2), level, row, col);
-                    DataRaster tileRaster = this.createTileRaster(levelSet, tile, params);
-                    // Write the top-level tile raster to disk.
-                    if (tileRaster != null)
-                        this.installTileRasterLater(levelSet, tile, tileRaster, params);
+            this.installSubtree(levelSet, tile, params);
+        }
+    }
 
-                    t1 = t2;
-                }
-                p1 = p2;
+    /**
+     * Creates and installs the subtrees below the specified level-zero tiles on a pool of <code>parallelism</code>
+     * threads. Sibling tiles are forked as separate tasks down to two levels above the final level.
+     * <p>
+     * Tiles at the final level are drawn from the source rasters, and a {@link CachedDataRaster} draws onto one tile
+     * at a time. Tiles that read the same source therefore wait for each other, so the final level scales with the
+     * number of distinct sources the tiles read rather than with the parallelism. A dataset with one large source
+     * gains mostly from composing the upper levels and writing tiles in parallel.
+     *
+     * @param levelSet       the level set being produced.
+     * @param levelZeroTiles the level-zero tiles to produce.
+     * @param params         the production parameters.
+     * @param parallelism    the number of production threads.
+     *
+     * @throws java.io.IOException if a tile cannot be created or installed.
+     */
+    protected void installSubtreesInParallel(final LevelSet levelSet, java.util.List<Tile> levelZeroTiles,
+        final AVList params, int parallelism) throws java.io.IOException
+    {
+        // Compose the subtrees of all but the last few levels in parallel. Deeper subtrees are too small to be worth
+        // the overhead of forking, and composing them on one thread limits the number of partially composed tiles.
+        int finalLevel = levelSet.getFirstLevel().getLevelNumber();
+        while (!this.isFinalLevel(levelSet, finalLevel, params))
+        {
+            finalLevel++;
+        }
+
+        this.forkLevelLimit = finalLevel - DEFAULT_SERIAL_SUBTREE_LEVELS;
+        this.productionFailure.set(null);
+        this.productionPool = new java.util.concurrent.ForkJoinPool(parallelism);
+        try
+        {
+            java.util.List<java.util.concurrent.ForkJoinTask<?>> tasks =
+                new java.util.ArrayList<java.util.concurrent.ForkJoinTask<?>>();
+            for (final Tile tile : levelZeroTiles)
+            {
+                tasks.add(this.productionPool.submit(new Runnable()
+                {
+                    public void run()
+                    {
+                        try
+                        {
+                            if (!isProductionHalted())
+                                installSubtree(levelSet, tile, params);
+                        }
+                        catch (java.io.IOException e)
+                        {
+                            productionFailure.compareAndSet(null, e);
+                        }
+                    }
+                }));
+            }
+
+            for (java.util.concurrent.ForkJoinTask<?> task : tasks)
+            {
+                task.join();
             }
         }
+        finally
+        {
+            this.productionPool.shutdown();
+            this.productionPool = null;
+        }
+
+        java.io.IOException failure = this.productionFailure.getAndSet(null);
+        if (failure != null)
+            throw failure;
+    }
+
+    protected void installSubtree(LevelSet levelSet, Tile tile, AVList params) throws java.io.IOException
+    {
+        DataRaster tileRaster = this.createTileRaster(levelSet, tile, params);
+        // Write the top-level tile raster to disk.
+        if (tileRaster != null)
+            this.installTileRasterLater(levelSet, tile, tileRaster, params);
+
+        if (!this.isProductionHalted())
+            this.firePropertyChange(AVKey.TILED_RASTER_PRODUCER_SUBTREE_COMPLETE, null, tile);
+    }
+
+    /**
+     * Returns the number of threads used to produce tiles, as specified by {@link
+     * AVKey#TILED_RASTER_PRODUCER_PARALLELISM} in the production parameters or the WorldWind configuration. Production
+     * is serial if neither specifies a parallelism.
+     *
+     * @param params the production parameters.
+     *
+     * @return the number of production threads. Production is serial if this is one.
+     */
+    protected int getParallelism(AVList params)
+    {
+        Object o = params.getValue(AVKey.TILED_RASTER_PRODUCER_PARALLELISM);
+        Integer parallelism = (o != null) ? WWUtil.makeInteger(o.toString())
+            : Configuration.getIntegerValue(AVKey.TILED_RASTER_PRODUCER_PARALLELISM);
+
+        return (parallelism != null && parallelism > 1) ? parallelism : 1;
+    }
+
+    protected boolean isProductionHalted()
+    {
+        return this.isStopped() || this.productionFailure.get() != null;
     }
 
     protected DataRaster createTileRaster(LevelSet levelSet, Tile tile, AVList params) throws java.io.IOException
     {
         // Exit if the caller has instructed us to stop production.
-        if (this.isStopped())
+        if (this.isProductionHalted())
             return null;
 
         DataRaster tileRaster;
@@ -632,25 +770,16 @@ public abstract class TiledRasterProducer extends AbstractDataStoreProducer
 
         // Recursively create sub-tile rasters.
         Tile[] subTiles = this.createSubTiles(tile, levelSet.getLevel(tile.getLevelNumber() + 1));
-        DataRaster[] subRasters = new DataRaster[subTiles.length];
-        for (int index = 0; index < subTiles.length; index++)
+        DataRaster[] subRasters = this.createSubTileRasters(levelSet, tile, subTiles, params);
+        for (DataRaster subRaster : subRasters)
         {
-            // If the sub-tile does not intersect the level set, then skip that sub-tile.
-            if (subTiles[index].getSector().intersects(levelSet.getSector()))
-            {
-                // Recursively create the sub-tile raster.
-                DataRaster subRaster = this.createTileRaster(levelSet, subTiles[index], params);
-                // If creating the sub-tile raster fails, then skip that sub-tile.
-                if (subRaster != null)
-                {
-                    subRasters[index] = subRaster;
-                    hasDescendants = true;
-                }
-            }
+            // If creating the sub-tile raster fails, then skip that sub-tile.
+            if (subRaster != null)
+                hasDescendants = true;
         }
 
         // Exit if the caller has instructed us to stop production.
-        if (this.isStopped())
+        if (this.isProductionHalted())
             return null;
 
         // If any of the sub-tiles successfully created a data raster, then we potentially create this tile's raster,
@@ -685,6 +814,77 @@ public abstract class TiledRasterProducer extends AbstractDataStoreProducer
         return tileRaster;
     }
 
+    /**
+     * Creates the rasters of a tile's sub-tiles. During parallel production the sub-tiles of tiles above the last few
+     * levels are created concurrently. The rasters are returned in the order of the sub-tiles regardless, so they're
+     * composed into the parent tile in the same order as in serial production.
+     *
+     * @param levelSet the level set being installed.
+     * @param tile     the parent tile.
+     * @param subTiles the parent tile's sub-tiles.
+     * @param params   the production parameters.
+     *
+     * @return the sub-tile rasters, with null elements for sub-tiles that do not intersect the level set or have no
+     *         data.
+     *
+     * @throws java.io.IOException if a sub-tile raster cannot be created.
+     */
+    protected DataRaster[] createSubTileRasters(final LevelSet levelSet, Tile tile, Tile[] subTiles,
+        final AVList params) throws java.io.IOException
+    {
+        DataRaster[] subRasters = new DataRaster[subTiles.length];
+
+        if (this.productionPool == null || !java.util.concurrent.ForkJoinTask.inForkJoinPool()
+            || tile.getLevelNumber() >= this.forkLevelLimit)
+        {
+            for (int index = 0; index < subTiles.length; index++)
+            {
+                // If the sub-tile does not intersect the level set, then skip that sub-tile.
+                if (subTiles[index].getSector().intersects(levelSet.getSector()))
+                    subRasters[index] = this.createTileRaster(levelSet, subTiles[index], params);
+            }
+
+            return subRasters;
+        }
+
+        java.util.List<java.util.concurrent.RecursiveTask<DataRaster>> tasks =
+            new java.util.ArrayList<java.util.concurrent.RecursiveTask<DataRaster>>(subTiles.length);
+        for (final Tile subTile : subTiles)
+        {
+            tasks.add(new java.util.concurrent.RecursiveTask<DataRaster>()
+            {
+                protected DataRaster compute()
+                {
+                    // If the sub-tile does not intersect the level set, then skip that sub-tile.
+                    if (!subTile.getSector().intersects(levelSet.getSector()))
+                        return null;
+
+                    try
+                    {
+                        return createTileRaster(levelSet, subTile, params);
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        productionFailure.compareAndSet(null, e);
+                        return null;
+                    }
+                }
+            });
+        }
+
+        java.util.concurrent.ForkJoinTask.invokeAll(tasks);
+        for (int index = 0; index < subTiles.length; index++)
+        {
+            subRasters[index] = tasks.get(index).join();
+        }
+
+        java.io.IOException failure = this.productionFailure.get();
+        if (failure != null)
+            throw failure;
+
+        return subRasters;
+    }
+
     protected Tile[] createSubTiles(Tile tile, Level nextLevel)
     {
         Angle p0 = tile.getSector().getMinLatitude();
@@ -1251,14 +1451,25 @@ public abstract class TiledRasterProducer extends AbstractDataStoreProducer
 
     protected void startProgress()
     {
-        this.tile = 0;
+        synchronized (this.progressLock)
+        {
+            this.tile = 0;
+        }
+
         this.firePropertyChange(AVKey.PROGRESS, null, 0d);
     }
 
     protected void updateProgress()
     {
-        double oldProgress = this.tile / (double) this.tileCount;
-        double newProgress = ++this.tile / (double) this.tileCount;
+        // Tiles may be created concurrently. Count them under the lock, but notify listeners outside of it.
+        double oldProgress;
+        double newProgress;
+        synchronized (this.progressLock)
+        {
+            oldProgress = this.tile / (double) this.tileCount;
+            newProgress = ++this.tile / (double) this.tileCount;
+        }
+
         this.firePropertyChange(AVKey.PROGRESS, oldProgress, newProgress);
     }
 }
@@ -45,6 +45,8 @@ import java.awt.image.*;
  */
 public class DDSCompressor
 {
+    protected ParallelDXTCompressor parallelCompressor = new ParallelDXTCompressor();
+
     /** Creates a new DDSCompressor, but otherwise does nothing. */
     public DDSCompressor()
     {
@@ -519,6 +521,9 @@ public class DDSCompressor
     protected java.nio.ByteBuffer doCompressImage(DXTCompressor compressor, java.awt.image.BufferedImage image,
         DXTCompressionAttributes attributes)
     {
+        if (this.isBlockParallelCompression(compressor))
+            return this.doCompressImageParallel(compressor, image, attributes);
+
         // Create the DDS header structure that describes the specified image, compressor, and compression attributes.
         DDSHeader header = this.createDDSHeader(compressor, image, attributes);
 
@@ -573,6 +578,72 @@ public class DDSCompressor
         return buffer;
     }
 
+    /**
+     * Indicates whether the blocks of the specified compressor's format can be compressed by a {@link
+     * ParallelDXTCompressor} in place of the compressor itself. This returns true for the DXT1 and DXT3 compressors
+     * used by DDSCompressor, whose blocks the parallel compressor reproduces exactly, and false for any other
+     * compressor, including subclasses that may change how blocks are compressed.
+     *
+     * @param compressor the compressor selected for an image.
+     *
+     * @return true if the image's blocks can be compressed in parallel, otherwise false.
+     */
+    protected boolean isBlockParallelCompression(DXTCompressor compressor)
+    {
+        return compressor.getClass() == DXT1Compressor.class || compressor.getClass() == DXT3Compressor.class;
+    }
+
+    protected java.nio.ByteBuffer doCompressImageParallel(DXTCompressor compressor,
+        java.awt.image.BufferedImage image, DXTCompressionAttributes attributes)
+    {
+        DDSHeader header = this.createDDSHeader(compressor, image, attributes);
+        int dxtFormat = compressor.getDXTFormat();
+
+        // Compute the DDS file size and mip map levels as doCompressImage does. The mip map chain comes from
+        // buildMipMaps, so subclasses that override it affect both compression paths alike.
+        java.awt.image.BufferedImage[] mipMapLevels = null;
+        int fileSize = 4 + header.getSize();
+
+        if (attributes.isBuildMipmaps())
+        {
+            mipMapLevels = this.buildMipMaps(image, attributes);
+            for (java.awt.image.BufferedImage mipMapImage : mipMapLevels)
+            {
+                fileSize += ParallelDXTCompressor.getCompressedSize(dxtFormat, mipMapImage.getWidth(),
+                    mipMapImage.getHeight());
+            }
+
+            header.setFlags(header.getFlags()
+                | DDSConstants.DDSD_MIPMAPCOUNT);
+            header.setMipMapCount(mipMapLevels.length);
+        }
+        else
+        {
+            fileSize += ParallelDXTCompressor.getCompressedSize(dxtFormat, image.getWidth(), image.getHeight());
+        }
+
+        java.nio.ByteBuffer buffer = this.createBuffer(fileSize);
+        buffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putInt(DDSConstants.MAGIC);
+        this.writeDDSHeader(header, buffer);
+
+        if (mipMapLevels == null)
+        {
+            this.parallelCompressor.compressImage(image, dxtFormat, attributes, buffer);
+        }
+        else
+        {
+            for (java.awt.image.BufferedImage mipMapImage : mipMapLevels)
+            {
+                this.parallelCompressor.compressImage(mipMapImage, dxtFormat, attributes, buffer);
+            }
+        }
+
+        buffer.rewind();
+        return buffer;
+    }
+
     protected DXTCompressor getDXTCompressor(java.awt.image.BufferedImage image, DXTCompressionAttributes attributes)
     {
         // If the caller specified a DXT format in the attributes, then we return a compressor matching that format.
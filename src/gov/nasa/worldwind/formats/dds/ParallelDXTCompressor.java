@@ -0,0 +1,679 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.dds;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.awt.image.BufferedImage;
+import java.nio.*;
+import java.util.concurrent.*;
+
+/**
+ * Compresses images into DXT1 or DXT3 blocks, compressing rows of blocks concurrently on a {@link ForkJoinPool}. The
+ * compressed blocks are identical to those produced by {@link DXT1Compressor} and {@link DXT3Compressor} for every
+ * combination of {@link DXTCompressionAttributes}, but the compressor reads pixels as packed ARGB integers and keeps
+ * colors in integer arrays reused for each block, rather than in {@link ColorBlock4x4} and {@link Color32} objects.
+ * <p>
+ * Each task compresses a band of block rows and allocates its working arrays once. The tasks write their blocks at
+ * fixed offsets in the output buffer, so the output does not depend on the order in which the tasks run. This class is
+ * thread safe.
+ */
+public class ParallelDXTCompressor
+{
+    /** The number of block rows below which a band of rows is compressed on one thread. */
+    protected static final int DEFAULT_ROWS_PER_TASK = 4;
+
+    protected static final int[] REMAINDER =
+        {
+            0, 0, 0, 0,
+            0, 1, 0, 1,
+            0, 1, 2, 0,
+            0, 1, 2, 3,
+        };
+
+    protected final ForkJoinPool pool;
+
+    /** Creates a compressor that runs on the common fork-join pool. */
+    public ParallelDXTCompressor()
+    {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a compressor that runs on a specified fork-join pool.
+     *
+     * @param pool the pool to compress on.
+     *
+     * @throws IllegalArgumentException if the pool is null.
+     */
+    public ParallelDXTCompressor(ForkJoinPool pool)
+    {
+        if (pool == null)
+        {
+            String message = Logging.getMessage("nullValue.ThreadPoolIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the pool this compressor runs on.
+     *
+     * @return the compressor's fork-join pool.
+     */
+    public ForkJoinPool getPool()
+    {
+        return this.pool;
+    }
+
+    /**
+     * Indicates whether this compressor supports a DXT format.
+     *
+     * @param dxtFormat the DXT format, one of the DXT constants of {@link DDSConstants}.
+     *
+     * @return true if the format is DXT1 or DXT3, otherwise false.
+     */
+    public static boolean isFormatSupported(int dxtFormat)
+    {
+        return dxtFormat == DDSConstants.D3DFMT_DXT1 || dxtFormat == DDSConstants.D3DFMT_DXT3;
+    }
+
+    /**
+     * Returns the size in bytes of an image compressed in a DXT format.
+     *
+     * @param dxtFormat the DXT format, either DXT1 or DXT3.
+     * @param width     the image width.
+     * @param height    the image height.
+     *
+     * @return the compressed size in bytes.
+     */
+    public static int getCompressedSize(int dxtFormat, int width, int height)
+    {
+        return getBlockCount(width, height) * getBlockSize(dxtFormat);
+    }
+
+    protected static int getBlockCount(int width, int height)
+    {
+        return ((width + 3) / 4) * ((height + 3) / 4);
+    }
+
+    protected static int getBlockSize(int dxtFormat)
+    {
+        return (dxtFormat == DDSConstants.D3DFMT_DXT1) ? 8 : 16;
+    }
+
+    /**
+     * Compresses an image into DXT blocks, and writes the blocks to a buffer starting at its current position. The
+     * buffer's position is advanced past the blocks. Returns once every block is written.
+     *
+     * @param image      the image to compress.
+     * @param dxtFormat  the DXT format, either DXT1 or DXT3.
+     * @param attributes the attributes that control the compression.
+     * @param buffer     the buffer that receives the compressed blocks. Must have at least {@link
+     *                   #getCompressedSize(int, int, int)} bytes remaining.
+     *
+     * @throws IllegalArgumentException if any argument is null, or the format is not supported.
+     */
+    public void compressImage(BufferedImage image, int dxtFormat, DXTCompressionAttributes attributes,
+        ByteBuffer buffer)
+    {
+        if (image == null)
+        {
+            String message = Logging.getMessage("nullValue.ImageIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (!isFormatSupported(dxtFormat))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "dxtFormat=" + dxtFormat);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (attributes == null)
+        {
+            String message = Logging.getMessage("nullValue.AttributesIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int blockRows = (image.getHeight() + 3) / 4;
+        int offset = buffer.position();
+
+        CompressTask task = new CompressTask(image, dxtFormat, attributes, buffer, offset, 0, blockRows);
+        if (blockRows <= DEFAULT_ROWS_PER_TASK)
+            task.invoke(); // too small to be worth distributing
+        else
+            this.pool.invoke(task);
+
+        buffer.position(offset + getCompressedSize(dxtFormat, image.getWidth(), image.getHeight()));
+    }
+
+    /** Compresses a range of block rows, splitting the range in half until it's small enough to compress directly. */
+    protected static class CompressTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        protected final BufferedImage image;
+        protected final int dxtFormat;
+        protected final DXTCompressionAttributes attributes;
+        protected final ByteBuffer buffer;
+        protected final int offset;
+        protected final int firstRow;
+        protected final int lastRow; // exclusive
+
+        public CompressTask(BufferedImage image, int dxtFormat, DXTCompressionAttributes attributes,
+            ByteBuffer buffer, int offset, int firstRow, int lastRow)
+        {
+            this.image = image;
+            this.dxtFormat = dxtFormat;
+            this.attributes = attributes;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (this.lastRow - this.firstRow <= DEFAULT_ROWS_PER_TASK)
+            {
+                new BlockEncoder(this.image, this.dxtFormat, this.attributes, this.buffer, this.offset)
+                    .encodeRows(this.firstRow, this.lastRow);
+                return;
+            }
+
+            int middleRow = (this.firstRow + this.lastRow) >>> 1;
+            invokeAll(
+                new CompressTask(this.image, this.dxtFormat, this.attributes, this.buffer, this.offset,
+                    this.firstRow, middleRow),
+                new CompressTask(this.image, this.dxtFormat, this.attributes, this.buffer, this.offset,
+                    middleRow, this.lastRow));
+        }
+    }
+
+    /**
+     * Encodes blocks of one image. An encoder's arrays are reused for every block it encodes, so an encoder must be
+     * used by one thread. The arithmetic mirrors that of {@link BasicColorBlockExtractor}, {@link BlockDXT1Compressor}
+     * and {@link BlockDXT3Compressor} operation for operation, including their rounding and tie breaking.
+     */
+    protected static class BlockEncoder
+    {
+        protected final BufferedImage image;
+        protected final int width;
+        protected final int height;
+        protected final int dxtFormat;
+        protected final int blockSize;
+        protected final int blocksPerRow;
+        protected final boolean premultiplyAlpha;
+        protected final boolean useDXT1Alpha;
+        protected final int alphaThreshold;
+        protected final String compressionType;
+        protected final ByteBuffer buffer;
+        protected final int offset;
+        // Pixels of one row of blocks, as packed 8888 ARGB integers.
+        protected final int[] pixels;
+        // Components of the block being encoded.
+        protected final int[] a = new int[16];
+        protected final int[] r = new int[16];
+        protected final int[] g = new int[16];
+        protected final int[] b = new int[16];
+        // Palette colors of the block being encoded.
+        protected final int[] pr = new int[4];
+        protected final int[] pg = new int[4];
+        protected final int[] pb = new int[4];
+        // Minimum and maximum colors of the block being encoded, as {r, g, b}.
+        protected final int[] min = new int[3];
+        protected final int[] max = new int[3];
+
+        public BlockEncoder(BufferedImage image, int dxtFormat, DXTCompressionAttributes attributes,
+            ByteBuffer buffer, int offset)
+        {
+            this.image = image;
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.dxtFormat = dxtFormat;
+            this.blockSize = getBlockSize(dxtFormat);
+            this.blocksPerRow = (this.width + 3) / 4;
+            this.premultiplyAlpha = attributes.isPremultiplyAlpha();
+            this.useDXT1Alpha = dxtFormat == DDSConstants.D3DFMT_DXT1 && attributes.isEnableDXT1Alpha()
+                && image.getColorModel().hasAlpha();
+            this.alphaThreshold = attributes.getDXT1AlphaThreshold();
+            this.compressionType = attributes.getColorBlockCompressionType();
+            // Absolute puts on a duplicate leave the caller's buffer untouched. Duplicates don't inherit byte order.
+            this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            this.offset = offset;
+            this.pixels = new int[this.width * 4];
+        }
+
+        public void encodeRows(int firstRow, int lastRow)
+        {
+            for (int row = firstRow; row < lastRow; row++)
+            {
+                int y = row * 4;
+                int rowHeight = Math.min(this.height - y, 4);
+                this.image.getRGB(0, y, this.width, rowHeight, this.pixels, 0, this.width);
+
+                int position = this.offset + row * this.blocksPerRow * this.blockSize;
+                for (int x = 0; x < this.width; x += 4)
+                {
+                    this.extractBlock(x, rowHeight);
+                    this.encodeBlock(position);
+                    position += this.blockSize;
+                }
+            }
+        }
+
+        protected void extractBlock(int x, int rowHeight)
+        {
+            // Blocks that extend beyond the image repeat the image pixels that intersect the block.
+            int bxOffset = 4 * (Math.min(this.width - x, 4) - 1);
+            int byOffset = 4 * (rowHeight - 1);
+
+            for (int j = 0, i = 0; j < 4; j++)
+            {
+                int rowStart = REMAINDER[byOffset + j] * this.width + x;
+                for (int k = 0; k < 4; k++, i++)
+                {
+                    int argb = this.pixels[rowStart + REMAINDER[bxOffset + k]];
+                    this.a[i] = 0xFF & (argb >> 24);
+                    this.r[i] = 0xFF & (argb >> 16);
+                    this.g[i] = 0xFF & (argb >> 8);
+                    this.b[i] = 0xFF & argb;
+                }
+            }
+
+            if (this.premultiplyAlpha)
+            {
+                for (int i = 0; i < 16; i++)
+                {
+                    this.r[i] = div255(this.r[i] * this.a[i]);
+                    this.g[i] = div255(this.g[i] * this.a[i]);
+                    this.b[i] = div255(this.b[i] * this.a[i]);
+                }
+            }
+        }
+
+        protected void encodeBlock(int position)
+        {
+            if (this.dxtFormat == DDSConstants.D3DFMT_DXT3)
+            {
+                this.buffer.putLong(position, this.computeAlphaValueMask());
+                position += 8;
+            }
+
+            this.chooseMinMaxColors();
+            int color0 = short565(this.max[0], this.max[1], this.max[2]);
+            int color1 = short565(this.min[0], this.min[1], this.min[2]);
+            if (color0 < color1)
+            {
+                int tmp = color0;
+                color0 = color1;
+                color1 = tmp;
+            }
+
+            long mask;
+            if (this.useDXT1Alpha && this.hasDXT1Alpha())
+            {
+                // A three color palette with transparent black, which requires the first color to be the lesser.
+                this.computeColorPalette3(color1, color0);
+                mask = this.computePaletteIndices3();
+                int tmp = color0;
+                color0 = color1;
+                color1 = tmp;
+            }
+            else
+            {
+                this.computeColorPalette4(color0, color1);
+                mask = this.computePaletteIndices4();
+            }
+
+            this.buffer.putShort(position, (short) color0);
+            this.buffer.putShort(position + 2, (short) color1);
+            this.buffer.putInt(position + 4, (int) mask);
+        }
+
+        protected boolean hasDXT1Alpha()
+        {
+            for (int i = 0; i < 16; i++)
+            {
+                if (this.a[i] < this.alphaThreshold)
+                    return true;
+            }
+
+            return false;
+        }
+
+        protected long computeAlphaValueMask()
+        {
+            long bitmask = 0L;
+
+            for (int i = 0; i < 8; i++)
+            {
+                int a0 = 0xF & alpha4FromAlpha8(this.a[2 * i]);
+                int a1 = 0xF & alpha4FromAlpha8(this.a[2 * i + 1]);
+                long mask10 = (a1 << 4) | a0;
+                bitmask |= (mask10 << (8 * i));
+            }
+
+            return bitmask;
+        }
+
+        @SuppressWarnings("StringEquality")
+        protected void chooseMinMaxColors()
+        {
+            // Compression types are compared by identity, as BlockDXT1Compressor compares them. An unrecognized type
+            // leaves both colors black.
+            if (this.compressionType == DXTCompressionAttributes.COLOR_BLOCK_COMPRESSION_BBOX)
+            {
+                this.findMinMaxColorsBox();
+                this.selectDiagonal();
+                this.insetBox();
+            }
+            else if (this.compressionType == DXTCompressionAttributes.COLOR_BLOCK_COMPRESSION_EUCLIDEAN_DISTANCE)
+            {
+                this.findMinMaxColorsEuclideanDistance();
+            }
+            else if (this.compressionType == DXTCompressionAttributes.COLOR_BLOCK_COMPRESSION_LUMINANCE_DISTANCE)
+            {
+                this.findMinMaxColorsLuminanceDistance();
+            }
+            else
+            {
+                this.setColor(this.min, 0, 0, 0);
+                this.setColor(this.max, 0, 0, 0);
+            }
+        }
+
+        protected void findMinMaxColorsBox()
+        {
+            this.setColor(this.min, 255, 255, 255);
+            this.setColor(this.max, 0, 0, 0);
+
+            for (int i = 0; i < 16; i++)
+            {
+                this.min[0] = Math.min(this.min[0], this.r[i]);
+                this.min[1] = Math.min(this.min[1], this.g[i]);
+                this.min[2] = Math.min(this.min[2], this.b[i]);
+                this.max[0] = Math.max(this.max[0], this.r[i]);
+                this.max[1] = Math.max(this.max[1], this.g[i]);
+                this.max[2] = Math.max(this.max[2], this.b[i]);
+            }
+        }
+
+        protected void selectDiagonal()
+        {
+            int centerR = (this.min[0] + this.max[0]) / 2;
+            int centerG = (this.min[1] + this.max[1]) / 2;
+            int centerB = (this.min[2] + this.max[2]) / 2;
+
+            int cvx = 0;
+            int cvy = 0;
+            for (int i = 0; i < 16; i++)
+            {
+                int tz = this.b[i] - centerB;
+                cvx += (this.r[i] - centerR) * tz;
+                cvy += (this.g[i] - centerG) * tz;
+            }
+
+            if (cvx < 0)
+            {
+                int tmp = this.min[0];
+                this.min[0] = this.max[0];
+                this.max[0] = tmp;
+            }
+
+            if (cvy < 0)
+            {
+                int tmp = this.min[1];
+                this.min[1] = this.max[1];
+                this.max[1] = tmp;
+            }
+        }
+
+        protected void insetBox()
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                int inset = (this.max[c] - this.min[c]) >> 4;
+                this.min[c] = (this.min[c] + inset < 255) ? (this.min[c] + inset) : 255;
+                this.max[c] = (this.max[c] > inset) ? (this.max[c] - inset) : 0;
+            }
+        }
+
+        protected void findMinMaxColorsEuclideanDistance()
+        {
+            int maxDistance = -1;
+            int minIndex = 0;
+            int maxIndex = 0;
+
+            for (int i = 0; i < 15; i++)
+            {
+                for (int j = i + 1; j < 16; j++)
+                {
+                    int d = this.distanceSquared(i, this.r[j], this.g[j], this.b[j]);
+                    if (d > maxDistance)
+                    {
+                        minIndex = i;
+                        maxIndex = j;
+                        maxDistance = d;
+                    }
+                }
+            }
+
+            this.setColor(this.min, this.r[minIndex], this.g[minIndex], this.b[minIndex]);
+            this.setColor(this.max, this.r[maxIndex], this.g[maxIndex], this.b[maxIndex]);
+        }
+
+        protected void findMinMaxColorsLuminanceDistance()
+        {
+            int minLuminance = Integer.MAX_VALUE;
+            int maxLuminance = -1;
+            int minIndex = 0;
+            int maxIndex = 0;
+
+            for (int i = 0; i < 16; i++)
+            {
+                int luminance = this.r[i] + this.g[i] + 2 * this.b[i];
+                if (luminance < minLuminance)
+                {
+                    minIndex = i;
+                    minLuminance = luminance;
+                }
+                if (luminance > maxLuminance)
+                {
+                    maxIndex = i;
+                    maxLuminance = luminance;
+                }
+            }
+
+            this.setColor(this.min, this.r[minIndex], this.g[minIndex], this.b[minIndex]);
+            this.setColor(this.max, this.r[maxIndex], this.g[maxIndex], this.b[maxIndex]);
+        }
+
+        protected void computeColorPalette3(int color0, int color1)
+        {
+            this.setPaletteColor(0, color0);
+            this.setPaletteColor(1, color1);
+            this.pr[2] = (this.pr[0] + this.pr[1]) / 2;
+            this.pg[2] = (this.pg[0] + this.pg[1]) / 2;
+            this.pb[2] = (this.pb[0] + this.pb[1]) / 2;
+            this.pr[3] = this.pg[3] = this.pb[3] = 0;
+        }
+
+        protected void computeColorPalette4(int color0, int color1)
+        {
+            this.setPaletteColor(0, color0);
+            this.setPaletteColor(1, color1);
+            this.pr[2] = (2 * this.pr[0] + this.pr[1]) / 3;
+            this.pg[2] = (2 * this.pg[0] + this.pg[1]) / 3;
+            this.pb[2] = (2 * this.pb[0] + this.pb[1]) / 3;
+            this.pr[3] = (this.pr[0] + 2 * this.pr[1]) / 3;
+            this.pg[3] = (this.pg[0] + 2 * this.pg[1]) / 3;
+            this.pb[3] = (this.pb[0] + 2 * this.pb[1]) / 3;
+        }
+
+        protected long computePaletteIndices3()
+        {
+            long mask = 0L;
+
+            for (int i = 0; i < 16; i++)
+            {
+                int d0 = this.paletteDistanceSquared(0, i);
+                int d1 = this.paletteDistanceSquared(1, i);
+                int d2 = this.paletteDistanceSquared(2, i);
+
+                long index;
+                if (this.a[i] < this.alphaThreshold)
+                    index = 3;
+                else if (d0 < d1 && d0 < d2)
+                    index = 0;
+                else if (d1 < d2)
+                    index = 1;
+                else
+                    index = 2;
+
+                mask |= (index << (i << 1));
+            }
+
+            return mask;
+        }
+
+        protected long computePaletteIndices4()
+        {
+            long mask = 0L;
+
+            for (int i = 0; i < 16; i++)
+            {
+                int d0 = this.paletteDistanceSquared(0, i);
+                int d1 = this.paletteDistanceSquared(1, i);
+                int d2 = this.paletteDistanceSquared(2, i);
+                int d3 = this.paletteDistanceSquared(3, i);
+
+                // Derive the index from the distance comparisons without branching.
+                int b0 = greaterThan(d0, d3);
+                int b1 = greaterThan(d1, d2);
+                int b2 = greaterThan(d0, d2);
+                int b3 = greaterThan(d1, d3);
+                int b4 = greaterThan(d2, d3);
+
+                int x0 = b1 & b2;
+                int x1 = b0 & b3;
+                int x2 = b0 & b4;
+
+                long index = (x2 | ((x0 | x1) << 1));
+                mask |= (index << (i << 1));
+            }
+
+            return mask;
+        }
+
+        protected void setPaletteColor(int index, int color16)
+        {
+            int r5 = (color16 & 0xf800) >> 11;
+            int g6 = (color16 & 0x07e0) >> 5;
+            int b5 = (color16 & 0x001f);
+
+            this.pr[index] = (r5 << 3) | (r5 >> 2);
+            this.pg[index] = (g6 << 2) | (g6 >> 4);
+            this.pb[index] = (b5 << 3) | (b5 >> 2);
+        }
+
+        protected void setColor(int[] color, int r, int g, int b)
+        {
+            color[0] = r;
+            color[1] = g;
+            color[2] = b;
+        }
+
+        protected int distanceSquared(int i, int r, int g, int b)
+        {
+            int dr = this.r[i] - r;
+            int dg = this.g[i] - g;
+            int db = this.b[i] - b;
+            return dr * dr + dg * dg + db * db;
+        }
+
+        protected int paletteDistanceSquared(int paletteIndex, int i)
+        {
+            int dr = this.pr[paletteIndex] - this.r[i];
+            int dg = this.pg[paletteIndex] - this.g[i];
+            int db = this.pb[paletteIndex] - this.b[i];
+            return dr * dr + dg * dg + db * db;
+        }
+    }
+
+    protected static int short565(int r, int g, int b)
+    {
+        return (mul8bit(r, 31) << 11) + (mul8bit(g, 63) << 5) + (mul8bit(b, 31));
+    }
+
+    protected static int mul8bit(int a, int b)
+    {
+        int t = a * b + 128;
+        return (t + (t >> 8)) >> 8;
+    }
+
+    protected static int greaterThan(int a, int b)
+    {
+        // The sign bit of b-a is one if and only if a is greater than b.
+        return (b - a) >>> 31;
+    }
+
+    protected static int div255(int a)
+    {
+        return (a + (a >> 8) + 128) >> 8;
+    }
+
+    protected static int alpha4FromAlpha8(int alpha8)
+    {
+        // Choose the nearest of the three 4 bit values nearest the 8 bit value.
+        int q0 = Math.max((alpha8 >> 4) - 1, 0);
+        int q1 = (alpha8 >> 4);
+        int q2 = Math.min((alpha8 >> 4) + 1, 0xF);
+
+        int d0 = (((q0 << 4) | q0) - alpha8) * (((q0 << 4) | q0) - alpha8);
+        int d1 = (((q1 << 4) | q1) - alpha8) * (((q1 << 4) | q1) - alpha8);
+        int d2 = (((q2 << 4) | q2) - alpha8) * (((q2 << 4) | q2) - alpha8);
+
+        if (d0 < d1 && d0 < d2)
+            return q0;
+        if (d1 < d2)
+            return q1;
+        return q2;
+    }
+}
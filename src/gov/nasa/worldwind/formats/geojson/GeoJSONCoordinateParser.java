@@ -138,7 +138,16 @@ public class GeoJSONCoordinateParser extends GeoJSONEventParser
         if (this.posBuffer == null || this.startPos == this.endPos)
             return null;
 
-        return new GeoJSONPositionArray(positionSize, this.posBuffer, this.startPos, this.endPos);
+        // Copy the array's coordinates into a buffer of their exact size, and reuse the parser's buffer for the next
+        // array. This parser is shared by every coordinates member of a document, so a position array that referenced
+        // the parser's buffer would retain the buffer's spare capacity and every earlier array's coordinates.
+        double[] coords = new double[this.endPos - this.startPos];
+        DoubleBuffer range = this.posBuffer.duplicate();
+        range.limit(this.endPos).position(this.startPos);
+        range.get(coords);
+        this.posBuffer.position(this.startPos);
+
+        return new GeoJSONPositionArray(positionSize, DoubleBuffer.wrap(coords), 0, coords.length);
     }
 
     protected DoubleBuffer allocatePositionBuffer(int capacity)
@@ -0,0 +1,483 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.shapefile;
+
+import gov.nasa.worldwind.util.*;
+
+import java.nio.ByteBuffer;
+import java.text.*;
+import java.util.Date;
+import java.util.logging.Level;
+
+/**
+ * A read-only, columnar view of one field of a {@link DBaseFile}. Values are read directly from the file's memory
+ * mapped records and decoded only when requested: numeric values are parsed from the field's bytes without creating
+ * intermediate strings, and no {@link DBaseRecord} is created. Columns are created by {@link
+ * DBaseFile#getColumn(String)} and {@link DBaseFile#getColumns(java.util.Collection)}.
+ * <p>
+ * Rows are addressed by their zero-based position in the file. A value is null if the field is empty or filled with
+ * spaces or asterisks, in which case the typed accessors return their default value. Columns may be read concurrently
+ * from multiple threads.
+ */
+public class DBaseColumn
+{
+    protected final DBaseFile dbaseFile;
+    protected final DBaseField field;
+    protected final ByteBuffer buffer;
+    protected final CharSequence chars;
+    protected final int fieldOffset;
+    protected final int headerLength;
+    protected final int recordLength;
+    protected final int numRows;
+
+    /**
+     * Creates a column for the specified field.
+     *
+     * @param dbaseFile   the file containing the field.
+     * @param field       the field.
+     * @param buffer      the file's contents.
+     * @param fieldOffset the field's offset in bytes from the start of each record.
+     *
+     * @throws IllegalArgumentException if the file, field or buffer is null.
+     */
+    public DBaseColumn(DBaseFile dbaseFile, DBaseField field, ByteBuffer buffer, int fieldOffset)
+    {
+        if (dbaseFile == null)
+        {
+            String message = Logging.getMessage("nullValue.DBaseFileIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (field == null)
+        {
+            String message = Logging.getMessage("nullValue.FieldIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.dbaseFile = dbaseFile;
+        this.field = field;
+        this.buffer = buffer;
+        this.chars = new ByteCharSequence(buffer);
+        this.fieldOffset = fieldOffset;
+        this.headerLength = dbaseFile.getHeaderLength();
+        this.recordLength = dbaseFile.getRecordLength();
+
+        // Guard against a header that claims more records than the file holds.
+        long available = (buffer.capacity() - (long) this.headerLength) / Math.max(this.recordLength, 1);
+        this.numRows = (int) Math.max(0, Math.min(dbaseFile.getNumberOfRecords(), available));
+    }
+
+    public DBaseField getField()
+    {
+        return this.field;
+    }
+
+    public String getName()
+    {
+        return this.field.getName();
+    }
+
+    public int getNumberOfRows()
+    {
+        return this.numRows;
+    }
+
+    /**
+     * Indicates whether the specified row is marked as deleted.
+     *
+     * @param row the zero-based row index.
+     *
+     * @return true if the row is deleted, otherwise false.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public boolean isDeleted(int row)
+    {
+        return this.buffer.get(this.rowOffset(row)) == 0x2A;
+    }
+
+    /**
+     * Indicates whether the value in the specified row is null.
+     *
+     * @param row the zero-based row index.
+     *
+     * @return true if the value is null, otherwise false.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public boolean isNull(int row)
+    {
+        int start = this.rowOffset(row) + this.fieldOffset;
+        int length = this.valueLength(start);
+        if (length == 0)
+            return true;
+
+        byte first = this.buffer.get(start);
+        if (first != 0x20 && first != 0x2A)
+            return false;
+
+        for (int i = 1; i < length; i++)
+        {
+            if (this.buffer.get(start + i) != first)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the value in the specified row as a string, with leading and trailing white space removed.
+     *
+     * @param row the zero-based row index.
+     *
+     * @return the row's value, or null if the value is null.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public String getString(int row)
+    {
+        if (this.isNull(row))
+            return null;
+
+        int start = this.rowOffset(row) + this.fieldOffset;
+        byte[] bytes = new byte[this.valueLength(start)];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = this.buffer.get(start + i);
+        }
+
+        String s = this.dbaseFile.decodeString(bytes, bytes.length);
+        return (s != null) ? s.trim() : null;
+    }
+
+    /**
+     * Returns the value in the specified row as a double.
+     *
+     * @param row the zero-based row index.
+     *
+     * @return the row's value, or NaN if the value is null or is not a number.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public double getDouble(int row)
+    {
+        int start = this.rowOffset(row) + this.fieldOffset;
+        int end = start + this.valueLength(start);
+        start = this.trimStart(start, end);
+        end = this.trimEnd(start, end);
+
+        if (start == end)
+            return Double.NaN;
+
+        // Plain decimals are parsed directly from the buffer. Anything else, such as longer mantissas or exponents, is
+        // passed to Double.parseDouble.
+        double value = WWUtil.parseExactDecimal(this.chars, start, end);
+        if (Double.isNaN(value))
+            value = this.parseDouble(start, end);
+
+        return value;
+    }
+
+    /**
+     * Returns the value in the specified row as a long. Decimal values are truncated. Integer values are parsed
+     * exactly, as {@link DBaseRecord} parses them, so values beyond 2^53 keep all of their digits.
+     *
+     * @param row          the zero-based row index.
+     * @param defaultValue the value to return if the row's value is null or is not a number.
+     *
+     * @return the row's value, or the default value.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public long getLong(int row, long defaultValue)
+    {
+        int start = this.rowOffset(row) + this.fieldOffset;
+        int end = start + this.valueLength(start);
+        start = this.trimStart(start, end);
+        end = this.trimEnd(start, end);
+
+        if (start == end)
+            return defaultValue;
+
+        int i = start;
+        boolean negative = false;
+        byte b = this.buffer.get(i);
+        if (b == '-' || b == '+')
+        {
+            negative = (b == '-');
+            i++;
+        }
+
+        // Accumulate the integer digits as a negative number, whose range includes Long.MIN_VALUE. Digits after the
+        // decimal point are validated and truncated. Anything else, such as exponents or values beyond the range of a
+        // long, is parsed as a double and truncated.
+        long value = 0;
+        int numDigits = 0;
+        boolean decimalPoint = false;
+        for (; i < end; i++)
+        {
+            b = this.buffer.get(i);
+            if (b >= '0' && b <= '9')
+            {
+                numDigits++;
+                if (decimalPoint)
+                    continue;
+
+                int digit = b - '0';
+                if (value < (Long.MIN_VALUE + digit) / 10)
+                    return this.truncateDouble(start, end, defaultValue);
+                value = 10 * value - digit;
+            }
+            else if (b == '.' && !decimalPoint)
+            {
+                decimalPoint = true;
+            }
+            else
+            {
+                return this.truncateDouble(start, end, defaultValue);
+            }
+        }
+
+        if (numDigits == 0)
+            return defaultValue;
+
+        if (!negative && value == Long.MIN_VALUE)
+            return this.truncateDouble(start, end, defaultValue);
+
+        return negative ? value : -value;
+    }
+
+    /**
+     * Returns the value in the specified row as an int. Decimal values are truncated, and values beyond the range of
+     * an int are narrowed as a cast from long narrows them.
+     *
+     * @param row          the zero-based row index.
+     * @param defaultValue the value to return if the row's value is null or is not a number.
+     *
+     * @return the row's value, or the default value.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public int getInt(int row, int defaultValue)
+    {
+        return (int) this.getLong(row, defaultValue);
+    }
+
+    /**
+     * Returns the value in the specified row as a boolean. The values "T", "t", "Y" and "y" are true.
+     *
+     * @param row the zero-based row index.
+     *
+     * @return the row's value, or false if the value is null.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public boolean getBoolean(int row)
+    {
+        if (this.isNull(row))
+            return false;
+
+        int start = this.rowOffset(row) + this.fieldOffset;
+        int end = start + this.valueLength(start);
+        for (int i = start; i < end; i++)
+        {
+            byte b = this.buffer.get(i);
+            if (b != 0x20)
+                return b == 'T' || b == 't' || b == 'Y' || b == 'y';
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the value in the specified row as the type {@link DBaseRecord} uses for the field: a String for
+     * character fields, a Long or Double for number fields depending on whether the field has decimals, a Boolean for
+     * logical fields and a Date for date fields.
+     *
+     * @param row the zero-based row index.
+     *
+     * @return the row's value, or null if the value is null or cannot be parsed.
+     *
+     * @throws IllegalArgumentException if the row is out of range.
+     */
+    public Object getValue(int row)
+    {
+        if (this.isNull(row))
+            return null;
+
+        String type = this.field.getType();
+        if (DBaseField.TYPE_NUMBER.equals(type))
+        {
+            double d = this.getDouble(row);
+            if (Double.isNaN(d))
+                return null;
+            return (this.field.getDecimals() > 0) ? (Object) d : (Object) this.getLong(row, (long) d);
+        }
+        else if (DBaseField.TYPE_BOOLEAN.equals(type))
+        {
+            return this.getBoolean(row);
+        }
+        else if (DBaseField.TYPE_DATE.equals(type))
+        {
+            String s = this.getString(row);
+            try
+            {
+                return new SimpleDateFormat("yyyyMMdd").parse(s);
+            }
+            catch (ParseException e)
+            {
+                Logging.logger().log(Level.WARNING, Logging.getMessage("SHP.FieldParsingError", this.field, s), e);
+                return null;
+            }
+        }
+        else
+        {
+            return this.getString(row);
+        }
+    }
+
+    protected int rowOffset(int row)
+    {
+        if (row < 0 || row >= this.numRows)
+        {
+            String message = Logging.getMessage("generic.indexOutOfRange", row);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return this.headerLength + row * this.recordLength;
+    }
+
+    /** Returns the length of the value starting at the specified position, which ends at the first zero byte. */
+    protected int valueLength(int start)
+    {
+        int length = 0;
+        while (length < this.field.getLength() && this.buffer.get(start + length) != 0)
+        {
+            length++;
+        }
+
+        return length;
+    }
+
+    /** Returns the position of the first byte in the specified range that is not a space. */
+    protected int trimStart(int start, int end)
+    {
+        while (start < end && this.buffer.get(start) == 0x20)
+        {
+            start++;
+        }
+
+        return start;
+    }
+
+    /** Returns the position following the last byte in the specified range that is not a space. */
+    protected int trimEnd(int start, int end)
+    {
+        while (end > start && this.buffer.get(end - 1) == 0x20)
+        {
+            end--;
+        }
+
+        return end;
+    }
+
+    protected long truncateDouble(int start, int end, long defaultValue)
+    {
+        double d = this.parseDouble(start, end);
+        return Double.isNaN(d) ? defaultValue : (long) d;
+    }
+
+    protected double parseDouble(int start, int end)
+    {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            bytes[i] = this.buffer.get(start + i);
+        }
+
+        try
+        {
+            return Double.parseDouble(new String(bytes, "US-ASCII"));
+        }
+        catch (Exception e)
+        {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * A read-only view of a buffer's ASCII bytes as characters. Bytes are read with absolute gets, so the view may be
+     * read concurrently from multiple threads.
+     */
+    protected static class ByteCharSequence implements CharSequence
+    {
+        protected final ByteBuffer buffer;
+
+        public ByteCharSequence(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        public int length()
+        {
+            return this.buffer.limit();
+        }
+
+        public char charAt(int index)
+        {
+            return (char) (this.buffer.get(index) & 0xff);
+        }
+
+        public CharSequence subSequence(int start, int end)
+        {
+            StringBuilder sb = new StringBuilder(end - start);
+            for (int i = start; i < end; i++)
+            {
+                sb.append(this.charAt(i));
+            }
+
+            return sb;
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.subSequence(0, this.length()).toString();
+        }
+    }
+}
@@ -66,6 +66,10 @@ public class DBaseFile extends AVListImpl
     protected DBaseField[] fields;
     // Source streams and read parameters.
     protected ReadableByteChannel channel;
+    protected File file;
+    protected FileChannel randomAccessChannel;
+    protected ByteBuffer mappedBuffer;
+    protected Set<String> selectedFieldNames;
     protected boolean open;
     protected int numRecordsRead;
     protected ByteBuffer recordBuffer;
@@ -160,6 +164,128 @@ public class DBaseFile extends AVListImpl
         return this.fields;
     }
 
+    /**
+     * Specifies the names of the fields to decode when reading records. Fields not in the set are skipped, and are
+     * absent from the {@link DBaseRecord}s returned by {@link #nextRecord()} and {@link #getRecord(int)}. Specify null
+     * to decode all fields, which is the default.
+     *
+     * @param fieldNames the names of the fields to decode, or null to decode all fields.
+     */
+    public void setSelectedFieldNames(Collection<String> fieldNames)
+    {
+        this.selectedFieldNames = (fieldNames != null) ? new HashSet<String>(fieldNames) : null;
+    }
+
+    /**
+     * Indicates the names of the fields decoded when reading records.
+     *
+     * @return the names of the fields to decode, or null if all fields are decoded.
+     */
+    public Set<String> getSelectedFieldNames()
+    {
+        return (this.selectedFieldNames != null) ? Collections.unmodifiableSet(this.selectedFieldNames) : null;
+    }
+
+    protected boolean isFieldSelected(DBaseField field)
+    {
+        return this.selectedFieldNames == null || this.selectedFieldNames.contains(field.getName());
+    }
+
+    /**
+     * Returns a columnar view of the field with the specified name. The column reads its values directly from a memory
+     * mapped view of the file, decoding each value only when it is requested. No records are read to create the
+     * column, and other fields are never decoded. Columns are available while the file is open, if it was opened from
+     * a local file; see {@link #isRandomAccessSupported()}.
+     *
+     * @param fieldName the field's name.
+     *
+     * @return a column for the field, or null if the file has no field with the specified name.
+     *
+     * @throws IllegalArgumentException if the field name is null.
+     * @throws IllegalStateException    if the file is closed or was not opened from a local file.
+     * @throws WWRuntimeException       if the file cannot be memory mapped.
+     */
+    public DBaseColumn getColumn(String fieldName)
+    {
+        if (fieldName == null)
+        {
+            String message = Logging.getMessage("nullValue.NameIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        ByteBuffer buffer = this.getMappedBuffer();
+
+        int offset = 1; // Skip the deleted record flag.
+        for (DBaseField field : this.fields)
+        {
+            if (field.getName().equals(fieldName))
+                return new DBaseColumn(this, field, buffer, offset);
+
+            offset += field.getLength();
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns columnar views of the fields with the specified names. See {@link #getColumn(String)}. Names that do not
+     * match a field in the file are ignored.
+     *
+     * @param fieldNames the names of the fields.
+     *
+     * @return a map from field name to column, in the order the names are specified.
+     *
+     * @throws IllegalArgumentException if the collection of names is null.
+     * @throws IllegalStateException    if the file is closed or was not opened from a local file.
+     * @throws WWRuntimeException       if the file cannot be memory mapped.
+     */
+    public Map<String, DBaseColumn> getColumns(Collection<String> fieldNames)
+    {
+        if (fieldNames == null)
+        {
+            String message = Logging.getMessage("nullValue.CollectionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Map<String, DBaseColumn> columns = new LinkedHashMap<String, DBaseColumn>();
+        for (String name : fieldNames)
+        {
+            DBaseColumn column = this.getColumn(name);
+            if (column != null)
+                columns.put(name, column);
+        }
+
+        return columns;
+    }
+
+    protected ByteBuffer getMappedBuffer()
+    {
+        if (!this.isRandomAccessSupported())
+        {
+            String message = Logging.getMessage("SHP.RandomAccessUnsupported", this.getStringValue(AVKey.DISPLAY_NAME));
+            Logging.logger().severe(message);
+            throw new IllegalStateException(message);
+        }
+
+        if (this.mappedBuffer == null)
+        {
+            try
+            {
+                this.mappedBuffer = WWIO.mapFile(this.file, FileChannel.MapMode.READ_ONLY);
+            }
+            catch (IOException e)
+            {
+                String message = Logging.getMessage("SHP.ExceptionAttemptingToMemoryMap", this.file.getPath());
+                Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+                throw new WWRuntimeException(message, e);
+            }
+        }
+
+        return this.mappedBuffer;
+    }
+
     public boolean hasNext()
     {
         return this.open && this.numRecordsRead < this.header.numberOfRecords;
@@ -194,6 +320,70 @@ public class DBaseFile extends AVListImpl
         }
     }
 
+    /**
+     * Indicates whether this DBaseFile can read records out of sequence using {@link #getRecord(int)}. Random access is
+     * supported while the file is open, if it was opened from a local file.
+     *
+     * @return true if records can be read out of sequence, otherwise false.
+     */
+    public boolean isRandomAccessSupported()
+    {
+        return this.open && this.file != null;
+    }
+
+    /**
+     * Reads the record with the specified record number, independently of the sequence of records read by {@link
+     * #nextRecord()}.
+     *
+     * @param recordNumber the record's one-based position in the file.
+     *
+     * @return a new {@link DBaseRecord} instance.
+     *
+     * @throws IllegalArgumentException if the record number is less than 1 or greater than the number of records.
+     * @throws IllegalStateException    if the file is closed or does not support random access.
+     * @throws WWRuntimeException       if an exception occurs while reading the record.
+     */
+    public DBaseRecord getRecord(int recordNumber)
+    {
+        if (!this.isRandomAccessSupported())
+        {
+            String message = Logging.getMessage("SHP.RandomAccessUnsupported", this.getStringValue(AVKey.DISPLAY_NAME));
+            Logging.logger().severe(message);
+            throw new IllegalStateException(message);
+        }
+
+        if (recordNumber < 1 || recordNumber > this.getNumberOfRecords())
+        {
+            String message = Logging.getMessage("generic.indexOutOfRange", recordNumber);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        try
+        {
+            if (this.randomAccessChannel == null)
+                this.randomAccessChannel = new RandomAccessFile(this.file, "r").getChannel();
+
+            ByteBuffer buffer = ByteBuffer.allocate(this.getRecordLength());
+            long position = this.getHeaderLength() + (long) (recordNumber - 1) * this.getRecordLength();
+            while (buffer.hasRemaining())
+            {
+                if (this.randomAccessChannel.read(buffer, position + buffer.position()) < 0)
+                    throw new EOFException();
+            }
+            buffer.flip();
+
+            return this.readRecordFromBuffer(buffer, recordNumber);
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("SHP.ExceptionAttemptingToReadDBaseRecord",
+                this.getStringValue(AVKey.DISPLAY_NAME));
+            Logging.logger().log(java.util.logging.Level.SEVERE, message, e);
+            throw new WWRuntimeException(message, e);
+        }
+    }
+
     public void close()
     {
         if (this.channel != null)
@@ -202,8 +392,15 @@ public class DBaseFile extends AVListImpl
             this.channel = null;
         }
 
+        if (this.randomAccessChannel != null)
+        {
+            WWIO.closeStream(this.randomAccessChannel, null);
+            this.randomAccessChannel = null;
+        }
+
         this.open = false;
         this.recordBuffer = null;
+        this.mappedBuffer = null;
     }
 
     //**************************************************************//
@@ -221,6 +418,7 @@ public class DBaseFile extends AVListImpl
 
         // DBase record reading performs about 200% better when the FileInputStream is wrapped in a BufferedInputStream.
         this.channel = Channels.newChannel(WWIO.getBufferedInputStream(new FileInputStream(file)));
+        this.file = file;
         this.initialize();
     }
 
@@ -99,6 +99,13 @@ public class DBaseRecord extends AVListImpl
 
         for (DBaseField field : fields)
         {
+            // Skip fields the caller has not asked for.
+            if (!dbaseFile.isFieldSelected(field))
+            {
+                buffer.position(buffer.position() + field.getLength());
+                continue;
+            }
+
             int numRead = dbaseFile.readZeroTerminatedString(buffer, bytes, field.getLength());
 
             // Add a null entry for this field if the field's value is null or the empty string. This enables
@@ -29,6 +29,7 @@ package gov.nasa.worldwind.formats.shapefile;
 
 import com.jogamp.common.nio.Buffers;
 import gov.nasa.worldwind.Exportable;
+import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.exception.*;
 import gov.nasa.worldwind.formats.worldfile.WorldFile;
@@ -140,6 +141,8 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
     protected static final String INDEX_FILE_SUFFIX = ".shx";
     protected static final String ATTRIBUTE_FILE_SUFFIX = ".dbf";
     protected static final String PROJECTION_FILE_SUFFIX = ".prj";
+    protected static final String SPATIAL_INDEX_FILE_SUFFIX = ".hix";
+    protected static final String SPATIAL_INDEX_CACHE_DIRECTORY = "Shapefiles";
 
     protected static final String[] SHAPE_CONTENT_TYPES
             = {
@@ -223,6 +226,15 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
     protected ByteBuffer recordHeaderBuffer;
     protected ByteBuffer recordContentBuffer;
     protected MappedByteBuffer mappedShpBuffer;
+    // Random access state.
+    protected File shpFile;
+    protected int[] recordOffsets;
+    protected ShapefileSpatialIndex spatialIndex;
+    /**
+     * Record numbers of records whose projected coordinates have been
+     * converted to geographic coordinates in place, in the mapped buffer.
+     */
+    protected BitSet convertedRecords;
 
     /**
      * Opens an Shapefile from a general source. The source type may be one of
@@ -528,6 +540,33 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
         return set;
     }
 
+    /**
+     * Specifies the names of the attributes to read with each record. Other
+     * attributes are skipped without being decoded, and are absent from the
+     * attributes returned by {@link ShapefileRecord#getAttributes()}. Specify
+     * null to read all attributes, which is the default. This has no effect if
+     * the Shapefile has no associated attributes.
+     *
+     * @param attributeNames the names of the attributes to read, or null to
+     * read all attributes.
+     */
+    public void setSelectedAttributeNames(Collection<String> attributeNames) {
+        if (this.attributeFile != null) {
+            this.attributeFile.setSelectedFieldNames(attributeNames);
+        }
+    }
+
+    /**
+     * Returns the Shapefile's attribute file, or null if the Shapefile has no
+     * associated attributes. The attribute file provides columnar access to
+     * attribute values through {@link DBaseFile#getColumn(String)}.
+     *
+     * @return the Shapefile's attribute file, or null if there is none.
+     */
+    public DBaseFile getAttributeFile() {
+        return this.attributeFile;
+    }
+
     /**
      * Returns <code>true</code> if the Shapefile has a more records, and
      * <code>false</code> if all records have been read.
@@ -607,6 +646,127 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
         return record;
     }
 
+    /**
+     * Indicates whether this Shapefile can read records out of sequence using
+     * {@link #getRecord(int)} and {@link #getRecordsInSector(Sector)}. Random
+     * access is supported while the Shapefile is open, if it was opened from a
+     * local file that could be memory mapped.
+     *
+     * @return <code>true</code> if records can be read out of sequence;
+     * <code>false</code> otherwise.
+     */
+    public boolean isRandomAccessSupported() {
+        return this.open && this.mappedShpBuffer != null;
+    }
+
+    /**
+     * Reads the record at the specified position in the Shapefile,
+     * independently of the sequence of records read by {@link #nextRecord()}.
+     * The record's attributes are read from the Shapefile's attribute file if
+     * the attribute file also supports random access. Each call reads and
+     * returns a new record.
+     *
+     * @param recordNumber the record's one-based position in the Shapefile.
+     *
+     * @return the record at the specified position.
+     *
+     * @throws IllegalArgumentException if the record number is less than 1 or
+     * greater than the number of records.
+     * @throws IllegalStateException if the Shapefile is closed or does not
+     * support random access.
+     * @throws WWRuntimeException if an exception occurs while reading the
+     * record.
+     * @see #isRandomAccessSupported()
+     */
+    public ShapefileRecord getRecord(int recordNumber) {
+        this.validateRandomAccess();
+
+        int[] offsets = this.getRecordOffsets();
+        if (recordNumber < 1 || recordNumber > offsets.length) {
+            String message = Logging.getMessage("generic.indexOutOfRange", recordNumber);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        ShapefileRecord record;
+        try {
+            record = this.readRecordAt(offsets[recordNumber - 1]);
+        } catch (Exception e) {
+            String message = Logging.getMessage("SHP.ExceptionAttemptingToReadShapefileRecord",
+                    this.getStringValue(AVKey.DISPLAY_NAME));
+            Logging.logger().log(Level.SEVERE, message, e);
+            throw new WWRuntimeException(message, e);
+        }
+
+        if (record != null && this.attributeFile != null && this.attributeFile.isRandomAccessSupported()
+                && recordNumber <= this.attributeFile.getNumberOfRecords()) {
+            record.setAttributes(this.attributeFile.getRecord(recordNumber));
+        }
+
+        return record;
+    }
+
+    /**
+     * Reads the records whose bounding rectangles intersect the specified
+     * sector, in the order they appear in the Shapefile. The records are found
+     * using the Shapefile's spatial index; see {@link #getSpatialIndex()}.
+     * Point records are selected by their location.
+     *
+     * @param sector the sector of interest.
+     *
+     * @return the records intersecting the sector. The list is empty if no
+     * records intersect the sector.
+     *
+     * @throws IllegalArgumentException if the sector is null.
+     * @throws IllegalStateException if the Shapefile is closed or does not
+     * support random access.
+     * @throws WWRuntimeException if an exception occurs while reading a record.
+     */
+    public List<ShapefileRecord> getRecordsInSector(Sector sector) {
+        if (sector == null) {
+            String message = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int[] recordNumbers = this.getSpatialIndex().getRecordNumbers(sector);
+
+        ArrayList<ShapefileRecord> records = new ArrayList<ShapefileRecord>(recordNumbers.length);
+        for (int recordNumber : recordNumbers) {
+            ShapefileRecord record = this.getRecord(recordNumber);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Returns the spatial index of this Shapefile's records. The index is
+     * created the first time it is requested. If the Shapefile was opened from
+     * a file, the index is read from a sidecar file in the WorldWind data file
+     * store, if that file exists and was built from the current Shapefile; see
+     * {@link #getSpatialIndexCachePath()}. Otherwise the index is built from
+     * the records' bounding rectangles and written to the file store for
+     * subsequent use. The sidecar file is never written next to the Shapefile,
+     * so Shapefiles on read-only media are indexed too. Failure to write the
+     * sidecar file is logged and otherwise ignored.
+     *
+     * @return the Shapefile's spatial index.
+     *
+     * @throws IllegalStateException if the Shapefile is closed or does not
+     * support random access.
+     */
+    public ShapefileSpatialIndex getSpatialIndex() {
+        if (this.spatialIndex == null) {
+            this.validateRandomAccess();
+            this.spatialIndex = this.readOrCreateSpatialIndex();
+        }
+
+        return this.spatialIndex;
+    }
+
     /**
      * Closes the Shapefile, freeing any resources allocated during reading
      * except the buffer containing the Shapefile's points. This closes any
@@ -644,6 +804,8 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
         this.recordHeaderBuffer = null;
         this.recordContentBuffer = null;
         this.mappedShpBuffer = null;
+        this.recordOffsets = null;
+        this.convertedRecords = null;
         this.open = false;
     }
 
@@ -687,6 +849,7 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
             try {
                 // Memory map the Shapefile in copy-on-write mode.
                 this.mappedShpBuffer = WWIO.mapFile(file, FileChannel.MapMode.PRIVATE);
+                this.shpFile = file;
                 Logging.logger().finer(Logging.getMessage("SHP.MemoryMappingEnabled", file.getPath()));
             } catch (IOException e) {
                 Logging.logger().log(Level.WARNING,
@@ -1103,6 +1266,234 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
         return array;
     }
 
+    //**************************************************************//
+    //********************  Random Access  *************************//
+    //**************************************************************//
+    protected void validateRandomAccess() {
+        if (!this.open) {
+            String message = Logging.getMessage("SHP.ShapefileClosed", this.getStringValue(AVKey.DISPLAY_NAME));
+            Logging.logger().severe(message);
+            throw new IllegalStateException(message);
+        }
+
+        if (this.mappedShpBuffer == null) {
+            String message = Logging.getMessage("SHP.RandomAccessUnsupported", this.getStringValue(AVKey.DISPLAY_NAME));
+            Logging.logger().severe(message);
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Returns the byte offset of each record in the memory mapped Shapefile.
+     * The offsets are taken from the Shapefile's index if it has one, and are
+     * otherwise found by stepping through the record headers in the mapped
+     * buffer.
+     *
+     * @return the byte offset of each record, in file order.
+     */
+    protected int[] getRecordOffsets() {
+        if (this.recordOffsets != null) {
+            return this.recordOffsets;
+        }
+
+        if (this.index != null) {
+            int[] offsets = new int[this.index.length / 2];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = this.index[2 * i];
+            }
+            this.recordOffsets = offsets;
+            return offsets;
+        }
+
+        ByteBuffer buffer = this.mappedShpBuffer.duplicate();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        int end = Math.min(this.header.fileLength, buffer.capacity());
+
+        int[] offsets = new int[64];
+        int count = 0;
+        for (int pos = HEADER_LENGTH; pos + ShapefileRecord.RECORD_HEADER_LENGTH <= end;
+                pos += ShapefileRecord.RECORD_HEADER_LENGTH + buffer.getInt(pos + 4) * 2) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * count);
+            }
+            offsets[count++] = pos;
+        }
+
+        this.recordOffsets = Arrays.copyOf(offsets, count);
+        return this.recordOffsets;
+    }
+
+    /**
+     * Reads the record at the specified byte offset in the memory mapped
+     * Shapefile, without changing the position used by {@link #nextRecord()}.
+     * The record's attributes are not read.
+     *
+     * @param offset the byte offset of the record header.
+     *
+     * @return the record at the specified offset.
+     */
+    protected ShapefileRecord readRecordAt(int offset) {
+        // Read from a duplicate of the mapped buffer. Positions in the duplicate are the same as those in the mapped
+        // buffer, so the record's point addresses refer to the Shapefile's point buffer just as for sequential reads.
+        ByteBuffer buffer = this.mappedShpBuffer.duplicate();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        int contentLength = buffer.getInt(offset + 4) * 2;
+        buffer.limit(offset + ShapefileRecord.RECORD_HEADER_LENGTH + contentLength);
+        buffer.position(offset);
+
+        ShapefileRecord record = this.createRecord(buffer);
+        this.markPointsConverted(record);
+        return record;
+    }
+
+    /**
+     * Notes that the specified record's projected point coordinates have been
+     * converted to geographic coordinates in place in the memory mapped
+     * Shapefile, so that reading the record again does not convert them twice.
+     *
+     * @param record the record that was read, may be null.
+     */
+    protected void markPointsConverted(ShapefileRecord record) {
+        if (record == null || this.mappedShpBuffer == null
+                || !AVKey.COORDINATE_SYSTEM_PROJECTED.equals(this.getValue(AVKey.COORDINATE_SYSTEM))) {
+            return;
+        }
+
+        if (this.convertedRecords == null) {
+            this.convertedRecords = new BitSet();
+        }
+
+        this.convertedRecords.set(record.getRecordNumber());
+    }
+
+    /**
+     * Returns the path of this Shapefile's spatial index sidecar file,
+     * relative to the WorldWind data file store. The path is formed from the
+     * Shapefile's absolute path, so Shapefiles with the same name in different
+     * directories have different sidecar files.
+     *
+     * @return the sidecar file's path, or null if the Shapefile was not opened
+     * from a file.
+     */
+    protected String getSpatialIndexCachePath() {
+        if (this.shpFile == null) {
+            return null;
+        }
+
+        String parent = this.shpFile.getAbsoluteFile().getParent();
+        return WWIO.formPath(SPATIAL_INDEX_CACHE_DIRECTORY,
+                parent != null ? WWIO.replaceIllegalFileNameCharacters(parent) : "",
+                WWIO.replaceSuffix(this.shpFile.getName(), SPATIAL_INDEX_FILE_SUFFIX));
+    }
+
+    protected ShapefileSpatialIndex readOrCreateSpatialIndex() {
+        String cachePath = this.getSpatialIndexCachePath();
+        URL indexUrl = cachePath != null ? WorldWind.getDataFileStore().findFile(cachePath, false) : null;
+        File indexFile = indexUrl != null ? WWIO.convertURLToFile(indexUrl) : null;
+
+        if (indexFile != null) {
+            try {
+                ShapefileSpatialIndex index = ShapefileSpatialIndex.read(indexFile);
+                if (index.getSourceLength() == this.shpFile.length()
+                        && index.getSourceLastModified() == this.shpFile.lastModified()
+                        && index.getNumberOfRecords() <= this.getRecordOffsets().length) {
+                    return index;
+                }
+            } catch (IOException e) {
+                Logging.logger().log(Level.WARNING,
+                        Logging.getMessage("SHP.ExceptionAttemptingToReadSpatialIndex", indexFile.getPath()), e);
+            }
+        }
+
+        ShapefileSpatialIndex index = this.createSpatialIndex();
+
+        if (cachePath != null) {
+            index.setSource(this.shpFile.length(), this.shpFile.lastModified());
+            indexFile = WorldWind.getDataFileStore().newFile(cachePath);
+            try {
+                if (indexFile == null) {
+                    throw new IOException(Logging.getMessage("generic.CannotCreateFile", cachePath));
+                }
+
+                index.write(indexFile);
+            } catch (IOException e) {
+                Logging.logger().log(Level.WARNING,
+                        Logging.getMessage("SHP.ExceptionAttemptingToWriteSpatialIndex", cachePath), e);
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Builds a spatial index over the bounding rectangles of this Shapefile's
+     * non-null records.
+     *
+     * @return a new spatial index.
+     */
+    protected ShapefileSpatialIndex createSpatialIndex() {
+        int[] offsets = this.getRecordOffsets();
+        int[] recordNumbers = new int[offsets.length];
+        double[] bounds = new double[4 * offsets.length];
+
+        int count = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            double[] rect = this.readRecordBounds(offsets[i]);
+            if (rect != null) {
+                recordNumbers[count] = i + 1;
+                System.arraycopy(rect, 0, bounds, 4 * count, 4);
+                count++;
+            }
+        }
+
+        return new ShapefileSpatialIndex(Arrays.copyOf(recordNumbers, count), Arrays.copyOf(bounds, 4 * count),
+                ShapefileSpatialIndex.DEFAULT_NODE_SIZE);
+    }
+
+    /**
+     * Reads the bounding rectangle of the record at the specified byte offset
+     * in the memory mapped Shapefile, without reading the record's points. The
+     * rectangle is in the Shapefile's geographic coordinates, and is ordered as
+     * follows: minimum Y, maximum Y, minimum X, maximum X. The bounding
+     * rectangle of a point record is the point itself.
+     *
+     * @param offset the byte offset of the record header.
+     *
+     * @return the record's bounding rectangle, or <code>null</code> if the
+     * record is a null record or has an unrecognized shape type.
+     */
+    protected double[] readRecordBounds(int offset) {
+        ByteBuffer buffer = this.mappedShpBuffer.duplicate();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        int contentOffset = offset + ShapefileRecord.RECORD_HEADER_LENGTH;
+        String shapeType = this.getShapeType(buffer.getInt(contentOffset));
+        if (shapeType == null || isNullType(shapeType)) {
+            return null;
+        }
+
+        if (isPointType(shapeType)) {
+            // Convert a copy of the point, leaving the mapped buffer unchanged.
+            ByteBuffer point = ByteBuffer.allocate(2 * WWBufferUtil.SIZEOF_DOUBLE);
+            point.order(ByteOrder.LITTLE_ENDIAN);
+            point.putDouble(buffer.getDouble(contentOffset + 4));
+            point.putDouble(buffer.getDouble(contentOffset + 12));
+            point.flip();
+
+            DoubleBuffer coords = this.readPoints(null, point);
+            double x = coords.get(0);
+            double y = coords.get(1);
+            if (AVKey.COORDINATE_SYSTEM_GEOGRAPHIC.equals(this.getValue(AVKey.COORDINATE_SYSTEM))) {
+                y = Angle.normalizedDegreesLatitude(y);
+                x = Angle.normalizedDegreesLongitude(x);
+            }
+            return new double[]{y, y, x, x};
+        }
+
+        buffer.position(contentOffset + 4);
+        return this.readBoundingRectangle(buffer).coords;
+    }
+
     //**************************************************************//
     //********************  Coordinate System  *********************//
     //**************************************************************//
@@ -1274,6 +1665,7 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
             }
         }
 
+        this.markPointsConverted(record);
         return record;
     }
 
@@ -1739,6 +2131,11 @@ public class Shapefile extends AVListImpl implements Closeable, Exportable {
      */
     @SuppressWarnings({"UnusedDeclaration"})
     protected DoubleBuffer readProjectedPoints(ShapefileRecord record, ByteBuffer buffer) {
+        // The record has been read before, and its points have already been converted in the mapped buffer.
+        if (record != null && this.convertedRecords != null && this.convertedRecords.get(record.getRecordNumber())) {
+            return buffer.asDoubleBuffer();
+        }
+
         Object o = this.getValue(AVKey.PROJECTION_NAME);
 
         if (AVKey.PROJECTION_UTM.equals(o)) {
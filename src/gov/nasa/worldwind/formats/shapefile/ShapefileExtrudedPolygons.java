@@ -270,6 +270,81 @@ public class ShapefileExtrudedPolygons extends ShapefileRenderable implements Or
         this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate);
     }
 
+    /**
+     * Creates a new ShapefileExtrudedPolygons that displays a fixed subset of the shapefile's records: those whose
+     * bounding rectangles intersect the specified sectors. The subset is chosen once, when the
+     * ShapefileExtrudedPolygons is created, and records outside the sectors are not displayed however the view later
+     * moves. To read records as the view reaches them, load the records on demand instead; see {@link
+     * #ShapefileExtrudedPolygons(Shapefile, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate, boolean)}. When the shapefile
+     * supports random access, the records are found with the shapefile's spatial index and only those records are read;
+     * see {@link Shapefile#getSpatialIndex()}. Otherwise the shapefile's records are read in sequence and the records
+     * outside the sectors are skipped. The remaining arguments are as described in {@link
+     * #ShapefileExtrudedPolygons(Shapefile, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)}.
+     *
+     * @param shapefile         The shapefile to display.
+     * @param normalAttrs       The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default attributes.
+     * @param highlightAttrs    The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default highlight attributes.
+     * @param attributeDelegate Optional callback for configuring each ShapefileRenderable.Record's shape attributes and
+     *                          key-value attributes. May be null.
+     * @param recordSectors     The sectors containing the records to display. May be null to display all records.
+     *
+     * @throws IllegalArgumentException if the shapefile is null.
+     */
+    public ShapefileExtrudedPolygons(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        ShapefileRenderable.AttributeDelegate attributeDelegate, Iterable<? extends Sector> recordSectors)
+    {
+        if (shapefile == null)
+        {
+            String msg = Logging.getMessage("nullValue.ShapefileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, recordSectors);
+    }
+
+    /**
+     * Creates a new ShapefileExtrudedPolygons that optionally reads the shapefile's records on demand. When loading
+     * records on demand, the records intersecting the visible part of the shapefile are read from the shapefile as the
+     * view moves, using the shapefile's spatial index. Records outside the areas displayed so far are never read. The
+     * shapefile must support random access and must remain open while the ShapefileExtrudedPolygons is displayed; if
+     * the shapefile does not support random access, all of its records are read during construction. The remaining
+     * arguments are as described in {@link #ShapefileExtrudedPolygons(Shapefile,
+     * gov.nasa.worldwind.render.ShapeAttributes, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)}.
+     *
+     * @param shapefile           The shapefile to display.
+     * @param normalAttrs         The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default attributes.
+     * @param highlightAttrs      The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default highlight attributes.
+     * @param attributeDelegate   Optional callback for configuring each ShapefileRenderable.Record's shape attributes
+     *                            and key-value attributes. May be null.
+     * @param loadRecordsOnDemand true to read records as the areas containing them are displayed, false to read all
+     *                            records during construction.
+     *
+     * @throws IllegalArgumentException if the shapefile is null.
+     * @see Shapefile#isRandomAccessSupported()
+     */
+    public ShapefileExtrudedPolygons(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        AttributeDelegate attributeDelegate, boolean loadRecordsOnDemand)
+    {
+        if (shapefile == null)
+        {
+            String msg = Logging.getMessage("nullValue.ShapefileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, loadRecordsOnDemand);
+    }
+
     @Override
     protected void assembleRecords(Shapefile shapefile)
     {
@@ -302,12 +377,84 @@ public class ShapefileExtrudedPolygons extends ShapefileRenderable implements Or
         if (record.height != null && this.maxHeight < record.height)
         {
             this.maxHeight = record.height;
+
+            if (this.isLoadRecordsOnDemand()) // the tile extents computed for intersection no longer hold the record
+            {
+                this.invalidateAllTileGeometry();
+            }
+        }
+
+        if (this.isLoadRecordsOnDemand()) // the tile tree already exists; add the record to its smallest tile
+        {
+            this.insertRecord(record);
+            return;
         }
 
         this.rootTile.records.add(record);
         record.tile = this.rootTile;
     }
 
+    protected void insertRecord(Record record)
+    {
+        // Find the smallest tile completely containing the record, as splitTile would have, and add the record to it.
+        // Split the tile when the record puts it over capacity. Tiles that already have children keep their records.
+        Tile tile = this.rootTile;
+        while (tile.children != null)
+        {
+            Tile child = null;
+            for (Tile childTile : tile.children)
+            {
+                if (childTile.sector.contains(record.sector))
+                {
+                    child = childTile;
+                    break;
+                }
+            }
+
+            if (child == null)
+                break;
+
+            tile = child;
+        }
+
+        tile.records.add(record);
+        record.tile = tile;
+        this.invalidateTileRecords(tile);
+
+        if (tile.children == null && this.mustSplitTile(tile))
+        {
+            this.splitTile(tile);
+
+            // Records moved into the new child tiles keep indices computed for the parent tile's vertices.
+            Queue<Tile> tileQueue = new ArrayDeque<Tile>(Arrays.asList(tile.children));
+            while (!tileQueue.isEmpty())
+            {
+                Tile childTile = tileQueue.poll();
+                this.invalidateTileRecords(childTile);
+
+                if (childTile.children != null)
+                {
+                    tileQueue.addAll(Arrays.asList(childTile.children));
+                }
+            }
+        }
+    }
+
+    protected void invalidateTileRecords(Tile tile)
+    {
+        // Each record's indices refer to its position in its tile's vertices, which changes when the tile's records
+        // change. Discard the indices, the tile's shape data and the tile's attribute groups so they are rebuilt.
+        for (Record record : tile.records)
+        {
+            record.interiorIndices = null;
+            record.outlineIndices = null;
+        }
+
+        tile.dataCache.removeAllEntries();
+        this.invalidateTileGeometry(tile);
+        this.invalidateTileAttributeGroups(tile);
+    }
+
     protected ShapefileExtrudedPolygons.Record createRecord(ShapefileRecord shapefileRecord)
     {
         return new ShapefileExtrudedPolygons.Record(this, shapefileRecord);
@@ -442,6 +589,13 @@ public class ShapefileExtrudedPolygons extends ShapefileRenderable implements Or
 
     protected void makeOrderedSurfaceRenderable(DrawContext dc)
     {
+        // Read the records in view when loading records on demand. Synchronize tile updates with intersect and
+        // Record.intersect.
+        synchronized (this)
+        {
+            this.loadVisibleRecords(dc);
+        }
+
         this.assembleTiles(dc); // performs a visibility test against the top level tile
 
         if (this.currentTiles.isEmpty()) // don't add an ordered renderable when there's nothing to draw
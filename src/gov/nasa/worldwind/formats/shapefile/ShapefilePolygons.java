@@ -45,6 +45,9 @@ import java.beans.*;
 import java.nio.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.function.BiFunction;
 
 /**
  * @author dcollins
@@ -220,7 +223,10 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         protected MemoryCache memoryCache;
         protected Object memoryCacheKey;
         protected PropertyChangeListener listener;
+        protected Map<ShapefileTile, ShapefileGeometry> pendingRequests;
         protected double priority;
+        protected long sequence;
+        protected volatile boolean cancelled;
         // Properties supporting geometry rendering.
         protected FloatBuffer vertices;
         protected int vertexStride;
@@ -237,12 +243,25 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
             this.resolution = resolution;
         }
 
+        public boolean isCancelled()
+        {
+            return this.cancelled;
+        }
+
+        public void cancel()
+        {
+            this.cancelled = true;
+        }
+
         @Override
         public void run()
         {
             try
             {
-                ((ShapefilePolygons) this.shape).tessellate(this);
+                if (!this.cancelled)
+                {
+                    ((ShapefilePolygons) this.shape).tessellate(this);
+                }
             }
             catch (Exception e)
             {
@@ -251,12 +270,18 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
             }
             finally
             {
-                if (this.memoryCache != null && this.memoryCacheKey != null)
+                // Geometry cancelled part way through tessellation is incomplete, and must not be cached.
+                if (!this.cancelled && this.memoryCache != null && this.memoryCacheKey != null)
                 {
                     this.memoryCache.add(this.memoryCacheKey, this);
                 }
 
-                if (this.listener != null)
+                if (this.pendingRequests != null && this.memoryCacheKey != null)
+                {
+                    removePendingRequest(this.pendingRequests, (ShapefileTile) this.memoryCacheKey, this);
+                }
+
+                if (!this.cancelled && this.listener != null)
                 {
                     this.listener.propertyChange(new PropertyChangeEvent(this, AVKey.REPAINT, null, null));
                 }
@@ -264,6 +289,7 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
                 // don't need the caching and notification properties anymore
                 this.memoryCache = null;
                 this.memoryCacheKey = null;
+                this.pendingRequests = null;
                 this.listener = null;
             }
         }
@@ -277,7 +303,11 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         @Override
         public int compareTo(ShapefileGeometry that)
         {
-            return Double.compare(this.priority, that.priority);
+            int result = Double.compare(this.priority, that.priority);
+            if (result != 0)
+                return result;
+
+            return this.sequence < that.sequence ? -1 : (this.sequence > that.sequence ? 1 : 0);
         }
 
         @Override
@@ -348,12 +378,212 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         }
     }
 
+    /**
+     * Runs geometry tessellation requests on a bounded pool of worker threads, nearest request first. Requests wait in
+     * a lock-free ordered set sorted by priority, from which at most <code>maxWorkers</code> workers take the request
+     * with the lowest priority value. A queued request may be moved to a new priority, or removed before it runs.
+     */
+    protected static class GeometryScheduler
+    {
+        protected final int maxWorkers;
+        protected final ConcurrentSkipListSet<ShapefileGeometry> queue = new ConcurrentSkipListSet<ShapefileGeometry>();
+        protected final AtomicInteger workerCount = new AtomicInteger();
+        protected final AtomicLong sequence = new AtomicLong();
+        protected final ThreadPoolExecutor executor;
+
+        public GeometryScheduler(int maxWorkers)
+        {
+            this.maxWorkers = maxWorkers;
+            this.executor = new ThreadPoolExecutor(maxWorkers, maxWorkers, THREAD_TIMEOUT, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        public int getMaxWorkers()
+        {
+            return this.maxWorkers;
+        }
+
+        public int getQueueSize()
+        {
+            return this.queue.size();
+        }
+
+        /**
+         * Queues a request that is not already queued or running, and starts a worker for it if fewer than the
+         * maximum number of workers are running.
+         *
+         * @param geom     the geometry to tessellate.
+         * @param priority the request's priority. Requests with lower values run first.
+         */
+        public void submit(ShapefileGeometry geom, double priority)
+        {
+            geom.priority = priority;
+            geom.sequence = this.sequence.getAndIncrement();
+            this.queue.add(geom);
+            this.startWorker();
+        }
+
+        /**
+         * Moves a queued request to a new priority. Requests that have already been taken by a worker are unaffected.
+         *
+         * @param geom     the queued geometry.
+         * @param priority the request's new priority.
+         *
+         * @return true if the request was queued and has been moved, otherwise false.
+         */
+        public boolean reprioritize(ShapefileGeometry geom, double priority)
+        {
+            if (geom.priority == priority)
+                return this.queue.contains(geom);
+
+            // The set is ordered by priority, so the request must be removed before its priority changes.
+            if (!this.queue.remove(geom))
+                return false;
+
+            this.submit(geom, priority);
+            return true;
+        }
+
+        /**
+         * Cancels a request. A queued request is removed and never runs. A running request stops tessellating at its
+         * next record, and its incomplete geometry is discarded.
+         *
+         * @param geom the geometry to cancel.
+         */
+        public void cancel(ShapefileGeometry geom)
+        {
+            geom.cancel();
+            this.queue.remove(geom);
+        }
+
+        protected void startWorker()
+        {
+            while (true)
+            {
+                int count = this.workerCount.get();
+                if (count >= this.maxWorkers)
+                    return;
+
+                if (this.workerCount.compareAndSet(count, count + 1))
+                {
+                    this.executor.execute(new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            drainQueue();
+                        }
+                    });
+                    return;
+                }
+            }
+        }
+
+        protected void drainQueue()
+        {
+            while (true)
+            {
+                ShapefileGeometry geom;
+                while ((geom = this.queue.pollFirst()) != null)
+                {
+                    geom.run();
+                }
+
+                // Retire this worker, unless a request was queued after the queue emptied and no other worker can
+                // take it.
+                this.workerCount.decrementAndGet();
+                if (this.queue.isEmpty())
+                    return;
+
+                int count = this.workerCount.get();
+                if (count >= this.maxWorkers || !this.workerCount.compareAndSet(count, count + 1))
+                    return;
+            }
+        }
+    }
+
+    /** The vertices and record indices tessellated from a contiguous run of a geometry's records. */
+    protected static class TessellatedRecords
+    {
+        protected FloatBuffer vertices;
+        protected int vertexCount;
+        protected ArrayList<RecordIndices> recordIndices = new ArrayList<RecordIndices>();
+    }
+
+    /**
+     * Tessellates a geometry's records by recursively splitting them in half until each part holds at most one chunk
+     * of records, then tessellating the chunks in parallel. Each chunk's result is stored at the chunk's index.
+     */
+    protected static class TessellateRecordsTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        protected final ShapefilePolygons shape;
+        protected final ShapefileGeometry geom;
+        protected final List<Record> records;
+        protected final TessellatedRecords[] results;
+        protected final int chunkSize;
+        protected final int firstChunk;
+        protected final int lastChunk;
+
+        public TessellateRecordsTask(ShapefilePolygons shape, ShapefileGeometry geom, List<Record> records,
+            TessellatedRecords[] results, int chunkSize, int firstChunk, int lastChunk)
+        {
+            this.shape = shape;
+            this.geom = geom;
+            this.records = records;
+            this.results = results;
+            this.chunkSize = chunkSize;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (this.lastChunk - this.firstChunk <= 1)
+            {
+                int from = this.firstChunk * this.chunkSize;
+                int to = Math.min(from + this.chunkSize, this.records.size());
+                this.results[this.firstChunk] = this.shape.tessellateRecords(this.geom, this.records, from, to);
+                return;
+            }
+
+            int mid = (this.firstChunk + this.lastChunk) >>> 1;
+            invokeAll(
+                new TessellateRecordsTask(this.shape, this.geom, this.records, this.results, this.chunkSize,
+                    this.firstChunk, mid),
+                new TessellateRecordsTask(this.shape, this.geom, this.records, this.results, this.chunkSize,
+                    mid, this.lastChunk));
+        }
+    }
+
+    /** Keep idle tessellation threads alive this many seconds. */
+    protected static final long THREAD_TIMEOUT = 2;
+    /** The default number of records above which a tile's records are tessellated in parallel. */
+    protected static final int DEFAULT_RECORD_SPLIT_THRESHOLD = 512;
+    /** Tessellates tile geometry for every ShapefilePolygons, using all but one of the available processors. */
+    protected static final GeometryScheduler geometryScheduler = new GeometryScheduler(
+        Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
     static
     {
         if (!WorldWind.getMemoryCacheSet().containsCache(ShapefileGeometry.class.getName()))
         {
             long size = Configuration.getLongValue(AVKey.SHAPEFILE_GEOMETRY_CACHE_SIZE, (long) 50e6); // default 50MB
-            MemoryCache cache = new BasicMemoryCache((long) (0.8 * size), size);
+            MemoryCache cache = WorldWind.getMemoryCacheSet().createCache(ShapefileGeometry.class.getName(),
+                (long) (0.8 * size), size);
             cache.setName("Shapefile Geometry");
             WorldWind.getMemoryCacheSet().addCache(ShapefileGeometry.class.getName(), cache);
         }
@@ -368,7 +598,10 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
     protected ArrayList<ShapefileTile> topLevelTiles = new ArrayList<ShapefileTile>();
     protected ArrayList<ShapefileTile> currentTiles = new ArrayList<ShapefileTile>();
     protected ShapefileTile currentAncestorTile;
-    protected PriorityQueue<Runnable> requestQueue = new PriorityQueue<Runnable>();
+    protected Map<ShapefileTile, ShapefileGeometry> requests = new HashMap<ShapefileTile, ShapefileGeometry>();
+    protected ConcurrentHashMap<ShapefileTile, ShapefileGeometry> pendingRequests =
+        new ConcurrentHashMap<ShapefileTile, ShapefileGeometry>();
+    protected int recordSplitThreshold = DEFAULT_RECORD_SPLIT_THRESHOLD;
     protected MemoryCache cache = WorldWind.getMemoryCache(ShapefileGeometry.class.getName());
     protected long recordStateID;
     // Properties supporting picking and rendering.
@@ -434,6 +667,80 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate);
     }
 
+    /**
+     * Creates a new ShapefilePolygons that displays a fixed subset of the shapefile's records: those whose bounding
+     * rectangles intersect the specified sectors. The subset is chosen once, when the ShapefilePolygons is created, and
+     * records outside the sectors are not displayed however the view later moves. To read records as the view reaches
+     * them, load the records on demand instead; see {@link #ShapefilePolygons(Shapefile,
+     * gov.nasa.worldwind.render.ShapeAttributes, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate, boolean)}. When the shapefile
+     * supports random access, the records are found with the shapefile's spatial index and only those records are
+     * read; see {@link Shapefile#getSpatialIndex()}. Otherwise the shapefile's records are read in sequence and the
+     * records outside the sectors are skipped. The remaining arguments are as described in {@link
+     * #ShapefilePolygons(Shapefile, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)}.
+     *
+     * @param shapefile         The shapefile to display.
+     * @param normalAttrs       The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default attributes.
+     * @param highlightAttrs    The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default highlight attributes.
+     * @param attributeDelegate Optional callback for configuring each ShapefileRenderable.Record's shape attributes and
+     *                          key-value attributes. May be null.
+     * @param recordSectors     The sectors containing the records to display. May be null to display all records.
+     *
+     * @throws IllegalArgumentException if the shapefile is null.
+     */
+    public ShapefilePolygons(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        AttributeDelegate attributeDelegate, Iterable<? extends Sector> recordSectors)
+    {
+        if (shapefile == null)
+        {
+            String msg = Logging.getMessage("nullValue.ShapefileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, recordSectors);
+    }
+
+    /**
+     * Creates a new ShapefilePolygons that optionally reads the shapefile's records on demand. When loading records on
+     * demand, each tile's records are read from the shapefile the first time the tile is displayed, using the
+     * shapefile's spatial index. Records outside the tiles displayed so far are never read. The shapefile must support
+     * random access and must remain open while the ShapefilePolygons is displayed; if the shapefile does not support
+     * random access, all of its records are read during construction. The remaining arguments are as described in
+     * {@link #ShapefilePolygons(Shapefile, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)}.
+     *
+     * @param shapefile           The shapefile to display.
+     * @param normalAttrs         The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default attributes.
+     * @param highlightAttrs      The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default highlight attributes.
+     * @param attributeDelegate   Optional callback for configuring each ShapefileRenderable.Record's shape attributes
+     *                            and key-value attributes. May be null.
+     * @param loadRecordsOnDemand true to read records as the tiles containing them are displayed, false to read all
+     *                            records during construction.
+     *
+     * @throws IllegalArgumentException if the shapefile is null.
+     * @see Shapefile#isRandomAccessSupported()
+     */
+    public ShapefilePolygons(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        AttributeDelegate attributeDelegate, boolean loadRecordsOnDemand)
+    {
+        if (shapefile == null)
+        {
+            String msg = Logging.getMessage("nullValue.ShapefileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, loadRecordsOnDemand);
+    }
+
     @Override
     protected void assembleRecords(Shapefile shapefile)
     {
@@ -543,6 +850,39 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         this.outlinePickWidth = outlinePickWidth;
     }
 
+    /**
+     * Indicates the number of records above which a tile's records are tessellated in parallel. See {@link
+     * #setRecordSplitThreshold(int)}.
+     *
+     * @return the record split threshold.
+     */
+    public int getRecordSplitThreshold()
+    {
+        return this.recordSplitThreshold;
+    }
+
+    /**
+     * Specifies the number of records above which a tile's records are tessellated in parallel. Tiles intersecting more
+     * records than this are split into chunks of at most this many records, which are tessellated concurrently on the
+     * common fork-join pool and then joined into the tile's geometry. Tiles intersecting fewer records are tessellated
+     * on a single thread.
+     *
+     * @param recordSplitThreshold the record split threshold. The default is 512.
+     *
+     * @throws IllegalArgumentException if the threshold is less than 1.
+     */
+    public void setRecordSplitThreshold(int recordSplitThreshold)
+    {
+        if (recordSplitThreshold < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "threshold < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.recordSplitThreshold = recordSplitThreshold;
+    }
+
     @Override
     public double getDistanceFromEye()
     {
@@ -562,7 +902,7 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         if (!this.visible)
             return;
 
-        if (this.getRecordCount() == 0) // shapefile is empty or contains only null records
+        if (this.getRecordCount() == 0 && !this.isLoadRecordsOnDemand()) // shapefile is empty or has only null records
             return;
 
         Extent extent = Sector.computeBoundingBox(dc.getGlobe(), dc.getVerticalExaggeration(), this.sector);
@@ -791,6 +1131,7 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
     {
         if (tile.getGeometry() == null)
         {
+            this.loadRecordsInSector(tile.sector); // read the tile's records first when loading records on demand
             this.requestGeometry(dc, tile); // request the tile's geometry
 
             if (this.currentAncestorTile != null) // try to use the ancestor's geometry
@@ -867,21 +1208,63 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         geom.listener = this.layer;
         geom.priority = eyePoint.distanceTo3(centroid);
 
-        this.requestQueue.offer(geom);
+        this.requests.put(tile, geom);
     }
 
     protected void sendRequests()
     {
-        Runnable request;
-        while ((request = this.requestQueue.poll()) != null)
+        // Cancel pending requests for tiles that are no longer needed. A tile that was not requested during this frame
+        // is no longer in the current tiles, or its geometry has arrived.
+        for (Map.Entry<ShapefileTile, ShapefileGeometry> entry : this.pendingRequests.entrySet())
+        {
+            if (!this.requests.containsKey(entry.getKey()))
+            {
+                geometryScheduler.cancel(entry.getValue());
+                removePendingRequest(this.pendingRequests, entry.getKey(), entry.getValue());
+            }
+        }
+
+        // Queue requests for new tiles, and move pending requests to their tile's current distance from the eye.
+        for (Map.Entry<ShapefileTile, ShapefileGeometry> entry : this.requests.entrySet())
         {
-            if (WorldWind.getTaskService().isFull())
-                break;
+            ShapefileGeometry request = entry.getValue();
+            ShapefileGeometry pending = this.pendingRequests.get(entry.getKey());
 
-            WorldWind.getTaskService().addTask(request);
+            if (pending != null)
+            {
+                geometryScheduler.reprioritize(pending, request.priority);
+            }
+            else if (this.cache.getObject(entry.getKey()) == null)
+            {
+                request.pendingRequests = this.pendingRequests;
+                this.pendingRequests.put(entry.getKey(), request);
+                geometryScheduler.submit(request, request.priority);
+            }
         }
 
-        this.requestQueue.clear(); // clear any remaining requests
+        this.requests.clear();
+    }
+
+    /**
+     * Removes a tile's pending request if it is the specified request. Requests are compared by identity, since
+     * ShapefileGeometry.equals matches any request for the same tile, including a newer request that replaced the
+     * specified one.
+     *
+     * @param pendingRequests the pending requests, keyed by tile.
+     * @param tile            the request's tile.
+     * @param geom            the request to remove.
+     */
+    protected static void removePendingRequest(Map<ShapefileTile, ShapefileGeometry> pendingRequests,
+        ShapefileTile tile, final ShapefileGeometry geom)
+    {
+        pendingRequests.computeIfPresent(tile, new BiFunction<ShapefileTile, ShapefileGeometry, ShapefileGeometry>()
+        {
+            @Override
+            public ShapefileGeometry apply(ShapefileTile key, ShapefileGeometry pending)
+            {
+                return pending == geom ? null : pending;
+            }
+        });
     }
 
     protected void tessellate(ShapefileGeometry geom)
@@ -895,45 +1278,151 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         // Compute the minimum effective area for an entire record based on the geometry resolution. This suppresses
         // records that degenerate to one or two points.
         double minEffectiveArea = 4 * geom.resolution * geom.resolution;
+
+        // Select the records intersecting the geometry's sector and meeting the geometry's resolution criteria. This
+        // may include records that are marked as not visible, as recomputing the vertices and indices for record
+        // visibility changes would be expensive. We exclude non visible records later in the relative less expensive
+        // routine assembleAttributeGroups. Sort the records by ordinal so the geometry's layout does not depend on the
+        // quadtree's iteration order.
+        ArrayList<Record> records = new ArrayList<Record>(intersectingRecords.size());
+        for (Record record : intersectingRecords)
+        {
+            if (!record.sector.intersects(geom.sector))
+                continue; // the record quadtree may return entries outside the sector passed to getItemsInRegion
+
+            double effectiveArea = record.sector.getDeltaLatRadians() * record.sector.getDeltaLonRadians();
+            if (effectiveArea < minEffectiveArea)
+                continue;  // ignore records that don't meet the resolution criteria
+
+            records.add(record);
+        }
+
+        if (records.isEmpty())
+            return;
+
+        Collections.sort(records, new Comparator<Record>()
+        {
+            @Override
+            public int compare(Record a, Record b)
+            {
+                return a.ordinal < b.ordinal ? -1 : (a.ordinal > b.ordinal ? 1 : 0);
+            }
+        });
+
+        // Generate the geographic coordinate vertices and indices for the selected records. Tiles with many records
+        // are split into chunks that are tessellated in parallel, then joined in record order.
+        TessellatedRecords[] results;
+        int chunkSize = this.getRecordSplitThreshold();
+        if (records.size() > chunkSize)
+        {
+            results = new TessellatedRecords[(records.size() + chunkSize - 1) / chunkSize];
+            ForkJoinPool.commonPool().invoke(
+                new TessellateRecordsTask(this, geom, records, results, chunkSize, 0, results.length));
+        }
+        else
+        {
+            results = new TessellatedRecords[] {this.tessellateRecords(geom, records, 0, records.size())};
+        }
+
+        if (geom.isCancelled())
+            return;
+
+        this.joinTessellatedRecords(geom, results);
+    }
+
+    protected TessellatedRecords tessellateRecords(ShapefileGeometry geom, List<Record> records, int from, int to)
+    {
         double xOffset = geom.sector.getCentroid().longitude.degrees;
         double yOffset = geom.sector.getCentroid().latitude.degrees;
 
         // Setup the polyline generalizer and the polygon tessellator that will be used to generalize and tessellate
-        // each record intersecting the geometry's sector.
-        PolylineGeneralizer generalizer = new PolylineGeneralizer(); // TODO: Consider using a ThreadLocal property.
-        PolygonTessellator2 tess = new PolygonTessellator2(); // TODO: Consider using a ThreadLocal property.
+        // each record in the specified range.
+        PolylineGeneralizer generalizer = new PolylineGeneralizer();
+        PolygonTessellator2 tess = new PolygonTessellator2();
         tess.setPolygonNormal(0, 0, 1); // tessellate in geographic coordinates
         tess.setPolygonClipCoords(geom.sector.getMinLongitude().degrees, geom.sector.getMaxLongitude().degrees,
             geom.sector.getMinLatitude().degrees, geom.sector.getMaxLatitude().degrees);
         tess.setVertexStride(2);
         tess.setVertexOffset(-xOffset, -yOffset, 0);
 
-        // Generate the geographic coordinate vertices and indices for all records intersecting the geometry's sector
-        // and meeting the geometry's resolution criteria. This may include records that are marked as not visible, as
-        // recomputing the vertices and indices for record visibility changes would be expensive. We exclude non visible
-        // records later in the relative less expensive routine assembleAttributeGroups.
-        for (Record record : intersectingRecords)
+        TessellatedRecords result = new TessellatedRecords();
+        for (int i = from; i < to; i++)
         {
-            if (!record.sector.intersects(geom.sector))
-                continue; // the record quadtree may return entries outside the sector passed to getItemsInRegion
-
-            double effectiveArea = record.sector.getDeltaLatRadians() * record.sector.getDeltaLonRadians();
-            if (effectiveArea < minEffectiveArea)
-                continue;  // ignore records that don't meet the resolution criteria
+            if (geom.isCancelled())
+                break; // the tile is no longer needed
 
+            Record record = records.get(i);
             this.computeRecordMetrics(record, generalizer);
-            this.tessellateRecord(geom, record, tess);
+
+            RecordIndices ri = this.tessellateRecord(geom, record, tess);
+            if (ri != null)
+            {
+                result.recordIndices.add(ri);
+            }
         }
 
-        if (tess.getVertexCount() == 0 || geom.recordIndices.size() == 0)
+        if (tess.getVertexCount() == 0)
+            return result;
+
+        result.vertices = (FloatBuffer) tess.getVertices(FloatBuffer.allocate(2 * tess.getVertexCount())).rewind();
+        result.vertexCount = tess.getVertexCount();
+
+        return result;
+    }
+
+    protected void joinTessellatedRecords(ShapefileGeometry geom, TessellatedRecords[] results)
+    {
+        int vertexCount = 0;
+        for (TessellatedRecords result : results)
+        {
+            vertexCount += result.vertexCount;
+        }
+
+        if (vertexCount == 0)
+            return;
+
+        // Append each part's vertices to the geometry's vertex buffer, and offset each part's vertex ranges and
+        // indices by the number of vertices in the parts before it.
+        FloatBuffer vertices = Buffers.newDirectFloatBuffer(2 * vertexCount);
+        int vertexOffset = 0;
+        for (TessellatedRecords result : results)
+        {
+            if (result.vertices != null)
+            {
+                vertices.put(result.vertices);
+            }
+
+            for (RecordIndices ri : result.recordIndices)
+            {
+                if (vertexOffset != 0)
+                {
+                    ri.vertexRange.location += vertexOffset;
+                    this.offsetIndices(ri.interiorIndices, vertexOffset);
+                    this.offsetIndices(ri.outlineIndices, vertexOffset);
+                }
+
+                geom.recordIndices.add(ri);
+            }
+
+            vertexOffset += result.vertexCount;
+        }
+
+        if (geom.recordIndices.size() == 0)
             return;
 
-        FloatBuffer vertices = Buffers.newDirectFloatBuffer(2 * tess.getVertexCount());
-        tess.getVertices(vertices);
         geom.vertices = (FloatBuffer) vertices.rewind();
         geom.vertexStride = 2;
-        geom.vertexCount = tess.getVertexCount();
-        geom.vertexOffset = new Vec4(xOffset, yOffset, 0);
+        geom.vertexCount = vertexCount;
+        geom.vertexOffset = new Vec4(geom.sector.getCentroid().longitude.degrees,
+            geom.sector.getCentroid().latitude.degrees, 0);
+    }
+
+    protected void offsetIndices(IntBuffer indices, int offset)
+    {
+        for (int i = indices.position(); i < indices.limit(); i++)
+        {
+            indices.put(i, indices.get(i) + offset);
+        }
     }
 
     protected void computeRecordMetrics(Record record, PolylineGeneralizer generalizer)
@@ -977,7 +1466,7 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         }
     }
 
-    protected void tessellateRecord(ShapefileGeometry geom, Record record, final PolygonTessellator2 tess)
+    protected RecordIndices tessellateRecord(ShapefileGeometry geom, Record record, final PolygonTessellator2 tess)
     {
         // Compute the minimum effective area for a vertex based on the geometry resolution. We convert the resolution
         // from radians to square degrees. This ensures the units are consistent with the vertex effective area computed
@@ -1016,7 +1505,7 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
 
         Range range = tess.getPolygonVertexRange();
         if (range.length == 0) // this should never happen, but we check anyway
-            return;
+            return null;
 
         IntBuffer interiorIndices = IntBuffer.allocate(tess.getInteriorIndexCount());
         IntBuffer outlineIndices = IntBuffer.allocate(tess.getBoundaryIndexCount());
@@ -1028,7 +1517,8 @@ public class ShapefilePolygons extends ShapefileRenderable implements OrderedRen
         ri.vertexRange.length = range.length;
         ri.interiorIndices = (IntBuffer) interiorIndices.rewind();
         ri.outlineIndices = (IntBuffer) outlineIndices.rewind();
-        geom.recordIndices.add(ri);
+
+        return ri;
     }
 
     protected boolean mustAssembleAttributeGroups(ShapefileGeometry geom)
@@ -249,6 +249,80 @@ public class ShapefilePolylines extends ShapefileRenderable implements OrderedRe
         this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate);
     }
 
+    /**
+     * Creates a new ShapefilePolylines that displays a fixed subset of the shapefile's records: those whose bounding
+     * rectangles intersect the specified sectors. The subset is chosen once, when the ShapefilePolylines is created,
+     * and records outside the sectors are not displayed however the view later moves. To read records as the view
+     * reaches them, load the records on demand instead; see {@link #ShapefilePolylines(Shapefile,
+     * gov.nasa.worldwind.render.ShapeAttributes, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate, boolean)}. When the shapefile
+     * supports random access, the records are found with the shapefile's spatial index and only those records are read;
+     * see {@link Shapefile#getSpatialIndex()}. Otherwise the shapefile's records are read in sequence and the records
+     * outside the sectors are skipped. The remaining arguments are as described in {@link
+     * #ShapefilePolylines(Shapefile, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)}.
+     *
+     * @param shapefile         The shapefile to display.
+     * @param normalAttrs       The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default attributes.
+     * @param highlightAttrs    The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default highlight attributes.
+     * @param attributeDelegate Optional callback for configuring each ShapefileRenderable.Record's shape attributes and
+     *                          key-value attributes. May be null.
+     * @param recordSectors     The sectors containing the records to display. May be null to display all records.
+     *
+     * @throws IllegalArgumentException if the shapefile is null.
+     */
+    public ShapefilePolylines(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        AttributeDelegate attributeDelegate, Iterable<? extends Sector> recordSectors)
+    {
+        if (shapefile == null)
+        {
+            String msg = Logging.getMessage("nullValue.ShapefileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, recordSectors);
+    }
+
+    /**
+     * Creates a new ShapefilePolylines that optionally reads the shapefile's records on demand. When loading records on
+     * demand, the records intersecting the visible part of the shapefile are read from the shapefile as the view moves,
+     * using the shapefile's spatial index. Records outside the areas displayed so far are never read. The shapefile
+     * must support random access and must remain open while the ShapefilePolylines is displayed; if the shapefile does
+     * not support random access, all of its records are read during construction. The remaining arguments are as
+     * described in {@link #ShapefilePolylines(Shapefile, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)}.
+     *
+     * @param shapefile           The shapefile to display.
+     * @param normalAttrs         The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default attributes.
+     * @param highlightAttrs      The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default highlight attributes.
+     * @param attributeDelegate   Optional callback for configuring each ShapefileRenderable.Record's shape attributes
+     *                            and key-value attributes. May be null.
+     * @param loadRecordsOnDemand true to read records as the areas containing them are displayed, false to read all
+     *                            records during construction.
+     *
+     * @throws IllegalArgumentException if the shapefile is null.
+     * @see Shapefile#isRandomAccessSupported()
+     */
+    public ShapefilePolylines(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        AttributeDelegate attributeDelegate, boolean loadRecordsOnDemand)
+    {
+        if (shapefile == null)
+        {
+            String msg = Logging.getMessage("nullValue.ShapefileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, loadRecordsOnDemand);
+    }
+
     /**
      * Indicates the outline line width to use during picking. A larger width than normal typically makes the outline
      * easier to pick.
@@ -301,6 +375,8 @@ public class ShapefilePolylines extends ShapefileRenderable implements OrderedRe
         if (!this.visible)
             return;
 
+        this.loadVisibleRecords(dc); // read the records in view when loading records on demand
+
         if (this.getRecordCount() == 0) // Shapefile is empty or contains only null records.
             return;
 
@@ -420,10 +496,49 @@ public class ShapefilePolylines extends ShapefileRenderable implements OrderedRe
         Record record = this.createRecord(shapefileRecord);
         this.addRecord(shapefileRecord, record);
 
+        if (this.isLoadRecordsOnDemand()) // the tile tree already exists; add the record to its smallest tile
+        {
+            this.insertRecord(record);
+            return;
+        }
+
         this.rootTile.records.add(record);
         record.tile = this.rootTile;
     }
 
+    protected void insertRecord(Record record)
+    {
+        // Find the smallest tile completely containing the record, as splitTile would have, and add the record to it.
+        // Split the tile when the record puts it over capacity. Tiles that already have children keep their records.
+        Tile tile = this.rootTile;
+        while (tile.children != null)
+        {
+            Tile child = null;
+            for (Tile childTile : tile.children)
+            {
+                if (childTile.sector.contains(record.sector))
+                {
+                    child = childTile;
+                    break;
+                }
+            }
+
+            if (child == null)
+                break;
+
+            tile = child;
+        }
+
+        tile.records.add(record);
+        record.tile = tile;
+        this.invalidateTileGeometry(tile);
+
+        if (tile.children == null && this.mustSplitTile(tile))
+        {
+            this.splitTile(tile);
+        }
+    }
+
     protected ShapefilePolylines.Record createRecord(ShapefileRecord shapefileRecord)
     {
         return new ShapefilePolylines.Record(this, shapefileRecord);
@@ -552,6 +667,13 @@ public class ShapefilePolylines extends ShapefileRenderable implements OrderedRe
         return tile.vertices == null;
     }
 
+    protected void invalidateTileGeometry(Tile tile)
+    {
+        tile.vertices = null; // force the tile vertices to be regenerated
+        tile.vboKey = new Object(); // the tile's existing vertex buffer object no longer matches its vertices
+        this.invalidateTileAttributeGroups(tile);
+    }
+
     protected void regenerateTileGeometry(Tile tile)
     {
         this.tessellateTile(tile);
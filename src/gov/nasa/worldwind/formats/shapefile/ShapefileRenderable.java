@@ -223,6 +223,14 @@ public abstract class ShapefileRenderable extends WWObjectImpl
     protected ShapeAttributes initNormalAttrs;
     protected ShapeAttributes initHighlightAttrs;
     protected ShapefileRenderable.AttributeDelegate initAttributeDelegate;
+    protected List<Sector> initRecordSectors;
+    // Properties supporting loading records on demand.
+    protected Shapefile shapefile;
+    protected BitSet loadedRecordNumbers;
+    protected Set<Sector> loadedSectors;
+
+    /** The largest number of grid cells along each axis used by {@link #loadVisibleRecords(DrawContext)}. */
+    protected static final int MAX_LOAD_CELLS = 1 << 16;
 
     protected static ShapeAttributes defaultAttributes;
     protected static ShapeAttributes defaultHighlightAttributes;
@@ -254,6 +262,29 @@ public abstract class ShapefileRenderable extends WWObjectImpl
      */
     protected void init(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
         ShapefileRenderable.AttributeDelegate attributeDelegate)
+    {
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, null);
+    }
+
+    /**
+     * Initializes this ShapefileRenderable with the shapefile's records that intersect the specified sectors. If the
+     * sectors are null, this initializes this ShapefileRenderable with all of the shapefile's records. The records are
+     * chosen once, here; they are not updated as the view changes. See {@link
+     * #init(Shapefile, gov.nasa.worldwind.render.ShapeAttributes, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)} for a description of the other
+     * arguments.
+     *
+     * @param shapefile         The shapefile to display.
+     * @param normalAttrs       The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default attributes.
+     * @param highlightAttrs    The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                          default highlight attributes.
+     * @param attributeDelegate Optional callback for configuring each ShapefileRenderable.Record's shape attributes and
+     *                          key-value attributes. May be null.
+     * @param recordSectors     The sectors containing the records to display. May be null to display all records.
+     */
+    protected void init(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        ShapefileRenderable.AttributeDelegate attributeDelegate, Iterable<? extends Sector> recordSectors)
     {
         double[] boundingRect = shapefile.getBoundingRectangle();
         if (boundingRect == null) // suppress record assembly for empty shapefiles
@@ -263,24 +294,150 @@ public abstract class ShapefileRenderable extends WWObjectImpl
         this.initNormalAttrs = normalAttrs;
         this.initHighlightAttrs = highlightAttrs;
         this.initAttributeDelegate = attributeDelegate;
+
+        if (recordSectors != null)
+        {
+            this.initRecordSectors = new ArrayList<Sector>();
+            for (Sector sector : recordSectors)
+            {
+                if (sector != null)
+                    this.initRecordSectors.add(sector);
+            }
+        }
+
         this.assembleRecords(shapefile);
     }
 
+    /**
+     * Initializes this ShapefileRenderable with the specified shapefile, optionally loading the shapefile's records
+     * on demand. When loading records on demand, no records are read here. Instead, the records intersecting each
+     * sector passed to {@link #loadRecordsInSector(gov.nasa.worldwind.geom.Sector)} are read the first time that
+     * sector is requested, using the shapefile's spatial index. Subclasses request the sectors they display as the view
+     * changes. Loading records on demand requires a shapefile that supports random access, and the shapefile must
+     * remain open while this ShapefileRenderable is displayed. If the shapefile does not support random access, all of
+     * its records are read here. See {@link #init(Shapefile, gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.render.ShapeAttributes,
+     * gov.nasa.worldwind.formats.shapefile.ShapefileRenderable.AttributeDelegate)} for a description of the other
+     * arguments.
+     *
+     * @param shapefile           The shapefile to display.
+     * @param normalAttrs         The normal attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default attributes.
+     * @param highlightAttrs      The highlight attributes for each ShapefileRenderable.Record. May be null to use the
+     *                            default highlight attributes.
+     * @param attributeDelegate   Optional callback for configuring each ShapefileRenderable.Record's shape attributes
+     *                            and key-value attributes. May be null.
+     * @param loadRecordsOnDemand true to read records as the sectors containing them are displayed, false to read all
+     *                            records now.
+     *
+     * @see Shapefile#isRandomAccessSupported()
+     */
+    protected void init(Shapefile shapefile, ShapeAttributes normalAttrs, ShapeAttributes highlightAttrs,
+        ShapefileRenderable.AttributeDelegate attributeDelegate, boolean loadRecordsOnDemand)
+    {
+        if (loadRecordsOnDemand && shapefile.getBoundingRectangle() != null && shapefile.isRandomAccessSupported())
+        {
+            this.shapefile = shapefile;
+            this.shapefile.getSpatialIndex(); // read or build the index now rather than while rendering
+            this.loadedRecordNumbers = new BitSet();
+            this.loadedSectors = new HashSet<Sector>();
+        }
+
+        this.init(shapefile, normalAttrs, highlightAttrs, attributeDelegate, null);
+    }
+
     protected void assembleRecords(Shapefile shapefile)
     {
         this.records = new ArrayList<ShapefileRenderable.Record>();
 
-        while (shapefile.hasNext())
+        if (this.isLoadRecordsOnDemand())
+        {
+            return; // records are read by loadRecordsInSector
+        }
+        else if (this.initRecordSectors != null && shapefile.isRandomAccessSupported())
+        {
+            this.assembleRecordsInSectors(shapefile, this.initRecordSectors);
+        }
+        else
         {
-            ShapefileRecord shapefileRecord = shapefile.nextRecord();
+            while (shapefile.hasNext())
+            {
+                ShapefileRecord shapefileRecord = shapefile.nextRecord();
+
+                if (this.mustAssembleRecord(shapefileRecord) && this.isRecordInSectors(shapefileRecord))
+                {
+                    this.assembleRecord(shapefileRecord);
+                }
+            }
+        }
+
+        this.records.trimToSize(); // Reduce memory overhead from unused ArrayList capacity.
+    }
 
-            if (this.mustAssembleRecord(shapefileRecord))
+    protected void assembleRecordsInSectors(Shapefile shapefile, List<Sector> sectors)
+    {
+        // Collect the records intersecting any of the sectors, then read them in file order. Records intersecting more
+        // than one sector are read once.
+        ShapefileSpatialIndex index = shapefile.getSpatialIndex();
+        BitSet recordNumbers = new BitSet();
+        for (Sector sector : sectors)
+        {
+            for (int recordNumber : index.getRecordNumbers(sector))
+            {
+                recordNumbers.set(recordNumber);
+            }
+        }
+
+        for (int i = recordNumbers.nextSetBit(0); i >= 0; i = recordNumbers.nextSetBit(i + 1))
+        {
+            ShapefileRecord shapefileRecord = shapefile.getRecord(i);
+
+            if (shapefileRecord != null && this.mustAssembleRecord(shapefileRecord))
             {
                 this.assembleRecord(shapefileRecord);
             }
         }
+    }
 
-        this.records.trimToSize(); // Reduce memory overhead from unused ArrayList capacity.
+    protected boolean isRecordInSectors(ShapefileRecord shapefileRecord)
+    {
+        if (this.initRecordSectors == null)
+            return true;
+
+        Sector recordSector = this.computeRecordSector(shapefileRecord);
+        if (recordSector == null) // null records are not in the spatial index either
+            return false;
+
+        for (Sector sector : this.initRecordSectors)
+        {
+            if (sector.intersects(recordSector))
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Computes the sector the shapefile's spatial index uses for the specified record: the record's bounding rectangle,
+     * or for point records the point's location. This keeps the records chosen by reading the shapefile in sequence
+     * the same as the records chosen by the spatial index.
+     *
+     * @param shapefileRecord the record to compute a sector for.
+     *
+     * @return the record's sector, or null if the record has neither a bounding rectangle nor a point.
+     */
+    protected Sector computeRecordSector(ShapefileRecord shapefileRecord)
+    {
+        if (shapefileRecord.getBoundingRectangle() != null)
+            return Sector.fromDegrees(shapefileRecord.getBoundingRectangle());
+
+        if (!shapefileRecord.isPointRecord())
+            return null;
+
+        double[] point = shapefileRecord.asPointRecord().getPoint();
+        double lat = Angle.normalizedDegreesLatitude(point[1]);
+        double lon = Angle.normalizedDegreesLongitude(point[0]);
+        return Sector.fromDegrees(lat, lat, lon, lon);
     }
 
     protected boolean mustAssembleRecord(ShapefileRecord shapefileRecord)
@@ -309,6 +466,118 @@ public abstract class ShapefileRenderable extends WWObjectImpl
         }
     }
 
+    /**
+     * Indicates whether this ShapefileRenderable reads its shapefile's records as the sectors containing them are
+     * displayed, rather than all at once when it is created.
+     *
+     * @return true if records are loaded on demand, otherwise false.
+     */
+    public boolean isLoadRecordsOnDemand()
+    {
+        return this.shapefile != null;
+    }
+
+    /**
+     * Reads the records intersecting the specified sector that have not been read yet, when loading records on demand.
+     * Each sector's records are looked up in the shapefile's spatial index the first time the sector is requested, so
+     * callers should request sectors from a fixed set, such as tiles. This does nothing if this ShapefileRenderable
+     * does not load records on demand, or if the shapefile has since been closed.
+     *
+     * @param sector the sector whose records to read.
+     */
+    protected void loadRecordsInSector(Sector sector)
+    {
+        if (!this.isLoadRecordsOnDemand() || !this.shapefile.isRandomAccessSupported())
+            return;
+
+        if (!this.loadedSectors.add(sector)) // the sector's records have already been read
+            return;
+
+        for (int recordNumber : this.shapefile.getSpatialIndex().getRecordNumbers(sector))
+        {
+            if (this.loadedRecordNumbers.get(recordNumber))
+                continue;
+
+            this.loadedRecordNumbers.set(recordNumber); // don't retry records that fail to read
+            ShapefileRecord shapefileRecord = this.readRecord(recordNumber);
+
+            if (shapefileRecord != null && this.mustAssembleRecord(shapefileRecord))
+            {
+                this.assembleRecord(shapefileRecord);
+            }
+        }
+    }
+
+    /**
+     * Reads the records intersecting the visible part of this ShapefileRenderable, when loading records on demand. The
+     * records are requested in the cells of a regular grid over this ShapefileRenderable's sector, using the finest
+     * grid whose cells are at least as large as the visible sector. At most four cells are requested, and the same
+     * cells recur as the view moves.
+     *
+     * @param dc the current draw context.
+     *
+     * @see #loadRecordsInSector(gov.nasa.worldwind.geom.Sector)
+     */
+    protected void loadVisibleRecords(DrawContext dc)
+    {
+        if (!this.isLoadRecordsOnDemand() || dc.getVisibleSector() == null)
+            return;
+
+        Sector visibleSector = this.sector.intersection(dc.getVisibleSector());
+        if (visibleSector == null)
+            return;
+
+        double minLat = this.sector.getMinLatitude().degrees;
+        double minLon = this.sector.getMinLongitude().degrees;
+        double cellLat = this.sector.getDeltaLatDegrees();
+        double cellLon = this.sector.getDeltaLonDegrees();
+        int numCells = 1;
+
+        while (numCells < MAX_LOAD_CELLS
+            && cellLat / 2 >= visibleSector.getDeltaLatDegrees() && cellLon / 2 >= visibleSector.getDeltaLonDegrees())
+        {
+            cellLat /= 2;
+            cellLon /= 2;
+            numCells *= 2;
+        }
+
+        int firstRow = this.computeCellIndex(visibleSector.getMinLatitude().degrees - minLat, cellLat, numCells);
+        int lastRow = this.computeCellIndex(visibleSector.getMaxLatitude().degrees - minLat, cellLat, numCells);
+        int firstCol = this.computeCellIndex(visibleSector.getMinLongitude().degrees - minLon, cellLon, numCells);
+        int lastCol = this.computeCellIndex(visibleSector.getMaxLongitude().degrees - minLon, cellLon, numCells);
+
+        for (int row = firstRow; row <= lastRow; row++)
+        {
+            for (int col = firstCol; col <= lastCol; col++)
+            {
+                this.loadRecordsInSector(Sector.fromDegrees(minLat + row * cellLat, minLat + (row + 1) * cellLat,
+                    minLon + col * cellLon, minLon + (col + 1) * cellLon));
+            }
+        }
+    }
+
+    protected int computeCellIndex(double offset, double cellSize, int numCells)
+    {
+        if (cellSize <= 0)
+            return 0;
+
+        return WWMath.clamp((int) Math.floor(offset / cellSize), 0, numCells - 1);
+    }
+
+    protected ShapefileRecord readRecord(int recordNumber)
+    {
+        // Reading a record appends its points to the shapefile's point buffer. Records read earlier access that buffer
+        // from other threads while holding its lock. The buffer is created by the first record read.
+        CompoundVecBuffer pointBuffer = this.shapefile.getPointBuffer();
+        if (pointBuffer == null)
+            return this.shapefile.getRecord(recordNumber);
+
+        synchronized (pointBuffer)
+        {
+            return this.shapefile.getRecord(recordNumber);
+        }
+    }
+
     public Sector getSector()
     {
         return this.sector;
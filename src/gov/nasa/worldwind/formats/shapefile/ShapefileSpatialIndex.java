@@ -0,0 +1,472 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.shapefile;
+
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.util.*;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * A static, packed R-tree over the bounding rectangles of a Shapefile's records. The index is bulk loaded: records are
+ * sorted by the Hilbert curve value of their bounding rectangle's center, then grouped into nodes of a fixed size,
+ * level by level, until a single root node remains. Every node is full except the last node on each level, so the tree
+ * is stored compactly in two flat arrays and can be written to and read from a sidecar file without conversion.
+ * <p>
+ * Bounding rectangles are in the Shapefile's geographic coordinates, ordered as in {@link
+ * Sector#fromDegrees(double[])}: minimum latitude, maximum latitude, minimum longitude, maximum longitude. {@link
+ * #getRecordNumbers(gov.nasa.worldwind.geom.Sector)} returns the record numbers of the records whose bounding
+ * rectangles intersect a sector.
+ * <p>
+ * The index records the length and modification time of the Shapefile it was built from, which {@link
+ * Shapefile#getSpatialIndex()} compares against the Shapefile to detect a stale sidecar file.
+ */
+public class ShapefileSpatialIndex
+{
+    /** The default number of children of each node. */
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    protected static final int FILE_CODE = 0x53484958; // "SHIX"
+    protected static final int FILE_VERSION = 1;
+    protected static final int HILBERT_ORDER = 16;
+
+    protected int nodeSize;
+    protected int numRecords;
+    /** The exclusive end of each level's nodes in the node arrays, from the leaves to the root. */
+    protected int[] levelBounds;
+    /** Four coordinates per node: minimum latitude, maximum latitude, minimum longitude, maximum longitude. */
+    protected double[] bounds;
+    /** For leaves, the record number. For internal nodes, the position of the node's first child. */
+    protected int[] indices;
+    protected long sourceLength;
+    protected long sourceLastModified;
+
+    protected ShapefileSpatialIndex()
+    {
+    }
+
+    /**
+     * Builds an index over the specified records.
+     *
+     * @param recordNumbers the record numbers to index.
+     * @param recordBounds  the bounding rectangle of each record, four coordinates per record in the order minimum
+     *                      latitude, maximum latitude, minimum longitude, maximum longitude.
+     * @param nodeSize      the number of children of each node.
+     *
+     * @throws IllegalArgumentException if either array is null, if the arrays have inconsistent lengths, or if the
+     *                                  node size is less than 2.
+     */
+    public ShapefileSpatialIndex(int[] recordNumbers, double[] recordBounds, int nodeSize)
+    {
+        if (recordNumbers == null)
+        {
+            String msg = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (recordBounds == null || recordBounds.length != 4 * recordNumbers.length)
+        {
+            String msg = Logging.getMessage("generic.ArrayInvalidLength",
+                recordBounds != null ? recordBounds.length : null);
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (nodeSize < 2)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "nodeSize < 2");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.nodeSize = nodeSize;
+        this.numRecords = recordNumbers.length;
+        this.build(recordNumbers, recordBounds);
+    }
+
+    /**
+     * Returns the number of records in this index.
+     *
+     * @return the number of indexed records.
+     */
+    public int getNumberOfRecords()
+    {
+        return this.numRecords;
+    }
+
+    /**
+     * Returns the number of children of each node.
+     *
+     * @return this index's node size.
+     */
+    public int getNodeSize()
+    {
+        return this.nodeSize;
+    }
+
+    /**
+     * Returns the length of the Shapefile this index was built from, or 0 if unknown.
+     *
+     * @return the source Shapefile's length, in bytes.
+     */
+    public long getSourceLength()
+    {
+        return this.sourceLength;
+    }
+
+    /**
+     * Returns the modification time of the Shapefile this index was built from, or 0 if unknown.
+     *
+     * @return the source Shapefile's modification time, in milliseconds since the epoch.
+     */
+    public long getSourceLastModified()
+    {
+        return this.sourceLastModified;
+    }
+
+    /**
+     * Specifies the length and modification time of the Shapefile this index was built from.
+     *
+     * @param length       the source Shapefile's length, in bytes.
+     * @param lastModified the source Shapefile's modification time, in milliseconds since the epoch.
+     */
+    public void setSource(long length, long lastModified)
+    {
+        this.sourceLength = length;
+        this.sourceLastModified = lastModified;
+    }
+
+    /**
+     * Returns the record numbers of the records whose bounding rectangles intersect the specified sector, in ascending
+     * order.
+     *
+     * @param sector the sector to query.
+     *
+     * @return the intersecting record numbers. The array is empty if no records intersect the sector.
+     *
+     * @throws IllegalArgumentException if the sector is null.
+     */
+    public int[] getRecordNumbers(Sector sector)
+    {
+        if (sector == null)
+        {
+            String msg = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        double minLat = sector.getMinLatitude().degrees;
+        double maxLat = sector.getMaxLatitude().degrees;
+        double minLon = sector.getMinLongitude().degrees;
+        double maxLon = sector.getMaxLongitude().degrees;
+
+        int root = this.levelBounds[this.levelBounds.length - 1] - 1;
+        if (this.numRecords == 0 || !this.intersects(root, minLat, maxLat, minLon, maxLon))
+            return new int[0];
+
+        int[] result = new int[16];
+        int count = 0;
+
+        // Depth first traversal from the root. Each stack entry is a node position and the level containing it.
+        int[] stack = new int[2 * (this.levelBounds.length * this.nodeSize + 1)];
+        int top = 0;
+        stack[top++] = root;
+        stack[top++] = this.levelBounds.length - 1;
+
+        while (top > 0)
+        {
+            int level = stack[--top];
+            int node = stack[--top];
+
+            if (level == 0)
+            {
+                if (count == result.length)
+                    result = Arrays.copyOf(result, 2 * count);
+                result[count++] = this.indices[node];
+                continue;
+            }
+
+            int first = this.indices[node];
+            int last = Math.min(first + this.nodeSize, this.levelBounds[level - 1]);
+            for (int child = first; child < last; child++)
+            {
+                if (!this.intersects(child, minLat, maxLat, minLon, maxLon))
+                    continue;
+
+                if (top + 2 > stack.length)
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                stack[top++] = child;
+                stack[top++] = level - 1;
+            }
+        }
+
+        int[] recordNumbers = Arrays.copyOf(result, count);
+        Arrays.sort(recordNumbers);
+        return recordNumbers;
+    }
+
+    /**
+     * Writes this index to a file.
+     *
+     * @param file the file to write.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     * @throws IOException              if an error occurs while writing the file.
+     */
+    public void write(File file) throws IOException
+    {
+        if (file == null)
+        {
+            String msg = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try
+        {
+            out.writeInt(FILE_CODE);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(this.nodeSize);
+            out.writeInt(this.numRecords);
+            out.writeLong(this.sourceLength);
+            out.writeLong(this.sourceLastModified);
+            out.writeInt(this.levelBounds.length);
+            for (int bound : this.levelBounds)
+            {
+                out.writeInt(bound);
+            }
+            for (double d : this.bounds)
+            {
+                out.writeDouble(d);
+            }
+            for (int index : this.indices)
+            {
+                out.writeInt(index);
+            }
+        }
+        finally
+        {
+            WWIO.closeStream(out, file.getPath());
+        }
+    }
+
+    /**
+     * Reads an index from a file written by {@link #write(java.io.File)}.
+     *
+     * @param file the file to read.
+     *
+     * @return the index read from the file.
+     *
+     * @throws IllegalArgumentException if the file is null.
+     * @throws IOException              if the file cannot be read or is not a Shapefile spatial index.
+     */
+    public static ShapefileSpatialIndex read(File file) throws IOException
+    {
+        if (file == null)
+        {
+            String msg = Logging.getMessage("nullValue.FileIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try
+        {
+            if (in.readInt() != FILE_CODE || in.readInt() != FILE_VERSION)
+                throw new IOException(Logging.getMessage("SHP.UnrecognizedSpatialIndex", file.getPath()));
+
+            ShapefileSpatialIndex index = new ShapefileSpatialIndex();
+            index.nodeSize = in.readInt();
+            index.numRecords = in.readInt();
+            index.sourceLength = in.readLong();
+            index.sourceLastModified = in.readLong();
+
+            int numLevels = in.readInt();
+            if (index.nodeSize < 2 || index.numRecords < 0 || numLevels < 1)
+                throw new IOException(Logging.getMessage("SHP.UnrecognizedSpatialIndex", file.getPath()));
+
+            index.levelBounds = new int[numLevels];
+            for (int i = 0; i < numLevels; i++)
+            {
+                index.levelBounds[i] = in.readInt();
+            }
+
+            int numNodes = index.levelBounds[numLevels - 1];
+            index.bounds = new double[4 * numNodes];
+            for (int i = 0; i < index.bounds.length; i++)
+            {
+                index.bounds[i] = in.readDouble();
+            }
+
+            index.indices = new int[numNodes];
+            for (int i = 0; i < numNodes; i++)
+            {
+                index.indices[i] = in.readInt();
+            }
+
+            return index;
+        }
+        finally
+        {
+            WWIO.closeStream(in, file.getPath());
+        }
+    }
+
+    protected void build(int[] recordNumbers, double[] recordBounds)
+    {
+        int n = recordNumbers.length;
+
+        // Compute the number of nodes on each level, from the leaves up to a single root.
+        int numLevels = 1;
+        int numNodes = n;
+        for (int count = n; count > 1; count = (count + this.nodeSize - 1) / this.nodeSize)
+        {
+            numLevels++;
+            numNodes += (count + this.nodeSize - 1) / this.nodeSize;
+        }
+
+        this.levelBounds = new int[numLevels];
+        this.bounds = new double[4 * Math.max(numNodes, 1)];
+        this.indices = new int[Math.max(numNodes, 1)];
+
+        if (n == 0)
+        {
+            this.levelBounds[0] = 0;
+            return;
+        }
+
+        // Sort the records by the Hilbert value of their center within the extent of all records.
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int i = 0; i < n; i++)
+        {
+            minLat = Math.min(minLat, recordBounds[4 * i]);
+            maxLat = Math.max(maxLat, recordBounds[4 * i + 1]);
+            minLon = Math.min(minLon, recordBounds[4 * i + 2]);
+            maxLon = Math.max(maxLon, recordBounds[4 * i + 3]);
+        }
+
+        int cells = (1 << HILBERT_ORDER) - 1;
+        double latScale = maxLat > minLat ? cells / (maxLat - minLat) : 0;
+        double lonScale = maxLon > minLon ? cells / (maxLon - minLon) : 0;
+
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++)
+        {
+            double lat = 0.5 * (recordBounds[4 * i] + recordBounds[4 * i + 1]);
+            double lon = 0.5 * (recordBounds[4 * i + 2] + recordBounds[4 * i + 3]);
+            int x = (int) ((lon - minLon) * lonScale);
+            int y = (int) ((lat - minLat) * latScale);
+            keys[i] = (hilbertIndex(x, y) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        for (int i = 0; i < n; i++)
+        {
+            int item = (int) (keys[i] & 0xFFFFFFFFL);
+            System.arraycopy(recordBounds, 4 * item, this.bounds, 4 * i, 4);
+            this.indices[i] = recordNumbers[item];
+        }
+        this.levelBounds[0] = n;
+
+        // Pack each level's nodes into parent nodes on the level above.
+        int levelStart = 0;
+        int pos = n;
+        for (int level = 1; level < numLevels; level++)
+        {
+            int levelEnd = this.levelBounds[level - 1];
+            for (int first = levelStart; first < levelEnd; first += this.nodeSize)
+            {
+                int last = Math.min(first + this.nodeSize, levelEnd);
+                double nodeMinLat = Double.MAX_VALUE, nodeMaxLat = -Double.MAX_VALUE;
+                double nodeMinLon = Double.MAX_VALUE, nodeMaxLon = -Double.MAX_VALUE;
+                for (int child = first; child < last; child++)
+                {
+                    nodeMinLat = Math.min(nodeMinLat, this.bounds[4 * child]);
+                    nodeMaxLat = Math.max(nodeMaxLat, this.bounds[4 * child + 1]);
+                    nodeMinLon = Math.min(nodeMinLon, this.bounds[4 * child + 2]);
+                    nodeMaxLon = Math.max(nodeMaxLon, this.bounds[4 * child + 3]);
+                }
+
+                this.bounds[4 * pos] = nodeMinLat;
+                this.bounds[4 * pos + 1] = nodeMaxLat;
+                this.bounds[4 * pos + 2] = nodeMinLon;
+                this.bounds[4 * pos + 3] = nodeMaxLon;
+                this.indices[pos] = first;
+                pos++;
+            }
+
+            levelStart = levelEnd;
+            this.levelBounds[level] = pos;
+        }
+    }
+
+    protected boolean intersects(int node, double minLat, double maxLat, double minLon, double maxLon)
+    {
+        int i = 4 * node;
+        return this.bounds[i] <= maxLat && this.bounds[i + 1] >= minLat
+            && this.bounds[i + 2] <= maxLon && this.bounds[i + 3] >= minLon;
+    }
+
+    /**
+     * Computes the distance along a Hilbert curve of the specified cell in a grid of 2^16 by 2^16 cells.
+     *
+     * @param x the cell's column.
+     * @param y the cell's row.
+     *
+     * @return the cell's Hilbert curve distance.
+     */
+    protected static long hilbertIndex(int x, int y)
+    {
+        long d = 0;
+        for (int s = 1 << (HILBERT_ORDER - 1); s > 0; s >>= 1)
+        {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+
+            // Rotate the quadrant so the curve is continuous.
+            if (ry == 0)
+            {
+                if (rx == 1)
+                {
+                    x = (1 << HILBERT_ORDER) - 1 - x;
+                    y = (1 << HILBERT_ORDER) - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+
+        return d;
+    }
+}
@@ -684,6 +684,7 @@ public abstract class VPFBasicDataBufferFactory implements VPFDataBufferFactory
     {
         protected int coordsPerElem;
         protected int bytesPerCoord;
+        protected ByteBuffer copyBuffer;
 
         public AbstractVecReader(int coordsPerElem, int bytesPerCoord)
         {
@@ -705,7 +706,7 @@ public abstract class VPFBasicDataBufferFactory implements VPFDataBufferFactory
             try
             {
                 byteBuffer.limit(limit);
-                BufferWrapper newBuffer = this.doRead(byteBuffer);
+                BufferWrapper newBuffer = this.doRead(byteBuffer.isReadOnly() ? this.copy(byteBuffer) : byteBuffer);
                 vecBuffer = new VecBuffer(this.coordsPerElem, newBuffer);
             }
             finally
@@ -717,6 +718,28 @@ public abstract class VPFBasicDataBufferFactory implements VPFDataBufferFactory
             return vecBuffer;
         }
 
+        /**
+         * Copies the remaining bytes of a read-only buffer, such as a memory-mapped table, so that null coordinates can
+         * be replaced in place. The copy is reused by subsequent reads; callers copy the returned coordinates before
+         * reading again.
+         *
+         * @param byteBuffer the buffer to copy.
+         *
+         * @return a writable buffer holding the remaining bytes, in the same byte order.
+         */
+        protected ByteBuffer copy(ByteBuffer byteBuffer)
+        {
+            if (this.copyBuffer == null || this.copyBuffer.capacity() < byteBuffer.remaining())
+                this.copyBuffer = ByteBuffer.allocate(byteBuffer.remaining());
+
+            this.copyBuffer.clear();
+            this.copyBuffer.order(byteBuffer.order());
+            this.copyBuffer.put(byteBuffer.duplicate());
+            this.copyBuffer.flip();
+
+            return this.copyBuffer;
+        }
+
         protected abstract BufferWrapper doRead(ByteBuffer byteBuffer);
     }
 
@@ -29,6 +29,7 @@ package gov.nasa.worldwind.formats.vpf;
 
 import gov.nasa.worldwind.*;
 import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.cache.MemoryCache;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.layers.AbstractLayer;
 import gov.nasa.worldwind.render.*;
@@ -40,6 +41,11 @@ import java.util.concurrent.*;
 
 /**
  * Renders elements from a VPF database.
+ * <p>
+ * Coverage tiles are loaded asynchronously by a {@link VPFTileLoader}. Each frame the layer requests the visible tiles
+ * that are not yet loaded, prioritised by their distance from the center of the view, and cancels the requests for
+ * tiles that are no longer visible. Each tile's symbols are published to the layer as soon as the tile has loaded. The
+ * loader's progress is available from {@link #getLoadingMetrics()}.
  *
  * @author Patrick Murris
  * @version $Id: VPFLayer.java 1171 2013-02-11 21:45:02Z dcollins $
@@ -66,9 +72,25 @@ public class VPFLayer extends AbstractLayer
     protected VPFSymbolSupport symbolSupport = new VPFSymbolSupport(GeoSymConstants.GEOSYM, "image/png");
 
     // Threaded requests
-    protected Queue<Runnable> requestQ = new PriorityBlockingQueue<Runnable>(4);
+    protected Queue<RequestTask> requestQ = new PriorityBlockingQueue<RequestTask>(4);
+    protected VPFTileLoader tileLoader = new VPFTileLoader(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
     protected Queue<Disposable> disposalQ = new ConcurrentLinkedQueue<Disposable>();
 
+    // Decoded primitives, shared by all VPF layers
+    protected MemoryCache primitiveCache = WorldWind.getMemoryCache(VPFPrimitiveData.class.getName());
+
+    static
+    {
+        if (!WorldWind.getMemoryCacheSet().containsCache(VPFPrimitiveData.class.getName()))
+        {
+            long size = Configuration.getLongValue(AVKey.VPF_PRIMITIVE_CACHE_SIZE, (long) 50e6); // default 50MB
+            MemoryCache cache = WorldWind.getMemoryCacheSet().createCache(VPFPrimitiveData.class.getName(),
+                (long) (0.8 * size), size);
+            cache.setName("VPF Primitive Data");
+            WorldWind.getMemoryCacheSet().addCache(VPFPrimitiveData.class.getName(), cache);
+        }
+    }
+
     // --- Inner classes ----------------------------------------------------------------------
 
     protected static final VPFTile NULL_TILE = new VPFTile(-1, "NullTile", new VPFBoundingBox(0, 0, 0, 0));
@@ -81,6 +103,7 @@ public class VPFLayer extends AbstractLayer
         protected VPFCoverageRenderable referenceCoverage;
         protected ArrayList<VPFCoverageRenderable> coverages = new ArrayList<VPFCoverageRenderable>();
         protected ArrayList<VPFTile> currentTiles = new ArrayList<VPFTile>();
+        protected Map<VPFTile, Double> tilePriorities = new HashMap<VPFTile, Double>();
 
         public VPFLibraryRenderable(VPFLayer layer, VPFLibrary library)
         {
@@ -110,12 +133,12 @@ public class VPFLayer extends AbstractLayer
 
             if (this.referenceCoverage != null)
             {
-                this.referenceCoverage.assembleSymbols(null);
+                this.referenceCoverage.assembleSymbols(null, null);
             }
 
             for (VPFCoverageRenderable cr : this.coverages)
             {
-                cr.assembleSymbols((cr.coverage.isTiled() ? this.currentTiles : null));
+                cr.assembleSymbols((cr.coverage.isTiled() ? this.currentTiles : null), this.tilePriorities);
             }
         }
 
@@ -151,6 +174,7 @@ public class VPFLayer extends AbstractLayer
         protected void assembleVisibleTiles(DrawContext dc, double drawDistance, int maxTilesToDraw)
         {
             this.currentTiles.clear();
+            this.tilePriorities.clear();
 
             if (!this.library.hasTiledCoverages())
                 return;
@@ -184,6 +208,18 @@ public class VPFLayer extends AbstractLayer
                 }
                 this.currentTiles.remove(idx);
             }
+
+            // Load the tiles nearest the center of the view first.
+            Vec4 centerPoint = dc.getView().getCenterPoint();
+            if (centerPoint == null)
+                centerPoint = eyePoint;
+
+            for (VPFTile tile : this.currentTiles)
+            {
+                Extent extent = tile.getExtent(dc.getGlobe(), dc.getVerticalExaggeration());
+                this.tilePriorities.put(tile, Math.max(0, extent.getCenter().distanceTo3(centerPoint)
+                    - extent.getRadius()));
+            }
         }
     }
 
@@ -211,24 +247,25 @@ public class VPFLayer extends AbstractLayer
             });
         }
 
-        public void assembleSymbols(Iterable<? extends VPFTile> tiles)
+        public void assembleSymbols(Iterable<? extends VPFTile> tiles, Map<VPFTile, Double> tilePriorities)
         {
             if (!this.enabled)
                 return;
 
             if (tiles == null)
             {
-                this.doAssembleSymbols(NULL_TILE);
+                this.doAssembleSymbols(NULL_TILE, 0);
                 return;
             }
 
             for (VPFTile tile : tiles)
             {
-                this.doAssembleSymbols(tile);
+                Double priority = (tilePriorities != null) ? tilePriorities.get(tile) : null;
+                this.doAssembleSymbols(tile, (priority != null) ? priority : 0);
             }
         }
 
-        protected void doAssembleSymbols(VPFTile tile)
+        protected void doAssembleSymbols(VPFTile tile, double priority)
         {
             VPFSymbolCollection symbolCollection = this.tileCache.get(tile);
             if (symbolCollection != null)
@@ -237,7 +274,7 @@ public class VPFLayer extends AbstractLayer
             }
             else
             {
-                this.layer.requestQ.add(new RequestTask(this, tile));
+                this.layer.requestQ.add(new RequestTask(this, tile, priority));
             }
         }
 
@@ -283,8 +320,7 @@ public class VPFLayer extends AbstractLayer
 
     protected VPFSymbolCollection loadTileSymbols(VPFCoverage coverage, VPFTile tile)
     {
-        VPFPrimitiveDataFactory primitiveDataFactory = new VPFBasicPrimitiveDataFactory(tile);
-        VPFPrimitiveData primitiveData = primitiveDataFactory.createPrimitiveData(coverage);
+        VPFPrimitiveData primitiveData = this.getPrimitiveData(coverage, tile);
 
         // The PrimitiveDataFactory returns null when there are no primitive data tables for this coverage tile. We
         // return the constant EMPTY_SYMBOL_COLLECTION to indicate that we have successfully loaded nothing the empty
@@ -303,6 +339,10 @@ public class VPFLayer extends AbstractLayer
         VPFFeatureClass[] array = VPFUtils.readFeatureClasses(coverage, new VPFFeatureTableFilter());
         for (VPFFeatureClass cls : array)
         {
+            // Stop early if the tile scrolled out of view while it was loading.
+            if (VPFTileLoader.isCurrentTaskCancelled())
+                return null;
+
             Collection<? extends VPFSymbol> symbols = cls.createFeatureSymbols(symbolFactory);
             if (symbols != null)
                 list.addAll(symbols);
@@ -311,15 +351,46 @@ public class VPFLayer extends AbstractLayer
         return new VPFSymbolCollection(list);
     }
 
+    /**
+     * Returns the primitive data of a coverage tile, decoding it only if it is not in the VPF primitive cache.
+     *
+     * @param coverage the coverage.
+     * @param tile     the tile, or null if the coverage is not tiled.
+     *
+     * @return the tile's primitive data, or null if the coverage has no primitive tables for the tile.
+     */
+    protected VPFPrimitiveData getPrimitiveData(VPFCoverage coverage, VPFTile tile)
+    {
+        String key = (tile != null) ? coverage.getFilePath() + "/" + tile.getName() : coverage.getFilePath();
+
+        VPFPrimitiveData primitiveData = (VPFPrimitiveData) this.primitiveCache.getObject(key);
+        if (primitiveData != null)
+            return primitiveData;
+
+        VPFPrimitiveDataFactory primitiveDataFactory = new VPFBasicPrimitiveDataFactory(tile);
+        primitiveData = primitiveDataFactory.createPrimitiveData(coverage);
+        if (primitiveData != null)
+            this.primitiveCache.add(key, primitiveData);
+
+        return primitiveData;
+    }
+
     protected static class RequestTask implements Runnable, Comparable<RequestTask>
     {
         protected VPFCoverageRenderable coverageRenderable;
         protected VPFTile tile;
+        protected double priority;
 
         protected RequestTask(VPFCoverageRenderable coverageRenderable, VPFTile tile)
+        {
+            this(coverageRenderable, tile, 0);
+        }
+
+        protected RequestTask(VPFCoverageRenderable coverageRenderable, VPFTile tile, double priority)
         {
             this.coverageRenderable = coverageRenderable;
             this.tile = tile;
+            this.priority = priority;
         }
 
         public void run()
@@ -327,6 +398,10 @@ public class VPFLayer extends AbstractLayer
             VPFSymbolCollection symbols = this.coverageRenderable.layer.loadTileSymbols(
                 this.coverageRenderable.coverage, (this.tile != NULL_TILE) ? this.tile : null);
 
+            // The load stopped early because the request was cancelled.
+            if (symbols == null)
+                return;
+
             this.coverageRenderable.tileCache.put(this.tile, symbols);
             this.coverageRenderable.layer.firePropertyChange(AVKey.LAYER, null, this.coverageRenderable.layer);
         }
@@ -347,7 +422,7 @@ public class VPFLayer extends AbstractLayer
                 throw new IllegalArgumentException(msg);
             }
 
-            return 0;
+            return Double.compare(this.priority, that.priority);
         }
 
         public boolean equals(Object o)
@@ -508,6 +583,33 @@ public class VPFLayer extends AbstractLayer
         return this.symbols;
     }
 
+    /**
+     * Returns the loader that assembles this layer's coverage tiles.
+     *
+     * @return this layer's tile loader.
+     */
+    public VPFTileLoader getTileLoader()
+    {
+        return this.tileLoader;
+    }
+
+    /**
+     * Returns a snapshot of this layer's tile loading progress: the number of tiles queued, loading, loaded and
+     * cancelled, and the time taken to load them.
+     *
+     * @return this layer's tile loading metrics.
+     */
+    public VPFTileLoader.Metrics getLoadingMetrics()
+    {
+        return this.tileLoader.getMetrics();
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.tileLoader.dispose();
+    }
+
     protected void assembleRenderables(DrawContext dc)
     {
         this.symbols.clear();
@@ -550,13 +652,13 @@ public class VPFLayer extends AbstractLayer
 
     protected void sendRequests()
     {
-        Runnable task;
+        // Cancel the requests for tiles that are no longer visible, then queue or re-prioritise the others.
+        this.tileLoader.retainAll(this.requestQ);
+
+        RequestTask task;
         while ((task = this.requestQ.poll()) != null)
         {
-            if (!WorldWind.getTaskService().isFull())
-            {
-                WorldWind.getTaskService().addTask(task);
-            }
+            this.tileLoader.submit(task, task.priority);
         }
     }
 }
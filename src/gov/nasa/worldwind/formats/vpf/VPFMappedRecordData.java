@@ -0,0 +1,347 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.util.Logging;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Record data for a VPF table whose contents remain in a memory-mapped buffer. Rows are decoded only as they are
+ * accessed, by locating the row through the table's {@link VPFTableReader.RecordIndex} and decoding only the requested
+ * field. A column is decoded in full the first time its {@link VPFDataBuffer} is requested, or when it is searched by
+ * value, and is retained from then on.
+ * <p>
+ * This lets callers that visit only some rows of a large table, such as the rows of a feature table belonging to one
+ * {@link VPFTile}, avoid decoding the rest of the table.
+ */
+public class VPFMappedRecordData extends VPFBufferedRecordData
+{
+    protected final ByteBuffer buffer;
+    protected final VPFTableReader.Column[] columns;
+    protected final VPFDataType[] columnTypes;
+    /** Offset of each column from the start of a row, or -1 if a variable length field precedes the column. */
+    protected final int[] columnOffsets;
+    protected final VPFTableReader.RecordIndex recordIndex;
+    protected final Map<String, Integer> columnIndices = new LinkedHashMap<String, Integer>();
+
+    /**
+     * Creates record data for the rows of a table held in a buffer.
+     *
+     * @param buffer      the table's contents, in the table's byte order.
+     * @param columns     the table's column definitions.
+     * @param recordIndex the offset of each row in the buffer.
+     *
+     * @throws IllegalArgumentException if any argument is null.
+     */
+    public VPFMappedRecordData(ByteBuffer buffer, VPFTableReader.Column[] columns,
+        VPFTableReader.RecordIndex recordIndex)
+    {
+        if (buffer == null)
+        {
+            String message = Logging.getMessage("nullValue.BufferIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (columns == null)
+        {
+            String message = Logging.getMessage("nullValue.ColumnIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (recordIndex == null)
+        {
+            String message = Logging.getMessage("nullValue.RecordIndexIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // Use a private view of the buffer so that decoding does not disturb the caller's position. Duplicates
+        // revert to big endian order, so restore the table's order.
+        this.buffer = buffer.duplicate();
+        this.buffer.order(buffer.order());
+        this.columns = columns;
+        this.columnTypes = new VPFDataType[columns.length];
+        this.columnOffsets = new int[columns.length];
+        this.recordIndex = recordIndex;
+        this.setNumRecords(recordIndex.numEntries);
+
+        int offset = 0;
+        for (int col = 0; col < columns.length; col++)
+        {
+            this.columnTypes[col] = VPFDataType.fromTypeName(columns[col].dataType);
+            this.columnOffsets[col] = offset;
+            this.columnIndices.put(columns[col].name, col);
+
+            if (offset >= 0)
+                offset = columns[col].isVariableLengthField() ? -1 : offset + columns[col].getFieldLength();
+        }
+    }
+
+    @Override
+    public Iterable<String> getRecordParameterNames()
+    {
+        return Collections.unmodifiableSet(this.columnIndices.keySet());
+    }
+
+    /**
+     * {@inheritDoc} Decodes the column the first time it is requested.
+     */
+    @Override
+    public synchronized VPFDataBuffer getRecordData(String parameterName)
+    {
+        VPFDataBuffer dataBuffer = super.getRecordData(parameterName);
+        if (dataBuffer != null)
+            return dataBuffer;
+
+        Integer column = this.columnIndices.get(parameterName);
+        if (column == null)
+            return null;
+
+        dataBuffer = this.decodeColumn(column);
+        this.setRecordData(parameterName, dataBuffer);
+
+        return dataBuffer;
+    }
+
+    /**
+     * Indicates whether a column has been decoded in full.
+     *
+     * @param parameterName the column name.
+     *
+     * @return true if the column has been decoded, otherwise false.
+     */
+    public synchronized boolean isDecoded(String parameterName)
+    {
+        return super.getRecordData(parameterName) != null;
+    }
+
+    @Override
+    public VPFRecord getRecord(int id)
+    {
+        if (id < 1 || id > this.getNumRecords())
+        {
+            String message = Logging.getMessage("generic.indexOutOfRange", id);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return new MappedRecordImpl(id);
+    }
+
+    /**
+     * {@inheritDoc} Decodes the searched column if it has not been decoded.
+     */
+    @Override
+    public VPFRecord getRecord(String parameterName, Object value)
+    {
+        if (this.getRecordData(parameterName) == null)
+            return null;
+
+        VPFRecord record = super.getRecord(parameterName, value);
+        return (record != null) ? new MappedRecordImpl(record.getId()) : null;
+    }
+
+    @Override
+    public Iterator<VPFRecord> iterator()
+    {
+        return new Iterator<VPFRecord>()
+        {
+            private int id = 0;
+            private int maxId = getNumRecords();
+
+            public boolean hasNext()
+            {
+                return this.id < this.maxId;
+            }
+
+            public VPFRecord next()
+            {
+                return new MappedRecordImpl(++this.id);
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public boolean buildRecordIndex(String parameterName)
+    {
+        return this.getRecordData(parameterName) != null && super.buildRecordIndex(parameterName);
+    }
+
+    //**************************************************************//
+    //********************  Decoding  ******************************//
+    //**************************************************************//
+
+    protected VPFDataBuffer decodeColumn(int column)
+    {
+        int numRows = this.getNumRecords();
+        VPFDataBuffer dataBuffer = this.columnTypes[column].createDataBuffer(numRows, this.columns[column].numElements);
+
+        for (int row = 0; row < numRows; row++)
+        {
+            this.positionAt(row, column);
+            this.readField(dataBuffer, column);
+        }
+
+        return dataBuffer;
+    }
+
+    /**
+     * Decodes a single field into a data buffer holding one row.
+     *
+     * @param id     the row id.
+     * @param column the column index.
+     *
+     * @return a data buffer whose row 1 holds the field's value.
+     */
+    protected synchronized VPFDataBuffer decodeField(int id, int column)
+    {
+        VPFDataBuffer dataBuffer = this.columnTypes[column].createDataBuffer(1, this.columns[column].numElements);
+
+        this.positionAt(indexFromId(id), column);
+        this.readField(dataBuffer, column);
+
+        return dataBuffer;
+    }
+
+    protected void readField(VPFDataBuffer dataBuffer, int column)
+    {
+        if (this.columns[column].isVariableLengthField())
+            dataBuffer.read(this.buffer);
+        else
+            dataBuffer.read(this.buffer, this.columns[column].numElements);
+    }
+
+    /**
+     * Positions the buffer at the start of a field, skipping any variable length fields that precede it.
+     *
+     * @param row    the row index.
+     * @param column the column index.
+     */
+    protected void positionAt(int row, int column)
+    {
+        int rowOffset = this.recordIndex.entries[row].offset;
+
+        // Start from the last column whose offset is known, and skip the variable length fields that follow it.
+        int col = column;
+        while (this.columnOffsets[col] < 0)
+        {
+            col--;
+        }
+
+        this.buffer.position(rowOffset + this.columnOffsets[col]);
+
+        for (; col < column; col++)
+        {
+            this.skipField(col);
+        }
+    }
+
+    protected void skipField(int column)
+    {
+        VPFTableReader.Column col = this.columns[column];
+        VPFDataType type = this.columnTypes[column];
+
+        int length;
+        if (type == VPFDataType.TRIPLET_ID)
+        {
+            // The type byte specifies the size of each of the three ids that follow it.
+            int tripletType = this.buffer.get();
+            length = idLength(tripletType >> 6) + idLength(tripletType >> 4) + idLength(tripletType >> 2);
+        }
+        else if (col.numElements < 0)
+        {
+            // Variable length fields begin with their element count.
+            length = this.buffer.getInt() * type.getFieldLength();
+        }
+        else
+        {
+            length = col.getFieldLength();
+        }
+
+        this.buffer.position(this.buffer.position() + length);
+    }
+
+    protected static int idLength(int bits)
+    {
+        switch (bits & 3)
+        {
+            case 1:
+                return 1;
+            case 2:
+                return 2;
+            case 3:
+                return 4;
+            default:
+                return 0;
+        }
+    }
+
+    //**************************************************************//
+    //********************  Record Implementation  *****************//
+    //**************************************************************//
+
+    /** A record that decodes its own fields unless their columns have already been decoded in full. */
+    protected class MappedRecordImpl extends RecordImpl
+    {
+        public MappedRecordImpl(int id)
+        {
+            super(id);
+        }
+
+        @Override
+        public boolean hasValue(String parameterName)
+        {
+            Integer column = columnIndices.get(parameterName);
+            if (column == null)
+                return false;
+
+            return isDecoded(parameterName) ? getRecordData(parameterName).hasValue(this.id)
+                : decodeField(this.id, column).hasValue(1);
+        }
+
+        @Override
+        public Object getValue(String parameterName)
+        {
+            Integer column = columnIndices.get(parameterName);
+            if (column == null)
+                return null;
+
+            return isDecoded(parameterName) ? getRecordData(parameterName).get(this.id)
+                : decodeField(this.id, column).get(1);
+        }
+    }
+}
@@ -27,6 +27,7 @@
  */
 package gov.nasa.worldwind.formats.vpf;
 
+import gov.nasa.worldwind.cache.Cacheable;
 import gov.nasa.worldwind.util.*;
 
 import java.util.*;
@@ -35,7 +36,7 @@ import java.util.*;
  * @author dcollins
  * @version $Id: VPFPrimitiveData.java 1171 2013-02-11 21:45:02Z dcollins $
  */
-public class VPFPrimitiveData
+public class VPFPrimitiveData implements Cacheable
 {
     public interface PrimitiveInfo
     {
@@ -221,4 +222,37 @@ public class VPFPrimitiveData
     {
         this.primitiveStrings.put(name, strings);
     }
+
+    /**
+     * Returns an estimate of the memory held by this primitive data: its coordinate buffers, its strings, and a fixed
+     * cost per primitive.
+     *
+     * @return the approximate size of this primitive data, in bytes.
+     */
+    public long getSizeInBytes()
+    {
+        long size = 0;
+
+        for (PrimitiveInfo[] info : this.primitiveInfo.values())
+        {
+            if (info != null)
+                size += 64L * info.length;
+        }
+
+        for (VecBufferSequence coords : this.primitiveCoords.values())
+        {
+            if (coords != null)
+                size += coords.getVecBuffer().getBufferWrapper().getSizeInBytes();
+        }
+
+        for (CompoundStringBuilder strings : this.primitiveStrings.values())
+        {
+            for (int i = 0; strings != null && i < strings.size(); i++)
+            {
+                size += 2L * strings.substringLength(i);
+            }
+        }
+
+        return size;
+    }
 }
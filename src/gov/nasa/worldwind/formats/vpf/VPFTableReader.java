@@ -42,8 +42,33 @@ import java.util.ArrayList;
  */
 public class VPFTableReader
 {
+    protected final boolean memoryMapped;
+
     public VPFTableReader()
     {
+        this(false);
+    }
+
+    /**
+     * Creates a table reader that either reads tables into memory, or maps them into memory and decodes their rows as
+     * they are accessed.
+     *
+     * @param memoryMapped true to map tables and return {@link VPFMappedRecordData}, false to read and decode entire
+     *                     tables.
+     */
+    public VPFTableReader(boolean memoryMapped)
+    {
+        this.memoryMapped = memoryMapped;
+    }
+
+    /**
+     * Indicates whether this reader maps tables into memory and decodes their rows as they are accessed.
+     *
+     * @return true if tables are memory-mapped, otherwise false.
+     */
+    public boolean isMemoryMapped()
+    {
+        return this.memoryMapped;
     }
 
     public VPFBufferedRecordData read(File file)
@@ -70,7 +95,8 @@ public class VPFTableReader
 
     protected ByteBuffer readFileToBuffer(File file) throws IOException
     {
-        ByteBuffer buffer = WWIO.readFileToBuffer(file, true); // Read VPF table to a direct ByteBuffer.
+        // Map the VPF table read-only, or read it to a direct ByteBuffer.
+        ByteBuffer buffer = this.memoryMapped ? WWIO.mapFile(file) : WWIO.readFileToBuffer(file, true);
         buffer.order(ByteOrder.LITTLE_ENDIAN); // Default to least significant byte first order.
         return buffer;
     }
@@ -100,7 +126,10 @@ public class VPFTableReader
             throw new WWRuntimeException(message);
         }
 
-        // Read the table record data.
+        // Decode mapped tables as their rows are accessed, otherwise read the table record data.
+        if (this.memoryMapped)
+            return new VPFMappedRecordData(buffer, header.columns, recordIndex);
+
         return this.readRecordData(buffer, header.columns, recordIndex);
     }
 
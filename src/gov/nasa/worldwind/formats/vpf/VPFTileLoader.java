@@ -0,0 +1,455 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.Disposable;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Runs VPF tile loading tasks on a pool of worker threads, in order of priority. Lower priority values run first; the
+ * {@link VPFLayer} uses the distance from a tile to the center of the view, so the tiles the user is looking at are
+ * loaded before those at the edge of the view.
+ * <p>
+ * Tasks are identified by their <code>equals</code> and <code>hashCode</code> methods. Submitting a task equal to one
+ * already queued or running does not schedule it twice, but moves the queued task to its new priority. Calling {@link
+ * #retainAll(java.util.Collection)} cancels every queued or running task not in the specified collection. Queued tasks
+ * that are cancelled never run. Running tasks are not interrupted, but may poll {@link #isCurrentTaskCancelled()} and
+ * stop early.
+ * <p>
+ * The loader counts the tasks it queues, runs, completes, cancels and fails, and measures their load times. {@link
+ * #getMetrics()} returns a snapshot of these counts. The loader's threads are daemon threads, and {@link #dispose()}
+ * shuts them down.
+ */
+public class VPFTileLoader implements Disposable
+{
+    /** Keep idle threads alive this many seconds. */
+    protected static final long THREAD_TIMEOUT = 2;
+
+    /** The task running on the current thread, if the current thread is one of a loader's threads. */
+    protected static final ThreadLocal<LoadTask> currentTask = new ThreadLocal<LoadTask>();
+
+    /** A snapshot of a loader's task counts and load times. */
+    public static class Metrics
+    {
+        protected final int queuedCount;
+        protected final int activeCount;
+        protected final long completedCount;
+        protected final long cancelledCount;
+        protected final long failedCount;
+        protected final long totalLoadTime;
+        protected final long batchSize;
+        protected final long batchFinished;
+
+        public Metrics(int queuedCount, int activeCount, long completedCount, long cancelledCount, long failedCount,
+            long totalLoadTime, long batchSize, long batchFinished)
+        {
+            this.queuedCount = queuedCount;
+            this.activeCount = activeCount;
+            this.completedCount = completedCount;
+            this.cancelledCount = cancelledCount;
+            this.failedCount = failedCount;
+            this.totalLoadTime = totalLoadTime;
+            this.batchSize = batchSize;
+            this.batchFinished = batchFinished;
+        }
+
+        /**
+         * Returns the number of tasks waiting to run.
+         *
+         * @return the number of queued tasks.
+         */
+        public int getQueuedCount()
+        {
+            return this.queuedCount;
+        }
+
+        /**
+         * Returns the number of tasks running.
+         *
+         * @return the number of running tasks.
+         */
+        public int getActiveCount()
+        {
+            return this.activeCount;
+        }
+
+        /**
+         * Returns the number of tasks that have run to completion since the loader was created.
+         *
+         * @return the number of completed tasks.
+         */
+        public long getCompletedCount()
+        {
+            return this.completedCount;
+        }
+
+        /**
+         * Returns the number of tasks cancelled since the loader was created.
+         *
+         * @return the number of cancelled tasks.
+         */
+        public long getCancelledCount()
+        {
+            return this.cancelledCount;
+        }
+
+        /**
+         * Returns the number of tasks that have thrown an exception since the loader was created.
+         *
+         * @return the number of failed tasks.
+         */
+        public long getFailedCount()
+        {
+            return this.failedCount;
+        }
+
+        /**
+         * Returns the total time spent running completed tasks.
+         *
+         * @return the total load time, in milliseconds.
+         */
+        public long getTotalLoadTime()
+        {
+            return this.totalLoadTime;
+        }
+
+        /**
+         * Returns the mean time taken to run a completed task.
+         *
+         * @return the mean load time in milliseconds, or 0 if no task has completed.
+         */
+        public double getMeanLoadTime()
+        {
+            return this.completedCount > 0 ? (double) this.totalLoadTime / this.completedCount : 0;
+        }
+
+        /**
+         * Returns the fraction of the current batch of tasks that have finished, whether completed, cancelled or
+         * failed. A batch begins when a task is submitted to an idle loader and ends when the loader is next idle.
+         *
+         * @return the progress of the current batch, in the range [0, 1]. Returns 1 if the loader is idle.
+         */
+        public double getProgress()
+        {
+            if (this.batchSize <= 0 || this.batchFinished >= this.batchSize)
+                return 1;
+
+            return (double) this.batchFinished / this.batchSize;
+        }
+
+        /**
+         * Indicates whether the loader has tasks queued or running.
+         *
+         * @return true if there are tasks queued or running, otherwise false.
+         */
+        public boolean isLoading()
+        {
+            return this.queuedCount > 0 || this.activeCount > 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append("queued=").append(this.queuedCount);
+            sb.append(", active=").append(this.activeCount);
+            sb.append(", completed=").append(this.completedCount);
+            sb.append(", cancelled=").append(this.cancelledCount);
+            sb.append(", failed=").append(this.failedCount);
+            sb.append(", meanLoadTime=").append(this.getMeanLoadTime());
+            return sb.toString();
+        }
+    }
+
+    /** Runs a submitted task and records its outcome. Tasks compare by priority, then by order of submission. */
+    protected class LoadTask extends FutureTask<Object> implements Comparable<LoadTask>
+    {
+        protected final Runnable runnable;
+        protected final long sequence;
+        protected volatile double priority;
+        protected volatile boolean started;
+        protected volatile long startTime;
+
+        public LoadTask(Runnable runnable, double priority, long sequence)
+        {
+            super(runnable, null);
+            this.runnable = runnable;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run()
+        {
+            this.startTime = System.nanoTime();
+            this.started = true;
+            currentTask.set(this);
+            try
+            {
+                super.run();
+            }
+            finally
+            {
+                currentTask.remove();
+            }
+        }
+
+        @Override
+        protected void done()
+        {
+            tasks.remove(this.runnable, this);
+
+            if (this.isCancelled())
+            {
+                cancelledCount.incrementAndGet();
+            }
+            else
+            {
+                try
+                {
+                    this.get();
+                    totalLoadTime.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime));
+                    completedCount.incrementAndGet();
+                }
+                catch (ExecutionException e)
+                {
+                    failedCount.incrementAndGet();
+                    String msg = Logging.getMessage("VPF.ExceptionLoadingTile", this.runnable);
+                    Logging.logger().log(Level.SEVERE, msg, e.getCause());
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            batchFinished.incrementAndGet();
+        }
+
+        public int compareTo(LoadTask that)
+        {
+            if (that == null)
+            {
+                String msg = Logging.getMessage("nullValue.RequestTaskIsNull");
+                Logging.logger().severe(msg);
+                throw new IllegalArgumentException(msg);
+            }
+
+            int c = Double.compare(this.priority, that.priority);
+            return c != 0 ? c : (this.sequence < that.sequence ? -1 : (this.sequence > that.sequence ? 1 : 0));
+        }
+    }
+
+    protected final ThreadPoolExecutor executor;
+    protected final ConcurrentHashMap<Runnable, LoadTask> tasks = new ConcurrentHashMap<Runnable, LoadTask>();
+    protected final AtomicLong sequence = new AtomicLong();
+    protected final AtomicLong completedCount = new AtomicLong();
+    protected final AtomicLong cancelledCount = new AtomicLong();
+    protected final AtomicLong failedCount = new AtomicLong();
+    protected final AtomicLong totalLoadTime = new AtomicLong();
+    protected final AtomicLong batchSize = new AtomicLong();
+    protected final AtomicLong batchFinished = new AtomicLong();
+
+    /**
+     * Creates a loader with the specified number of worker threads.
+     *
+     * @param poolSize the maximum number of tasks to run concurrently.
+     *
+     * @throws IllegalArgumentException if the pool size is less than 1.
+     */
+    public VPFTileLoader(int poolSize)
+    {
+        if (poolSize < 1)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange", "poolSize < 1");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, THREAD_TIMEOUT, TimeUnit.SECONDS,
+            new PriorityBlockingQueue<Runnable>(),
+            new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Indicates whether the task running on the current thread has been cancelled. Long running tasks call this
+     * periodically and stop early if it returns true.
+     *
+     * @return true if the current thread is running a loader task that has been cancelled, otherwise false.
+     */
+    public static boolean isCurrentTaskCancelled()
+    {
+        LoadTask task = currentTask.get();
+        return task != null && task.isCancelled();
+    }
+
+    /**
+     * Schedules a task to run at the specified priority. If a task equal to the specified task is already queued, it is
+     * moved to the new priority. If one is already running, the specified task is not scheduled.
+     *
+     * @param runnable the task to run.
+     * @param priority the task's priority. Tasks with lower values run first.
+     *
+     * @return true if the task was scheduled, false if an equal task is already queued or running.
+     *
+     * @throws IllegalArgumentException if the task is null.
+     */
+    public boolean submit(Runnable runnable, double priority)
+    {
+        if (runnable == null)
+        {
+            String msg = Logging.getMessage("nullValue.RunnableIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        LoadTask existing = this.tasks.get(runnable);
+        if (existing != null)
+        {
+            // Re-insert a queued task so the queue orders it by its new priority.
+            if (!existing.started && existing.priority != priority && this.executor.remove(existing))
+            {
+                existing.priority = priority;
+                this.executor.execute(existing);
+            }
+            return false;
+        }
+
+        LoadTask task = new LoadTask(runnable, priority, this.sequence.getAndIncrement());
+        if (this.tasks.putIfAbsent(runnable, task) != null)
+            return false;
+
+        if (this.batchFinished.get() >= this.batchSize.get())
+        {
+            this.batchSize.set(0);
+            this.batchFinished.set(0);
+        }
+        this.batchSize.incrementAndGet();
+
+        try
+        {
+            this.executor.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            task.cancel(false);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Cancels every queued or running task that is not in the specified collection. Cancelled queued tasks are removed
+     * from the queue.
+     *
+     * @param retained the tasks to keep. May be empty, in which case all tasks are cancelled.
+     *
+     * @throws IllegalArgumentException if the collection is null.
+     */
+    public void retainAll(Collection<? extends Runnable> retained)
+    {
+        if (retained == null)
+        {
+            String msg = Logging.getMessage("nullValue.CollectionIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        boolean cancelledAny = false;
+        for (LoadTask task : this.tasks.values())
+        {
+            if (!retained.contains(task.runnable))
+                cancelledAny |= task.cancel(false);
+        }
+
+        if (cancelledAny)
+            this.executor.purge();
+    }
+
+    /** Cancels every queued or running task. */
+    public void cancelAll()
+    {
+        this.retainAll(Collections.<Runnable>emptySet());
+    }
+
+    /**
+     * Indicates whether a task equal to the specified task is queued or running.
+     *
+     * @param runnable the task to look for.
+     *
+     * @return true if an equal task is queued or running, otherwise false.
+     */
+    public boolean contains(Runnable runnable)
+    {
+        return runnable != null && this.tasks.containsKey(runnable);
+    }
+
+    /**
+     * Returns a snapshot of the loader's task counts and load times.
+     *
+     * @return the loader's current metrics.
+     */
+    public Metrics getMetrics()
+    {
+        int active = 0;
+        int queued = 0;
+        for (LoadTask task : this.tasks.values())
+        {
+            if (task.started)
+                active++;
+            else
+                queued++;
+        }
+
+        return new Metrics(queued, active, this.completedCount.get(), this.cancelledCount.get(),
+            this.failedCount.get(), this.totalLoadTime.get(), this.batchSize.get(), this.batchFinished.get());
+    }
+
+    /** Cancels all tasks and shuts down the loader's threads. */
+    public void dispose()
+    {
+        this.cancelAll();
+        this.executor.shutdown();
+    }
+}
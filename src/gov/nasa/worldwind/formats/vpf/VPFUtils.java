@@ -27,7 +27,8 @@
  */
 package gov.nasa.worldwind.formats.vpf;
 
-import gov.nasa.worldwind.avlist.AVList;
+import gov.nasa.worldwind.Configuration;
+import gov.nasa.worldwind.avlist.*;
 import gov.nasa.worldwind.exception.WWRuntimeException;
 import gov.nasa.worldwind.util.*;
 
@@ -56,7 +57,8 @@ public class VPFUtils
 
         try
         {
-            VPFTableReader tableReader = new VPFTableReader();
+            VPFTableReader tableReader = new VPFTableReader(
+                Configuration.getBooleanValue(AVKey.VPF_MEMORY_MAPPED_TABLES_ENABLED, false));
             return tableReader.read(file);
         }
         catch (WWRuntimeException e)
@@ -291,9 +291,11 @@ public final class Sphere implements Extent, Renderable
             throw new IllegalArgumentException(message);
         }
 
+        // Solve for the line parameter relative to the sphere's center, not the coordinate origin.
+        Vec4 origin = line.getOrigin().subtract3(this.center);
         double a = line.getDirection().getLengthSquared3();
-        double b = 2 * line.selfDot();
-        double c = line.getOrigin().getLengthSquared3() - this.radius * this.radius;
+        double b = 2 * origin.dot3(line.getDirection());
+        double c = origin.getLengthSquared3() - this.radius * this.radius;
 
         double discriminant = Sphere.discriminant(a, b, c);
         if (discriminant < 0)
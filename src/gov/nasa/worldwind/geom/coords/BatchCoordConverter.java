@@ -0,0 +1,639 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.geom.coords;
+
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.util.Logging;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.*;
+
+/**
+ * Converts arrays of coordinates between geodetic latitude and longitude and UTM, UPS and MGRS coordinates. Each
+ * conversion produces exactly the values the corresponding single coordinate factory produces, such as {@link
+ * UTMCoord#fromLatLon(gov.nasa.worldwind.geom.Angle, gov.nasa.worldwind.geom.Angle, Globe)} or {@link
+ * MGRSCoord#fromString(String, Globe)}, but avoids allocating coordinate and angle objects for each element and derives
+ * the projection constants of each zone once per batch rather than once per element.
+ * <p>
+ * Each conversion operates on the elements <code>offset</code> through <code>offset + count - 1</code> of parallel
+ * arrays. Latitudes and longitudes are in degrees, and hemispheres are the characters {@link #NORTH} and {@link
+ * #SOUTH}. An element that cannot be converted, for which the corresponding factory would throw an exception, is
+ * counted as a failure and its outputs are set to <code>NaN</code>, zone 0 and hemisphere <code>'\0'</code>; the other
+ * elements are still converted. Batches larger than the split threshold are split into chunks that are converted
+ * concurrently on the common fork-join pool.
+ * <p>
+ * Instances are thread safe.
+ *
+ * @see UTMCoord
+ * @see UPSCoord
+ * @see MGRSCoord
+ */
+public class BatchCoordConverter
+{
+    /** The hemisphere character for the northern hemisphere. */
+    public static final char NORTH = 'N';
+    /** The hemisphere character for the southern hemisphere. */
+    public static final char SOUTH = 'S';
+    /** The number of characters reserved for each MGRS string written by {@link #latLonToMGRS}. */
+    public static final int MGRS_RECORD_LENGTH = 17;
+
+    /** The default number of elements above which a batch is converted in parallel. */
+    protected static final int DEFAULT_SPLIT_THRESHOLD = 4096;
+
+    // The same conversions Angle.fromDegrees and Angle.degrees apply, so results match the single coordinate factories.
+    private static final double DEGREES_TO_RADIANS = Math.PI / 180d;
+    private static final double RADIANS_TO_DEGREES = 180d / Math.PI;
+
+    /** Converts a range of elements of a batch on the calling thread. */
+    protected interface Conversion
+    {
+        /**
+         * Converts the elements <code>start</code> through <code>end - 1</code>.
+         *
+         * @param start the first element to convert.
+         * @param end   the element following the last element to convert.
+         *
+         * @return the number of elements that could not be converted.
+         */
+        int convert(int start, int end);
+    }
+
+    /** Splits a batch into chunks of at most the split threshold and converts them concurrently. */
+    protected static class ConversionTask extends RecursiveTask<Integer>
+    {
+        private static final long serialVersionUID = 1L;
+
+        protected final Conversion conversion;
+        protected final int start;
+        protected final int end;
+        protected final int threshold;
+
+        public ConversionTask(Conversion conversion, int start, int end, int threshold)
+        {
+            this.conversion = conversion;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected Integer compute()
+        {
+            if (this.end - this.start <= this.threshold)
+                return this.conversion.convert(this.start, this.end);
+
+            int middle = (this.start + this.end) >>> 1;
+            ConversionTask left = new ConversionTask(this.conversion, this.start, middle, this.threshold);
+            ConversionTask right = new ConversionTask(this.conversion, middle, this.end, this.threshold);
+            left.fork();
+            int failures = right.compute();
+            return failures + left.join();
+        }
+    }
+
+    protected final Globe globe;
+    protected volatile int splitThreshold = DEFAULT_SPLIT_THRESHOLD;
+
+    /** Creates a converter for the WGS84 ellipsoid. */
+    public BatchCoordConverter()
+    {
+        this(null);
+    }
+
+    /**
+     * Creates a converter for a globe's ellipsoid.
+     *
+     * @param globe the globe whose ellipsoid to use. May be null, in which case the WGS84 ellipsoid is used.
+     */
+    public BatchCoordConverter(Globe globe)
+    {
+        this.globe = globe;
+    }
+
+    /**
+     * Indicates the number of elements above which a batch is converted in parallel. See {@link
+     * #setSplitThreshold(int)}.
+     *
+     * @return the split threshold.
+     */
+    public int getSplitThreshold()
+    {
+        return this.splitThreshold;
+    }
+
+    /**
+     * Specifies the number of elements above which a batch is converted in parallel. Larger batches are split into
+     * chunks of at most this many elements, which are converted concurrently on the common fork-join pool. Smaller
+     * batches are converted on the calling thread.
+     *
+     * @param splitThreshold the split threshold. The default is 4096.
+     *
+     * @throws IllegalArgumentException if the threshold is less than 1.
+     */
+    public void setSplitThreshold(int splitThreshold)
+    {
+        if (splitThreshold < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "splitThreshold < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.splitThreshold = splitThreshold;
+    }
+
+    /**
+     * Converts latitudes and longitudes to UTM coordinates, as {@link
+     * UTMCoord#fromLatLon(gov.nasa.worldwind.geom.Angle, gov.nasa.worldwind.geom.Angle, Globe)} does.
+     *
+     * @param latitudes   the latitudes, in degrees.
+     * @param longitudes  the longitudes, in degrees.
+     * @param offset      the first element to convert.
+     * @param count       the number of elements to convert.
+     * @param zones       receives the UTM zones.
+     * @param hemispheres receives the hemispheres.
+     * @param eastings    receives the eastings, in meters.
+     * @param northings   receives the northings, in meters.
+     *
+     * @return the number of elements that could not be converted.
+     *
+     * @throws IllegalArgumentException if any array is null or has fewer than <code>offset + count</code> elements, or
+     *                                  if the offset or count is negative.
+     */
+    public int latLonToUTM(final double[] latitudes, final double[] longitudes, int offset, int count,
+        final int[] zones, final char[] hemispheres, final double[] eastings, final double[] northings)
+    {
+        checkRange(offset, count, latitudes, longitudes, zones, hemispheres, eastings, northings);
+
+        return this.run(new Conversion()
+        {
+            public int convert(int start, int end)
+            {
+                UTMCoordConverter converter = new UTMCoordConverter(globe);
+                int failures = 0;
+                for (int i = start; i < end; i++)
+                {
+                    long err;
+                    try
+                    {
+                        err = converter.convertGeodeticToUTM(DEGREES_TO_RADIANS * latitudes[i],
+                            DEGREES_TO_RADIANS * longitudes[i]);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        err = UTMCoordConverter.UTM_EASTING_ERROR;
+                    }
+
+                    if (err == UTMCoordConverter.UTM_NO_ERROR)
+                    {
+                        zones[i] = converter.getZone();
+                        hemispheres[i] = toHemisphereChar(converter.getHemisphere());
+                        eastings[i] = converter.getEasting();
+                        northings[i] = converter.getNorthing();
+                    }
+                    else
+                    {
+                        zones[i] = 0;
+                        hemispheres[i] = '\0';
+                        eastings[i] = Double.NaN;
+                        northings[i] = Double.NaN;
+                        failures++;
+                    }
+                }
+
+                return failures;
+            }
+        }, offset, count);
+    }
+
+    /**
+     * Converts UTM coordinates to latitudes and longitudes, as {@link UTMCoord#fromUTM(int, String, double, double,
+     * Globe)} does.
+     *
+     * @param zones       the UTM zones.
+     * @param hemispheres the hemispheres.
+     * @param eastings    the eastings, in meters.
+     * @param northings   the northings, in meters.
+     * @param offset      the first element to convert.
+     * @param count       the number of elements to convert.
+     * @param latitudes   receives the latitudes, in degrees.
+     * @param longitudes  receives the longitudes, in degrees.
+     *
+     * @return the number of elements that could not be converted.
+     *
+     * @throws IllegalArgumentException if any array is null or has fewer than <code>offset + count</code> elements, or
+     *                                  if the offset or count is negative.
+     */
+    public int utmToLatLon(final int[] zones, final char[] hemispheres, final double[] eastings,
+        final double[] northings, int offset, int count, final double[] latitudes, final double[] longitudes)
+    {
+        checkRange(offset, count, zones, hemispheres, eastings, northings, latitudes, longitudes);
+
+        return this.run(new Conversion()
+        {
+            public int convert(int start, int end)
+            {
+                UTMCoordConverter converter = new UTMCoordConverter(globe);
+                int failures = 0;
+                for (int i = start; i < end; i++)
+                {
+                    String hemisphere = toHemisphereKey(hemispheres[i]);
+                    long err;
+                    try
+                    {
+                        err = hemisphere == null ? UTMCoordConverter.UTM_HEMISPHERE_ERROR
+                            : converter.convertUTMToGeodetic(zones[i], hemisphere, eastings[i], northings[i]);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        err = UTMCoordConverter.UTM_EASTING_ERROR;
+                    }
+
+                    if (err == UTMCoordConverter.UTM_NO_ERROR)
+                    {
+                        latitudes[i] = RADIANS_TO_DEGREES * converter.getLatitude();
+                        longitudes[i] = RADIANS_TO_DEGREES * converter.getLongitude();
+                    }
+                    else
+                    {
+                        latitudes[i] = Double.NaN;
+                        longitudes[i] = Double.NaN;
+                        failures++;
+                    }
+                }
+
+                return failures;
+            }
+        }, offset, count);
+    }
+
+    /**
+     * Converts latitudes and longitudes to UPS coordinates, as {@link
+     * UPSCoord#fromLatLon(gov.nasa.worldwind.geom.Angle, gov.nasa.worldwind.geom.Angle, Globe)} does.
+     *
+     * @param latitudes   the latitudes, in degrees.
+     * @param longitudes  the longitudes, in degrees.
+     * @param offset      the first element to convert.
+     * @param count       the number of elements to convert.
+     * @param hemispheres receives the hemispheres.
+     * @param eastings    receives the eastings, in meters.
+     * @param northings   receives the northings, in meters.
+     *
+     * @return the number of elements that could not be converted.
+     *
+     * @throws IllegalArgumentException if any array is null or has fewer than <code>offset + count</code> elements, or
+     *                                  if the offset or count is negative.
+     */
+    public int latLonToUPS(final double[] latitudes, final double[] longitudes, int offset, int count,
+        final char[] hemispheres, final double[] eastings, final double[] northings)
+    {
+        checkRange(offset, count, latitudes, longitudes, hemispheres, eastings, northings);
+
+        return this.run(new Conversion()
+        {
+            public int convert(int start, int end)
+            {
+                UPSCoordConverter converter = new UPSCoordConverter(globe);
+                int failures = 0;
+                for (int i = start; i < end; i++)
+                {
+                    long err;
+                    try
+                    {
+                        err = converter.convertGeodeticToUPS(DEGREES_TO_RADIANS * latitudes[i],
+                            DEGREES_TO_RADIANS * longitudes[i]);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        err = UPSCoordConverter.UPS_EASTING_ERROR;
+                    }
+
+                    if (err == UPSCoordConverter.UPS_NO_ERROR)
+                    {
+                        hemispheres[i] = toHemisphereChar(converter.getHemisphere());
+                        eastings[i] = converter.getEasting();
+                        northings[i] = converter.getNorthing();
+                    }
+                    else
+                    {
+                        hemispheres[i] = '\0';
+                        eastings[i] = Double.NaN;
+                        northings[i] = Double.NaN;
+                        failures++;
+                    }
+                }
+
+                return failures;
+            }
+        }, offset, count);
+    }
+
+    /**
+     * Converts UPS coordinates to latitudes and longitudes, as {@link UPSCoord#fromUPS(String, double, double, Globe)}
+     * does.
+     *
+     * @param hemispheres the hemispheres.
+     * @param eastings    the eastings, in meters.
+     * @param northings   the northings, in meters.
+     * @param offset      the first element to convert.
+     * @param count       the number of elements to convert.
+     * @param latitudes   receives the latitudes, in degrees.
+     * @param longitudes  receives the longitudes, in degrees.
+     *
+     * @return the number of elements that could not be converted.
+     *
+     * @throws IllegalArgumentException if any array is null or has fewer than <code>offset + count</code> elements, or
+     *                                  if the offset or count is negative.
+     */
+    public int upsToLatLon(final char[] hemispheres, final double[] eastings, final double[] northings, int offset,
+        int count, final double[] latitudes, final double[] longitudes)
+    {
+        checkRange(offset, count, hemispheres, eastings, northings, latitudes, longitudes);
+
+        return this.run(new Conversion()
+        {
+            public int convert(int start, int end)
+            {
+                UPSCoordConverter converter = new UPSCoordConverter(globe);
+                int failures = 0;
+                for (int i = start; i < end; i++)
+                {
+                    String hemisphere = toHemisphereKey(hemispheres[i]);
+                    long err;
+                    try
+                    {
+                        err = hemisphere == null ? UPSCoordConverter.UPS_HEMISPHERE_ERROR
+                            : converter.convertUPSToGeodetic(hemisphere, eastings[i], northings[i]);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        err = UPSCoordConverter.UPS_EASTING_ERROR;
+                    }
+
+                    if (err == UPSCoordConverter.UPS_NO_ERROR)
+                    {
+                        latitudes[i] = RADIANS_TO_DEGREES * converter.getLatitude();
+                        longitudes[i] = RADIANS_TO_DEGREES * converter.getLongitude();
+                    }
+                    else
+                    {
+                        latitudes[i] = Double.NaN;
+                        longitudes[i] = Double.NaN;
+                        failures++;
+                    }
+                }
+
+                return failures;
+            }
+        }, offset, count);
+    }
+
+    /**
+     * Converts MGRS strings held in a character buffer to latitudes and longitudes, as {@link
+     * MGRSCoord#fromString(String, Globe)} does. The string for element <code>i</code> is the <code>lengths[i]</code>
+     * characters beginning at <code>chars[starts[i]]</code>. No strings are created for strings of ASCII characters.
+     *
+     * @param chars      the characters of the MGRS strings.
+     * @param starts     the index of each string's first character.
+     * @param lengths    the number of characters in each string.
+     * @param offset     the first element to convert.
+     * @param count      the number of elements to convert.
+     * @param latitudes  receives the latitudes, in degrees.
+     * @param longitudes receives the longitudes, in degrees.
+     *
+     * @return the number of elements that could not be converted, including those whose string lies outside the
+     *         character buffer.
+     *
+     * @throws IllegalArgumentException if any array is null, if any array other than the character buffer has fewer
+     *                                  than <code>offset + count</code> elements, or if the offset or count is
+     *                                  negative.
+     */
+    public int mgrsToLatLon(final char[] chars, final int[] starts, final int[] lengths, int offset, int count,
+        final double[] latitudes, final double[] longitudes)
+    {
+        if (chars == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        checkRange(offset, count, starts, lengths, latitudes, longitudes);
+
+        return this.run(new Conversion()
+        {
+            public int convert(int start, int end)
+            {
+                MGRSCoordConverter converter = new MGRSCoordConverter(globe);
+                // A view of each string in turn, so strings are not copied out of the buffer.
+                CharBuffer buffer = CharBuffer.wrap(chars);
+                int failures = 0;
+                for (int i = start; i < end; i++)
+                {
+                    int first = starts[i];
+                    int length = lengths[i];
+                    long err;
+                    if (length <= 0 || first < 0 || first > chars.length - length)
+                    {
+                        err = MGRSCoordConverter.MGRS_STRING_ERROR;
+                    }
+                    else
+                    {
+                        buffer.limit(first + length).position(first);
+                        try
+                        {
+                            err = converter.convertMGRSToGeodetic(buffer);
+                        }
+                        catch (RuntimeException e)
+                        {
+                            err = MGRSCoordConverter.MGRS_STRING_ERROR;
+                        }
+                    }
+
+                    if (err == MGRSCoordConverter.MGRS_NO_ERROR)
+                    {
+                        latitudes[i] = RADIANS_TO_DEGREES * converter.getLatitude();
+                        longitudes[i] = RADIANS_TO_DEGREES * converter.getLongitude();
+                    }
+                    else
+                    {
+                        latitudes[i] = Double.NaN;
+                        longitudes[i] = Double.NaN;
+                        failures++;
+                    }
+                }
+
+                return failures;
+            }
+        }, offset, count);
+    }
+
+    /**
+     * Converts latitudes and longitudes to MGRS strings written to a character buffer, as {@link
+     * MGRSCoord#fromLatLon(gov.nasa.worldwind.geom.Angle, gov.nasa.worldwind.geom.Angle, Globe, int)} does. The string
+     * for element <code>i</code> is written to the <code>lengths[i]</code> characters beginning at
+     * <code>chars[i * MGRS_RECORD_LENGTH]</code>. The length of an element that cannot be converted is 0.
+     *
+     * @param latitudes  the latitudes, in degrees.
+     * @param longitudes the longitudes, in degrees.
+     * @param precision  the precision of the MGRS strings, from 0 to 5 digits of easting and northing.
+     * @param offset     the first element to convert.
+     * @param count      the number of elements to convert.
+     * @param chars      receives the MGRS strings. Must hold at least <code>(offset + count) *
+     *                   MGRS_RECORD_LENGTH</code> characters.
+     * @param lengths    receives the number of characters in each string.
+     *
+     * @return the number of elements that could not be converted.
+     *
+     * @throws IllegalArgumentException if any array is null or too small, or if the offset or count is negative.
+     */
+    public int latLonToMGRS(final double[] latitudes, final double[] longitudes, final int precision, int offset,
+        int count, final char[] chars, final int[] lengths)
+    {
+        checkRange(offset, count, latitudes, longitudes, lengths);
+
+        if (chars == null || (long) chars.length < (long) (offset + count) * MGRS_RECORD_LENGTH)
+        {
+            String message = chars == null ? Logging.getMessage("nullValue.ArrayIsNull")
+                : Logging.getMessage("generic.ArrayInvalidLength", chars.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        return this.run(new Conversion()
+        {
+            public int convert(int start, int end)
+            {
+                MGRSCoordConverter converter = new MGRSCoordConverter(globe);
+                int failures = 0;
+                for (int i = start; i < end; i++)
+                {
+                    long err;
+                    try
+                    {
+                        err = converter.convertGeodeticToMGRS(DEGREES_TO_RADIANS * latitudes[i],
+                            DEGREES_TO_RADIANS * longitudes[i], precision);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        err = MGRSCoordConverter.MGRS_STRING_ERROR;
+                    }
+
+                    String s = err == MGRSCoordConverter.MGRS_NO_ERROR ? converter.getMGRSString() : null;
+                    if (s != null && s.length() > 0 && s.length() <= MGRS_RECORD_LENGTH)
+                    {
+                        s.getChars(0, s.length(), chars, i * MGRS_RECORD_LENGTH);
+                        lengths[i] = s.length();
+                    }
+                    else
+                    {
+                        lengths[i] = 0;
+                        failures++;
+                    }
+                }
+
+                return failures;
+            }
+        }, offset, count);
+    }
+
+    /**
+     * Converts a range of elements, on the calling thread if the range is no larger than the split threshold and
+     * otherwise in parallel on the common fork-join pool.
+     *
+     * @param conversion the conversion to apply.
+     * @param offset     the first element to convert.
+     * @param count      the number of elements to convert.
+     *
+     * @return the number of elements that could not be converted.
+     */
+    protected int run(Conversion conversion, int offset, int count)
+    {
+        int threshold = this.getSplitThreshold();
+        if (count <= threshold)
+            return conversion.convert(offset, offset + count);
+
+        return ForkJoinPool.commonPool().invoke(new ConversionTask(conversion, offset, offset + count, threshold));
+    }
+
+    protected static char toHemisphereChar(String hemisphere)
+    {
+        return AVKey.SOUTH.equals(hemisphere) ? SOUTH : NORTH;
+    }
+
+    protected static String toHemisphereKey(char hemisphere)
+    {
+        return hemisphere == NORTH ? AVKey.NORTH : hemisphere == SOUTH ? AVKey.SOUTH : null;
+    }
+
+    /**
+     * Ensures that arrays are non-null and hold the elements <code>offset</code> through <code>offset + count -
+     * 1</code>.
+     *
+     * @param offset the first element.
+     * @param count  the number of elements.
+     * @param arrays the arrays to check.
+     *
+     * @throws IllegalArgumentException if any array is null or too short, or if the offset or count is negative.
+     */
+    protected static void checkRange(int offset, int count, Object... arrays)
+    {
+        if (offset < 0)
+        {
+            String message = Logging.getMessage("generic.OffsetIsInvalid", offset);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (count < 0)
+        {
+            String message = Logging.getMessage("generic.LengthIsInvalid", count);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        for (Object array : arrays)
+        {
+            if (array == null)
+            {
+                String message = Logging.getMessage("nullValue.ArrayIsNull");
+                Logging.logger().severe(message);
+                throw new IllegalArgumentException(message);
+            }
+
+            int length = java.lang.reflect.Array.getLength(array);
+            if ((long) offset + count > length)
+            {
+                String message = Logging.getMessage("generic.ArrayInvalidLength", length);
+                Logging.logger().severe(message);
+                throw new IllegalArgumentException(message);
+            }
+        }
+    }
+}
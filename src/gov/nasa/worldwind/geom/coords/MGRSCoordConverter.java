@@ -28,7 +28,6 @@
 package gov.nasa.worldwind.geom.coords;
 
 import gov.nasa.worldwind.avlist.AVKey;
-import gov.nasa.worldwind.geom.Angle;
 import gov.nasa.worldwind.globes.Globe;
 
 /**
@@ -97,6 +96,11 @@ class MGRSCoordConverter
     private double north, south, min_northing, northing_offset;  //smithjl added north_offset
     private double latitude;
     private double longitude;
+    // Converters and buffers reused by successive conversions.
+    private UTMCoordConverter utmConverter;
+    private UPSCoordConverter upsConverter;
+    private final MGRSComponents components = new MGRSComponents();
+    private char[] chars = new char[32];
 
     private static final int LETTER_A = 0;   /* ARRAY INDEX FOR LETTER A               */
     private static final int LETTER_B = 1;   /* ARRAY INDEX FOR LETTER B               */
@@ -170,15 +174,15 @@ class MGRSCoordConverter
 
     private class MGRSComponents
     {
-        private final int zone;
-        private final int latitudeBand;
-        private final int squareLetter1;
-        private final int squareLetter2;
-        private final double easting;
-        private final double northing;
-        private final int precision;
-
-        public MGRSComponents(int zone, int latitudeBand, int squareLetter1, int squareLetter2,
+        private int zone;
+        private int latitudeBand;
+        private int squareLetter1;
+        private int squareLetter2;
+        private double easting;
+        private double northing;
+        private int precision;
+
+        public void set(int zone, int latitudeBand, int squareLetter1, int squareLetter2,
             double easting, double northing, int precision)
         {
             this.zone = zone;
@@ -273,7 +277,7 @@ class MGRSCoordConverter
      *
      * @return the error code.
      */
-    public long convertMGRSToGeodetic(String MGRSString)
+    public long convertMGRSToGeodetic(CharSequence MGRSString)
     {
         latitude = 0;
         longitude = 0;
@@ -286,22 +290,20 @@ class MGRSCoordConverter
         long error_code = MGRS_NO_ERROR;
         if (mgrs.zone != 0)
         {
-            UTMCoord UTM = convertMGRSToUTM(MGRSString);
-            if (UTM != null)
+            if (convertMGRSToUTM(mgrs))
             {
-                latitude = UTM.getLatitude().radians;
-                longitude = UTM.getLongitude().radians;
+                latitude = getUTMConverter().getLatitude();
+                longitude = getUTMConverter().getLongitude();
             }
             else
                 error_code = MGRS_UTM_ERROR;
         }
         else
         {
-            UPSCoord UPS = convertMGRSToUPS(MGRSString);
-            if (UPS != null)
+            if (convertMGRSToUPS(mgrs))
             {
-                latitude = UPS.getLatitude().radians;
-                longitude = UPS.getLongitude().radians;
+                latitude = getUPSConverter().getLatitude();
+                longitude = getUPSConverter().getLongitude();
             }
             else
                 error_code = MGRS_UPS_ERROR;
@@ -309,6 +311,20 @@ class MGRSCoordConverter
         return (error_code);
     }
 
+    private UTMCoordConverter getUTMConverter()
+    {
+        if (utmConverter == null)
+            utmConverter = new UTMCoordConverter(globe);
+        return utmConverter;
+    }
+
+    private UPSCoordConverter getUPSConverter()
+    {
+        if (upsConverter == null)
+            upsConverter = new UPSCoordConverter(globe);
+        return upsConverter;
+    }
+
     public double getLatitude()
     {
         return latitude;
@@ -325,9 +341,10 @@ class MGRSCoordConverter
      *
      * @param MGRSString the MGRS coordinate string
      *
-     * @return the corresponding <code>MGRSComponents</code> or <code>null</code>.
+     * @return the corresponding <code>MGRSComponents</code> or <code>null</code>. The components are reused by the
+     *         next call.
      */
-    private MGRSComponents breakMGRSString(String MGRSString)
+    private MGRSComponents breakMGRSString(CharSequence MGRSString)
     {
         int num_digits;
         int num_letters;
@@ -336,14 +353,17 @@ class MGRSCoordConverter
         long error_code = MGRS_NO_ERROR;
 
         int zone = 0;
-        int[] letters = new int[3];
+        int letter0 = 0;
+        int letter1 = 0;
+        int letter2 = 0;
         long easting = 0;
         long northing = 0;
         int precision = 0;
 
-        MGRSString = MGRSString.toUpperCase().replaceAll("\\s", "");
+        int length = normalizeMGRSString(MGRSString);
+        char[] chars = this.chars;
         j = i;
-        while (i < MGRSString.length() && Character.isDigit(MGRSString.charAt(i)))
+        while (i < length && Character.isDigit(chars[i]))
         {
             i++;
         }
@@ -353,7 +373,7 @@ class MGRSCoordConverter
             if (num_digits > 0)
             {
                 /* get zone */
-                zone = Integer.parseInt(MGRSString.substring(j, i));
+                zone = parseDigits(chars, j, i);
                 if ((zone < 1) || (zone > 60))
                     error_code |= MGRS_STRING_ERROR;
             }
@@ -365,7 +385,7 @@ class MGRSCoordConverter
 
         j = i;
 
-        while (i < MGRSString.length() && Character.isLetter(MGRSString.charAt(i)))
+        while (i < length && Character.isLetter(chars[i]))
         {
             i++;
         }
@@ -373,20 +393,20 @@ class MGRSCoordConverter
         if (num_letters == 3)
         {
             /* get letters */
-            letters[0] = alphabet.indexOf(Character.toUpperCase(MGRSString.charAt(j)));
-            if ((letters[0] == LETTER_I) || (letters[0] == LETTER_O))
+            letter0 = alphabet.indexOf(Character.toUpperCase(chars[j]));
+            if ((letter0 == LETTER_I) || (letter0 == LETTER_O))
                 error_code |= MGRS_STRING_ERROR;
-            letters[1] = alphabet.indexOf(Character.toUpperCase(MGRSString.charAt(j + 1)));
-            if ((letters[1] == LETTER_I) || (letters[1] == LETTER_O))
+            letter1 = alphabet.indexOf(Character.toUpperCase(chars[j + 1]));
+            if ((letter1 == LETTER_I) || (letter1 == LETTER_O))
                 error_code |= MGRS_STRING_ERROR;
-            letters[2] = alphabet.indexOf(Character.toUpperCase(MGRSString.charAt(j + 2)));
-            if ((letters[2] == LETTER_I) || (letters[2] == LETTER_O))
+            letter2 = alphabet.indexOf(Character.toUpperCase(chars[j + 2]));
+            if ((letter2 == LETTER_I) || (letter2 == LETTER_O))
                 error_code |= MGRS_STRING_ERROR;
         }
         else
             error_code |= MGRS_STRING_ERROR;
         j = i;
-        while (i < MGRSString.length() && Character.isDigit(MGRSString.charAt(i)))
+        while (i < length && Character.isDigit(chars[i]))
         {
             i++;
         }
@@ -401,8 +421,8 @@ class MGRSCoordConverter
             precision = n;
             if (n > 0)
             {
-                easting = Integer.parseInt(MGRSString.substring(j, j + n));
-                northing = Integer.parseInt(MGRSString.substring(j + n, j + n + n));
+                easting = parseDigits(chars, j, j + n);
+                northing = parseDigits(chars, j + n, j + n + n);
                 multiplier = Math.pow(10.0, 5 - n);
                 easting *= multiplier;
                 northing *= multiplier;
@@ -418,11 +438,66 @@ class MGRSCoordConverter
 
         last_error = error_code;
         if (error_code == MGRS_NO_ERROR)
-            return new MGRSComponents(zone, letters[0], letters[1], letters[2], easting, northing, precision);
+        {
+            components.set(zone, letter0, letter1, letter2, easting, northing, precision);
+            return components;
+        }
 
         return null;
     }
 
+    /**
+     * Copies an MGRS coordinate string to the character buffer in upper case and without white space. ASCII strings
+     * are copied directly. Other strings are converted as {@link String#toUpperCase()} and {@link
+     * String#replaceAll(String, String)} would convert them.
+     *
+     * @param MGRSString the MGRS coordinate string
+     *
+     * @return the number of characters in the buffer.
+     */
+    private int normalizeMGRSString(CharSequence MGRSString)
+    {
+        int length = 0;
+        for (int i = 0; i < MGRSString.length(); i++)
+        {
+            char c = MGRSString.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r')
+                continue;
+
+            // Upper casing a lower case i depends on the default locale, so leave it to String.toUpperCase.
+            if (c >= 0x80 || c == 'i')
+            {
+                String s = MGRSString.toString().toUpperCase().replaceAll("\\s", "");
+                ensureCharCapacity(s.length());
+                s.getChars(0, s.length(), chars, 0);
+                return s.length();
+            }
+
+            ensureCharCapacity(length + 1);
+            chars[length++] = (c >= 'a' && c <= 'z') ? (char) (c - 'a' + 'A') : c;
+        }
+
+        return length;
+    }
+
+    private void ensureCharCapacity(int capacity)
+    {
+        if (chars.length < capacity)
+            chars = java.util.Arrays.copyOf(chars, Math.max(capacity, 2 * chars.length));
+    }
+
+    /** Parses the decimal digits in a range of a character array, as {@link Integer#parseInt(String)} would. */
+    private static int parseDigits(char[] chars, int start, int end)
+    {
+        int value = 0;
+        for (int i = start; i < end; i++)
+        {
+            value = 10 * value + Character.digit(chars[i], 10);
+        }
+
+        return value;
+    }
+
     /**
      * The function Get_Latitude_Band_Min_Northing receives a latitude band letter and uses the Latitude_Band_Table to
      * determine the minimum northing for that latitude band letter. Updates min_northing.
@@ -492,11 +567,11 @@ class MGRSCoordConverter
      * The function convertMGRSToUTM converts an MGRS coordinate string to UTM projection (zone, hemisphere, easting and
      * northing) coordinates according to the current ellipsoid parameters.  Updates last_error if any errors occured.
      *
-     * @param MGRSString the MGRS coordinate string
+     * @param MGRS the MGRS coordinate components
      *
-     * @return the corresponding <code>UTMComponents</code> or <code>null</code>.
+     * @return true if the conversion succeeded, in which case the UTM converter holds the geodetic coordinates.
      */
-    private UTMCoord convertMGRSToUTM(String MGRSString)
+    private boolean convertMGRSToUTM(MGRSComponents MGRS)
     {
         double grid_easting;        /* Easting for 100,000 meter grid square      */
         double grid_northing;       /* Northing for 100,000 meter grid square     */
@@ -507,97 +582,88 @@ class MGRSCoordConverter
         String hemisphere = AVKey.NORTH;
         double easting = 0;
         double northing = 0;
-        UTMCoord UTM = null;
 
-        MGRSComponents MGRS = breakMGRSString(MGRSString);
-        if (MGRS == null)
-            error_code |= MGRS_STRING_ERROR;
-        else
+        if (error_code == MGRS_NO_ERROR)
         {
-            if (error_code == MGRS_NO_ERROR)
+            if ((MGRS.latitudeBand == LETTER_X) && ((MGRS.zone == 32) || (MGRS.zone == 34) || (MGRS.zone == 36)))
+                error_code |= MGRS_STRING_ERROR;
+            else
             {
-                if ((MGRS.latitudeBand == LETTER_X) && ((MGRS.zone == 32) || (MGRS.zone == 34) || (MGRS.zone == 36)))
-                    error_code |= MGRS_STRING_ERROR;
+                if (MGRS.latitudeBand < LETTER_N)
+                    hemisphere = AVKey.SOUTH;
                 else
-                {
-                    if (MGRS.latitudeBand < LETTER_N)
-                        hemisphere = AVKey.SOUTH;
-                    else
-                        hemisphere = AVKey.NORTH;
+                    hemisphere = AVKey.NORTH;
 
-                    getGridValues(MGRS.zone);
+                getGridValues(MGRS.zone);
 
-                    // Check that the second letter of the MGRS string is within
-                    // the range of valid second letter values
-                    // Also check that the third letter is valid
-                    if ((MGRS.squareLetter1 < ltr2_low_value) || (MGRS.squareLetter1 > ltr2_high_value) ||
-                        (MGRS.squareLetter2 > LETTER_V))
-                        error_code |= MGRS_STRING_ERROR;
+                // Check that the second letter of the MGRS string is within
+                // the range of valid second letter values
+                // Also check that the third letter is valid
+                if ((MGRS.squareLetter1 < ltr2_low_value) || (MGRS.squareLetter1 > ltr2_high_value) ||
+                    (MGRS.squareLetter2 > LETTER_V))
+                    error_code |= MGRS_STRING_ERROR;
 
-                    if (error_code == MGRS_NO_ERROR)
-                    {
-                        grid_northing =
-                            (MGRS.squareLetter2) * ONEHT;  //   smithjl  commented out + false_northing;
-                        grid_easting = ((MGRS.squareLetter1) - ltr2_low_value + 1) * ONEHT;
-                        if ((ltr2_low_value == LETTER_J) && (MGRS.squareLetter1 > LETTER_O))
-                            grid_easting = grid_easting - ONEHT;
+                if (error_code == MGRS_NO_ERROR)
+                {
+                    grid_northing =
+                        (MGRS.squareLetter2) * ONEHT;  //   smithjl  commented out + false_northing;
+                    grid_easting = ((MGRS.squareLetter1) - ltr2_low_value + 1) * ONEHT;
+                    if ((ltr2_low_value == LETTER_J) && (MGRS.squareLetter1 > LETTER_O))
+                        grid_easting = grid_easting - ONEHT;
 
-                        if (MGRS.squareLetter2 > LETTER_O)
-                            grid_northing = grid_northing - ONEHT;
+                    if (MGRS.squareLetter2 > LETTER_O)
+                        grid_northing = grid_northing - ONEHT;
 
-                        if (MGRS.squareLetter2 > LETTER_I)
-                            grid_northing = grid_northing - ONEHT;
+                    if (MGRS.squareLetter2 > LETTER_I)
+                        grid_northing = grid_northing - ONEHT;
 
-                        if (grid_northing >= TWOMIL)
-                            grid_northing = grid_northing - TWOMIL;
+                    if (grid_northing >= TWOMIL)
+                        grid_northing = grid_northing - TWOMIL;
 
-                        error_code = getLatitudeBandMinNorthing(MGRS.latitudeBand);
-                        if (error_code == MGRS_NO_ERROR)
-                        {
-                            /*smithjl Deleted code here and added this*/
-                            grid_northing = grid_northing - false_northing;
+                    error_code = getLatitudeBandMinNorthing(MGRS.latitudeBand);
+                    if (error_code == MGRS_NO_ERROR)
+                    {
+                        /*smithjl Deleted code here and added this*/
+                        grid_northing = grid_northing - false_northing;
 
-                            if (grid_northing < 0.0)
-                                grid_northing += TWOMIL;
+                        if (grid_northing < 0.0)
+                            grid_northing += TWOMIL;
 
-                            grid_northing += northing_offset;
+                        grid_northing += northing_offset;
 
-                            if (grid_northing < min_northing)
-                                grid_northing += TWOMIL;
+                        if (grid_northing < min_northing)
+                            grid_northing += TWOMIL;
 
-                            /* smithjl End of added code */
+                        /* smithjl End of added code */
 
-                            easting = grid_easting + MGRS.easting;
-                            northing = grid_northing + MGRS.northing;
+                        easting = grid_easting + MGRS.easting;
+                        northing = grid_northing + MGRS.northing;
 
-                            try
-                            {
-                                UTM = UTMCoord.fromUTM(MGRS.zone, hemisphere, easting, northing, globe);
-                                latitude = UTM.getLatitude().radians;
-                                divisor = Math.pow(10.0, MGRS.precision);
-                                error_code = getLatitudeRange(MGRS.latitudeBand);
-                                if (error_code == MGRS_NO_ERROR)
-                                {
-                                    if (!(((south - DEG_TO_RAD / divisor) <= latitude)
-                                        && (latitude <= (north + DEG_TO_RAD / divisor))))
-                                        error_code |= MGRS_LAT_WARNING;
-                                }
-                            }
-                            catch (Exception e)
+                        UTMCoordConverter UTM = getUTMConverter();
+                        if (UTM.convertUTMToGeodetic(MGRS.zone, hemisphere, easting, northing)
+                            == UTMCoordConverter.UTM_NO_ERROR)
+                        {
+                            latitude = UTM.getLatitude();
+                            divisor = Math.pow(10.0, MGRS.precision);
+                            error_code = getLatitudeRange(MGRS.latitudeBand);
+                            if (error_code == MGRS_NO_ERROR)
                             {
-                                error_code = MGRS_UTM_ERROR;
+                                if (!(((south - DEG_TO_RAD / divisor) <= latitude)
+                                    && (latitude <= (north + DEG_TO_RAD / divisor))))
+                                    error_code |= MGRS_LAT_WARNING;
                             }
                         }
+                        else
+                        {
+                            error_code = MGRS_UTM_ERROR;
+                        }
                     }
                 }
             }
         }
 
         last_error = error_code;
-        if (error_code == MGRS_NO_ERROR || error_code == MGRS_LAT_WARNING)
-            return UTM;
-
-        return null;
+        return error_code == MGRS_NO_ERROR || error_code == MGRS_LAT_WARNING;
     } /* Convert_MGRS_To_UTM */
 
     /**
@@ -636,10 +702,12 @@ class MGRSCoordConverter
                 // TODO: polar
                 try
                 {
-                    UPSCoord UPS =
-                        UPSCoord.fromLatLon(Angle.fromRadians(latitude), Angle.fromRadians(longitude), globe);
-                    error_code |= convertUPSToMGRS(UPS.getHemisphere(), UPS.getEasting(),
-                        UPS.getNorthing(), precision);
+                    UPSCoordConverter UPS = getUPSConverter();
+                    if (UPS.convertGeodeticToUPS(latitude, longitude) == UPSCoordConverter.UPS_NO_ERROR)
+                        error_code |= convertUPSToMGRS(UPS.getHemisphere(), UPS.getEasting(),
+                            UPS.getNorthing(), precision);
+                    else
+                        error_code = MGRS_UPS_ERROR;
                 }
                 catch (Exception e)
                 {
@@ -650,10 +718,12 @@ class MGRSCoordConverter
             {
                 try
                 {
-                    UTMCoord UTM =
-                        UTMCoord.fromLatLon(Angle.fromRadians(latitude), Angle.fromRadians(longitude), globe);
-                    error_code |= convertUTMToMGRS(UTM.getZone(), latitude, UTM.getEasting(),
-                        UTM.getNorthing(), precision);
+                    UTMCoordConverter UTM = getUTMConverter();
+                    if (UTM.convertGeodeticToUTM(latitude, longitude) == UTMCoordConverter.UTM_NO_ERROR)
+                        error_code |= convertUTMToMGRS(UTM.getZone(), latitude, UTM.getEasting(),
+                            UTM.getNorthing(), precision);
+                    else
+                        error_code = MGRS_UTM_ERROR;
                 }
                 catch (Exception e)
                 {
@@ -1043,11 +1113,11 @@ class MGRSCoordConverter
      * coordinates, according to the current ellipsoid parameters. If any errors occur, the error code(s) are returned
      * by the function, otherwise UPS_NO_ERROR is returned.
      *
-     * @param MGRS the MGRS coordinate string.
+     * @param mgrs the MGRS coordinate components.
      *
-     * @return a corresponding {@link UPSCoord} instance.
+     * @return true if the conversion succeeded, in which case the UPS converter holds the geodetic coordinates.
      */
-    private UPSCoord convertMGRSToUPS(String MGRS)
+    private boolean convertMGRSToUPS(MGRSComponents mgrs)
     {
         long ltr2_high_value;       /* 2nd letter range - high number             */
         long ltr3_high_value;       /* 3rd letter range - high number (UPS)       */
@@ -1062,92 +1132,85 @@ class MGRSCoordConverter
         String hemisphere;
         double easting, northing;
 
-        MGRSComponents mgrs = breakMGRSString(MGRS);
-        if (mgrs == null)
+        if (mgrs.zone > 0)
         {
-            error_code = this.last_error;
+            error_code |= MGRS_STRING_ERROR;
         }
-        else
+
+        if (error_code == MGRS_NO_ERROR)
         {
-            if (mgrs.zone > 0)
+            easting = mgrs.easting;
+            northing = mgrs.northing;
+
+            if (mgrs.latitudeBand >= LETTER_Y)
             {
-                error_code |= MGRS_STRING_ERROR;
+                hemisphere = AVKey.NORTH;
+
+                index = mgrs.latitudeBand - 22;
+                ltr2_low_value = upsConstants[index][1]; //.ltr2_low_value;
+                ltr2_high_value = upsConstants[index][2]; //.ltr2_high_value;
+                ltr3_high_value = upsConstants[index][3]; //.ltr3_high_value;
+                false_easting = upsConstants[index][4]; //.false_easting;
+                false_northing = upsConstants[index][5]; //.false_northing;
+            }
+            else
+            {
+                hemisphere = AVKey.SOUTH;
+
+                ltr2_low_value = upsConstants[mgrs.latitudeBand][1]; //.ltr2_low_value;
+                ltr2_high_value = upsConstants[mgrs.latitudeBand][2]; //.ltr2_high_value;
+                ltr3_high_value = upsConstants[mgrs.latitudeBand][3]; //.ltr3_high_value;
+                false_easting = upsConstants[mgrs.latitudeBand][4]; //.false_easting;
+                false_northing = upsConstants[mgrs.latitudeBand][5]; //.false_northing;
             }
 
+            // Check that the second letter of the MGRS string is within
+            // the range of valid second letter values
+            // Also check that the third letter is valid
+            if ((mgrs.squareLetter1 < ltr2_low_value) || (mgrs.squareLetter1 > ltr2_high_value) ||
+                    ((mgrs.squareLetter1 == LETTER_D) || (mgrs.squareLetter1 == LETTER_E) ||
+                            (mgrs.squareLetter1 == LETTER_M) || (mgrs.squareLetter1 == LETTER_N) ||
+                            (mgrs.squareLetter1 == LETTER_V) || (mgrs.squareLetter1 == LETTER_W)) ||
+                    (mgrs.squareLetter2 > ltr3_high_value))
+                error_code = MGRS_STRING_ERROR;
+
             if (error_code == MGRS_NO_ERROR)
             {
-                easting = mgrs.easting;
-                northing = mgrs.northing;
+                grid_northing = mgrs.squareLetter2 * ONEHT + false_northing;
+                if (mgrs.squareLetter2 > LETTER_I)
+                    grid_northing = grid_northing - ONEHT;
 
-                if (mgrs.latitudeBand >= LETTER_Y)
+                if (mgrs.squareLetter2 > LETTER_O)
+                    grid_northing = grid_northing - ONEHT;
+
+                grid_easting = ((mgrs.squareLetter1) - ltr2_low_value) * ONEHT + false_easting;
+                if (ltr2_low_value != LETTER_A)
                 {
-                    hemisphere = AVKey.NORTH;
+                    if (mgrs.squareLetter1 > LETTER_L)
+                        grid_easting = grid_easting - 300000.0;
 
-                    index = mgrs.latitudeBand - 22;
-                    ltr2_low_value = upsConstants[index][1]; //.ltr2_low_value;
-                    ltr2_high_value = upsConstants[index][2]; //.ltr2_high_value;
-                    ltr3_high_value = upsConstants[index][3]; //.ltr3_high_value;
-                    false_easting = upsConstants[index][4]; //.false_easting;
-                    false_northing = upsConstants[index][5]; //.false_northing;
+                    if (mgrs.squareLetter1 > LETTER_U)
+                        grid_easting = grid_easting - 200000.0;
                 }
                 else
                 {
-                    hemisphere = AVKey.SOUTH;
+                    if (mgrs.squareLetter1 > LETTER_C)
+                        grid_easting = grid_easting - 200000.0;
 
-                    ltr2_low_value = upsConstants[mgrs.latitudeBand][1]; //.ltr2_low_value;
-                    ltr2_high_value = upsConstants[mgrs.latitudeBand][2]; //.ltr2_high_value;
-                    ltr3_high_value = upsConstants[mgrs.latitudeBand][3]; //.ltr3_high_value;
-                    false_easting = upsConstants[mgrs.latitudeBand][4]; //.false_easting;
-                    false_northing = upsConstants[mgrs.latitudeBand][5]; //.false_northing;
-                }
+                    if (mgrs.squareLetter1 > LETTER_I)
+                        grid_easting = grid_easting - ONEHT;
 
-                // Check that the second letter of the MGRS string is within
-                // the range of valid second letter values
-                // Also check that the third letter is valid
-                if ((mgrs.squareLetter1 < ltr2_low_value) || (mgrs.squareLetter1 > ltr2_high_value) ||
-                        ((mgrs.squareLetter1 == LETTER_D) || (mgrs.squareLetter1 == LETTER_E) ||
-                                (mgrs.squareLetter1 == LETTER_M) || (mgrs.squareLetter1 == LETTER_N) ||
-                                (mgrs.squareLetter1 == LETTER_V) || (mgrs.squareLetter1 == LETTER_W)) ||
-                        (mgrs.squareLetter2 > ltr3_high_value))
-                    error_code = MGRS_STRING_ERROR;
-
-                if (error_code == MGRS_NO_ERROR)
-                {
-                    grid_northing = mgrs.squareLetter2 * ONEHT + false_northing;
-                    if (mgrs.squareLetter2 > LETTER_I)
-                        grid_northing = grid_northing - ONEHT;
-
-                    if (mgrs.squareLetter2 > LETTER_O)
-                        grid_northing = grid_northing - ONEHT;
-
-                    grid_easting = ((mgrs.squareLetter1) - ltr2_low_value) * ONEHT + false_easting;
-                    if (ltr2_low_value != LETTER_A)
-                    {
-                        if (mgrs.squareLetter1 > LETTER_L)
-                            grid_easting = grid_easting - 300000.0;
-
-                        if (mgrs.squareLetter1 > LETTER_U)
-                            grid_easting = grid_easting - 200000.0;
-                    }
-                    else
-                    {
-                        if (mgrs.squareLetter1 > LETTER_C)
-                            grid_easting = grid_easting - 200000.0;
-
-                        if (mgrs.squareLetter1 > LETTER_I)
-                            grid_easting = grid_easting - ONEHT;
-
-                        if (mgrs.squareLetter1 > LETTER_L)
-                            grid_easting = grid_easting - 300000.0;
-                    }
-
-                    easting = grid_easting + easting;
-                    northing = grid_northing + northing;
-                    return UPSCoord.fromUPS(hemisphere, easting, northing, globe);
+                    if (mgrs.squareLetter1 > LETTER_L)
+                        grid_easting = grid_easting - 300000.0;
                 }
+
+                easting = grid_easting + easting;
+                northing = grid_northing + northing;
+                return getUPSConverter().convertUPSToGeodetic(hemisphere, easting, northing)
+                    == UPSCoordConverter.UPS_NO_ERROR;
             }
         }
 
-        return null;
+        return false;
     }
 }
\ No newline at end of file
@@ -110,6 +110,8 @@ package gov.nasa.worldwind.geom.coords;
 import gov.nasa.worldwind.avlist.AVKey;
 import gov.nasa.worldwind.globes.Globe;
 
+import java.util.Arrays;
+
 /**
  * Ported to Java from the NGA GeoTrans ups.c and ups.h code - Feb 12, 2007 4:52:59 PM
  *
@@ -157,7 +159,9 @@ public class UPSCoordConverter
     private double Latitude = 0.0;
     private double Longitude = 0.0;
 
-    private PolarCoordConverter polarConverter = new PolarCoordConverter();
+    // Polar stereographic converters configured for each hemisphere and direction, created on first use. Configuring a
+    // converter derives the projection constants, so converters are reused by subsequent conversions.
+    private final PolarCoordConverter[] polarConverters = new PolarCoordConverter[4];
 
     UPSCoordConverter(Globe globe)
     {
@@ -194,6 +198,7 @@ public class UPSCoordConverter
 
         UPS_a = a;
         UPS_f = f;
+        Arrays.fill(polarConverters, null);
 
         return (UPS_NO_ERROR);
     }
@@ -235,10 +240,7 @@ public class UPSCoordConverter
             Hemisphere = AVKey.NORTH;
         }
 
-        polarConverter.setPolarStereographicParameters(UPS_a, UPS_f,
-            UPS_Origin_Latitude, UPS_Origin_Longitude,
-            false_easting, false_northing);
-
+        PolarCoordConverter polarConverter = getPolarConverter(latitude < 0 ? 1 : 0, false_easting, false_northing);
         polarConverter.convertGeodeticToPolarStereographic(latitude, longitude);
 
         UPS_Easting = UPS_False_Easting + polarConverter.getEasting();
@@ -303,13 +305,8 @@ public class UPSCoordConverter
 
         if (Error_Code == UPS_NO_ERROR)
         {   /*  no errors   */
-            polarConverter.setPolarStereographicParameters(UPS_a,
-                UPS_f,
-                UPS_Origin_Latitude,
-                UPS_Origin_Longitude,
-                UPS_False_Easting,
-                UPS_False_Northing);
-
+            PolarCoordConverter polarConverter = getPolarConverter(AVKey.SOUTH.equals(Hemisphere) ? 3 : 2,
+                UPS_False_Easting, UPS_False_Northing);
             polarConverter.convertPolarStereographicToGeodetic(Easting, Northing);
             Latitude = polarConverter.getLatitude();
             Longitude = polarConverter.getLongitude();
@@ -322,6 +319,32 @@ public class UPSCoordConverter
         return Error_Code;
     }
 
+    /**
+     * Returns the polar stereographic converter at an index, configuring it on first use with the current origin
+     * latitude.
+     *
+     * @param index         the converter index: 0 and 1 for geodetic to UPS conversion in the northern and southern
+     *                      hemispheres, 2 and 3 for UPS to geodetic conversion in the northern and southern
+     *                      hemispheres.
+     * @param falseEasting  Easting/X at the center of the projection
+     * @param falseNorthing Northing/Y at the center of the projection
+     *
+     * @return the configured converter.
+     */
+    private PolarCoordConverter getPolarConverter(int index, double falseEasting, double falseNorthing)
+    {
+        PolarCoordConverter converter = polarConverters[index];
+        if (converter == null)
+        {
+            converter = new PolarCoordConverter();
+            converter.setPolarStereographicParameters(UPS_a, UPS_f, UPS_Origin_Latitude, UPS_Origin_Longitude,
+                falseEasting, falseNorthing);
+            polarConverters[index] = converter;
+        }
+
+        return converter;
+    }
+
     /** @return Latitude in radians. */
     public double getLatitude()
     {
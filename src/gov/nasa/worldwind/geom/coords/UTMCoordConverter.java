@@ -89,6 +89,11 @@ class UTMCoordConverter
     private double Longitude;
     private double Central_Meridian;
 
+    // Transverse Mercator converters configured for each zone and hemisphere, created on first use. Configuring a
+    // converter derives the projection constants, so converters are reused by subsequent conversions in the same zone.
+    private TMCoordConverter[] geodeticToTMConverters;
+    private TMCoordConverter[] tmToGeodeticConverters;
+
     UTMCoordConverter(Globe globe)
     {
         this.globe = globe;
@@ -226,11 +231,13 @@ class UTMCoordConverter
                 else
                     Hemisphere = AVKey.NORTH;
 
-                try
+                if (this.geodeticToTMConverters == null)
+                    this.geodeticToTMConverters = new TMCoordConverter[120];
+                TMCoordConverter TM = getTMConverter(this.geodeticToTMConverters, Zone, Latitude < 0,
+                    this.globe != null ? getGlobeA() : this.UTM_a, this.globe != null ? getGlobeF() : this.UTM_f,
+                    Origin_Latitude, False_Easting, False_Northing, Scale);
+                if (TM != null && isTMSuccess(TM.convertGeodeticToTransverseMercator(Latitude, Longitude)))
                 {
-                    TMCoord TM = TMCoord.fromLatLon(Angle.fromRadians(Latitude), Angle.fromRadians(Longitude),
-                        this.globe, this.UTM_a, this.UTM_f, Angle.fromRadians(Origin_Latitude),
-                        Angle.fromRadians(Central_Meridian), False_Easting, False_Northing, Scale);
                     Easting = TM.getEasting();
                     Northing = TM.getNorthing();
 
@@ -239,7 +246,7 @@ class UTMCoordConverter
                     if ((Northing < MIN_NORTHING) || (Northing > MAX_NORTHING))
                         Error_Code |= UTM_NORTHING_ERROR;
                 }
-                catch (Exception e)
+                else
                 {
                     Error_Code = UTM_TM_ERROR;
                 }
@@ -314,20 +321,23 @@ class UTMCoordConverter
                 Central_Meridian = ((6 * Zone + 177) * PI / 180.0 /*+ 0.00000005*/);
             if (Hemisphere.equals(AVKey.SOUTH))
                 False_Northing = 10000000;
-            try
+            // The inverse conversion uses the globe's ellipsoid, or WGS84 when there is no globe.
+            if (this.tmToGeodeticConverters == null)
+                this.tmToGeodeticConverters = new TMCoordConverter[120];
+            TMCoordConverter TM = getTMConverter(this.tmToGeodeticConverters, (int) Zone,
+                Hemisphere.equals(AVKey.SOUTH), this.globe != null ? getGlobeA() : WGS84_A,
+                this.globe != null ? getGlobeF() : WGS84_F, Origin_Latitude, False_Easting, False_Northing, Scale);
+            if (TM != null && isTMSuccess(TM.convertTransverseMercatorToGeodetic(Easting, Northing)))
             {
-                TMCoord TM = TMCoord.fromTM(Easting, Northing,
-                    this.globe, Angle.fromRadians(Origin_Latitude), Angle.fromRadians(Central_Meridian),
-                    False_Easting, False_Northing, Scale);
-                Latitude = TM.getLatitude().radians;
-                Longitude = TM.getLongitude().radians;
+                Latitude = TM.getLatitude();
+                Longitude = TM.getLongitude();
 
                 if ((Latitude < MIN_LAT) || (Latitude > MAX_LAT))
                 { /* Latitude out of range */
                     Error_Code |= UTM_NORTHING_ERROR;
                 }
             }
-            catch (Exception e)
+            else
             {
                 Error_Code = UTM_TM_ERROR;
             }
@@ -335,6 +345,55 @@ class UTMCoordConverter
         return (Error_Code);
     }
 
+    /**
+     * Returns the Transverse Mercator converter for a zone and hemisphere, configuring it on first use with the current
+     * central meridian.
+     *
+     * @param converters     the converters for each zone and hemisphere.
+     * @param zone           UTM zone.
+     * @param south          true for the southern hemisphere, false for the northern hemisphere.
+     * @param a              Semi-major axis of ellipsoid, in meters
+     * @param f              Flattening of ellipsoid
+     * @param originLatitude Latitude in radians at the origin of the projection
+     * @param falseEasting   Easting/X at the center of the projection
+     * @param falseNorthing  Northing/Y at the center of the projection
+     * @param scale          Projection scale factor
+     *
+     * @return the configured converter, or null if the projection parameters are invalid.
+     */
+    private TMCoordConverter getTMConverter(TMCoordConverter[] converters, int zone, boolean south, double a,
+        double f, double originLatitude, double falseEasting, double falseNorthing, double scale)
+    {
+        int index = 2 * (zone - 1) + (south ? 1 : 0);
+        TMCoordConverter converter = converters[index];
+        if (converter == null)
+        {
+            converter = new TMCoordConverter();
+            if (converter.setTransverseMercatorParameters(a, f, originLatitude, Central_Meridian, falseEasting,
+                falseNorthing, scale) != TMCoordConverter.TRANMERC_NO_ERROR)
+                return null;
+
+            converters[index] = converter;
+        }
+
+        return converter;
+    }
+
+    private static boolean isTMSuccess(long errorCode)
+    {
+        return errorCode == TMCoordConverter.TRANMERC_NO_ERROR || errorCode == TMCoordConverter.TRANMERC_LON_WARNING;
+    }
+
+    private double getGlobeA()
+    {
+        return this.globe.getEquatorialRadius();
+    }
+
+    private double getGlobeF()
+    {
+        return (this.globe.getEquatorialRadius() - this.globe.getPolarRadius()) / this.globe.getEquatorialRadius();
+    }
+
     /** @return Latitude in radians. */
     public double getLatitude()
     {
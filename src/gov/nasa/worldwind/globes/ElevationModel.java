@@ -357,6 +357,117 @@ public interface ElevationModel extends WWObject, Restorable, Disposable
     double[] getUnmappedElevations(Sector sector, List<? extends LatLon> latlons, double targetResolution[],
         double[] buffer);
 
+    /**
+     * Returns the elevations of a collection of locations specified as parallel arrays of latitude and longitude. This
+     * is equivalent to {@link #getElevations(Sector, List, double, double[])}, but does not require the caller to
+     * create a {@link LatLon} for each location.
+     *
+     * @param sector           the sector in question.
+     * @param latitudes        the latitudes, in degrees, of the locations to return elevations for.
+     * @param longitudes       the longitudes, in degrees, of the locations to return elevations for. Must contain at
+     *                         least as many elements as the latitudes array.
+     * @param targetResolution the desired horizontal resolution, in radians, of the raster or other elevation sample
+     *                         from which elevations are drawn.
+     * @param buffer           an array in which to place the returned elevations. The array must be pre-allocated and
+     *                         contain at least as many elements as the latitudes array.
+     *
+     * @return the resolution achieved, in radians, or {@link Double#MAX_VALUE} if individual elevations cannot be
+     *         determined for all of the locations.
+     *
+     * @throws IllegalArgumentException if either the sector, latitudes, longitudes or elevations array is null, or if
+     *                                  the longitudes or elevations array is shorter than the latitudes array.
+     * @see #setMissingDataSignal(double)
+     */
+    double getElevations(Sector sector, double[] latitudes, double[] longitudes, double targetResolution,
+        double[] buffer);
+
+    /**
+     * Returns the elevations of a collection of locations specified as parallel arrays of latitude and longitude.
+     * <em>Does not</em> replace any elevation values corresponding to the missing data signal with the elevation
+     * model's missing data replacement value. This is equivalent to {@link #getUnmappedElevations(Sector, List, double,
+     * double[])}, but does not require the caller to create a {@link LatLon} for each location.
+     *
+     * @param sector           the sector in question.
+     * @param latitudes        the latitudes, in degrees, of the locations to return elevations for.
+     * @param longitudes       the longitudes, in degrees, of the locations to return elevations for. Must contain at
+     *                         least as many elements as the latitudes array.
+     * @param targetResolution the desired horizontal resolution, in radians, of the raster or other elevation sample
+     *                         from which elevations are drawn.
+     * @param buffer           an array in which to place the returned elevations. The array must be pre-allocated and
+     *                         contain at least as many elements as the latitudes array.
+     *
+     * @return the resolution achieved, in radians, or {@link Double#MAX_VALUE} if individual elevations cannot be
+     *         determined for all of the locations.
+     *
+     * @throws IllegalArgumentException if either the sector, latitudes, longitudes or elevations array is null, or if
+     *                                  the longitudes or elevations array is shorter than the latitudes array.
+     * @see #setMissingDataSignal(double)
+     */
+    double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes, double targetResolution,
+        double[] buffer);
+
+    /**
+     * Returns the elevations of a strided range of locations specified as parallel arrays of latitude and longitude.
+     * The location at index <code>k</code>, for <code>k</code> in <code>[0, count)</code>, is read from
+     * <code>latitudes[offset + k * stride]</code> and <code>longitudes[offset + k * stride]</code>, and its elevation
+     * is written to <code>buffer[bufferOffset + k]</code>. Buffer elements for locations outside this elevation
+     * model's coverage are not modified.
+     * <p>
+     * This method is intended for callers that query many locations at once, such as terrain profiles and
+     * line-of-sight computations. Implementations are expected to avoid per-location object creation.
+     *
+     * @param sector           the sector in question.
+     * @param latitudes        the latitudes, in degrees, of the locations to return elevations for.
+     * @param longitudes       the longitudes, in degrees, of the locations to return elevations for.
+     * @param offset           the index of the first location in the latitude and longitude arrays.
+     * @param stride           the distance between consecutive locations in the latitude and longitude arrays. Must
+     *                         be at least 1.
+     * @param count            the number of locations to return elevations for.
+     * @param targetResolution the desired horizontal resolution, in radians, of the raster or other elevation sample
+     *                         from which elevations are drawn.
+     * @param buffer           an array in which to place the returned elevations. The array must be pre-allocated and
+     *                         contain at least <code>bufferOffset + count</code> elements.
+     * @param bufferOffset     the index in the buffer at which to place the first elevation.
+     *
+     * @return the resolution achieved, in radians, or {@link Double#MAX_VALUE} if individual elevations cannot be
+     *         determined for all of the locations.
+     *
+     * @throws IllegalArgumentException if either the sector, latitudes, longitudes or elevations array is null, or if
+     *                                  the offsets, stride or count do not describe a range within the arrays.
+     * @see #setMissingDataSignal(double)
+     */
+    double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride, int count,
+        double targetResolution, double[] buffer, int bufferOffset);
+
+    /**
+     * Returns the elevations of a strided range of locations specified as parallel arrays of latitude and longitude.
+     * <em>Does not</em> replace any elevation values corresponding to the missing data signal with the elevation
+     * model's missing data replacement value. See {@link #getElevations(Sector, double[], double[], int, int, int,
+     * double, double[], int)} for a description of the arguments.
+     *
+     * @param sector           the sector in question.
+     * @param latitudes        the latitudes, in degrees, of the locations to return elevations for.
+     * @param longitudes       the longitudes, in degrees, of the locations to return elevations for.
+     * @param offset           the index of the first location in the latitude and longitude arrays.
+     * @param stride           the distance between consecutive locations in the latitude and longitude arrays. Must
+     *                         be at least 1.
+     * @param count            the number of locations to return elevations for.
+     * @param targetResolution the desired horizontal resolution, in radians, of the raster or other elevation sample
+     *                         from which elevations are drawn.
+     * @param buffer           an array in which to place the returned elevations. The array must be pre-allocated and
+     *                         contain at least <code>bufferOffset + count</code> elements.
+     * @param bufferOffset     the index in the buffer at which to place the first elevation.
+     *
+     * @return the resolution achieved, in radians, or {@link Double#MAX_VALUE} if individual elevations cannot be
+     *         determined for all of the locations.
+     *
+     * @throws IllegalArgumentException if either the sector, latitudes, longitudes or elevations array is null, or if
+     *                                  the offsets, stride or count do not describe a range within the arrays.
+     * @see #setMissingDataSignal(double)
+     */
+    double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset);
+
     /**
      * Returns the elevation used for missing values in the elevation model.
      *
@@ -35,6 +35,7 @@ import gov.nasa.worldwind.terrain.*;
 import gov.nasa.worldwind.util.*;
 
 import java.io.IOException;
+import java.nio.FloatBuffer;
 import java.util.List;
 
 /**
@@ -508,6 +509,26 @@ public class EllipsoidalGlobe extends WWObjectImpl implements Globe
         return resolution;
     }
 
+    public double getElevations(Sector sector, double[] latitudes, double[] longitudes, double targetResolution,
+        double[] elevations)
+    {
+        if (this.elevationModel == null)
+            return 0;
+
+        double resolution = this.elevationModel.getElevations(sector, latitudes, longitudes, targetResolution,
+            elevations);
+
+        if (this.egm96 != null)
+        {
+            for (int i = 0; i < latitudes.length; i++)
+            {
+                elevations[i] = elevations[i] + this.egm96.getOffsetDegrees(latitudes[i], longitudes[i]);
+            }
+        }
+
+        return resolution;
+    }
+
     public double getElevation(Angle latitude, Angle longitude)
     {
         if (latitude == null || longitude == null)
@@ -623,6 +644,56 @@ public class EllipsoidalGlobe extends WWObjectImpl implements Globe
         this.geodeticToCartesian(sector, numLat, numLon, metersElevation, out);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void computePointsFromPositions(double[] latitudes, double[] longitudes, double[] metersElevation,
+        FloatBuffer out, Vec4 referenceCenter)
+    {
+        if (latitudes == null || longitudes == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (longitudes.length < latitudes.length)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", longitudes.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (metersElevation == null)
+        {
+            String message = Logging.getMessage("nullValue.ElevationsIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (metersElevation.length < latitudes.length)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", metersElevation.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (out == null)
+        {
+            String message = Logging.getMessage("nullValue.OutputIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (out.remaining() < 3 * latitudes.length)
+        {
+            String message = Logging.getMessage("generic.BufferOverflow", out.remaining(), 3 * latitudes.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.geodeticToCartesian(latitudes, longitudes, metersElevation, out, referenceCenter);
+    }
+
     /**
      * Returns the normal to the Globe at the specified position.
      *
@@ -919,6 +990,53 @@ public class EllipsoidalGlobe extends WWObjectImpl implements Globe
         return new Vec4(x, y, z);
     }
 
+    /**
+     * Maps geographic positions specified as parallel arrays to Cartesian coordinates, and writes each point minus a
+     * reference point to a float buffer. See {@link #geodeticToEllipsoidal(Angle, Angle, double)} for a description of
+     * the coordinate system. The arguments are assumed to have been validated by the caller.
+     *
+     * @param latitudes       the latitudes, in degrees, of the positions.
+     * @param longitudes      the longitudes, in degrees, of the positions.
+     * @param metersElevation the elevations, in meters, of the positions.
+     * @param out             the buffer to hold the computed points, starting at its current position.
+     * @param referenceCenter the point subtracted from each computed point. May be null.
+     */
+    protected void geodeticToCartesian(double[] latitudes, double[] longitudes, double[] metersElevation,
+        FloatBuffer out, Vec4 referenceCenter)
+    {
+        double refX = referenceCenter != null ? referenceCenter.x : 0;
+        double refY = referenceCenter != null ? referenceCenter.y : 0;
+        double refZ = referenceCenter != null ? referenceCenter.z : 0;
+
+        // Adjacent positions in a grid often share a latitude, so reuse the latitude terms where possible.
+        double lastLat = Double.NaN;
+        double cosLat = 0;
+        double sinLat = 0;
+        double rpm = 0;
+
+        for (int i = 0; i < latitudes.length; i++)
+        {
+            if (latitudes[i] != lastLat)
+            {
+                lastLat = latitudes[i];
+                double latRadians = Math.toRadians(lastLat);
+                cosLat = Math.cos(latRadians);
+                sinLat = Math.sin(latRadians);
+                rpm = // getRadius (in meters) of vertical in prime meridian
+                    this.equatorialRadius / Math.sqrt(1.0 - this.es * sinLat * sinLat);
+            }
+
+            double lonRadians = Math.toRadians(longitudes[i]);
+            double cosLon = Math.cos(lonRadians);
+            double sinLon = Math.sin(lonRadians);
+            double elev = metersElevation[i];
+
+            out.put((float) ((rpm + elev) * cosLat * sinLon - refX));
+            out.put((float) ((rpm * (1.0 - this.es) + elev) * sinLat - refY));
+            out.put((float) ((rpm + elev) * cosLat * cosLon - refZ));
+        }
+    }
+
     /**
      * Maps a grid of geographic positions to Cartesian coordinates. The Y axis points to the north pole. The Z axis
      * points to the intersection of the prime meridian and the equator, in the equatorial plane. The X axis completes a
@@ -425,6 +425,22 @@ public class FlatGlobe extends EllipsoidalGlobe implements Globe2D
         this.projection.geographicToCartesian(this, sector, numLat, numLon, metersElevation, this.offsetVector, out);
     }
 
+    @Override
+    protected void geodeticToCartesian(double[] latitudes, double[] longitudes, double[] metersElevation,
+        java.nio.FloatBuffer out, Vec4 referenceCenter)
+    {
+        double refX = referenceCenter != null ? referenceCenter.x : 0;
+        double refY = referenceCenter != null ? referenceCenter.y : 0;
+        double refZ = referenceCenter != null ? referenceCenter.z : 0;
+
+        for (int i = 0; i < latitudes.length; i++)
+        {
+            Vec4 p = this.projection.geographicToCartesian(this, Angle.fromDegrees(latitudes[i]),
+                Angle.fromDegrees(longitudes[i]), metersElevation[i], this.offsetVector);
+            out.put((float) (p.x - refX)).put((float) (p.y - refY)).put((float) (p.z - refZ));
+        }
+    }
+
     @Override
     protected Position cartesianToGeodetic(Vec4 cart)
     {
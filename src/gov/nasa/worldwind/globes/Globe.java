@@ -32,6 +32,7 @@ import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.render.DrawContext;
 import gov.nasa.worldwind.terrain.*;
 
+import java.nio.FloatBuffer;
 import java.util.List;
 
 /**
@@ -176,6 +177,29 @@ public interface Globe extends WWObject, Extent
     double[] getElevations(Sector sector, List<? extends LatLon> latlons, double[] targetResolution,
         double[] elevations);
 
+    /**
+     * Indicates the elevations of a collection of locations specified as parallel arrays of latitude and longitude.
+     * This is equivalent to {@link #getElevations(Sector, List, double, double[])}, but does not require the caller to
+     * create a {@link LatLon} for each location.
+     *
+     * @param sector           the sector in question.
+     * @param latitudes        the latitudes, in degrees, of the locations to return elevations for.
+     * @param longitudes       the longitudes, in degrees, of the locations to return elevations for. Must contain at
+     *                         least as many elements as the latitudes array.
+     * @param targetResolution the desired horizontal resolution, in radians, of the raster or other elevation sample
+     *                         from which elevations are drawn.
+     * @param elevations       an array in which to place the returned elevations. The array must be pre-allocated and
+     *                         contain at least as many elements as the latitudes array.
+     *
+     * @return the resolution achieved, in radians, or {@link Double#MAX_VALUE} if individual elevations cannot be
+     *         determined for all of the locations. Returns zero if an elevation model is not available.
+     *
+     * @throws IllegalArgumentException if either the sector, latitudes, longitudes or elevations array is null.
+     * @see #getElevationModel()
+     */
+    double getElevations(Sector sector, double[] latitudes, double[] longitudes, double targetResolution,
+        double[] elevations);
+
     /**
      * Indicates the maximum elevation on this globe, in meters.
      *
@@ -284,6 +308,31 @@ public interface Globe extends WWObject, Extent
      */
     void computePointsFromPositions(Sector sector, int numLat, int numLon, double[] metersElevation, Vec4[] out);
 
+    /**
+     * Computes cartesian points corresponding to a collection of geographic positions specified as parallel arrays,
+     * and writes them to a float buffer relative to a reference point.
+     * <p>
+     * This method provides an interface for efficient generation of vertex data, such as terrain geometry, without
+     * creating a {@link Vec4} for each point. The coordinates of each point, minus the corresponding coordinates of
+     * <code>referenceCenter</code>, are written to the buffer as three consecutive floats, starting at the buffer's
+     * current position. The buffer's position is advanced past the last point written.
+     *
+     * @param latitudes       the latitudes, in degrees, of the positions.
+     * @param longitudes      the longitudes, in degrees, of the positions. Must contain at least as many elements as
+     *                        the latitudes array.
+     * @param metersElevation the elevations, in meters, of the positions. Must contain at least as many elements as the
+     *                        latitudes array.
+     * @param out             the buffer to hold the computed points. Must have at least three times as many elements
+     *                        remaining as the latitudes array.
+     * @param referenceCenter the point subtracted from each computed point. May be null, in which case the points are
+     *                        written in model coordinates.
+     *
+     * @throws IllegalArgumentException if any array or the buffer is null, if an array is shorter than the latitudes
+     *                                  array, or if the buffer has insufficient space remaining.
+     */
+    void computePointsFromPositions(double[] latitudes, double[] longitudes, double[] metersElevation,
+        FloatBuffer out, Vec4 referenceCenter);
+
     /**
      * Computes a vector perpendicular to the surface of this globe in cartesian coordinates.
      *
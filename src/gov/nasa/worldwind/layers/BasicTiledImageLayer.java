@@ -55,6 +55,8 @@ import java.util.Map;
 public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetrievable
 {
     protected final Object fileLock = new Object();
+    protected boolean memoryMappedReads = Configuration.getBooleanValue(AVKey.MEMORY_MAPPED_TILE_READS_ENABLED,
+        false);
 
     // Layer resource properties.
     protected static final int RESOURCE_ID_OGC_CAPABILITIES = 1;
@@ -108,6 +110,10 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         if (b != null)
             this.setRetainLevelZeroTiles(b);
 
+        b = (Boolean) params.getValue(AVKey.MEMORY_MAPPED_TILE_READS_ENABLED);
+        if (b != null)
+            this.setMemoryMappedReads(b);
+
         b = (Boolean) params.getValue(AVKey.NETWORK_RETRIEVAL_ENABLED);
         if (b != null)
             this.setNetworkRetrievalEnabled(b);
@@ -331,13 +337,43 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         }
     }
 
+    /**
+     * Indicates whether cached DDS textures are mapped into memory rather than read onto the heap. See {@link
+     * #setMemoryMappedReads(boolean)}.
+     *
+     * @return true if cached DDS textures are mapped, otherwise false.
+     */
+    public boolean isMemoryMappedReads()
+    {
+        return this.memoryMappedReads;
+    }
+
+    /**
+     * Specifies whether cached DDS textures are mapped into memory rather than read onto the heap. A mapped texture
+     * is uploaded to OpenGL directly from the operating system's page cache, which is shared by every process reading
+     * the same file. Textures that must be converted to DDS, and textures not cached in the file system, are read
+     * regardless. The default is given by the configuration value {@link AVKey#MEMORY_MAPPED_TILE_READS_ENABLED}, or
+     * false if it is not specified.
+     * <p>
+     * Mapping is intended for large local datasets. Cached textures are updated by replacing their files rather than
+     * rewriting them in place, see {@link WWIO#saveBuffer(java.nio.ByteBuffer, java.io.File, boolean)}, so a texture
+     * being read keeps its contents when its file is updated or expires.
+     *
+     * @param memoryMappedReads true to map cached DDS textures, otherwise false.
+     */
+    public void setMemoryMappedReads(boolean memoryMappedReads)
+    {
+        this.memoryMappedReads = memoryMappedReads;
+    }
+
     protected boolean isTextureFileExpired(TextureTile tile, java.net.URL textureURL, FileStore fileStore)
     {
         if (!WWIO.isFileOutOfDate(textureURL, tile.getLevel().getExpiryTime()))
             return false;
 
-        // The file has expired. Delete it.
-        fileStore.removeFile(textureURL);
+        // The file has expired. Delete it, unless it's to be revalidated by a conditional request.
+        if (!HTTPRetriever.isConditionalRequestsEnabled())
+            fileStore.removeFile(textureURL);
         String message = Logging.getMessage("generic.DataFileExpired", textureURL);
         Logging.logger().fine(message);
         return true;
@@ -400,6 +436,11 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
             // the texture data without converting it.
             else
             {
+                // JOGL maps DDS files into memory and uploads their mipmaps from the mapped buffer.
+                File file = this.isMemoryMappedReads() ? WWIO.convertURLToFile(url) : null;
+                if (file != null)
+                    return OGLUtil.newTextureData(Configuration.getMaxCompatibleGLProfile(), file, useMipMaps);
+
                 return OGLUtil.newTextureData(Configuration.getMaxCompatibleGLProfile(), url, useMipMaps);
             }
         }
@@ -604,6 +645,9 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         }
         retriever.setValue(URLRetriever.EXTRACT_ZIP_ENTRY, "true"); // supports legacy layers
 
+        if (HTTPRetriever.isConditionalRequestsEnabled())
+            this.configureConditionalRequest(retriever, postProcessor.getFileStore(), tile);
+
         // Apply any overridden timeouts.
         Integer cto = AVListImpl.getIntegerValue(this, AVKey.URL_CONNECT_TIMEOUT);
         if (cto != null && cto > 0)
@@ -618,6 +662,28 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
         WorldWind.getRetrievalService().runRetriever(retriever, tile.getPriority());
     }
 
+    /**
+     * Makes a retrieval conditional on the tile's cached texture file having been modified on the server since the
+     * file was retrieved. The cached file is kept when the texture expires so that it can be revalidated this way. If
+     * the retriever cannot make a conditional request, the cached file is deleted instead.
+     *
+     * @param retriever the retriever for the tile's texture.
+     * @param fileStore the file store holding the tile's cached texture.
+     * @param tile      the tile whose texture is retrieved.
+     */
+    protected void configureConditionalRequest(Retriever retriever, FileStore fileStore, TextureTile tile)
+    {
+        URL fileURL = fileStore.findFile(tile.getPath(), false);
+        if (fileURL == null)
+            return;
+
+        File file = WWIO.convertURLToFile(fileURL);
+        if (retriever instanceof HTTPRetriever && file != null)
+            ((HTTPRetriever) retriever).setIfModifiedSince(file.lastModified());
+        else
+            fileStore.removeFile(fileURL);
+    }
+
     protected DownloadPostProcessor createDownloadPostProcessor(TextureTile tile)
     {
         return new DownloadPostProcessor(tile, this);
@@ -667,6 +733,25 @@ public class BasicTiledImageLayer extends TiledImageLayer implements BulkRetriev
             return this.getFileStore().newFile(this.tile.getPath());
         }
 
+        @Override
+        protected boolean overwriteExistingFile()
+        {
+            // A conditional request revalidates an existing file, which is replaced if the resource has changed.
+            Retriever retriever = this.getRetriever();
+            return retriever instanceof HTTPRetriever && ((HTTPRetriever) retriever).isConditional();
+        }
+
+        @Override
+        protected ByteBuffer handleNotModified()
+        {
+            ByteBuffer buffer = super.handleNotModified();
+
+            // Fire a property change so that the layer loads the revalidated texture.
+            this.layer.firePropertyChange(AVKey.LAYER, null, this);
+
+            return buffer;
+        }
+
         @Override
         protected ByteBuffer handleSuccessfulRetrieval()
         {
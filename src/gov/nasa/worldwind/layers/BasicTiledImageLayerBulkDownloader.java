@@ -30,7 +30,7 @@ package gov.nasa.worldwind.layers;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVKey;
-import gov.nasa.worldwind.cache.FileStore;
+import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.event.*;
 import gov.nasa.worldwind.geom.Sector;
 import gov.nasa.worldwind.retrieve.*;
@@ -472,6 +472,13 @@ public class BasicTiledImageLayerBulkDownloader extends BulkRetrievalThread
             }
         }
 
+        // Tiles held by a packed file store are not files in the write location.
+        if (count == 0 && this.fileStore instanceof PackedFileStore)
+        {
+            size = ((PackedFileStore) this.fileStore).computeAveragePackedFileSize(targetLevel.getPath(), 100);
+            count = size > 0 ? 1 : 0;
+        }
+
         Long averageTileSize = DEFAULT_AVERAGE_FILE_SIZE;
         if (count > 0 && size > 0)
         {
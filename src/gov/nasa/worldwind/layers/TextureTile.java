@@ -66,7 +66,8 @@ public class TextureTile extends Tile implements SurfaceTile
         if (!WorldWind.getMemoryCacheSet().containsCache(TextureTile.class.getName()))
         {
             long size = Configuration.getLongValue(AVKey.TEXTURE_IMAGE_CACHE_SIZE, 3000000L);
-            MemoryCache cache = new BasicMemoryCache((long) (0.85 * size), size);
+            MemoryCache cache = WorldWind.getMemoryCacheSet().createCache(TextureTile.class.getName(),
+                (long) (0.85 * size), size);
             cache.setName("Texture Tiles");
             WorldWind.getMemoryCacheSet().addCache(TextureTile.class.getName(), cache);
         }
@@ -207,8 +208,12 @@ public class TextureTile extends Tile implements SurfaceTile
         tc.put(this.getTileKey(), texture);
         this.updateTime.set(System.currentTimeMillis());
 
-        // No more need for texture data; allow garbage collector and memory cache to reclaim it.
+        // No more need for texture data; allow garbage collector and memory cache to reclaim it. Flushing releases any
+        // resources the texture data holds, such as the file a memory mapped texture was read from.
         // This also signals that new texture data has been converted.
+        TextureData textureData = this.textureData;
+        if (textureData != null)
+            textureData.flush();
         this.textureData = null;
         this.updateMemoryCache();
     }
@@ -1138,11 +1138,10 @@ public abstract class TiledImageLayer extends AbstractLayer
         {
             try
             {
-                File imageFile = new File(url.toURI());
-                BufferedImage image = ImageIO.read(imageFile);
+                BufferedImage image = ImageIO.read(url);
                 if (image == null)
                 {
-                    String message = Logging.getMessage("generic.ImageReadFailed", imageFile);
+                    String message = Logging.getMessage("generic.ImageReadFailed", url);
                     throw new RuntimeException(message);
                 }
 
@@ -29,8 +29,9 @@
 package gov.nasa.worldwind.ogc.kml;
 
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.util.WWUtil;
 
-import java.util.*;
+import java.nio.CharBuffer;
 
 /**
  * Tokenizer to read coordinate values from KML coordinate string. The components of each coordinate tuple are separated
@@ -63,14 +64,21 @@ public class KMLCoordinateTokenizer
 {
     protected int i;
     protected char[] buffer;
+    /** A view of the buffer for {@link WWUtil#parseExactDecimal(CharSequence, int, int)}. */
+    protected CharSequence chars;
 
-    protected List<String> words = new ArrayList<String>(3);
-
-    protected StringBuilder nextWord = new StringBuilder();
+    // The start and end indices in the buffer of the words of the current coordinate.
+    protected int[] wordStarts = new int[3];
+    protected int[] wordEnds = new int[3];
+    protected int wordCount;
+    protected int wordStart;
 
     protected boolean inWord;
     protected boolean afterComma = false;
 
+    // Receives the components of the coordinate read by nextPosition.
+    protected double[] coords = new double[3];
+
     /**
      * Create a tokenizer to read coordinates from a string.
      *
@@ -79,6 +87,7 @@ public class KMLCoordinateTokenizer
     public KMLCoordinateTokenizer(String s)
     {
         this.buffer = s.trim().toCharArray();
+        this.chars = CharBuffer.wrap(this.buffer);
     }
 
     /**
@@ -100,7 +109,28 @@ public class KMLCoordinateTokenizer
      */
     public Position nextPosition() throws NumberFormatException
     {
-        this.words.clear();
+        int count = this.nextCoordinates(this.coords);
+
+        if (count > 2)
+            return Position.fromDegrees(this.coords[1], this.coords[0], this.coords[2]);
+        else if (count == 2)
+            return Position.fromDegrees(this.coords[1], this.coords[0]);
+        return null;
+    }
+
+    /**
+     * Read the components of the next coordinate from the coordinate string, in the order they appear: longitude,
+     * latitude and, if present, altitude. The numbers are parsed directly from the string's characters.
+     *
+     * @param coords an array of at least three elements that receives the coordinate's components.
+     *
+     * @return the number of components read, either 2 or 3, or 0 if the coordinate is incomplete.
+     *
+     * @throws NumberFormatException if the coordinates cannot be parsed to a number.
+     */
+    public int nextCoordinates(double[] coords) throws NumberFormatException
+    {
+        this.wordCount = 0;
 
         while (this.i < this.buffer.length)
         {
@@ -109,51 +139,79 @@ public class KMLCoordinateTokenizer
             if (Character.isWhitespace(ch))
             {
                 if (this.inWord)
-                    wordBoundary();
+                    wordBoundary(this.i - 1);
 
                 // If the last separator was a comma, don't break. Wait for another word.
-                if (!this.afterComma && this.words.size() >= 2)
+                if (!this.afterComma && this.wordCount >= 2)
                     break;
             }
             else if (ch == ',')
             {
                 if (this.inWord)
-                    wordBoundary();
+                    wordBoundary(this.i - 1);
 
                 this.afterComma = true;
 
                 // Three words make a complete coordinate. Break out of the loop and return the coordinate.
-                if (this.words.size() >= 3)
+                if (this.wordCount >= 3)
                     break;
             }
             else
             {
+                if (!this.inWord)
+                    this.wordStart = this.i - 1;
+
                 this.inWord = true;
                 this.afterComma = false;
-                this.nextWord.append(ch);
             }
         }
 
         if (this.inWord)
-            this.wordBoundary();
+            this.wordBoundary(this.i);
 
-        return this.makePosition();
+        if (this.wordCount < 2)
+            return 0;
+
+        int count = Math.min(this.wordCount, 3);
+        for (int n = 0; n < count; n++)
+        {
+            coords[n] = this.parseDouble(this.wordStarts[n], this.wordEnds[n]);
+        }
+
+        return count;
     }
 
-    protected Position makePosition()
+    protected void wordBoundary(int wordEnd)
     {
-        if (this.words.size() > 2)
-            return Position.fromDegrees(Double.valueOf(this.words.get(1)), Double.valueOf(this.words.get(0)),
-                Double.valueOf(this.words.get(2)));
-        else if (this.words.size() == 2)
-            return Position.fromDegrees(Double.valueOf(this.words.get(1)), Double.valueOf(this.words.get(0)));
-        return null;
+        this.inWord = false;
+
+        if (this.wordCount < this.wordStarts.length)
+        {
+            this.wordStarts[this.wordCount] = this.wordStart;
+            this.wordEnds[this.wordCount] = wordEnd;
+        }
+
+        this.wordCount++;
     }
 
-    protected void wordBoundary()
+    /**
+     * Parses a number from a range of the buffer. Plain decimal numbers whose digits and scale a double represents
+     * exactly are computed directly, which rounds them exactly as {@link Double#parseDouble(String)} does. Any other
+     * form, such as a number with an exponent, is passed to <code>Double.parseDouble</code>.
+     *
+     * @param start the index of the number's first character.
+     * @param end   the index following the number's last character.
+     *
+     * @return the number.
+     *
+     * @throws NumberFormatException if the range does not contain a number.
+     */
+    protected double parseDouble(int start, int end) throws NumberFormatException
     {
-        this.inWord = false;
-        this.words.add(this.nextWord.toString());
-        this.nextWord = new StringBuilder();
+        double value = WWUtil.parseExactDecimal(this.chars, start, end);
+        if (Double.isNaN(value))
+            value = Double.parseDouble(new String(this.buffer, start, end - start));
+
+        return value;
     }
 }
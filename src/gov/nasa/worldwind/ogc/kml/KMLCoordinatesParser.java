@@ -29,11 +29,12 @@
 package gov.nasa.worldwind.ogc.kml;
 
 import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.util.PackedPositionList;
 import gov.nasa.worldwind.util.xml.*;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.events.XMLEvent;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Parses KML <i>coordinates</i> elements.
@@ -52,7 +53,6 @@ public class KMLCoordinatesParser extends AbstractXMLEventParser
         super(namespaceURI);
     }
 
-    @SuppressWarnings( {"UnnecessaryContinue"})
     public Position.PositionList parse(XMLEventParserContext ctx, XMLEvent doubleEvent, Object... args)
         throws XMLStreamException
     {
@@ -60,30 +60,40 @@ public class KMLCoordinatesParser extends AbstractXMLEventParser
         if (s == null || s.length() < 3) // "a,b" is the smallest possible coordinate string
             return null;
 
-        ArrayList<Position> positions = new ArrayList<Position>();
-
+        // Store the coordinates packed in a double array rather than as Position instances. A string holds at most one
+        // coordinate per four characters, since the smallest coordinate is "a,b" followed by a separator.
         KMLCoordinateTokenizer tokenizer = new KMLCoordinateTokenizer(s);
+        double[] coords = new double[PackedPositionList.COORDS_PER_POSITION * Math.min(s.length() / 4 + 1, 1024)];
+        double[] tuple = new double[3];
+        int length = 0;
 
         while (tokenizer.hasMoreTokens())
         {
+            int count;
             try
             {
-                positions.add(tokenizer.nextPosition());
+                count = tokenizer.nextCoordinates(tuple);
             }
             catch (NumberFormatException e)
             {
                 continue; // TODO: issue warning?
             }
-            catch (NullPointerException e)
-            {
-                continue; // TODO: issue warning?
-            }
             catch (Exception e)
             {
                 continue; // TODO: issue warning
             }
+
+            if (count < 2)
+                continue;
+
+            if (length == coords.length)
+                coords = Arrays.copyOf(coords, 2 * coords.length);
+
+            coords[length++] = tuple[0];
+            coords[length++] = tuple[1];
+            coords[length++] = (count > 2) ? tuple[2] : 0;
         }
 
-        return new Position.PositionList(positions);
+        return new Position.PositionList(new PackedPositionList(Arrays.copyOf(coords, length)));
     }
 }
@@ -34,8 +34,11 @@ import gov.nasa.worldwind.event.Message;
 import gov.nasa.worldwind.ogc.kml.impl.KMLTraversalContext;
 import gov.nasa.worldwind.render.DrawContext;
 import gov.nasa.worldwind.util.*;
+import gov.nasa.worldwind.util.xml.XMLEventParserContext;
 
 import javax.swing.*;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
 import java.beans.*;
 import java.util.concurrent.atomic.*;
 
@@ -119,6 +122,22 @@ public class KMLNetworkLink extends KMLAbstractContainer implements PropertyChan
         }
     }
 
+    /**
+     * {@inheritDoc} Overridden to schedule the linked document for prefetching if this link's root has a {@link
+     * KMLParseScheduler}.
+     */
+    @Override
+    public Object parse(XMLEventParserContext ctx, XMLEvent inputEvent, Object... args) throws XMLStreamException
+    {
+        Object o = super.parse(ctx, inputEvent, args);
+
+        KMLRoot root = this.getRoot();
+        if (root != null && root.getParseScheduler() != null)
+            root.getParseScheduler().schedule(this);
+
+        return o;
+    }
+
     /** {@inheritDoc} Overridden to cache the root instead of climbing the parse tree each time. */
     @Override
     public KMLRoot getRoot()
@@ -0,0 +1,591 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.util.*;
+
+import java.beans.*;
+import java.io.*;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+/**
+ * Prefetches and parses the documents referenced by KML NetworkLinks concurrently on a bounded thread pool. A scheduler
+ * is attached to a {@link KMLRoot} by calling {@link KMLRoot#setParseScheduler(KMLParseScheduler)} before the root is
+ * parsed. Each NetworkLink encountered during parsing is then scheduled for retrieval and parsing as soon as it is
+ * discovered, rather than when the link is first rendered. Documents parsed by the scheduler inherit it, so links
+ * nested in linked documents, including those in KMZ archives, are discovered and prefetched the same way.
+ * <p>
+ * Links are de-duplicated by their resolved path: a document referenced by several links is retrieved and parsed once,
+ * and links to resources marked absent in the referencing root's absent resource list are not scheduled. Remote
+ * documents are retrieved through the {@link gov.nasa.worldwind.cache.FileStore}, and parsing of a remote document
+ * begins when the file store reports that its retrieval succeeded.
+ * <p>
+ * Parsed documents are cached by path together with their expiration time and a checksum of the document's contents.
+ * When a NetworkLink refreshes, {@link KMLRoot#resolveNetworkLink(String, boolean, long)} returns the cached root
+ * without re-parsing if the document has not expired, or if the retrieved document's contents are unchanged.
+ * <p>
+ * Only links whose address does not depend on the view are prefetched; links with a view refresh mode or an HTTP query
+ * are resolved when they are rendered, as they are without a scheduler. The scheduler's threads are daemon threads,
+ * and {@link #dispose()} shuts them down.
+ */
+public class KMLParseScheduler implements PropertyChangeListener, Disposable
+{
+    /** The default number of queued link requests. Links discovered while the queue is full are not prefetched. */
+    protected static final int DEFAULT_QUEUE_CAPACITY = 256;
+    /** The default maximum number of parsed documents held in the cache. */
+    protected static final int DEFAULT_CACHE_CAPACITY = 128;
+    /** Keep idle threads alive this many seconds. */
+    protected static final long THREAD_TIMEOUT = 2;
+
+    /** A parsed document, the checksum of the file it was parsed from, and the time at which it expires. */
+    protected static class CacheEntry
+    {
+        protected final KMLRoot root;
+        protected final long checksum;
+        protected volatile long expirationTime;
+        protected volatile long checkTime;
+
+        public CacheEntry(KMLRoot root, long checksum, long expirationTime)
+        {
+            this.root = root;
+            this.checksum = checksum;
+            this.expirationTime = expirationTime;
+            this.checkTime = System.currentTimeMillis();
+        }
+    }
+
+    /** A remote document waiting for retrieval, the root containing its link, and where the document is stored. */
+    protected static class PendingRetrieval
+    {
+        protected final KMLRoot parent;
+        protected final boolean cacheRemoteFile;
+
+        public PendingRetrieval(KMLRoot parent, boolean cacheRemoteFile)
+        {
+            this.parent = parent;
+            this.cacheRemoteFile = cacheRemoteFile;
+        }
+    }
+
+    protected final ThreadPoolExecutor executor;
+    /** Links that are queued or being resolved, keyed by path. */
+    protected final ConcurrentHashMap<String, Future<?>> pending = new ConcurrentHashMap<String, Future<?>>();
+    /** Remote links waiting for the file store to complete their retrieval, keyed by path. */
+    protected final ConcurrentHashMap<String, PendingRetrieval> awaitingRetrieval =
+        new ConcurrentHashMap<String, PendingRetrieval>();
+    /** Parsed documents keyed by path, in least recently used order. */
+    protected final Map<String, CacheEntry> cache;
+    protected final Object idleLock = new Object();
+    protected boolean listeningToFileStore;
+
+    /**
+     * Creates a scheduler with one thread per available processor and a default queue capacity.
+     */
+    public KMLParseScheduler()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Creates a scheduler with a specified number of threads and queue capacity.
+     *
+     * @param threadCount   the number of threads that retrieve and parse linked documents.
+     * @param queueCapacity the maximum number of links waiting for a thread. Links discovered while the queue is full
+     *                      are resolved when they are rendered.
+     *
+     * @throws IllegalArgumentException if either argument is less than 1.
+     */
+    public KMLParseScheduler(int threadCount, int queueCapacity)
+    {
+        if (threadCount < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "threadCount < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (queueCapacity < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "queueCapacity < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount, THREAD_TIMEOUT, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(queueCapacity),
+            new ThreadFactory()
+            {
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CacheEntry>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest)
+            {
+                return this.size() > DEFAULT_CACHE_CAPACITY;
+            }
+        });
+    }
+
+    /**
+     * Schedules the document referenced by a NetworkLink for retrieval and parsing. This is called by {@link
+     * KMLNetworkLink} when it has been parsed into a root that has a scheduler. This does nothing if the link's address
+     * depends on the view, if the document is already cached or scheduled, or if the document is marked absent. Remote
+     * documents are stored in the WorldWind cache only if {@link KMLNetworkLink#isLinkCacheable()} returns true.
+     *
+     * @param networkLink the link to schedule.
+     *
+     * @throws IllegalArgumentException if the link is null.
+     */
+    public void schedule(KMLNetworkLink networkLink)
+    {
+        if (networkLink == null)
+        {
+            String message = Logging.getMessage("nullValue.KMLLinkIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        KMLRoot parent = networkLink.getRoot();
+        KMLLink link = networkLink.getLinkOrUrl();
+        if (parent == null || link == null || !this.isPrefetchable(link))
+            return;
+
+        String href = link.getHref().trim();
+        try
+        {
+            // Resolve the path on the parsing thread; KMZ archives extract support files here.
+            String path = parent.getSupportFilePath(href);
+            this.schedule(parent, path != null ? path : href, networkLink.isLinkCacheable());
+        }
+        catch (IOException e)
+        {
+            String message = Logging.getMessage("generic.UnableToResolveReference", href);
+            Logging.logger().fine(message);
+        }
+    }
+
+    /**
+     * Indicates whether a link's address is independent of the view and the application, and may therefore be
+     * retrieved before the link is rendered.
+     *
+     * @param link the link to test.
+     *
+     * @return true if the link can be prefetched, otherwise false.
+     */
+    protected boolean isPrefetchable(KMLLink link)
+    {
+        String viewRefreshMode = link.getViewRefreshMode();
+        return !WWUtil.isEmpty(link.getHref())
+            && (WWUtil.isEmpty(viewRefreshMode) || KMLConstants.NEVER.equals(viewRefreshMode.trim()))
+            && WWUtil.isEmpty(link.getHttpQuery());
+    }
+
+    /**
+     * Queues a document for resolution if it is not already cached, queued or absent.
+     *
+     * @param parent          the root containing the link.
+     * @param path            the resolved path of the linked document.
+     * @param cacheRemoteFile true to store a remote document in the WorldWind cache, false to store it in a temporary
+     *                        location.
+     */
+    protected void schedule(final KMLRoot parent, final String path, final boolean cacheRemoteFile)
+    {
+        if (parent.absentResourceList.isResourceAbsent(path) || this.cache.containsKey(path)
+            || this.executor.isShutdown())
+            return;
+
+        FutureTask<Object> task = new FutureTask<Object>(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    if (doResolve(parent, path, cacheRemoteFile, 0) == null && WWIO.makeURL(path) != null)
+                        awaitRetrieval(parent, path, cacheRemoteFile);
+                }
+                finally
+                {
+                    pending.remove(path);
+                    notifyIfIdle();
+                }
+            }
+        }, null);
+
+        if (this.pending.putIfAbsent(path, task) != null)
+            return; // Already queued or being resolved.
+
+        try
+        {
+            this.executor.execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            this.pending.remove(path, task);
+            String message = Logging.getMessage("KML.NetworkLinkPrefetchRejected", path);
+            Logging.logger().fine(message);
+        }
+    }
+
+    /**
+     * Resolves a NetworkLink's document, waiting for any scheduled resolution of the same document to complete and
+     * returning the cached document if it has not expired or its contents are unchanged. This is called by {@link
+     * KMLRoot#resolveNetworkLink(String, boolean, long)} and follows its conventions.
+     *
+     * @param parent          the root containing the link.
+     * @param path            the resolved path of the linked document.
+     * @param cacheRemoteFile true to store remote files in the WorldWind cache, false to store them in a temporary
+     *                        location.
+     * @param updateTime      the time at which the link was last updated. A cached document checked before this time
+     *                        is checked again.
+     *
+     * @return the parsed document, the document's address if it is not a KML document, or null if the document is
+     *         not yet available.
+     *
+     * @throws IllegalArgumentException if the parent or path is null.
+     */
+    public Object resolve(KMLRoot parent, String path, boolean cacheRemoteFile, long updateTime)
+    {
+        if (parent == null)
+        {
+            String message = Logging.getMessage("nullValue.KMLRootIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (path == null)
+        {
+            String message = Logging.getMessage("nullValue.PathIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Future<?> future = this.pending.get(path);
+        if (future != null)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            catch (ExecutionException e)
+            {
+                String message = Logging.getMessage("generic.UnableToResolveReference", path);
+                Logging.logger().fine(message);
+            }
+        }
+
+        return this.doResolve(parent, path, cacheRemoteFile, updateTime);
+    }
+
+    /**
+     * Resolves and parses a document, consulting the cache first.
+     *
+     * @param parent          the root containing the link.
+     * @param path            the resolved path of the linked document.
+     * @param cacheRemoteFile true to store remote files in the WorldWind cache.
+     * @param updateTime      the time at which the link was last updated.
+     *
+     * @return the parsed document, the document's address if it is not a KML document, or null if the document is
+     *         not yet available.
+     */
+    protected Object doResolve(KMLRoot parent, String path, boolean cacheRemoteFile, long updateTime)
+    {
+        long now = System.currentTimeMillis();
+
+        CacheEntry entry = this.cache.get(path);
+        if (entry != null && entry.checkTime >= updateTime && entry.expirationTime > now)
+            return entry.root;
+
+        try
+        {
+            boolean remote = WWIO.makeURL(path) != null;
+            File file = remote ? this.findRetrievedFile(path, cacheRemoteFile, updateTime) : new File(path);
+            if (file == null)
+                return null;
+
+            if (!file.exists())
+            {
+                parent.absentResourceList.markResourceAbsent(path);
+                return null;
+            }
+
+            // Re-use the previously parsed document if the file's contents have not changed.
+            long checksum = this.computeChecksum(file);
+            if (entry != null && entry.checksum == checksum)
+            {
+                entry.checkTime = now;
+                entry.expirationTime = this.computeExpirationTime(entry.root, path, remote);
+                return entry.root;
+            }
+
+            Object o = remote ? parent.resolveRemoteReference(path, null, cacheRemoteFile)
+                : parent.resolveLocalReference(path, null);
+
+            if (o instanceof KMLRoot)
+            {
+                KMLRoot root = (KMLRoot) o;
+                this.cache.put(path, new CacheEntry(root, checksum, this.computeExpirationTime(root, path, remote)));
+                parent.absentResourceList.unmarkResourceAbsent(path);
+            }
+
+            return o;
+        }
+        catch (Exception e)
+        {
+            String message = Logging.getMessage("generic.UnableToResolveReference", path);
+            Logging.logger().warning(message);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the local copy of a remote document, initiating its retrieval if it is not in the file store. A local
+     * copy retrieved before the link's update time is removed so that the document is retrieved again.
+     *
+     * @param path            the document's address.
+     * @param cacheRemoteFile true to store the file in the WorldWind cache.
+     * @param updateTime      the time at which the link was last updated.
+     *
+     * @return the local copy of the document, or null if it is not yet available.
+     *
+     * @throws Exception if the file store's URL cannot be converted to a file.
+     */
+    protected File findRetrievedFile(String path, boolean cacheRemoteFile, long updateTime) throws Exception
+    {
+        URL url = WorldWind.getDataFileStore().requestFile(path, cacheRemoteFile);
+        if (url == null)
+            return null;
+
+        File file = new File(url.toURI());
+        if (file.lastModified() < updateTime)
+        {
+            WorldWind.getDataFileStore().removeFile(path);
+            WorldWind.getDataFileStore().requestFile(path, cacheRemoteFile);
+            return null;
+        }
+
+        return file;
+    }
+
+    /**
+     * Computes a checksum of a file's contents.
+     *
+     * @param file the file.
+     *
+     * @return the file's CRC-32 checksum combined with its length.
+     *
+     * @throws IOException if the file cannot be read.
+     */
+    protected long computeChecksum(File file) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+
+        InputStream stream = new FileInputStream(file);
+        try
+        {
+            for (int n = stream.read(buffer); n >= 0; n = stream.read(buffer))
+            {
+                crc.update(buffer, 0, n);
+            }
+        }
+        finally
+        {
+            WWIO.closeStream(stream, file.getPath());
+        }
+
+        return (file.length() << 32) ^ crc.getValue();
+    }
+
+    /**
+     * Computes the time at which a cached document expires. The expiration is specified by the document's
+     * NetworkLinkControl, or for remote documents by the HTTP headers of the retrieval.
+     *
+     * @param root   the parsed document.
+     * @param path   the document's address.
+     * @param remote true if the document was retrieved from a remote server.
+     *
+     * @return the expiration time in milliseconds since the Epoch, or zero if the document must be checked each time
+     *         it is resolved.
+     */
+    protected long computeExpirationTime(KMLRoot root, String path, boolean remote)
+    {
+        KMLNetworkLinkControl linkControl = root.getNetworkLinkControl();
+        if (linkControl != null && linkControl.getExpires() != null)
+        {
+            Long time = WWUtil.parseTimeString(linkControl.getExpires());
+            return time != null ? time : 0;
+        }
+
+        return remote ? WorldWind.getDataFileStore().getExpirationTime(path) : 0;
+    }
+
+    /**
+     * Registers a remote document to be resolved once the file store completes its retrieval.
+     *
+     * @param parent          the root containing the link.
+     * @param path            the document's address.
+     * @param cacheRemoteFile true if the document is stored in the WorldWind cache, false if it is stored in a
+     *                        temporary location.
+     */
+    protected void awaitRetrieval(KMLRoot parent, String path, boolean cacheRemoteFile)
+    {
+        synchronized (this)
+        {
+            if (!this.listeningToFileStore)
+            {
+                WorldWind.getDataFileStore().addPropertyChangeListener(this);
+                this.listeningToFileStore = true;
+            }
+        }
+
+        this.awaitingRetrieval.put(path, new PendingRetrieval(parent, cacheRemoteFile));
+    }
+
+    /**
+     * Schedules a waiting remote document when the file store reports that its retrieval succeeded.
+     *
+     * @param event the file store's property change event.
+     */
+    public void propertyChange(PropertyChangeEvent event)
+    {
+        if (!AVKey.RETRIEVAL_STATE_SUCCESSFUL.equals(event.getPropertyName()) || event.getOldValue() == null)
+            return;
+
+        String path = event.getOldValue().toString();
+        PendingRetrieval retrieval = this.awaitingRetrieval.remove(path);
+        if (retrieval != null)
+            this.schedule(retrieval.parent, path, retrieval.cacheRemoteFile);
+    }
+
+    /**
+     * Returns the cached document for a path, without resolving or validating it.
+     *
+     * @param path the resolved path of the document.
+     *
+     * @return the cached document, or null if the document is not in the cache.
+     */
+    public KMLRoot getCachedRoot(String path)
+    {
+        CacheEntry entry = path != null ? this.cache.get(path) : null;
+        return entry != null ? entry.root : null;
+    }
+
+    /**
+     * Indicates whether any links are queued or being resolved.
+     *
+     * @return true if no links are queued or being resolved, otherwise false.
+     */
+    public boolean isIdle()
+    {
+        return this.pending.isEmpty();
+    }
+
+    /**
+     * Waits until no links are queued or being resolved. Links discovered while earlier links are parsed are waited for
+     * as well. Remote documents that are still being retrieved are not waited for.
+     *
+     * @param timeout the maximum time to wait, in milliseconds.
+     *
+     * @return true if the scheduler became idle, false if the timeout elapsed first.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public boolean waitUntilIdle(long timeout) throws InterruptedException
+    {
+        long end = System.currentTimeMillis() + timeout;
+
+        synchronized (this.idleLock)
+        {
+            while (!this.isIdle())
+            {
+                long remaining = end - System.currentTimeMillis();
+                if (remaining <= 0)
+                    return false;
+
+                this.idleLock.wait(remaining);
+            }
+        }
+
+        return true;
+    }
+
+    protected void notifyIfIdle()
+    {
+        if (this.isIdle())
+        {
+            synchronized (this.idleLock)
+            {
+                this.idleLock.notifyAll();
+            }
+        }
+    }
+
+    /** Removes all parsed documents from the cache. */
+    public void clearCache()
+    {
+        this.cache.clear();
+    }
+
+    /** Stops accepting links, shuts down the scheduler's threads and clears the cache. */
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+        this.pending.clear();
+        this.awaitingRetrieval.clear();
+        this.clearCache();
+        this.notifyIfIdle();
+
+        synchronized (this)
+        {
+            if (this.listeningToFileStore)
+            {
+                WorldWind.getDataFileStore().removePropertyChangeListener(this);
+                this.listeningToFileStore = false;
+            }
+        }
+    }
+}
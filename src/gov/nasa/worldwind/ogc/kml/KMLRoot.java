@@ -84,6 +84,12 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
     protected KMLNetworkLinkControl networkLinkControl;
 
     protected AbsentResourceList absentResourceList = new AbsentResourceList();
+    /**
+     * Schedules concurrent prefetching and parsing of the documents referenced by this root's NetworkLinks. Documents
+     * parsed through this root inherit its scheduler. Initially <code>null</code>, indicating that linked documents are
+     * retrieved and parsed when their links are rendered.
+     */
+    protected KMLParseScheduler parseScheduler;
 
     /**
      * Creates a KML root for an untyped source. The source must be either a {@link File}, a {@link URL}, a {@link
@@ -736,7 +742,7 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
 
             // Attempt to open and parse the KML/Z file, trying both namespace aware and namespace unaware stream
             // readers if necessary.
-            KMLRoot refRoot = KMLRoot.createAndParse(file);
+            KMLRoot refRoot = this.parseLocalKMLFile(file);
             // An exception is thrown if parsing fails, so no need to check for null.
 
             // Add the parsed file to the session cache so it doesn't have to be parsed again.
@@ -932,6 +938,11 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
                     return o;
             }
 
+            // Let the parse scheduler resolve the link if there is one. It shares documents it has already prefetched
+            // and avoids re-parsing documents whose contents have not changed.
+            if (this.getParseScheduler() != null)
+                return this.getParseScheduler().resolve(this, path, cacheRemoteFile, updateTime);
+
             URL url = WWIO.makeURL(path);
             if (url == null)
             {
@@ -1075,6 +1086,7 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
         try
         {
             KMLRoot refRoot = new KMLRoot(kmlDoc, namespaceAware);
+            refRoot.setParseScheduler(this.getParseScheduler());
             refRoot = refRoot.parse(); // also closes the URL's stream
             return refRoot;
         }
@@ -1085,6 +1097,38 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
         }
     }
 
+    /**
+     * Open and parse the specified local KML or KMZ file, first with a namespace aware parser and then, if that fails,
+     * with a namespace unaware parser. The new root inherits this root's parse scheduler.
+     *
+     * @param file the file to open.
+     *
+     * @return A {@code KMLRoot} representing the file's KML contents.
+     *
+     * @throws IOException        if an I/O error occurs during opening and parsing.
+     * @throws XMLStreamException if a server parsing error is encountered.
+     */
+    protected KMLRoot parseLocalKMLFile(File file) throws IOException, XMLStreamException
+    {
+        KMLRoot refRoot = new KMLRoot(file, true);
+        refRoot.setParseScheduler(this.getParseScheduler());
+
+        try
+        {
+            // Try with a namespace aware parser.
+            refRoot.parse();
+        }
+        catch (XMLStreamException e)
+        {
+            // Try without namespace awareness.
+            refRoot = new KMLRoot(file, false);
+            refRoot.setParseScheduler(this.getParseScheduler());
+            refRoot.parse();
+        }
+
+        return refRoot;
+    }
+
     /**
      * Starts document parsing. This method initiates parsing of the KML document and returns when the full document has
      * been parsed.
@@ -1130,6 +1174,202 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
         return null;
     }
 
+    /**
+     * Parses the KML document incrementally, passing each feature that is not a container to a handler as soon as its
+     * closing element is parsed. Unlike {@link #parse(Object...)}, this does not build the document's object tree:
+     * containers are created with their own attributes and non-feature elements, such as their names and styles, but
+     * do not retain the features within them. Shared styles and other elements that are not within a feature remain
+     * in this root's identifier table, so each feature's <code>styleUrl</code> resolves against those styles when the
+     * feature's style is first requested. Identifiers declared within a feature are dropped once the feature is passed
+     * to the handler. Memory use is therefore proportional to the largest feature and the document's shared styles
+     * rather than to the size of the document.
+     * <p>
+     * This root's {@link #getFeature()} returns null after streaming, as no feature tree is built. Parsing stops when
+     * the document ends or the handler returns <code>false</code>, and the underlying stream is closed in either
+     * case.
+     *
+     * @param handler the handler that receives each feature.
+     * @param args    optional arguments to pass to parsers of sub-elements.
+     *
+     * @throws IllegalArgumentException if the handler is null.
+     * @throws XMLStreamException       if an exception occurs while attempting to read the event stream.
+     */
+    public void parseFeatures(KMLFeatureHandler handler, Object... args) throws XMLStreamException
+    {
+        if (handler == null)
+        {
+            String message = Logging.getMessage("nullValue.HandlerIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        KMLParserContext ctx = this.parserContext;
+
+        try
+        {
+            for (XMLEvent event = ctx.nextEvent(); ctx.hasNext(); event = ctx.nextEvent())
+            {
+                if (event == null)
+                    continue;
+
+                // Allow a <kml> element in any namespace
+                if (event.isStartElement() && event.asStartElement().getName().getLocalPart().equals("kml"))
+                {
+                    this.copyEventAttributes(event, this);
+                    this.streamElementContent(ctx, event, this, handler, args);
+                    return;
+                }
+                // Allow the document to start without a <kml> element. There are many such files around.
+                else if (event.isStartElement() && ctx.getParser(event) != null)
+                {
+                    this.streamElement(ctx, event, this, handler, args);
+                    return;
+                }
+            }
+        }
+        finally
+        {
+            ctx.getEventReader().close();
+            this.closeEventStream();
+        }
+    }
+
+    /**
+     * Streams the sub-elements of an element whose start event has been read, stopping at the element's end event.
+     *
+     * @param ctx          the parser context.
+     * @param elementEvent the element's start event.
+     * @param parent       the object representing the element, either this root or a container.
+     * @param handler      the handler that receives features.
+     * @param args         optional arguments to pass to parsers of sub-elements.
+     *
+     * @return <code>false</code> if the handler stopped parsing, otherwise <code>true</code>.
+     *
+     * @throws XMLStreamException if an exception occurs while attempting to read the event stream.
+     */
+    protected boolean streamElementContent(KMLParserContext ctx, XMLEvent elementEvent, KMLAbstractObject parent,
+        KMLFeatureHandler handler, Object... args) throws XMLStreamException
+    {
+        for (XMLEvent event = ctx.nextEvent(); ctx.hasNext(); event = ctx.nextEvent())
+        {
+            if (event == null)
+                continue;
+
+            if (ctx.isEndElement(event, elementEvent))
+                return true;
+
+            if (event.isStartElement() && !this.streamElement(ctx, event, parent, handler, args))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Streams one element. Containers are descended into, other features are parsed in full and passed to the
+     * handler, and any other element is parsed and added to its parent as {@link #parse(Object...)} would add it.
+     *
+     * @param ctx     the parser context.
+     * @param event   the element's start event.
+     * @param parent  the object that encloses the element, either this root or a container.
+     * @param handler the handler that receives features.
+     * @param args    optional arguments to pass to parsers of sub-elements.
+     *
+     * @return <code>false</code> if the handler stopped parsing, otherwise <code>true</code>.
+     *
+     * @throws XMLStreamException if an exception occurs while attempting to read the event stream.
+     */
+    protected boolean streamElement(KMLParserContext ctx, XMLEvent event, KMLAbstractObject parent,
+        KMLFeatureHandler handler, Object... args) throws XMLStreamException
+    {
+        XMLEventParser parser = ctx.allocate(event);
+        if (parser == null)
+        {
+            ctx.firePropertyChange(new XMLParserNotification(ctx, XMLParserNotification.UNRECOGNIZED, event,
+                "XML.UnrecognizedElement", null, event));
+            ctx.getUnrecognizedElementParser().parse(ctx, event, args); // consume the element
+            return true;
+        }
+
+        parser.setParent(parent);
+
+        if (parser instanceof KMLAbstractContainer)
+        {
+            this.copyEventAttributes(event, (KMLAbstractContainer) parser);
+            return this.streamElementContent(ctx, event, (KMLAbstractContainer) parser, handler, args);
+        }
+
+        int idCount = ctx.getIdTable().size();
+        Object o = parser.parse(ctx, event, args);
+        if (o == null)
+            return true;
+
+        if (o instanceof KMLAbstractFeature)
+        {
+            this.releaseFeatureIds(ctx, (KMLAbstractFeature) o, idCount);
+            return handler.handleFeature((KMLAbstractFeature) o);
+        }
+
+        if (parent instanceof KMLAbstractContainer)
+            ((KMLAbstractContainer) parent).doAddEventContent(o, ctx, event, args);
+        else
+            this.doAddEventContent(o, ctx, event, args);
+
+        return true;
+    }
+
+    /**
+     * Copies an element's attributes to the fields of the object representing the element.
+     *
+     * @param event  the element's start event.
+     * @param object the object that receives the attributes.
+     */
+    protected void copyEventAttributes(XMLEvent event, KMLAbstractObject object)
+    {
+        java.util.Iterator iter = event.asStartElement().getAttributes();
+        while (iter != null && iter.hasNext())
+        {
+            javax.xml.stream.events.Attribute attr = (javax.xml.stream.events.Attribute) iter.next();
+            object.setField(attr.getName(), attr.getValue());
+        }
+    }
+
+    /**
+     * Removes from the identifier table the entries added while a streamed feature was parsed, so the table retains
+     * only the elements outside of features, such as shared styles.
+     *
+     * @param ctx     the parser context.
+     * @param feature the streamed feature.
+     * @param idCount the number of identifiers in the table before the feature was parsed.
+     */
+    protected void releaseFeatureIds(KMLParserContext ctx, KMLAbstractFeature feature, int idCount)
+    {
+        Map<String, Object> idTable = ctx.getIdTable();
+        if (idTable.size() <= idCount)
+            return;
+
+        // Most features declare at most their own identifier, so check that before searching the table.
+        String id = feature.getId();
+        if (id != null && idTable.get(id) == feature)
+            idTable.remove(id);
+
+        if (idTable.size() <= idCount)
+            return;
+
+        java.util.Iterator<Object> iter = idTable.values().iterator();
+        while (iter.hasNext())
+        {
+            for (Object o = iter.next(); o instanceof XMLEventParser; o = ((XMLEventParser) o).getParent())
+            {
+                if (o == feature)
+                {
+                    iter.remove();
+                    break;
+                }
+            }
+        }
+    }
+
     /** Closes the event stream associated with this context's XML event reader. */
     protected void closeEventStream()
     {
@@ -1243,6 +1483,33 @@ public class KMLRoot extends KMLAbstractObject implements KMLRenderable
         this.detailHint = detailHint;
     }
 
+    /**
+     * Indicates the scheduler that prefetches and parses the documents referenced by this root's NetworkLinks.
+     *
+     * @return this root's parse scheduler, or <code>null</code> if linked documents are retrieved when their links are
+     *         rendered.
+     *
+     * @see #setParseScheduler(KMLParseScheduler)
+     */
+    public KMLParseScheduler getParseScheduler()
+    {
+        return this.parseScheduler;
+    }
+
+    /**
+     * Specifies the scheduler that prefetches and parses the documents referenced by this root's NetworkLinks. The
+     * scheduler must be specified before this root is parsed for links to be prefetched as they are parsed. Documents
+     * resolved through this root, including documents loaded by network links, inherit the scheduler. A single
+     * scheduler may be shared by several roots.
+     *
+     * @param parseScheduler the parse scheduler. May be <code>null</code>, in which case linked documents are
+     *                       retrieved and parsed when their links are rendered.
+     */
+    public void setParseScheduler(KMLParseScheduler parseScheduler)
+    {
+        this.parseScheduler = parseScheduler;
+    }
+
     /** Request any scene containing this KML document be repainted. */
     public void requestRedraw()
     {
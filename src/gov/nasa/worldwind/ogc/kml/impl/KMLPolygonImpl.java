@@ -37,6 +37,8 @@ import gov.nasa.worldwind.pick.PickedObject;
 import gov.nasa.worldwind.render.*;
 import gov.nasa.worldwind.util.*;
 
+import java.util.List;
+
 /**
  * @author tag
  * @version $Id: KMLPolygonImpl.java 2151 2014-07-15 17:12:46Z tgaskins $
@@ -47,6 +49,21 @@ public class KMLPolygonImpl extends Polygon implements KMLRenderable
     protected boolean highlightAttributesResolved = false;
     protected boolean normalAttributesResolved = false;
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Overridden to keep boundaries parsed from KML in their packed form, rather than copying them into a list of
+     * positions.
+     */
+    @Override
+    protected List<? extends Position> fillBoundary(Iterable<? extends Position> corners)
+    {
+        if (corners instanceof PackedPositionList && ((PackedPositionList) corners).size() >= 3)
+            return ((PackedPositionList) corners).closed();
+
+        return super.fillBoundary(corners);
+    }
+
     /**
      * Create an instance.
      *
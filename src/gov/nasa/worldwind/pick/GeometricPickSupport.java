@@ -0,0 +1,724 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.pick;
+
+import gov.nasa.worldwind.View;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.Globe;
+import gov.nasa.worldwind.layers.Layer;
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.terrain.*;
+import gov.nasa.worldwind.util.Logging;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * Resolves picks on the CPU without rendering, as an alternative to the color-buffer picking performed by {@link
+ * PickSupport}. Candidates are registered once per frame, after the frame is drawn, and are arranged in bounding volume
+ * hierarchies the first time a pick is requested. A pick then casts the pick ray against the hierarchy of model
+ * coordinate candidates and tests the pick point against the hierarchy of screen rectangle candidates, and produces a
+ * {@link PickedObjectList} without reading anything back from OpenGL. This makes picking for hover highlighting cost a
+ * tree traversal rather than an additional render pass, and keeps the spatial logic free of any GL dependency.
+ * <p>
+ * Three kinds of candidates are supported: <ul> <li>Extents, such as those of {@link AbstractShape}. A shape is picked
+ * when the pick ray intersects its extent, so picking is conservative for shapes that do not fill their
+ * extent.</li> <li>Terrain tiles from the frame's {@link SectorGeometryList}. The pick ray is intersected with each
+ * candidate tile's geometry, and only the nearest terrain intersection is reported. Model coordinate candidates beyond
+ * that intersection are hidden by the terrain and are not reported.</li> <li>Screen rectangles, such as the image
+ * bounds of a {@link PointPlacemark}. These are ordered by their distance from the eye and are not hidden by the
+ * terrain.</li> </ul>
+ * <p>
+ * The picked objects are returned in order of increasing distance from the eye, and the nearest one is marked as on
+ * top. Instances are not thread safe.
+ *
+ * @see PickSupport
+ */
+public class GeometricPickSupport
+{
+    /** The maximum number of candidates held by a leaf node of a bounding volume hierarchy. */
+    protected static final int MAX_LEAF_SIZE = 4;
+
+    /** A pick candidate and its axis-aligned bounds. */
+    protected static class Entry
+    {
+        protected final Object userObject;
+        protected final Layer layer;
+        protected final Extent extent; // null for screen rectangle candidates
+        protected final SectorGeometry sectorGeometry; // non-null only for terrain candidates
+        protected final Position position; // the picked position reported for screen rectangle candidates
+        protected final double eyeDistance; // the distance used to order screen rectangle candidates
+        // Axis-aligned bounds as min x, y, z followed by max x, y, z.
+        protected final double[] bounds = new double[6];
+
+        protected Entry(Extent extent, SectorGeometry sectorGeometry, Object userObject, Layer layer)
+        {
+            this.userObject = userObject;
+            this.layer = layer;
+            this.extent = extent;
+            this.sectorGeometry = sectorGeometry;
+            this.position = null;
+            this.eyeDistance = 0;
+
+            Vec4 center = extent.getCenter();
+            double radius = extent.getRadius();
+            this.bounds[0] = center.x - radius;
+            this.bounds[1] = center.y - radius;
+            this.bounds[2] = center.z - radius;
+            this.bounds[3] = center.x + radius;
+            this.bounds[4] = center.y + radius;
+            this.bounds[5] = center.z + radius;
+        }
+
+        protected Entry(Rectangle screenBounds, double eyeDistance, Object userObject, Position position, Layer layer)
+        {
+            this.userObject = userObject;
+            this.layer = layer;
+            this.extent = null;
+            this.sectorGeometry = null;
+            this.position = position;
+            this.eyeDistance = eyeDistance;
+
+            this.bounds[0] = screenBounds.getMinX();
+            this.bounds[1] = screenBounds.getMinY();
+            this.bounds[3] = screenBounds.getMaxX();
+            this.bounds[4] = screenBounds.getMaxY();
+        }
+
+        protected boolean isTerrain()
+        {
+            return this.sectorGeometry != null;
+        }
+
+        protected double getCenter(int axis)
+        {
+            return 0.5 * (this.bounds[axis] + this.bounds[axis + 3]);
+        }
+    }
+
+    /** A node of a bounding volume hierarchy. Leaf nodes have no children and refer to a range of entries. */
+    protected static class Node
+    {
+        protected final double[] bounds = new double[6];
+        protected Node left;
+        protected Node right;
+        protected int start;
+        protected int end;
+
+        protected boolean isLeaf()
+        {
+            return this.left == null;
+        }
+    }
+
+    /** An intersection between the pick ray, or pick point, and a candidate. */
+    protected static class Hit
+    {
+        protected final Entry entry;
+        protected final double distance;
+        protected final Vec4 point;
+
+        protected Hit(Entry entry, double distance, Vec4 point)
+        {
+            this.entry = entry;
+            this.distance = distance;
+            this.point = point;
+        }
+    }
+
+    protected List<Entry> volumeEntries = new ArrayList<Entry>();
+    protected List<Entry> screenEntries = new ArrayList<Entry>();
+    // The hierarchies and the entry arrays their leaves refer to. Rebuilt on demand after candidates are added.
+    protected Entry[] volumeArray;
+    protected Node volumeRoot;
+    protected Entry[] screenArray;
+    protected Node screenRoot;
+    protected boolean dirty;
+
+    /** Removes all pick candidates. Call this at the start of each frame before registering the frame's candidates. */
+    public void clear()
+    {
+        this.volumeEntries.clear();
+        this.screenEntries.clear();
+        this.volumeArray = null;
+        this.volumeRoot = null;
+        this.screenArray = null;
+        this.screenRoot = null;
+        this.dirty = false;
+    }
+
+    /**
+     * Returns the number of pick candidates currently registered.
+     *
+     * @return the number of registered candidates.
+     */
+    public int getCandidateCount()
+    {
+        return this.volumeEntries.size() + this.screenEntries.size();
+    }
+
+    /**
+     * Registers an object that is picked when the pick ray intersects a specified extent.
+     *
+     * @param extent     the object's extent in model coordinates.
+     * @param userObject the object to report when picked.
+     * @param layer      the layer to report as the picked object's parent. May be null.
+     *
+     * @throws IllegalArgumentException if the extent or the user object is null.
+     */
+    public void addExtent(Extent extent, Object userObject, Layer layer)
+    {
+        if (extent == null)
+        {
+            String message = Logging.getMessage("nullValue.ExtentIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (userObject == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.volumeEntries.add(new Entry(extent, null, userObject, layer));
+        this.dirty = true;
+    }
+
+    /**
+     * Registers an object that is picked when the pick point falls within a specified screen rectangle.
+     *
+     * @param screenBounds the object's bounds in OpenGL viewport coordinates, with the origin at the lower left.
+     * @param eyeDistance  the object's distance from the eye, used to order it among the other picked objects.
+     * @param userObject   the object to report when picked.
+     * @param position     the position to report for the picked object. May be null.
+     * @param layer        the layer to report as the picked object's parent. May be null.
+     *
+     * @throws IllegalArgumentException if the screen bounds or the user object is null.
+     */
+    public void addScreenRectangle(Rectangle screenBounds, double eyeDistance, Object userObject, Position position,
+        Layer layer)
+    {
+        if (screenBounds == null)
+        {
+            String message = Logging.getMessage("nullValue.RectangleIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (userObject == null)
+        {
+            String message = Logging.getMessage("nullValue.ObjectIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.screenEntries.add(new Entry(screenBounds, eyeDistance, userObject, position, layer));
+        this.dirty = true;
+    }
+
+    /**
+     * Registers a shape using the extent computed during its most recent rendering. The shape's delegate owner, if
+     * any, is reported in place of the shape. Shapes that are not visible or have not yet computed an extent are
+     * ignored.
+     *
+     * @param shape the shape to register.
+     * @param layer the layer to report as the picked shape's parent. May be null.
+     *
+     * @throws IllegalArgumentException if the shape is null.
+     */
+    public void addShape(AbstractShape shape, Layer layer)
+    {
+        if (shape == null)
+        {
+            String message = Logging.getMessage("nullValue.Shape");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Extent extent = shape.getExtent();
+        if (!shape.isVisible() || extent == null)
+            return;
+
+        this.addExtent(extent, shape.getDelegateOwner() != null ? shape.getDelegateOwner() : shape, layer);
+    }
+
+    /**
+     * Registers a placemark using the image bounds computed during its most recent rendering. The placemark's delegate
+     * owner, if any, is reported in place of the placemark. Placemarks that are not visible or have not yet computed
+     * their image bounds are ignored.
+     *
+     * @param placemark the placemark to register.
+     * @param layer     the layer to report as the picked placemark's parent. May be null.
+     *
+     * @throws IllegalArgumentException if the placemark is null.
+     */
+    public void addPlacemark(PointPlacemark placemark, Layer layer)
+    {
+        if (placemark == null)
+        {
+            String message = Logging.getMessage("nullValue.RenderableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Rectangle bounds = placemark.getImageBounds();
+        if (!placemark.isVisible() || bounds == null)
+            return;
+
+        Object userObject = placemark.getDelegateOwner() != null ? placemark.getDelegateOwner() : placemark;
+        this.addScreenRectangle(bounds, placemark.getDistanceFromEye(), userObject, placemark.getPosition(), layer);
+    }
+
+    /**
+     * Registers each {@link AbstractShape} and {@link PointPlacemark} in a collection of renderables, such as the
+     * contents of a {@link gov.nasa.worldwind.layers.RenderableLayer}. Other renderables are ignored.
+     *
+     * @param renderables the renderables to register.
+     * @param layer       the layer to report as the parent of the picked renderables. May be null.
+     *
+     * @throws IllegalArgumentException if the renderables are null.
+     */
+    public void addRenderables(Iterable<? extends Renderable> renderables, Layer layer)
+    {
+        if (renderables == null)
+        {
+            String message = Logging.getMessage("nullValue.IterableIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        for (Renderable renderable : renderables)
+        {
+            if (renderable instanceof AbstractShape)
+                this.addShape((AbstractShape) renderable, layer);
+            else if (renderable instanceof PointPlacemark)
+                this.addPlacemark((PointPlacemark) renderable, layer);
+        }
+    }
+
+    /**
+     * Registers the terrain tiles drawn during a frame, typically the draw context's surface geometry. Tiles without
+     * an extent are ignored.
+     *
+     * @param surfaceGeometry the terrain tiles to register.
+     *
+     * @throws IllegalArgumentException if the surface geometry is null.
+     */
+    public void addSurfaceGeometry(SectorGeometryList surfaceGeometry)
+    {
+        if (surfaceGeometry == null)
+        {
+            String message = Logging.getMessage("nullValue.SectorGeometryListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        for (SectorGeometry sg : surfaceGeometry)
+        {
+            if (sg.getExtent() != null)
+                this.volumeEntries.add(new Entry(sg.getExtent(), sg, sg, null));
+        }
+
+        this.dirty = true;
+    }
+
+    /**
+     * Determines the objects at a point on the screen, using the view's pick ray through that point.
+     *
+     * @param view      the view the candidates were drawn with.
+     * @param globe     the globe used to compute the positions of picked objects. May be null, in which case picked
+     *                  objects other than screen rectangles have no position.
+     * @param pickPoint the pick point in AWT screen coordinates.
+     *
+     * @return the objects at the pick point, nearest first. The list is empty if there are no such objects.
+     *
+     * @throws IllegalArgumentException if the view or the pick point is null.
+     */
+    public PickedObjectList pick(View view, Globe globe, Point pickPoint)
+    {
+        if (view == null)
+        {
+            String message = Logging.getMessage("nullValue.ViewIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (pickPoint == null)
+        {
+            String message = Logging.getMessage("nullValue.PointIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Line ray = view.computeRayFromScreenPoint(pickPoint.x, pickPoint.y);
+        if (ray == null)
+            return new PickedObjectList();
+
+        // Screen rectangles are in OpenGL viewport coordinates, which have their origin at the lower left.
+        Rectangle viewport = view.getViewport();
+        Point viewportPoint = new Point(pickPoint.x, viewport.height - pickPoint.y - 1);
+
+        return this.pick(ray, viewportPoint, globe, pickPoint);
+    }
+
+    /**
+     * Determines the objects intersected by a pick ray and containing a point in OpenGL viewport coordinates.
+     *
+     * @param ray           the pick ray in model coordinates, originating at the eye. May be null, in which case
+     *                      only screen rectangles are considered.
+     * @param viewportPoint the pick point in OpenGL viewport coordinates. May be null, in which case screen
+     *                      rectangles are not considered.
+     * @param globe         the globe used to compute the positions of picked objects. May be null.
+     * @param pickPoint     the pick point to report with picked terrain, in AWT screen coordinates. May be null.
+     *
+     * @return the objects at the pick point, nearest first. The list is empty if there are no such objects.
+     */
+    public PickedObjectList pick(Line ray, Point viewportPoint, Globe globe, Point pickPoint)
+    {
+        if (this.dirty)
+            this.build();
+
+        List<Hit> hits = new ArrayList<Hit>();
+        if (ray != null && this.volumeRoot != null)
+            this.intersectVolumes(ray, hits);
+        if (viewportPoint != null && this.screenRoot != null)
+            this.intersectScreenRectangles(viewportPoint, hits);
+
+        Collections.sort(hits, new Comparator<Hit>()
+        {
+            public int compare(Hit a, Hit b)
+            {
+                return Double.compare(a.distance, b.distance);
+            }
+        });
+
+        PickedObjectList pickedObjects = new PickedObjectList();
+        for (Hit hit : hits)
+        {
+            pickedObjects.add(this.createPickedObject(hit, pickedObjects.size() + 1, globe, pickPoint));
+        }
+
+        if (pickedObjects.size() > 0)
+            pickedObjects.get(0).setOnTop();
+
+        return pickedObjects;
+    }
+
+    /** Arranges the registered candidates in bounding volume hierarchies. */
+    protected void build()
+    {
+        this.volumeArray = this.volumeEntries.toArray(new Entry[this.volumeEntries.size()]);
+        this.volumeRoot = this.volumeArray.length > 0 ? this.buildNode(this.volumeArray, 0, this.volumeArray.length)
+            : null;
+
+        this.screenArray = this.screenEntries.toArray(new Entry[this.screenEntries.size()]);
+        this.screenRoot = this.screenArray.length > 0 ? this.buildNode(this.screenArray, 0, this.screenArray.length)
+            : null;
+
+        this.dirty = false;
+    }
+
+    /**
+     * Builds the subtree for a range of entries, splitting the range at its median along the axis on which the
+     * entries' centers are most spread out.
+     *
+     * @param entries the entries, reordered in place.
+     * @param start   the first entry in the range.
+     * @param end     the index following the last entry in the range.
+     *
+     * @return the subtree's root node.
+     */
+    protected Node buildNode(Entry[] entries, int start, int end)
+    {
+        Node node = new Node();
+        node.start = start;
+        node.end = end;
+
+        double[] centerBounds = new double[6];
+        for (int i = 0; i < 3; i++)
+        {
+            node.bounds[i] = centerBounds[i] = Double.MAX_VALUE;
+            node.bounds[i + 3] = centerBounds[i + 3] = -Double.MAX_VALUE;
+        }
+
+        for (int e = start; e < end; e++)
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                node.bounds[i] = Math.min(node.bounds[i], entries[e].bounds[i]);
+                node.bounds[i + 3] = Math.max(node.bounds[i + 3], entries[e].bounds[i + 3]);
+                centerBounds[i] = Math.min(centerBounds[i], entries[e].getCenter(i));
+                centerBounds[i + 3] = Math.max(centerBounds[i + 3], entries[e].getCenter(i));
+            }
+        }
+
+        if (end - start <= MAX_LEAF_SIZE)
+            return node;
+
+        int axis = 0;
+        for (int i = 1; i < 3; i++)
+        {
+            if (centerBounds[i + 3] - centerBounds[i] > centerBounds[axis + 3] - centerBounds[axis])
+                axis = i;
+        }
+
+        final int splitAxis = axis;
+        Arrays.sort(entries, start, end, new Comparator<Entry>()
+        {
+            public int compare(Entry a, Entry b)
+            {
+                return Double.compare(a.getCenter(splitAxis), b.getCenter(splitAxis));
+            }
+        });
+
+        int middle = (start + end) >>> 1;
+        node.left = this.buildNode(entries, start, middle);
+        node.right = this.buildNode(entries, middle, end);
+
+        return node;
+    }
+
+    /**
+     * Adds the model coordinate candidates intersected by a ray to a list of hits. Only the nearest terrain
+     * intersection is added, and candidates beyond it are omitted.
+     *
+     * @param ray  the pick ray.
+     * @param hits the list to receive the hits.
+     */
+    protected void intersectVolumes(Line ray, List<Hit> hits)
+    {
+        List<Hit> candidates = new ArrayList<Hit>();
+        Hit terrainHit = null;
+
+        Deque<Node> stack = new ArrayDeque<Node>();
+        stack.push(this.volumeRoot);
+        while (!stack.isEmpty())
+        {
+            Node node = stack.pop();
+            if (!intersectsBounds(node.bounds, ray))
+                continue;
+
+            if (!node.isLeaf())
+            {
+                stack.push(node.right);
+                stack.push(node.left);
+                continue;
+            }
+
+            for (int i = node.start; i < node.end; i++)
+            {
+                Entry entry = this.volumeArray[i];
+                if (!intersectsBounds(entry.bounds, ray))
+                    continue;
+
+                Hit hit = this.intersect(entry, ray);
+                if (hit == null)
+                    continue;
+
+                if (!entry.isTerrain())
+                    candidates.add(hit);
+                else if (terrainHit == null || hit.distance < terrainHit.distance)
+                    terrainHit = hit;
+            }
+        }
+
+        for (Hit hit : candidates)
+        {
+            if (terrainHit == null || hit.distance <= terrainHit.distance)
+                hits.add(hit);
+        }
+
+        if (terrainHit != null)
+            hits.add(terrainHit);
+    }
+
+    /**
+     * Adds the screen rectangle candidates containing a point to a list of hits.
+     *
+     * @param viewportPoint the pick point in OpenGL viewport coordinates.
+     * @param hits          the list to receive the hits.
+     */
+    protected void intersectScreenRectangles(Point viewportPoint, List<Hit> hits)
+    {
+        double x = viewportPoint.x;
+        double y = viewportPoint.y;
+
+        Deque<Node> stack = new ArrayDeque<Node>();
+        stack.push(this.screenRoot);
+        while (!stack.isEmpty())
+        {
+            Node node = stack.pop();
+            if (!containsPoint(node.bounds, x, y))
+                continue;
+
+            if (!node.isLeaf())
+            {
+                stack.push(node.right);
+                stack.push(node.left);
+                continue;
+            }
+
+            for (int i = node.start; i < node.end; i++)
+            {
+                Entry entry = this.screenArray[i];
+                // As with Rectangle.contains, include the minimum edges and exclude the maximum edges.
+                if (x >= entry.bounds[0] && x < entry.bounds[3] && y >= entry.bounds[1] && y < entry.bounds[4])
+                    hits.add(new Hit(entry, entry.eyeDistance, null));
+            }
+        }
+    }
+
+    /**
+     * Computes the nearest intersection in front of the eye between a ray and a model coordinate candidate. Terrain
+     * candidates are intersected using their tile geometry, and other candidates using their extent.
+     *
+     * @param entry the candidate.
+     * @param ray   the pick ray, originating at the eye.
+     *
+     * @return the nearest intersection, or null if the ray does not intersect the candidate in front of the eye.
+     */
+    protected Hit intersect(Entry entry, Line ray)
+    {
+        Intersection[] intersections = entry.isTerrain() ? entry.sectorGeometry.intersect(ray)
+            : entry.extent.intersect(ray);
+        if (intersections == null)
+            return null;
+
+        Vec4 origin = ray.getOrigin();
+        Vec4 nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (Intersection intersection : intersections)
+        {
+            Vec4 point = intersection.getIntersectionPoint();
+            if (point.subtract3(origin).dot3(ray.getDirection()) < 0) // behind the eye
+                continue;
+
+            double distance = point.distanceTo3(origin);
+            if (distance < nearestDistance)
+            {
+                nearest = point;
+                nearestDistance = distance;
+            }
+        }
+
+        return nearest != null ? new Hit(entry, nearestDistance, nearest) : null;
+    }
+
+    /**
+     * Creates the picked object for a hit. Picked terrain is reported as its position when a globe is available, and
+     * as its tile otherwise.
+     *
+     * @param hit       the hit.
+     * @param code      the code identifying the picked object within the pick, in place of a pick color.
+     * @param globe     the globe used to compute the picked position. May be null.
+     * @param pickPoint the pick point in AWT screen coordinates. May be null.
+     *
+     * @return the picked object.
+     */
+    protected PickedObject createPickedObject(Hit hit, int code, Globe globe, Point pickPoint)
+    {
+        Entry entry = hit.entry;
+
+        PickedObject po;
+        if (entry.isTerrain() && globe != null)
+        {
+            Position position = globe.computePositionFromPoint(hit.point);
+            // Report the terrain position as the picked object, as color-buffer terrain picking does.
+            po = new PickedObject(pickPoint, code, position, position.getLatitude(), position.getLongitude(),
+                position.getElevation(), true);
+        }
+        else
+        {
+            Position position = entry.position;
+            if (position == null && hit.point != null && globe != null)
+                position = globe.computePositionFromPoint(hit.point);
+
+            po = new PickedObject(code, entry.userObject, position, entry.isTerrain());
+        }
+
+        if (entry.layer != null)
+            po.setParentLayer(entry.layer);
+
+        return po;
+    }
+
+    /**
+     * Indicates whether a ray intersects axis-aligned bounds in front of its origin, using the slab method.
+     *
+     * @param bounds the bounds as min x, y, z followed by max x, y, z.
+     * @param ray    the ray.
+     *
+     * @return true if the ray intersects the bounds, otherwise false.
+     */
+    protected static boolean intersectsBounds(double[] bounds, Line ray)
+    {
+        Vec4 origin = ray.getOrigin();
+        Vec4 direction = ray.getDirection();
+
+        double tMin = 0;
+        double tMax = Double.MAX_VALUE;
+        for (int i = 0; i < 3; i++)
+        {
+            double o = i == 0 ? origin.x : i == 1 ? origin.y : origin.z;
+            double d = i == 0 ? direction.x : i == 1 ? direction.y : direction.z;
+
+            if (d == 0)
+            {
+                if (o < bounds[i] || o > bounds[i + 3])
+                    return false;
+                continue;
+            }
+
+            double t1 = (bounds[i] - o) / d;
+            double t2 = (bounds[i + 3] - o) / d;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin > tMax)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates whether a point lies within the x and y extremes of axis-aligned bounds.
+     *
+     * @param bounds the bounds as min x, y, z followed by max x, y, z.
+     * @param x      the point's x coordinate.
+     * @param y      the point's y coordinate.
+     *
+     * @return true if the bounds contain the point, otherwise false.
+     */
+    protected static boolean containsPoint(double[] bounds, double x, double y)
+    {
+        return x >= bounds[0] && x <= bounds[3] && y >= bounds[1] && y <= bounds[4];
+    }
+}
@@ -845,10 +845,12 @@ public class DrawContextImpl extends WWObjectImpl implements DrawContext
         for (OrderedRenderableEntry ore : declutterableArray)
         {
             declutterables.add((Declutterable) ore.or);
-
-            orderedRenderables.remove(ore);
         }
 
+        // Remove the declutterables in a single pass. Removing them one at a time costs a linear search of the ordered
+        // renderable queue for each declutterable.
+        this.orderedRenderables.removeAll(new HashSet<OrderedRenderableEntry>(declutterableArray));
+
         // Tell the filter to apply itself and draw whatever it draws.
         this.getClutterFilter().apply(this, declutterables);
     }
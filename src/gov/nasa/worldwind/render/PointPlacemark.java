@@ -235,6 +235,7 @@ public class PointPlacemark extends WWObjectImpl
     protected double eyeDistance; // used to order the placemark as an ordered renderable
     protected double dx; // offsets needed to position image relative to the placemark position
     protected double dy;
+    protected Rectangle imageBounds; // the screen rectangle bounding the placemark image
     protected Layer pickLayer; // shape's layer when ordered renderable was created
 
     protected PickSupport pickSupport = new PickSupport();
@@ -341,6 +342,17 @@ public class PointPlacemark extends WWObjectImpl
         return this.eyeDistance;
     }
 
+    /**
+     * Returns the screen-space rectangle bounding the placemark image as computed during the most recent rendering.
+     * The rectangle is in OpenGL viewport coordinates, with its origin at the lower left of the viewport.
+     *
+     * @return the placemark image's screen bounds, or null if the bounds have not been computed.
+     */
+    public Rectangle getImageBounds()
+    {
+        return this.imageBounds;
+    }
+
     /**
      * Indicates whether a line from the placemark point to the corresponding position on the terrain is drawn.
      *
@@ -1656,6 +1668,7 @@ public class PointPlacemark extends WWObjectImpl
         double y = opm.screenPoint.y + (this.isDrawPoint(dc) ? -0.5 * s : this.dy);
 
         opm.imageBounds = new Rectangle((int) x, (int) y, (int) Math.ceil(width), (int) Math.ceil(height));
+        this.imageBounds = opm.imageBounds;
     }
 
     /**
@@ -220,7 +220,8 @@ public abstract class AbstractAirspace extends WWObjectImpl
         if (!WorldWind.getMemoryCacheSet().containsCache(GEOMETRY_CACHE_KEY))
         {
             long size = Configuration.getLongValue(AVKey.AIRSPACE_GEOMETRY_CACHE_SIZE, DEFAULT_GEOMETRY_CACHE_SIZE);
-            MemoryCache cache = new BasicMemoryCache((long) (0.85 * size), size);
+            MemoryCache cache = WorldWind.getMemoryCacheSet().createCache(GEOMETRY_CACHE_KEY,
+                (long) (0.85 * size), size);
             cache.setName(GEOMETRY_CACHE_NAME);
             WorldWind.getMemoryCacheSet().addCache(GEOMETRY_CACHE_KEY, cache);
         }
@@ -104,6 +104,9 @@ public abstract class AbstractRetrievalPostProcessor implements RetrievalPostPro
             return null;
         }
 
+        if (retriever instanceof HTTPRetriever && ((HTTPRetriever) retriever).isNotModified())
+            return this.handleNotModified();
+
         if (!this.validateResponseCode())
         {
             this.handleInvalidResponseCode();
@@ -134,6 +137,28 @@ public abstract class AbstractRetrievalPostProcessor implements RetrievalPostPro
             this.markResourceAbsent();
     }
 
+    /**
+     * Called when a conditional HTTP request is answered with <code>304 Not Modified</code>, indicating that the
+     * previously retrieved copy of the resource is still current. The default implementation marks the existing output
+     * file as freshly retrieved by setting its last-modified time to the current time.
+     *
+     * @return null, since no data is retrieved.
+     */
+    protected ByteBuffer handleNotModified()
+    {
+        File outFile = this.getOutputFile();
+        if (outFile == null || !outFile.exists())
+            return null;
+
+        synchronized (this.getFileLock()) // synchronize with read of file in another class
+        {
+            if (!outFile.setLastModified(System.currentTimeMillis()))
+                Logging.logger().fine(Logging.getMessage("generic.UnableToSetFileModificationTime", outFile));
+        }
+
+        return null;
+    }
+
     /**
      * Process the retrieved data if it has been retrieved successfully.
      *
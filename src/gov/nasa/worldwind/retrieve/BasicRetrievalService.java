@@ -33,7 +33,9 @@ import gov.nasa.worldwind.util.Logging;
 
 import javax.net.ssl.SSLHandshakeException;
 import java.net.SocketTimeoutException;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 
 /**
@@ -57,15 +59,17 @@ public final class BasicRetrievalService extends WWObjectImpl
         "BasicRetrievalService.IdleThreadNamePrefix");
 
     private RetrievalExecutor executor; // thread pool for running retrievers
-    private ConcurrentLinkedQueue<RetrievalTask> activeTasks; // tasks currently allocated a thread
+    private Set<RetrievalTask> activeTasks; // tasks currently allocated a thread
+    private ConcurrentHashMap<String, RetrievalTask> tasks; // running and pending tasks, keyed by retriever name
     private int queueSize; // maximum queue size
 
     /** Encapsulates a single threaded retrieval as a {@link java.util.concurrent.FutureTask}. */
-    private static class RetrievalTask extends FutureTask<Retriever>
-        implements RetrievalFuture, Comparable<RetrievalTask>
+    private static class RetrievalTask extends FutureTask<Retriever> implements RetrievalFuture
     {
         private Retriever retriever;
-        private double priority; // retrieval secondary priority (primary priority is submit time)
+        private volatile double priority; // retrieval secondary priority (primary priority is submit time)
+        // The task's current entry on the executor queue, or null once the task has been started or cancelled.
+        private final AtomicReference<QueueEntry> entry = new AtomicReference<QueueEntry>();
 
         private RetrievalTask(Retriever retriever, double priority)
         {
@@ -93,14 +97,72 @@ public final class BasicRetrievalService extends WWObjectImpl
             super.run();
         }
 
+        public boolean equals(Object o)
+        {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            final RetrievalTask that = (RetrievalTask) o;
+
+            // Tasks are equal if their retrievers are equivalent
+            return this.retriever.equals(that.retriever);
+            // Priority and submit time are not factors in equality
+        }
+
+        public int hashCode()
+        {
+            return this.retriever.getName().hashCode();
+        }
+    }
+
+    /**
+     * A task's position on the executor queue. The priority and submit time of an entry never change while it is
+     * queued, which keeps the queue's ordering consistent. A task is re-prioritized by queueing a new entry and
+     * making it the task's current entry and removing the superseded entry from the queue; a superseded entry that is
+     * dequeued before it can be removed does nothing.
+     */
+    private static class QueueEntry implements Runnable, Comparable<QueueEntry>
+    {
+        private final RetrievalTask task;
+        private final double priority;
+        private final long submitTime;
+        private boolean claimed; // accessed only by the thread executing the entry
+
+        private QueueEntry(RetrievalTask task, double priority, long submitTime)
+        {
+            this.task = task;
+            this.priority = priority;
+            this.submitTime = submitTime;
+        }
+
         /**
-         * @param that the task to compare with this one
+         * Makes this entry's task the responsibility of the calling thread, provided this entry is still the task's
+         * current entry.
          *
-         * @return 0 if task priorities are equal, -1 if priority of this is less than that, 1 otherwise
+         * @return true if the task should be run, false if this entry has been superseded or its task cancelled.
+         */
+        private boolean claim()
+        {
+            this.claimed = this.task.entry.compareAndSet(this, null);
+            return this.claimed;
+        }
+
+        public void run()
+        {
+            if (this.claimed)
+                this.task.run();
+        }
+
+        /**
+         * @param that the entry to compare with this one
+         *
+         * @return 0 if entry priorities are equal, -1 if priority of this is less than that, 1 otherwise
          *
          * @throws IllegalArgumentException if <code>that</code> is null
          */
-        public int compareTo(RetrievalTask that)
+        public int compareTo(QueueEntry that)
         {
             if (that == null)
             {
@@ -114,8 +176,8 @@ public final class BasicRetrievalService extends WWObjectImpl
                 // Requests submitted within different time-granularity periods are ordered exclusive of their
                 // client-specified priority.
                 long now = System.currentTimeMillis();
-                long thisElapsedTime = now - this.retriever.getSubmitTime();
-                long thatElapsedTime = now - that.retriever.getSubmitTime();
+                long thisElapsedTime = now - this.submitTime;
+                long thatElapsedTime = now - that.submitTime;
                 if (((thisElapsedTime - thatElapsedTime) / DEFAULT_TIME_PRIORITY_GRANULARITY) != 0)
                     return thisElapsedTime < thatElapsedTime ? -1 : 1;
             }
@@ -123,25 +185,6 @@ public final class BasicRetrievalService extends WWObjectImpl
             // The client-specified priority is compared for requests submitted within the same granularity period.
             return this.priority == that.priority ? 0 : this.priority < that.priority ? -1 : 1;
         }
-
-        public boolean equals(Object o)
-        {
-            if (this == o)
-                return true;
-            if (o == null || getClass() != o.getClass())
-                return false;
-
-            final RetrievalTask that = (RetrievalTask) o;
-
-            // Tasks are equal if their retrievers are equivalent
-            return this.retriever.equals(that.retriever);
-            // Priority and submit time are not factors in equality
-        }
-
-        public int hashCode()
-        {
-            return this.retriever.getName().hashCode();
-        }
     }
 
     protected SSLExceptionListener sslExceptionListener;
@@ -187,8 +230,15 @@ public final class BasicRetrievalService extends WWObjectImpl
                 public void rejectedExecution(Runnable runnable, ThreadPoolExecutor threadPoolExecutor)
                 {
                     // Interposes logging for rejected execution
+                    RetrievalTask task = ((QueueEntry) runnable).task;
                     Logging.logger().finer(Logging.getMessage("BasicRetrievalService.ResourceRejected",
-                        ((RetrievalTask) runnable).getRetriever().getName()));
+                        task.getRetriever().getName()));
+
+                    if (task.entry.compareAndSet((QueueEntry) runnable, null))
+                    {
+                        task.cancel(false);
+                        BasicRetrievalService.this.tasks.remove(task.getRetriever().getName(), task);
+                    }
 
                     super.rejectedExecution(runnable, threadPoolExecutor);
                 }
@@ -219,7 +269,15 @@ public final class BasicRetrievalService extends WWObjectImpl
                 throw new IllegalArgumentException(msg);
             }
 
-            RetrievalTask task = (RetrievalTask) runnable;
+            QueueEntry entry = (QueueEntry) runnable;
+            if (!entry.claim())
+            {
+                // The entry was superseded by a higher priority entry for the same task, or the task was cancelled.
+                super.beforeExecute(thread, runnable);
+                return;
+            }
+
+            RetrievalTask task = entry.task;
 
             task.retriever.setBeginTime(System.currentTimeMillis());
             long limit = task.retriever.getStaleRequestLimit() >= 0
@@ -232,14 +290,6 @@ public final class BasicRetrievalService extends WWObjectImpl
                 task.cancel(true);
             }
 
-            if (BasicRetrievalService.this.activeTasks.contains(task))
-            {
-                // Task is a duplicate
-                Logging.logger().finer(Logging.getMessage("BasicRetrievalService.CancellingDuplicateRetrieval",
-                    task.getRetriever().getName()));
-                task.cancel(true);
-            }
-
             BasicRetrievalService.this.activeTasks.add(task);
 
             thread.setName(RUNNING_THREAD_NAME_PREFIX + task.getRetriever().getName());
@@ -266,8 +316,13 @@ public final class BasicRetrievalService extends WWObjectImpl
 
             super.afterExecute(runnable, throwable);
 
-            RetrievalTask task = (RetrievalTask) runnable;
+            QueueEntry entry = (QueueEntry) runnable;
+            if (!entry.claimed)
+                return;
+
+            RetrievalTask task = entry.task;
             BasicRetrievalService.this.activeTasks.remove(task);
+            BasicRetrievalService.this.tasks.remove(task.getRetriever().getName(), task);
             task.retriever.setEndTime(System.currentTimeMillis());
 
             try
@@ -326,8 +381,11 @@ public final class BasicRetrievalService extends WWObjectImpl
         // this.executor runs the retrievers, each in their own thread
         this.executor = new RetrievalExecutor(poolSize, this.queueSize);
 
-        // this.activeTasks holds the list of currently executing tasks (*not* those pending on the queue)
-        this.activeTasks = new ConcurrentLinkedQueue<RetrievalTask>();
+        // this.activeTasks holds the set of currently executing tasks (*not* those pending on the queue)
+        this.activeTasks = Collections.newSetFromMap(new ConcurrentHashMap<RetrievalTask, Boolean>());
+
+        // this.tasks indexes both executing and pending tasks by retriever name, for constant-time duplicate checks
+        this.tasks = new ConcurrentHashMap<String, RetrievalTask>();
     }
 
     public void shutdown(boolean immediately)
@@ -338,6 +396,7 @@ public final class BasicRetrievalService extends WWObjectImpl
             this.executor.shutdown();
 
         this.activeTasks.clear();
+        this.tasks.clear();
     }
 
     /**
@@ -367,6 +426,10 @@ public final class BasicRetrievalService extends WWObjectImpl
     }
 
     /**
+     * Queues a retriever for execution. If a retriever with the same name is already pending execution, no new request
+     * is queued. Instead the pending request is moved ahead in the queue if the new request has higher priority, and
+     * the pending request's future is returned.
+     *
      * @param retriever the retriever to run
      * @param priority  the secondary priority of the retriever, or negative if it is to be the primary priority
      *
@@ -374,7 +437,7 @@ public final class BasicRetrievalService extends WWObjectImpl
      *
      * @throws IllegalArgumentException if <code>retriever</code> is null or has no name
      */
-    public synchronized RetrievalFuture runRetriever(Retriever retriever, double priority)
+    public RetrievalFuture runRetriever(Retriever retriever, double priority)
     {
         if (retriever == null)
         {
@@ -396,17 +459,133 @@ public final class BasicRetrievalService extends WWObjectImpl
         }
 
         RetrievalTask task = new RetrievalTask(retriever, priority);
-        retriever.setSubmitTime(System.currentTimeMillis());
 
-        // Do not queue duplicates.
-        if (this.activeTasks.contains(task) || this.executor.getQueue().contains(task))
-            return null;
+        // Do not queue duplicates, but let a repeated request raise the priority of the pending one.
+        RetrievalTask existing = this.tasks.putIfAbsent(retriever.getName(), task);
+        if (existing != null)
+        {
+            this.reprioritize(existing, priority);
+            return existing;
+        }
+
+        long submitTime = System.currentTimeMillis();
+        retriever.setSubmitTime(submitTime);
 
-        this.executor.execute(task);
+        QueueEntry entry = new QueueEntry(task, priority, submitTime);
+        task.entry.set(entry);
+        this.executor.execute(entry);
 
         return task;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @param retrieverName the name of the retriever to re-prioritize
+     * @param priority      the new secondary priority of the retriever, or negative if it is to be the primary
+     *                      priority
+     *
+     * @return <code>true</code> if the retriever was moved ahead in the queue, otherwise <code>false</code>
+     *
+     * @throws IllegalArgumentException if <code>retrieverName</code> is null
+     */
+    public boolean raisePriority(String retrieverName, double priority)
+    {
+        if (retrieverName == null)
+        {
+            String message = Logging.getMessage("nullValue.RetrieverNameIsNull");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        RetrievalTask task = this.tasks.get(retrieverName);
+        return task != null && this.reprioritize(task, priority);
+    }
+
+    /**
+     * Moves a pending task ahead in the executor queue if the specified priority, submitted now, orders before the
+     * task's current queue entry. Tasks that have started or been cancelled are not affected.
+     *
+     * @param task     the task to re-prioritize
+     * @param priority the task's new secondary priority
+     *
+     * @return <code>true</code> if the task was re-queued, otherwise <code>false</code>
+     */
+    private boolean reprioritize(RetrievalTask task, double priority)
+    {
+        QueueEntry current = task.entry.get();
+        if (current == null)
+            return false; // already running, finished or cancelled
+
+        long submitTime = System.currentTimeMillis();
+        QueueEntry replacement = new QueueEntry(task, priority, submitTime);
+        if (replacement.compareTo(current) >= 0)
+            return false;
+
+        // Fails if a worker thread claimed the task or another thread re-prioritized it first.
+        if (!task.entry.compareAndSet(current, replacement))
+            return false;
+
+        // Drop the superseded entry so that repeated re-prioritization does not grow the queue.
+        this.executor.getQueue().remove(current);
+
+        task.priority = priority;
+        task.retriever.setSubmitTime(submitTime);
+        this.executor.execute(replacement);
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param filter the filter selecting the retrievers to cancel
+     *
+     * @return the number of retrievers cancelled
+     *
+     * @throws IllegalArgumentException if <code>filter</code> is null
+     */
+    public int cancelPendingRetrievers(RetrieverFilter filter)
+    {
+        if (filter == null)
+        {
+            String message = Logging.getMessage("nullValue.FilterIsNull");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int numCancelled = 0;
+        for (RetrievalTask task : this.tasks.values())
+        {
+            QueueEntry current = task.entry.get();
+            if (current == null || !filter.accept(task.getRetriever()))
+                continue;
+
+            // Fails if a worker thread claimed the task in the meantime, in which case it is left to run.
+            if (task.entry.compareAndSet(current, null))
+            {
+                task.cancel(false);
+                this.tasks.remove(task.getRetriever().getName(), task);
+                Logging.logger().finer(Logging.getMessage("BasicRetrievalService.RetrievalCancelled",
+                    task.getRetriever().getName()));
+                numCancelled++;
+            }
+        }
+
+        // Drop the cancelled tasks' queue entries now rather than waiting for them to reach the head of the queue.
+        if (numCancelled > 0)
+        {
+            for (Iterator<Runnable> iter = this.executor.getQueue().iterator(); iter.hasNext(); )
+            {
+                QueueEntry entry = (QueueEntry) iter.next();
+                if (entry.task.entry.get() != entry)
+                    iter.remove();
+            }
+        }
+
+        return numCancelled;
+    }
+
     /**
      * @param poolSize the number of threads in the thread pool
      *
@@ -449,14 +628,25 @@ public final class BasicRetrievalService extends WWObjectImpl
 
     public boolean isAvailable()
     {
-        return this.executor.getQueue().size() < this.queueSize;
+        return this.tasks.size() - this.activeTasks.size() < this.queueSize;
 //            && !WorldWind.getNetworkStatus().isNetworkUnavailable();
     }
 
     public int getNumRetrieversPending()
     {
         // Could use same method to determine active tasks as hasRetrievers() above, but this method only advisory.
-        return this.activeTasks.size() + this.executor.getQueue().size();
+        return this.tasks.size();
+    }
+
+    /**
+     * Returns the number of entries on the executor queue, including entries whose tasks have been cancelled but not
+     * yet removed. Used by tests to check that the queue does not accumulate superseded entries.
+     *
+     * @return the number of entries on the executor queue.
+     */
+    int getQueueSize()
+    {
+        return this.executor.getQueue().size();
     }
 
     /**
@@ -474,8 +664,7 @@ public final class BasicRetrievalService extends WWObjectImpl
             Logging.logger().fine(msg);
             throw new IllegalArgumentException(msg);
         }
-        RetrievalTask task = new RetrievalTask(retriever, 0d);
-        return (this.activeTasks.contains(task) || this.executor.getQueue().contains(task));
+        return retriever.getName() != null && this.tasks.containsKey(retriever.getName());
     }
 
     public double getProgress()
@@ -508,8 +697,9 @@ public final class BasicRetrievalService extends WWObjectImpl
 
         for (Runnable runnable : this.executor.getQueue())
         {
-            RetrievalTask task =
-                (RetrievalTask) runnable;
+            RetrievalTask task = ((QueueEntry) runnable).task;
+            if (task.entry.get() != runnable)
+                continue; // superseded or cancelled entry
 
             Retriever retriever = task.getRetriever();
             try
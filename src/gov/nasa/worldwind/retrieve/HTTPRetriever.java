@@ -27,26 +27,119 @@
  */
 package gov.nasa.worldwind.retrieve;
 
-import gov.nasa.worldwind.util.Logging;
+import gov.nasa.worldwind.Configuration;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.util.*;
 
+import java.io.*;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.util.concurrent.*;
 import java.util.logging.Level;
 
 /**
+ * Retrieves resources via HTTP and HTTPS.
+ * <p>
+ * Connections are reused through the Java runtime's keep-alive cache, which keeps idle connections to a server open
+ * after a response has been read completely and its stream closed. This retriever reads or drains every response
+ * body for that reason. The number of retrievals concurrently using connections to any one host is limited by
+ * {@link AVKey#HTTP_MAX_CONNECTIONS_PER_HOST} in the WorldWind configuration. Unless the application has set the
+ * <code>http.maxConnections</code> system property, it is set to the same limit so that the keep-alive cache can
+ * hold a connection for each of them; the property takes effect only if it is set before the first HTTP connection
+ * is made.
+ * <p>
+ * A retriever can make a conditional request by specifying the time its client last retrieved the resource, with
+ * {@link #setIfModifiedSince(long)}, or the resource's entity tag, with {@link #setIfNoneMatch(String)}. If the server
+ * answers that the resource has not changed, {@link #isNotModified()} returns true and no content is retrieved.
+ *
  * @author Tom Gaskins
  * @version $Id: HTTPRetriever.java 1171 2013-02-11 21:45:02Z dcollins $
  */
 public class HTTPRetriever extends URLRetriever
 {
+    /** The most bytes of an error response that are read in order to let its connection be reused. */
+    protected static final int MAX_DRAIN_LENGTH = 64 * 1024;
+
+    protected static final RetrievalMetrics metrics = new RetrievalMetrics();
+    protected static final ConcurrentHashMap<String, Semaphore> hostPermits =
+        new ConcurrentHashMap<String, Semaphore>();
+    protected static volatile int maxConnectionsPerHost =
+        Configuration.getIntegerValue(AVKey.HTTP_MAX_CONNECTIONS_PER_HOST, 6);
+
+    static
+    {
+        if (maxConnectionsPerHost > 0 && System.getProperty("http.maxConnections") == null)
+            System.setProperty("http.maxConnections", Integer.toString(maxConnectionsPerHost));
+    }
+
     private int responseCode;
     private String responseMessage;
+    private long ifModifiedSince;
+    private String ifNoneMatch;
+    private volatile boolean notModified;
+    private volatile String eTag;
+    private volatile long lastModified;
 
     public HTTPRetriever(URL url, RetrievalPostProcessor postProcessor)
     {
         super(url, postProcessor);
     }
 
+    /**
+     * Returns the metrics shared by all HTTP retrievers.
+     *
+     * @return the HTTP retrieval metrics.
+     */
+    public static RetrievalMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Indicates the most retrievals that may use connections to the same host at once.
+     *
+     * @return the per-host connection limit, or 0 if there is no limit.
+     */
+    public static int getMaxConnectionsPerHost()
+    {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * Specifies the most retrievals that may use connections to the same host at once. Retrievals in excess of the
+     * limit wait, for at most their connect timeout, for another retrieval from the host to finish. The initial limit
+     * is specified by {@link AVKey#HTTP_MAX_CONNECTIONS_PER_HOST} in the WorldWind configuration. A new limit applies
+     * to retrievals that start after it is set.
+     *
+     * @param limit the per-host connection limit, or 0 to remove the limit.
+     *
+     * @throws IllegalArgumentException if the limit is negative.
+     */
+    public static void setMaxConnectionsPerHost(int limit)
+    {
+        if (limit < 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "limit < 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        maxConnectionsPerHost = limit;
+        hostPermits.clear();
+    }
+
+    /**
+     * Indicates whether clients should revalidate expired cached resources with conditional requests rather than
+     * delete and retrieve them again, as specified by {@link AVKey#HTTP_CONDITIONAL_REQUESTS_ENABLED} in the WorldWind
+     * configuration.
+     *
+     * @return true if conditional requests are enabled, otherwise false.
+     */
+    public static boolean isConditionalRequestsEnabled()
+    {
+        return Configuration.getBooleanValue(AVKey.HTTP_CONDITIONAL_REQUESTS_ENABLED, false);
+    }
+
     public int getResponseCode()
     {
         return this.responseCode;
@@ -57,6 +150,158 @@ public class HTTPRetriever extends URLRetriever
         return this.responseMessage;
     }
 
+    public long getIfModifiedSince()
+    {
+        return this.ifModifiedSince;
+    }
+
+    /**
+     * Makes the request conditional on the resource having been modified since a specified time. Must be called before
+     * the retriever runs.
+     *
+     * @param ifModifiedSince the time, in milliseconds since the Epoch, the resource was last retrieved, or 0 to make
+     *                        the request unconditional.
+     */
+    public void setIfModifiedSince(long ifModifiedSince)
+    {
+        this.ifModifiedSince = ifModifiedSince;
+    }
+
+    public String getIfNoneMatch()
+    {
+        return this.ifNoneMatch;
+    }
+
+    /**
+     * Makes the request conditional on the resource's entity tag differing from a specified tag. Must be called before
+     * the retriever runs.
+     *
+     * @param ifNoneMatch the entity tag returned with the previously retrieved resource, or null to make the request
+     *                    unconditional.
+     */
+    public void setIfNoneMatch(String ifNoneMatch)
+    {
+        this.ifNoneMatch = ifNoneMatch;
+    }
+
+    /**
+     * Indicates whether the request is conditional.
+     *
+     * @return true if an If-Modified-Since time or an If-None-Match entity tag has been specified, otherwise false.
+     */
+    public boolean isConditional()
+    {
+        return this.ifModifiedSince > 0 || this.ifNoneMatch != null;
+    }
+
+    /**
+     * Indicates whether the server answered a conditional request with <code>304 Not Modified</code>, meaning the
+     * client's copy of the resource is current.
+     *
+     * @return true if the resource has not been modified, otherwise false.
+     */
+    public boolean isNotModified()
+    {
+        return this.notModified;
+    }
+
+    /**
+     * Returns the entity tag of the retrieved resource.
+     *
+     * @return the value of the response's ETag header, or null if the response has no such header.
+     */
+    public String getETag()
+    {
+        return this.eTag;
+    }
+
+    /**
+     * Returns the time the retrieved resource was last modified.
+     *
+     * @return the value of the response's Last-Modified header, in milliseconds since the Epoch, or 0 if the response
+     *         has no such header.
+     */
+    public long getLastModified()
+    {
+        return this.lastModified;
+    }
+
+    @Override
+    protected URLConnection openConnection() throws IOException
+    {
+        URLConnection connection = super.openConnection();
+        metrics.requestIssued();
+        this.configureConditionalRequest(connection);
+
+        return connection;
+    }
+
+    /**
+     * Reads the response while holding one of the retriever's host's connection permits. See {@link
+     * #setMaxConnectionsPerHost(int)}.
+     *
+     * @return a buffer containing the response content, or null if there is no content or the retriever was
+     *         interrupted while waiting for a permit.
+     *
+     * @throws Exception if the retriever times out waiting for a permit, or an exception occurs while reading.
+     */
+    @Override
+    protected ByteBuffer read() throws Exception
+    {
+        Semaphore permits = null;
+        int limit = maxConnectionsPerHost;
+        if (limit > 0)
+        {
+            String host = this.url.getHost() + ":" + (this.url.getPort() >= 0 ? this.url.getPort()
+                : this.url.getDefaultPort());
+            permits = hostPermits.get(host);
+            if (permits == null)
+            {
+                Semaphore newPermits = new Semaphore(limit);
+                permits = hostPermits.putIfAbsent(host, newPermits);
+                if (permits == null)
+                    permits = newPermits;
+            }
+
+            try
+            {
+                if (!permits.tryAcquire(Math.max(this.connectTimeout, 1), TimeUnit.MILLISECONDS))
+                {
+                    String message = Logging.getMessage("HTTPRetriever.ConnectionLimitTimeout", host);
+                    Logging.logger().fine(message);
+                    throw new SocketTimeoutException(message);
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt(); // the caller reports the retrieval as interrupted
+                return null;
+            }
+        }
+
+        try
+        {
+            return super.read();
+        }
+        finally
+        {
+            if (permits != null)
+                permits.release();
+        }
+    }
+
+    protected void configureConditionalRequest(URLConnection connection)
+    {
+        if (this.ifModifiedSince > 0)
+            connection.setIfModifiedSince(this.ifModifiedSince);
+
+        if (this.ifNoneMatch != null)
+            connection.setRequestProperty("If-None-Match", this.ifNoneMatch);
+
+        if (this.isConditional())
+            metrics.conditionalRequestIssued();
+    }
+
     protected ByteBuffer doRead(URLConnection connection) throws Exception
     {
         if (connection == null)
@@ -69,6 +314,8 @@ public class HTTPRetriever extends URLRetriever
         HttpURLConnection htpc = (HttpURLConnection) connection;
         this.responseCode = htpc.getResponseCode();
         this.responseMessage = htpc.getResponseMessage();
+        this.eTag = connection.getHeaderField("ETag");
+        this.lastModified = connection.getLastModified();
         String contentType = connection.getContentType();
 
         Logging.logger().log(Level.FINE, "HTTPRetriever.ResponseInfo", new Object[] {this.responseCode,
@@ -78,6 +325,50 @@ public class HTTPRetriever extends URLRetriever
         if (this.responseCode == HttpURLConnection.HTTP_OK)
             return super.doRead(connection);
 
+        if (this.responseCode == HttpURLConnection.HTTP_NOT_MODIFIED)
+        {
+            this.notModified = true;
+            this.expiration.set(this.getExpiration(connection));
+            metrics.resourceRevalidated();
+        }
+
+        // Consume the response body so that the connection may be reused.
+        this.drainResponse(htpc);
+
         return null;
     }
+
+    /**
+     * Reads and discards the body of a response that is not retrieved, such as an error or a <code>304 Not
+     * Modified</code> response. This lets the connection be reused. Bodies larger than a small limit are abandoned
+     * instead.
+     *
+     * @param connection the connection whose response to discard.
+     */
+    protected void drainResponse(HttpURLConnection connection)
+    {
+        InputStream inputStream = null;
+        try
+        {
+            inputStream = this.responseCode >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream()
+                : connection.getInputStream();
+            if (inputStream == null)
+                return;
+
+            byte[] buffer = new byte[4096];
+            int count, total = 0;
+            while (total < MAX_DRAIN_LENGTH && (count = inputStream.read(buffer)) >= 0)
+            {
+                total += count;
+            }
+        }
+        catch (IOException e)
+        {
+            Logging.logger().log(Level.FINE, e.getMessage(), e);
+        }
+        finally
+        {
+            WWIO.closeStream(inputStream, this.url.toString());
+        }
+    }
 }
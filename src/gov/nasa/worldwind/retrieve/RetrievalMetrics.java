@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.retrieve;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the network activity of HTTP retrievals: requests issued, conditional requests sent and resources
+ * revalidated by a <code>304 Not Modified</code> response. Connection reuse is managed by the Java runtime's
+ * keep-alive cache, which does not report it. The counters are thread safe and are updated as retrievals proceed.
+ *
+ * @see HTTPRetriever#getMetrics()
+ */
+public class RetrievalMetrics
+{
+    protected final AtomicLong requests = new AtomicLong();
+    protected final AtomicLong conditionalRequests = new AtomicLong();
+    protected final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * Returns the number of HTTP requests issued.
+     *
+     * @return the number of requests.
+     */
+    public long getRequests()
+    {
+        return this.requests.get();
+    }
+
+    /**
+     * Returns the number of requests sent with an <code>If-Modified-Since</code> or <code>If-None-Match</code> header.
+     *
+     * @return the number of conditional requests.
+     */
+    public long getConditionalRequests()
+    {
+        return this.conditionalRequests.get();
+    }
+
+    /**
+     * Returns the number of conditional requests answered with <code>304 Not Modified</code>, for which the locally
+     * cached resource was kept and no content was transferred.
+     *
+     * @return the number of revalidated resources.
+     */
+    public long getRevalidations()
+    {
+        return this.revalidations.get();
+    }
+
+    /** Sets all counters to zero. */
+    public void reset()
+    {
+        this.requests.set(0);
+        this.conditionalRequests.set(0);
+        this.revalidations.set(0);
+    }
+
+    protected void requestIssued()
+    {
+        this.requests.incrementAndGet();
+    }
+
+    protected void conditionalRequestIssued()
+    {
+        this.conditionalRequests.incrementAndGet();
+    }
+
+    protected void resourceRevalidated()
+    {
+        this.revalidations.incrementAndGet();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "requests " + this.getRequests() + ", conditional requests " + this.getConditionalRequests()
+            + ", revalidations " + this.getRevalidations();
+    }
+}
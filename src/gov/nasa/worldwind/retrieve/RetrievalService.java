@@ -53,6 +53,42 @@ public interface RetrievalService extends WWObject
 
     void shutdown(boolean immediately);
 
+    /**
+     * Moves a pending retriever ahead in the retrieval queue. Has no effect if the retriever is not pending, or if its
+     * current position already has the same or higher priority.
+     *
+     * @param retrieverName the name of the retriever to re-prioritize.
+     * @param priority      the retriever's new priority, interpreted as for {@link #runRetriever(Retriever,
+     *                      double)}.
+     *
+     * @return true if the retriever's position in the queue changed, otherwise false.
+     */
+    boolean raisePriority(String retrieverName, double priority);
+
+    /**
+     * Cancels the pending retrievers accepted by a filter. Retrievers that have already started are not affected. This
+     * is typically used to discard requests for resources that are no longer needed, such as tiles that have left the
+     * view.
+     *
+     * @param filter the filter indicating which retrievers to cancel.
+     *
+     * @return the number of retrievers cancelled.
+     */
+    int cancelPendingRetrievers(RetrieverFilter filter);
+
+    /** Selects retrievers for operations that apply to many retrievers, such as {@link #cancelPendingRetrievers}. */
+    public interface RetrieverFilter
+    {
+        /**
+         * Indicates whether a retriever is selected.
+         *
+         * @param retriever the retriever to test.
+         *
+         * @return true if the retriever is selected, otherwise false.
+         */
+        boolean accept(Retriever retriever);
+    }
+
     public interface SSLExceptionListener
     {
         void onException(Throwable e, String path);
@@ -0,0 +1,824 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.retrieve;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.util.Logging;
+
+import javax.net.ssl.SSLHandshakeException;
+import java.lang.reflect.Method;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * A {@link RetrievalService} that runs each retriever on its own thread rather than on a fixed-size pool. This suits
+ * network-bound retrieval, where most of a retriever's time is spent blocked on a remote server. When the Java runtime
+ * supports virtual threads they are used, otherwise each retriever runs on a daemon platform thread with a small
+ * stack.
+ * <p>
+ * Requests wait in a priority-ordered admission queue until they may run. The number of retrievers running at once is
+ * limited overall by {@link AVKey#RETRIEVAL_MAX_CONCURRENT_REQUESTS} and for each host by {@link
+ * AVKey#RETRIEVAL_HOST_CONCURRENCY_LIMIT}, so that a slow server cannot occupy every slot and a fast one is not
+ * flooded. Requests are ordered as in {@link BasicRetrievalService}: requests submitted more recently run first, and
+ * requests submitted at about the same time run in order of their client-specified priority.
+ * <p>
+ * To use this service in place of the default, specify its class name for {@link AVKey#RETRIEVAL_SERVICE_CLASS_NAME}
+ * in the WorldWind configuration.
+ */
+public class VirtualThreadRetrievalService extends WWObjectImpl implements RetrievalService
+{
+    // These constants are last-ditch values in case Configuration lacks defaults
+    protected static final int DEFAULT_QUEUE_SIZE = 100;
+    protected static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 256;
+    protected static final int DEFAULT_HOST_CONCURRENCY_LIMIT = 8;
+    protected static final long DEFAULT_STALE_REQUEST_LIMIT = 30000; // milliseconds
+    protected static final int DEFAULT_TIME_PRIORITY_GRANULARITY = 500; // milliseconds
+    /** The stack size of the platform threads used when virtual threads are not available. */
+    protected static final long PLATFORM_THREAD_STACK_SIZE = 256 * 1024;
+
+    protected static final String RUNNING_THREAD_NAME_PREFIX = Logging.getMessage(
+        "BasicRetrievalService.RunningThreadNamePrefix");
+
+    /** A retrieval request, either waiting for admission or running. */
+    protected static class RetrievalTask extends FutureTask<Retriever> implements RetrievalFuture
+    {
+        protected final VirtualThreadRetrievalService service;
+        protected final Retriever retriever;
+        protected final String host;
+        protected double priority; // guarded by the service's admission lock
+        protected long submitTime; // guarded by the service's admission lock
+        protected long sequence; // guarded by the service's admission lock; identifies the current queue entry
+        protected QueueEntry entry; // guarded by the service's admission lock; null once admitted
+        protected boolean admitted; // guarded by the service's admission lock
+
+        protected RetrievalTask(VirtualThreadRetrievalService service, Retriever retriever, String host,
+            double priority)
+        {
+            super(retriever);
+            this.service = service;
+            this.retriever = retriever;
+            this.host = host;
+            this.priority = priority;
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * Cancelling a task that is waiting for admission also removes it from the service, so that a later request
+         * for the same retriever name is queued anew rather than given this task's future.
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning)
+        {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled)
+                this.service.discard(this);
+
+            return cancelled;
+        }
+
+        public Retriever getRetriever()
+        {
+            return this.retriever;
+        }
+
+        @Override
+        public void run()
+        {
+            if (this.isDone() || this.isCancelled())
+                return;
+
+            super.run();
+        }
+    }
+
+    /**
+     * A task's position in an admission queue. Entries are immutable so that the queue's ordering stays consistent; a
+     * task is re-prioritized by replacing its entry with a new one.
+     */
+    protected static class QueueEntry implements Comparable<QueueEntry>
+    {
+        protected final RetrievalTask task;
+        protected final double priority;
+        protected final long submitTime;
+        protected final long sequence;
+
+        protected QueueEntry(RetrievalTask task, long sequence)
+        {
+            this.task = task;
+            this.priority = task.priority;
+            this.submitTime = task.submitTime;
+            this.sequence = sequence;
+        }
+
+        protected boolean isCurrent()
+        {
+            return !this.task.admitted && this.task.sequence == this.sequence && !this.task.isCancelled();
+        }
+
+        public int compareTo(QueueEntry that)
+        {
+            if (this.priority > 0 && that.priority > 0) // only secondary priority used if either is negative
+            {
+                // Requests submitted within different time-granularity periods are ordered exclusive of their
+                // client-specified priority.
+                long difference = this.submitTime - that.submitTime;
+                if (difference / DEFAULT_TIME_PRIORITY_GRANULARITY != 0)
+                    return difference > 0 ? -1 : 1;
+            }
+
+            // The client-specified priority is compared for requests submitted within the same granularity period.
+            return this.priority == that.priority ? 0 : this.priority < that.priority ? -1 : 1;
+        }
+    }
+
+    /** The requests for one host that are waiting for one of the host's slots to become free. */
+    protected static class HostState
+    {
+        protected int numRunning;
+        protected final PriorityQueue<QueueEntry> waiting = new PriorityQueue<QueueEntry>();
+    }
+
+    protected final ThreadFactory threadFactory;
+    protected final Object admissionLock = new Object();
+    protected final PriorityQueue<QueueEntry> admissionQueue = new PriorityQueue<QueueEntry>(); // guarded by lock
+    protected final Map<String, HostState> hosts = new HashMap<String, HostState>(); // guarded by lock
+    protected final ConcurrentHashMap<String, RetrievalTask> tasks = new ConcurrentHashMap<String, RetrievalTask>();
+    protected final AtomicLong sequenceNumbers = new AtomicLong();
+    protected int numRunning; // guarded by lock
+    protected int maxConcurrentRequests;
+    protected int hostConcurrencyLimit;
+    protected int queueSize;
+    protected long staleRequestLimit;
+    protected volatile boolean shutdown;
+    protected SSLExceptionListener sslExceptionListener;
+
+    public VirtualThreadRetrievalService()
+    {
+        this.maxConcurrentRequests = Configuration.getIntegerValue(AVKey.RETRIEVAL_MAX_CONCURRENT_REQUESTS,
+            DEFAULT_MAX_CONCURRENT_REQUESTS);
+        this.hostConcurrencyLimit = Configuration.getIntegerValue(AVKey.RETRIEVAL_HOST_CONCURRENCY_LIMIT,
+            DEFAULT_HOST_CONCURRENCY_LIMIT);
+        this.queueSize = Configuration.getIntegerValue(AVKey.RETRIEVAL_QUEUE_SIZE, DEFAULT_QUEUE_SIZE);
+        this.staleRequestLimit = Configuration.getLongValue(AVKey.RETRIEVAL_QUEUE_STALE_REQUEST_LIMIT,
+            DEFAULT_STALE_REQUEST_LIMIT);
+        this.threadFactory = createThreadFactory();
+    }
+
+    /**
+     * Creates the factory for the threads that run retrievers. Uses the runtime's virtual thread builder when one is
+     * available. The builder is found reflectively so that this class compiles and runs on runtimes that predate
+     * virtual threads, where it falls back to daemon platform threads.
+     *
+     * @return the thread factory.
+     */
+    protected static ThreadFactory createThreadFactory()
+    {
+        try
+        {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder,
+                RUNNING_THREAD_NAME_PREFIX, 0L);
+            Method factory = builderClass.getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        }
+        catch (Exception e)
+        {
+            // Virtual threads are not available in this runtime.
+        }
+
+        return new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(null, runnable, RUNNING_THREAD_NAME_PREFIX, PLATFORM_THREAD_STACK_SIZE);
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY); // Subordinate thread priority to rendering
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Indicates the host a retriever connects to, which determines the concurrency limit the retriever is subject to.
+     *
+     * @param retriever the retriever.
+     *
+     * @return the retriever's host, or null if the retriever does not connect to a host, in which case only the
+     *         overall concurrency limit applies.
+     */
+    protected String getHost(Retriever retriever)
+    {
+        URL url = null;
+        if (retriever instanceof URLRetriever)
+        {
+            url = ((URLRetriever) retriever).getUrl();
+        }
+        else
+        {
+            try
+            {
+                url = new URL(retriever.getName());
+            }
+            catch (MalformedURLException e)
+            {
+                // The retriever's name is not a URL.
+            }
+        }
+
+        if (url == null || url.getHost() == null || url.getHost().length() == 0)
+            return null;
+
+        return url.getPort() >= 0 ? url.getHost() + ":" + url.getPort() : url.getHost();
+    }
+
+    public RetrievalFuture runRetriever(Retriever retriever)
+    {
+        if (retriever == null)
+        {
+            String msg = Logging.getMessage("nullValue.RetrieverIsNull");
+            Logging.logger().fine(msg);
+            throw new IllegalArgumentException(msg);
+        }
+        if (retriever.getName() == null)
+        {
+            String message = Logging.getMessage("nullValue.RetrieverNameIsNull");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // Add with secondary priority that removes most recently added requests first.
+        return this.runRetriever(retriever, (double) (Long.MAX_VALUE - System.currentTimeMillis()));
+    }
+
+    /**
+     * Queues a retriever for execution. If a retriever with the same name is already pending execution, no new request
+     * is queued. Instead the pending request is moved ahead in the queue if the new request has higher priority, and
+     * the pending request's future is returned.
+     *
+     * @param retriever the retriever to run
+     * @param priority  the secondary priority of the retriever, or negative if it is to be the primary priority
+     *
+     * @return a future object that can be used to query the request status of cancel the request, or null if the
+     *         service has been shut down.
+     *
+     * @throws IllegalArgumentException if <code>retriever</code> is null or has no name
+     */
+    public RetrievalFuture runRetriever(Retriever retriever, double priority)
+    {
+        if (retriever == null)
+        {
+            String message = Logging.getMessage("nullValue.RetrieverIsNull");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (retriever.getName() == null)
+        {
+            String message = Logging.getMessage("nullValue.RetrieverNameIsNull");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (this.shutdown)
+        {
+            Logging.logger().finer(Logging.getMessage("BasicRetrievalService.ResourceRejected", retriever.getName()));
+            return null;
+        }
+
+        RetrievalTask task = new RetrievalTask(this, retriever, this.getHost(retriever), priority);
+
+        // Do not queue duplicates, but let a repeated request raise the priority of the pending one.
+        RetrievalTask existing = this.tasks.putIfAbsent(retriever.getName(), task);
+        if (existing != null)
+        {
+            this.reprioritize(existing, priority);
+            return existing;
+        }
+
+        List<RetrievalTask> admitted;
+        synchronized (this.admissionLock)
+        {
+            task.submitTime = System.currentTimeMillis();
+            retriever.setSubmitTime(task.submitTime);
+            this.enqueue(task);
+            admitted = this.admit();
+        }
+
+        this.start(admitted);
+
+        return task;
+    }
+
+    public boolean raisePriority(String retrieverName, double priority)
+    {
+        if (retrieverName == null)
+        {
+            String message = Logging.getMessage("nullValue.RetrieverNameIsNull");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        RetrievalTask task = this.tasks.get(retrieverName);
+        return task != null && this.reprioritize(task, priority);
+    }
+
+    protected boolean reprioritize(RetrievalTask task, double priority)
+    {
+        synchronized (this.admissionLock)
+        {
+            if (task.admitted || task.isCancelled())
+                return false;
+
+            QueueEntry current = new QueueEntry(task, task.sequence);
+            double oldPriority = task.priority;
+            long oldSubmitTime = task.submitTime;
+            task.priority = priority;
+            task.submitTime = System.currentTimeMillis();
+
+            if (new QueueEntry(task, task.sequence).compareTo(current) >= 0)
+            {
+                task.priority = oldPriority;
+                task.submitTime = oldSubmitTime;
+                return false;
+            }
+
+            task.retriever.setSubmitTime(task.submitTime);
+            this.enqueue(task);
+        }
+
+        // A re-prioritized task waits for the same slot it waited for before, so no task can be admitted now.
+        return true;
+    }
+
+    public int cancelPendingRetrievers(RetrieverFilter filter)
+    {
+        if (filter == null)
+        {
+            String message = Logging.getMessage("nullValue.FilterIsNull");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int numCancelled = 0;
+        for (RetrievalTask task : this.tasks.values())
+        {
+            if (!filter.accept(task.getRetriever()))
+                continue;
+
+            synchronized (this.admissionLock)
+            {
+                if (task.admitted)
+                    continue;
+
+                task.cancel(false); // also discards the task
+            }
+
+            Logging.logger().finer(Logging.getMessage("BasicRetrievalService.RetrievalCancelled",
+                task.getRetriever().getName()));
+            numCancelled++;
+        }
+
+        return numCancelled;
+    }
+
+    /**
+     * Removes a cancelled task from the service if it has not been admitted. Admitted tasks are removed when their
+     * thread completes.
+     *
+     * @param task the cancelled task.
+     */
+    protected void discard(RetrievalTask task)
+    {
+        synchronized (this.admissionLock)
+        {
+            if (task.admitted)
+                return;
+
+            this.dequeue(task);
+        }
+
+        this.tasks.remove(task.getRetriever().getName(), task);
+    }
+
+    /**
+     * Adds a new entry for a task to the admission queue, replacing the task's previous entry. Must be called while
+     * holding the admission lock.
+     *
+     * @param task the task to queue.
+     */
+    protected void enqueue(RetrievalTask task)
+    {
+        this.dequeue(task);
+
+        task.sequence = this.sequenceNumbers.incrementAndGet();
+        QueueEntry entry = new QueueEntry(task, task.sequence);
+        task.entry = entry;
+
+        HostState host = task.host != null ? this.hosts.get(task.host) : null;
+        if (host != null && host.numRunning >= this.hostConcurrencyLimit)
+            host.waiting.add(entry);
+        else
+            this.admissionQueue.add(entry);
+    }
+
+    /**
+     * Removes a task's entry from the admission queue or its host's waiting queue, whichever holds it. Must be called
+     * while holding the admission lock.
+     *
+     * @param task the task to remove.
+     */
+    protected void dequeue(RetrievalTask task)
+    {
+        if (task.entry == null)
+            return;
+
+        if (!this.admissionQueue.remove(task.entry) && task.host != null)
+        {
+            HostState host = this.hosts.get(task.host);
+            if (host != null)
+                host.waiting.remove(task.entry);
+        }
+
+        task.entry = null;
+    }
+
+    /**
+     * Removes tasks from the admission queue while overall and per-host slots are available. Tasks whose host has no
+     * free slot are moved to that host's waiting queue. Must be called while holding the admission lock.
+     *
+     * @return the tasks admitted, which the caller must start once it has released the lock.
+     */
+    protected List<RetrievalTask> admit()
+    {
+        List<RetrievalTask> admitted = null;
+
+        while (this.numRunning < this.maxConcurrentRequests && !this.admissionQueue.isEmpty())
+        {
+            QueueEntry entry = this.admissionQueue.poll();
+            if (!entry.isCurrent())
+                continue;
+
+            RetrievalTask task = entry.task;
+            if (task.host != null)
+            {
+                HostState host = this.hosts.get(task.host);
+                if (host == null)
+                {
+                    host = new HostState();
+                    this.hosts.put(task.host, host);
+                }
+
+                if (host.numRunning >= this.hostConcurrencyLimit)
+                {
+                    host.waiting.add(entry);
+                    continue;
+                }
+
+                host.numRunning++;
+            }
+
+            task.admitted = true;
+            task.entry = null;
+            this.numRunning++;
+
+            if (admitted == null)
+                admitted = new ArrayList<RetrievalTask>();
+            admitted.add(task);
+        }
+
+        return admitted != null ? admitted : Collections.<RetrievalTask>emptyList();
+    }
+
+    /**
+     * Releases a completed task's slots and moves its host's best waiting request back to the admission queue. Must be
+     * called while holding the admission lock.
+     *
+     * @param task the completed task.
+     */
+    protected void release(RetrievalTask task)
+    {
+        this.numRunning--;
+
+        if (task.host == null)
+            return;
+
+        HostState host = this.hosts.get(task.host);
+        host.numRunning--;
+
+        QueueEntry next;
+        while ((next = host.waiting.poll()) != null)
+        {
+            if (next.isCurrent())
+            {
+                this.admissionQueue.add(next);
+                break;
+            }
+        }
+
+        if (host.numRunning == 0 && host.waiting.isEmpty())
+            this.hosts.remove(task.host);
+    }
+
+    protected void start(List<RetrievalTask> admitted)
+    {
+        for (final RetrievalTask task : admitted)
+        {
+            Runnable runnable = new Runnable()
+            {
+                public void run()
+                {
+                    execute(task);
+                }
+            };
+
+            try
+            {
+                this.threadFactory.newThread(runnable).start();
+            }
+            catch (Throwable t)
+            {
+                Logging.logger().log(Level.FINE, Logging.getMessage("BasicRetrievalService.ResourceRejected",
+                    task.getRetriever().getName()), t);
+                task.cancel(false);
+                this.complete(task);
+            }
+        }
+    }
+
+    /**
+     * Runs a task on the calling thread, then releases its slots and starts any tasks admitted as a result.
+     *
+     * @param task the task to run.
+     */
+    protected void execute(RetrievalTask task)
+    {
+        try
+        {
+            Thread.currentThread().setName(RUNNING_THREAD_NAME_PREFIX + task.getRetriever().getName());
+            task.retriever.setBeginTime(System.currentTimeMillis());
+            long limit = task.retriever.getStaleRequestLimit() >= 0
+                ? task.retriever.getStaleRequestLimit() : this.staleRequestLimit;
+            if (task.retriever.getBeginTime() - task.retriever.getSubmitTime() > limit)
+            {
+                // Task has been waiting for admission too long
+                Logging.logger().finer(Logging.getMessage("BasicRetrievalService.CancellingTooOldRetrieval",
+                    task.getRetriever().getName()));
+                task.cancel(true);
+            }
+
+            task.run();
+            task.retriever.setEndTime(System.currentTimeMillis());
+            this.logResult(task);
+        }
+        finally
+        {
+            this.complete(task);
+        }
+    }
+
+    protected void complete(RetrievalTask task)
+    {
+        this.tasks.remove(task.getRetriever().getName(), task);
+
+        List<RetrievalTask> admitted;
+        synchronized (this.admissionLock)
+        {
+            this.release(task);
+            admitted = this.shutdown ? Collections.<RetrievalTask>emptyList() : this.admit();
+        }
+
+        this.start(admitted);
+    }
+
+    protected void logResult(RetrievalTask task)
+    {
+        try
+        {
+            task.get(); // The task has finished, been cancelled or broken
+        }
+        catch (ExecutionException e)
+        {
+            String message = Logging.getMessage("BasicRetrievalService.ExecutionExceptionDuringRetrieval",
+                task.getRetriever().getName());
+            if (e.getCause() instanceof SocketTimeoutException)
+            {
+                Logging.logger().fine(message + " " + e.getCause().getLocalizedMessage());
+            }
+            else if (e.getCause() instanceof SSLHandshakeException)
+            {
+                if (this.sslExceptionListener != null)
+                    this.sslExceptionListener.onException(e.getCause(), task.getRetriever().getName());
+                else
+                    Logging.logger().fine(message + " " + e.getCause().getLocalizedMessage());
+            }
+            else
+            {
+                Logging.logger().log(Level.FINE, message, e);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Logging.logger().log(Level.FINE, Logging.getMessage("BasicRetrievalService.RetrievalInterrupted",
+                task.getRetriever().getName()), e);
+        }
+        catch (CancellationException e)
+        {
+            Logging.logger().fine(Logging.getMessage("BasicRetrievalService.RetrievalCancelled",
+                task.getRetriever().getName()));
+        }
+    }
+
+    /**
+     * Specifies the maximum number of retrievers that may run at once, across all hosts.
+     *
+     * @param poolSize the maximum number of concurrent retrievals
+     *
+     * @throws IllegalArgumentException if <code>poolSize</code> is non-positive
+     */
+    public void setRetrieverPoolSize(int poolSize)
+    {
+        if (poolSize < 1)
+        {
+            String message = Logging.getMessage("BasicRetrievalService.RetrieverPoolSizeIsLessThanOne");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        List<RetrievalTask> admitted;
+        synchronized (this.admissionLock)
+        {
+            this.maxConcurrentRequests = poolSize;
+            admitted = this.admit();
+        }
+
+        this.start(admitted);
+    }
+
+    public int getRetrieverPoolSize()
+    {
+        synchronized (this.admissionLock)
+        {
+            return this.maxConcurrentRequests;
+        }
+    }
+
+    /**
+     * Specifies the maximum number of retrievers that may run at once for any one host. The new limit applies to
+     * requests admitted after this call.
+     *
+     * @param limit the maximum number of concurrent retrievals per host
+     *
+     * @throws IllegalArgumentException if <code>limit</code> is non-positive
+     */
+    public void setHostConcurrencyLimit(int limit)
+    {
+        if (limit < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "limit < 1");
+            Logging.logger().fine(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        synchronized (this.admissionLock)
+        {
+            this.hostConcurrencyLimit = limit;
+        }
+    }
+
+    public int getHostConcurrencyLimit()
+    {
+        synchronized (this.admissionLock)
+        {
+            return this.hostConcurrencyLimit;
+        }
+    }
+
+    public boolean hasActiveTasks()
+    {
+        synchronized (this.admissionLock)
+        {
+            return this.numRunning > 0;
+        }
+    }
+
+    public boolean isAvailable()
+    {
+        synchronized (this.admissionLock)
+        {
+            return this.tasks.size() - this.numRunning < this.queueSize;
+        }
+    }
+
+    public int getNumRetrieversPending()
+    {
+        return this.tasks.size();
+    }
+
+    /**
+     * Returns the number of entries on the admission queue and the hosts' waiting queues. Used by tests to check that
+     * the queues do not accumulate superseded or cancelled entries.
+     *
+     * @return the number of queued entries.
+     */
+    int getQueueSize()
+    {
+        synchronized (this.admissionLock)
+        {
+            int size = this.admissionQueue.size();
+            for (HostState host : this.hosts.values())
+            {
+                size += host.waiting.size();
+            }
+
+            return size;
+        }
+    }
+
+    /**
+     * @param retriever the retriever to check
+     *
+     * @return <code>true</code> if the retriever is being run or pending execution
+     *
+     * @throws IllegalArgumentException if <code>retriever</code> is null
+     */
+    public boolean contains(Retriever retriever)
+    {
+        if (retriever == null)
+        {
+            String msg = Logging.getMessage("nullValue.RetrieverIsNull");
+            Logging.logger().fine(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        return retriever.getName() != null && this.tasks.containsKey(retriever.getName());
+    }
+
+    public void shutdown(boolean immediately)
+    {
+        this.shutdown = true;
+
+        for (RetrievalTask task : this.tasks.values())
+        {
+            synchronized (this.admissionLock)
+            {
+                if (!task.admitted)
+                    task.cancel(false);
+                else if (immediately)
+                    task.cancel(true);
+            }
+        }
+
+        synchronized (this.admissionLock)
+        {
+            this.admissionQueue.clear();
+            for (HostState host : this.hosts.values())
+            {
+                host.waiting.clear();
+            }
+        }
+
+        this.tasks.clear();
+    }
+
+    public SSLExceptionListener getSSLExceptionListener()
+    {
+        return this.sslExceptionListener;
+    }
+
+    public void setSSLExceptionListener(SSLExceptionListener sslExceptionListener)
+    {
+        this.sslExceptionListener = sslExceptionListener;
+    }
+}
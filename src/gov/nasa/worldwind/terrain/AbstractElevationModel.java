@@ -37,7 +37,7 @@ import gov.nasa.worldwind.util.*;
 import org.w3c.dom.Element;
 
 import javax.xml.xpath.XPath;
-import java.util.List;
+import java.util.*;
 
 /**
  * @author tag
@@ -173,6 +173,169 @@ abstract public class AbstractElevationModel extends WWObjectImpl implements Ele
         return new double[] {this.getElevations(sector, latLons, targetResolutions[0], elevations)};
     }
 
+    public double getElevations(Sector sector, double[] latitudes, double[] longitudes, double targetResolution,
+        double[] buffer)
+    {
+        checkElevationArrays(sector, latitudes, longitudes, buffer);
+
+        return this.getElevations(sector, latitudes, longitudes, 0, 1, latitudes.length, targetResolution, buffer, 0);
+    }
+
+    public double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes,
+        double targetResolution, double[] buffer)
+    {
+        checkElevationArrays(sector, latitudes, longitudes, buffer);
+
+        return this.getUnmappedElevations(sector, latitudes, longitudes, 0, 1, latitudes.length, targetResolution,
+            buffer, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation creates a {@link LatLon} for each location and calls {@link #getElevations(Sector, List,
+     * double, double[])}. Subclasses should override this method to avoid creating the locations.
+     */
+    public double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        checkElevationArrays(sector, latitudes, longitudes, offset, stride, count, buffer, bufferOffset);
+
+        double[] elevations = copyElevations(buffer, bufferOffset, count);
+        double resolution = this.getElevations(sector, makeLocations(latitudes, longitudes, offset, stride, count),
+            targetResolution, elevations);
+        System.arraycopy(elevations, 0, buffer, bufferOffset, count);
+
+        return resolution;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This implementation creates a {@link LatLon} for each location and calls {@link #getUnmappedElevations(Sector,
+     * List, double, double[])}. Subclasses should override this method to avoid creating the locations.
+     */
+    public double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes, int offset,
+        int stride, int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        checkElevationArrays(sector, latitudes, longitudes, offset, stride, count, buffer, bufferOffset);
+
+        double[] elevations = copyElevations(buffer, bufferOffset, count);
+        double resolution = this.getUnmappedElevations(sector,
+            makeLocations(latitudes, longitudes, offset, stride, count), targetResolution, elevations);
+        System.arraycopy(elevations, 0, buffer, bufferOffset, count);
+
+        return resolution;
+    }
+
+    /**
+     * Validates the arguments to the array-based elevation query methods.
+     *
+     * @param sector     the sector in question.
+     * @param latitudes  the latitudes of the locations.
+     * @param longitudes the longitudes of the locations.
+     * @param buffer     the array in which elevations are returned.
+     *
+     * @throws IllegalArgumentException if any argument is null, or if the longitudes or elevations array is shorter
+     *                                  than the latitudes array.
+     */
+    protected static void checkElevationArrays(Sector sector, double[] latitudes, double[] longitudes,
+        double[] buffer)
+    {
+        if (latitudes == null)
+        {
+            String msg = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        checkElevationArrays(sector, latitudes, longitudes, 0, 1, latitudes.length, buffer, 0);
+    }
+
+    /**
+     * Validates the arguments to the strided array-based elevation query methods.
+     *
+     * @param sector       the sector in question.
+     * @param latitudes    the latitudes of the locations.
+     * @param longitudes   the longitudes of the locations.
+     * @param offset       the index of the first location.
+     * @param stride       the distance between consecutive locations.
+     * @param count        the number of locations.
+     * @param buffer       the array in which elevations are returned.
+     * @param bufferOffset the index in the buffer of the first elevation.
+     *
+     * @throws IllegalArgumentException if any array is null, or if the offsets, stride or count do not describe a
+     *                                  range within the arrays.
+     */
+    protected static void checkElevationArrays(Sector sector, double[] latitudes, double[] longitudes, int offset,
+        int stride, int count, double[] buffer, int bufferOffset)
+    {
+        if (sector == null)
+        {
+            String msg = Logging.getMessage("nullValue.SectorIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (latitudes == null || longitudes == null)
+        {
+            String msg = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (buffer == null)
+        {
+            String msg = Logging.getMessage("nullValue.ElevationsBufferIsNull");
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if (offset < 0 || stride < 1 || count < 0 || bufferOffset < 0)
+        {
+            String msg = Logging.getMessage("generic.ArgumentOutOfRange",
+                "offset=" + offset + ", stride=" + stride + ", count=" + count + ", bufferOffset=" + bufferOffset);
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        long last = count > 0 ? offset + (long) (count - 1) * stride : -1;
+        if (last >= latitudes.length || last >= longitudes.length)
+        {
+            String msg = Logging.getMessage("generic.ArrayInvalidLength", Math.min(latitudes.length,
+                longitudes.length));
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+
+        if ((long) bufferOffset + count > buffer.length)
+        {
+            String msg = Logging.getMessage("ElevationModel.ElevationsBufferTooSmall", count);
+            Logging.logger().severe(msg);
+            throw new IllegalArgumentException(msg);
+        }
+    }
+
+    protected static List<LatLon> makeLocations(double[] latitudes, double[] longitudes, int offset, int stride,
+        int count)
+    {
+        ArrayList<LatLon> locations = new ArrayList<LatLon>(count);
+        for (int i = 0, k = offset; i < count; i++, k += stride)
+        {
+            locations.add(LatLon.fromDegrees(latitudes[k], longitudes[k]));
+        }
+
+        return locations;
+    }
+
+    protected static double[] copyElevations(double[] buffer, int bufferOffset, int count)
+    {
+        double[] elevations = new double[count];
+        System.arraycopy(buffer, bufferOffset, elevations, 0, count);
+
+        return elevations;
+    }
+
     public double[] getBestResolutions(Sector sector)
     {
         return new double[] {this.getBestResolution(sector)};
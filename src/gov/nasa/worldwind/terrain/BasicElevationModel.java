@@ -80,6 +80,8 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
     protected String elevationDataType = AVKey.INT16;
     protected String elevationDataByteOrder = AVKey.LITTLE_ENDIAN;
     protected double detailHint = 0.0;
+    protected boolean memoryMappedReads = Configuration.getBooleanValue(AVKey.MEMORY_MAPPED_TILE_READS_ENABLED,
+        false);
     protected final Object fileLock = new Object();
     protected java.util.concurrent.ConcurrentHashMap<TileKey, ElevationTile> levelZeroTiles =
         new java.util.concurrent.ConcurrentHashMap<TileKey, ElevationTile>();
@@ -122,6 +124,10 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         if (lo != null)
             params.setValue(AVKey.EXPIRY_TIME, lo);
 
+        Boolean b = (Boolean) params.getValue(AVKey.MEMORY_MAPPED_TILE_READS_ENABLED);
+        if (b != null)
+            this.setMemoryMappedReads(b);
+
         d = (Double) params.getValue(AVKey.MISSING_DATA_SIGNAL);
         if (d != null)
             this.setMissingDataSignal(d);
@@ -130,7 +136,7 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         if (d != null)
             this.setMissingDataReplacement(d);
 
-        Boolean b = (Boolean) params.getValue(AVKey.NETWORK_RETRIEVAL_ENABLED);
+        b = (Boolean) params.getValue(AVKey.NETWORK_RETRIEVAL_ENABLED);
         if (b != null)
             this.setNetworkRetrievalEnabled(b);
 
@@ -245,7 +251,7 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         else
         {
             long size = Configuration.getLongValue(AVKey.ELEVATION_TILE_CACHE_SIZE, 20000000L);
-            MemoryCache mc = new BasicMemoryCache((long) (0.85 * size), size);
+            MemoryCache mc = WorldWind.getMemoryCacheSet().createCache(cacheName, (long) (0.85 * size), size);
             mc.setName("Elevation Tiles");
             WorldWind.getMemoryCacheSet().addCache(cacheName, mc);
             return mc;
@@ -356,6 +362,35 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         this.elevationDataByteOrder = byteOrder;
     }
 
+    /**
+     * Indicates whether cached BIL elevation tiles are mapped into memory rather than read onto the heap. See {@link
+     * #setMemoryMappedReads(boolean)}.
+     *
+     * @return true if cached elevation tiles are mapped, otherwise false.
+     */
+    public boolean isMemoryMappedReads()
+    {
+        return this.memoryMappedReads;
+    }
+
+    /**
+     * Specifies whether cached BIL elevation tiles are mapped into memory rather than read onto the heap. The
+     * elevations of a mapped tile are served directly from the operating system's page cache, which is shared by every
+     * process reading the same file, so resident tiles cost no heap. Tiles not cached in the file system are read
+     * regardless. The default is given by the configuration value {@link AVKey#MEMORY_MAPPED_TILE_READS_ENABLED}, or
+     * false if it is not specified.
+     * <p>
+     * Mapping is intended for large local datasets. Cached tiles are updated by replacing their files rather than
+     * rewriting them in place, see {@link WWIO#saveBuffer(java.nio.ByteBuffer, java.io.File, boolean)}, so a tile in
+     * memory keeps its elevations when its file is updated or expires.
+     *
+     * @param memoryMappedReads true to map cached elevation tiles, otherwise false.
+     */
+    public void setMemoryMappedReads(boolean memoryMappedReads)
+    {
+        this.memoryMappedReads = memoryMappedReads;
+    }
+
     public int intersects(Sector sector)
     {
         if (this.levels.getSector().contains(sector))
@@ -584,7 +619,8 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         ByteBuffer byteBuffer;
         synchronized (this.fileLock)
         {
-            byteBuffer = WWIO.readURLContentToBuffer(url);
+            byteBuffer = this.isMemoryMappedReads() ? WWIO.mapURLContentToBuffer(url)
+                : WWIO.readURLContentToBuffer(url);
         }
 
         // Setup parameters to instruct BufferWrapper on how to interpret the ByteBuffer.
@@ -1369,6 +1405,187 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         return elevations.achievedResolution;
     }
 
+    @Override
+    public double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        return this.getElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+            bufferOffset, true);
+    }
+
+    @Override
+    public double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes, int offset,
+        int stride, int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        return this.getElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+            bufferOffset, false);
+    }
+
+    /**
+     * Performs the lookup and assembly of elevations for a strided range of locations specified as parallel arrays.
+     * Locations are first assigned to the tiles that contain them, then each tile's locations are interpolated
+     * together by {@link #lookupElevations(ElevationTile, double[], double[], int, int, int[], int, int, double[])}.
+     *
+     * @param sector           the sector containing the specified locations.
+     * @param latitudes        the latitudes, in degrees, of the locations.
+     * @param longitudes       the longitudes, in degrees, of the locations.
+     * @param offset           the index of the first location in the latitude and longitude arrays.
+     * @param stride           the distance between consecutive locations in the latitude and longitude arrays.
+     * @param count            the number of locations.
+     * @param targetResolution the desired maximum horizontal resolution of the elevation data to draw from.
+     * @param buffer           a buffer in which to return the elevations.
+     * @param bufferOffset     the index in the buffer at which to place the first elevation.
+     * @param mapMissingData   indicates whether to replace any elevations that match this elevation model's missing
+     *                         data signal to this model's missing data replacement value.
+     *
+     * @return the resolution achieved, in radians, or {@link Double#MAX_VALUE} if individual elevations cannot be
+     *         determined for all of the locations.
+     */
+    protected double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset, boolean mapMissingData)
+    {
+        checkElevationArrays(sector, latitudes, longitudes, offset, stride, count, buffer, bufferOffset);
+
+        Level targetLevel = this.getTargetLevel(sector, targetResolution);
+        if (targetLevel == null)
+            return Double.MAX_VALUE;
+
+        Elevations elevations = this.getElevations(sector, this.levels, targetLevel.getLevelNumber());
+        if (elevations == null)
+            return Double.MAX_VALUE;
+
+        if (this.intersects(sector) == -1)
+            return Double.MAX_VALUE;
+
+        // Mark the model as used this frame.
+        this.setValue(AVKey.FRAME_TIMESTAMP, System.currentTimeMillis());
+
+        ElevationTile[] tiles = elevations.tiles != null ? elevations.tiles.toArray(new ElevationTile[0])
+            : new ElevationTile[0];
+
+        // Assign each location to the first tile containing it, which is the highest resolution such tile. Tiles of a
+        // single level do not overlap, so in that case consecutive locations can reuse the previous tile.
+        boolean singleLevel = true;
+        for (int t = 1; t < tiles.length; t++)
+        {
+            if (tiles[t].getLevelNumber() != tiles[0].getLevelNumber())
+                singleLevel = false;
+        }
+
+        int[] tileIndices = new int[count];
+        int[] tileCounts = new int[tiles.length + 1];
+        int lastTile = -1;
+        for (int i = 0, k = offset; i < count; i++, k += stride)
+        {
+            double lat = latitudes[k];
+            double lon = longitudes[k];
+
+            int tileIndex = -1;
+            if (singleLevel && lastTile >= 0 && tiles[lastTile].getSector().containsDegrees(lat, lon))
+                tileIndex = lastTile;
+            else
+            {
+                for (int t = 0; t < tiles.length; t++)
+                {
+                    if (tiles[t].getSector().containsDegrees(lat, lon))
+                    {
+                        tileIndex = t;
+                        break;
+                    }
+                }
+            }
+
+            tileIndices[i] = tileIndex;
+            tileCounts[tileIndex + 1]++;
+            lastTile = tileIndex;
+        }
+
+        // Order the locations by tile so that each tile's locations are interpolated in a single pass.
+        int[] tileStarts = new int[tiles.length + 2];
+        for (int t = 0; t <= tiles.length; t++)
+        {
+            tileStarts[t + 1] = tileStarts[t] + tileCounts[t];
+        }
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++)
+        {
+            order[tileStarts[tileIndices[i] + 1] + --tileCounts[tileIndices[i] + 1]] = i;
+        }
+
+        double missingDataSignal = this.getMissingDataSignal();
+        double[] values = new double[count];
+        for (int t = 0; t < tiles.length; t++)
+        {
+            try
+            {
+                this.lookupElevations(tiles[t], latitudes, longitudes, offset, stride, order, tileStarts[t + 1],
+                    tileStarts[t + 2], values);
+            }
+            catch (Exception e)
+            {
+                // As in Elevations.getElevation, throwing an exception within what's likely to be the caller's
+                // geometry creation loop would be hard to recover from. Treat the tile's locations as missing data.
+                Logging.logger().log(java.util.logging.Level.SEVERE,
+                    Logging.getMessage("BasicElevationModel.ExceptionComputingTileElevations", tiles[t]), e);
+
+                for (int n = tileStarts[t + 1]; n < tileStarts[t + 2]; n++)
+                {
+                    values[order[n]] = missingDataSignal;
+                }
+            }
+        }
+
+        // See getElevations(Sector, List, double, double[], boolean) for the treatment of each case.
+        Sector coverage = this.levels.getSector();
+        boolean missingIsTransparent = this.getMissingDataReplacement() == missingDataSignal;
+        for (int i = 0, k = offset; i < count; i++, k += stride)
+        {
+            boolean hasTile = tileIndices[i] >= 0;
+            double value = hasTile ? values[i] : missingDataSignal;
+
+            if (value == missingDataSignal && missingIsTransparent)
+                continue;
+
+            if (hasTile && value != missingDataSignal)
+                buffer[bufferOffset + i] = value;
+            else if (coverage.containsDegrees(latitudes[k], longitudes[k]))
+            {
+                if (!hasTile)
+                    buffer[bufferOffset + i] = this.getExtremeElevations(sector)[0];
+                else if (mapMissingData)
+                    buffer[bufferOffset + i] = this.getMissingDataReplacement();
+            }
+        }
+
+        return elevations.achievedResolution;
+    }
+
+    /**
+     * Interpolates the elevations of a group of locations within a single tile, using {@link
+     * #lookupElevation(double, double, ElevationTile)} for each location.
+     *
+     * @param tile       the tile containing the locations.
+     * @param latitudes  the latitudes, in degrees, of all locations in the request.
+     * @param longitudes the longitudes, in degrees, of all locations in the request.
+     * @param offset     the index of the first location in the latitude and longitude arrays.
+     * @param stride     the distance between consecutive locations in the latitude and longitude arrays.
+     * @param indices    the location indices, relative to the first location, ordered by tile.
+     * @param start      the first position in <code>indices</code> of this tile's locations.
+     * @param end        one past the last position in <code>indices</code> of this tile's locations.
+     * @param values     the array in which to place each location's elevation, indexed by location index.
+     */
+    protected void lookupElevations(ElevationTile tile, double[] latitudes, double[] longitudes, int offset,
+        int stride, int[] indices, int start, int end, double[] values)
+    {
+        for (int n = start; n < end; n++)
+        {
+            int index = indices[n];
+            int k = offset + index * stride;
+            values[index] = this.lookupElevation(Math.toRadians(latitudes[k]), Math.toRadians(longitudes[k]), tile);
+        }
+    }
+
     protected Level getTargetLevel(Sector sector, double targetSize)
     {
         Level lastLevel = this.levels.getLastLevel(sector); // finest resolution available
@@ -1391,6 +1608,11 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
     }
 
     protected double lookupElevation(Angle latitude, Angle longitude, final ElevationTile tile)
+    {
+        return this.lookupElevation(latitude.radians, longitude.radians, tile);
+    }
+
+    protected double lookupElevation(double latRadians, double lonRadians, final ElevationTile tile)
     {
         BufferWrapper elevations = tile.getElevations();
         Sector sector = tile.getSector();
@@ -1398,8 +1620,8 @@ public class BasicElevationModel extends AbstractElevationModel implements BulkR
         final int tileWidth = tile.getWidth();
         final double sectorDeltaLat = sector.getDeltaLat().radians;
         final double sectorDeltaLon = sector.getDeltaLon().radians;
-        final double dLat = sector.getMaxLatitude().radians - latitude.radians;
-        final double dLon = longitude.radians - sector.getMinLongitude().radians;
+        final double dLat = sector.getMaxLatitude().radians - latRadians;
+        final double dLon = lonRadians - sector.getMinLongitude().radians;
         final double sLat = dLat / sectorDeltaLat;
         final double sLon = dLon / sectorDeltaLon;
 
@@ -30,7 +30,7 @@ package gov.nasa.worldwind.terrain;
 
 import gov.nasa.worldwind.WorldWind;
 import gov.nasa.worldwind.avlist.AVKey;
-import gov.nasa.worldwind.cache.FileStore;
+import gov.nasa.worldwind.cache.*;
 import gov.nasa.worldwind.event.*;
 import gov.nasa.worldwind.geom.*;
 import gov.nasa.worldwind.retrieve.*;
@@ -353,6 +353,13 @@ public class BasicElevationModelBulkDownloader extends BulkRetrievalThread
             }
         }
 
+        // Tiles held by a packed file store are not files in the write location.
+        if (count == 0 && this.fileStore instanceof PackedFileStore)
+        {
+            size = ((PackedFileStore) this.fileStore).computeAveragePackedFileSize(targetLevel.getPath(), 100);
+            count = size > 0 ? 1 : 0;
+        }
+
         Long averageTileSize = DEFAULT_AVERAGE_FILE_SIZE;
         if (count > 0 && size > 0)
         {
@@ -627,6 +627,64 @@ public class CompoundElevationModel extends AbstractElevationModel
         return resolutionAchieved;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * NOTE: This method returns only unmapped elevations if the compound model contains more than one elevation model.
+     * This enables the compound model's lower resolution elevation models to specify missing data values for the higher
+     * resolution elevation models.
+     */
+    @Override
+    public double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        return this.doGetElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+            bufferOffset, false);
+    }
+
+    @Override
+    public double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes, int offset,
+        int stride, int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        return this.doGetElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+            bufferOffset, false);
+    }
+
+    protected double doGetElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset, boolean mapMissingData)
+    {
+        checkElevationArrays(sector, latitudes, longitudes, offset, stride, count, buffer, bufferOffset);
+
+        // Fill the buffer with ElevationModel contents from lowest resolution to highest, potentially overwriting
+        // values at each step. As with the list form of this method, the resolution achieved by the first elevation
+        // model is returned.
+        double resolutionAchieved = 0;
+        for (int i = 0; i < this.elevationModels.size(); i++)
+        {
+            ElevationModel em = this.elevationModels.get(i);
+
+            if (!em.isEnabled())
+                continue;
+
+            int c = em.intersects(sector);
+            if (c < 0) // no intersection
+                continue;
+
+            double r;
+            if (mapMissingData || this.elevationModels.size() == 1)
+                r = em.getElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+                    bufferOffset);
+            else
+                r = em.getUnmappedElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution,
+                    buffer, bufferOffset);
+
+            if (i == 0)
+                resolutionAchieved = r;
+        }
+
+        return resolutionAchieved;
+    }
+
     public void composeElevations(Sector sector, List<? extends LatLon> latlons, int tileWidth,
         double[] buffer) throws Exception
     {
@@ -37,7 +37,6 @@ import gov.nasa.worldwind.render.SurfaceQuad;
 import gov.nasa.worldwind.util.Logging;
 
 import java.util.*;
-import java.util.concurrent.*;
 
 /**
  * Provides operations on the best available terrain. Operations such as line/terrain intersection and surface point
@@ -116,6 +115,8 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
     protected int numCols;
     protected MemoryCache geometryCache;
     protected ThreadLocal<Long> startTime = new ThreadLocal<Long>();
+    protected ThreadLocal<Long> deadline = new ThreadLocal<Long>(); // set by TerrainIntersectionEngine batches
+    protected TerrainIntersectionEngine intersectionEngine;
 
     /**
      * Constructs a terrain object for a specified globe.
@@ -463,47 +464,82 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
     }
 
     /**
-     * Intersects a specified list of geographic two-position lines with the terrain.
+     * Indicates the engine used to intersect lists of lines with this terrain. See {@link
+     * #setIntersectionEngine(TerrainIntersectionEngine)}.
+     *
+     * @return the intersection engine.
+     */
+    public synchronized TerrainIntersectionEngine getIntersectionEngine()
+    {
+        if (this.intersectionEngine != null)
+            return this.intersectionEngine;
+
+        return TerrainIntersectionEngine.getSharedInstance();
+    }
+
+    /**
+     * Specifies the engine used by {@link #intersect(java.util.List, HighResolutionTerrain.IntersectionCallback)} and
+     * {@link #submitIntersections(java.util.List, HighResolutionTerrain.IntersectionCallback, Long)}.
+     *
+     * @param engine the intersection engine. May be null, in which case the engine returned by {@link
+     *               TerrainIntersectionEngine#getSharedInstance()} is used.
+     */
+    public synchronized void setIntersectionEngine(TerrainIntersectionEngine engine)
+    {
+        this.intersectionEngine = engine;
+    }
+
+    /**
+     * Intersects a specified list of geographic two-position lines with the terrain. The lines are intersected
+     * concurrently by this terrain's intersection engine, and this method returns when all lines have been
+     * intersected. If this is called from a callback of another intersection on the same engine, the lines are
+     * intersected on the calling thread.
      *
      * @param positions The positions to intersect, with the line segments formed by each pair of positions, e.g. the
      *                  first line in formed by positions[0] and positions[1], the second by positions[2] and
      *                  positions[3], etc.
-     * @param callback  An object to call in order to return the computed intersections.
+     * @param callback  An object to call in order to return the computed intersections. The object is called from
+     *                  the engine's threads, and must be thread safe.
      *
-     * @throws InterruptedException if the operation is interrupted.
+     * @throws InterruptedException if the operation is interrupted. The remaining lines are cancelled.
+     * @see #getIntersectionEngine()
      */
     public void intersect(List<Position> positions, final IntersectionCallback callback) throws InterruptedException
     {
-        ExecutorService service = Executors.newFixedThreadPool(10);
+        TerrainIntersectionEngine.Batch batch = this.submitIntersections(positions, callback, null);
 
-        for (int i = 0; i < positions.size(); i += 2)
+        try
         {
-            final Position pA = positions.get(i);
-            final Position pB = positions.get(i + 1);
-
-            service.submit(new Runnable()
-            {
-                @Override
-                public void run()
-                {
-                    try
-                    {
-                        Intersection[] intersections = intersect(pA, pB);
-                        if (intersections != null)
-                        {
-                            callback.intersection(pA, pB, intersections);
-                        }
-                    }
-                    catch (Exception e)
-                    {
-                        callback.exception(e);
-                    }
-                }
-            });
+            batch.await();
+        }
+        catch (InterruptedException e)
+        {
+            batch.cancel();
+            throw e;
         }
+    }
 
-        service.shutdown();
-        service.awaitTermination(100, TimeUnit.DAYS); // wait indefinitely for all threads to complete
+    /**
+     * Starts intersecting a specified list of geographic two-position lines with the terrain, and returns without
+     * waiting for the intersections to be computed. Intersections are passed to the callback as each line completes.
+     *
+     * @param positions The positions to intersect, with the line segments formed by each pair of positions, e.g. the
+     *                  first line in formed by positions[0] and positions[1], the second by positions[2] and
+     *                  positions[3], etc.
+     * @param callback  An object to call in order to return the computed intersections. The object is called from
+     *                  the engine's threads, and must be thread safe.
+     * @param timeout   the number of milliseconds allowed for all the lines. May be null, to indicate that the
+     *                  operation has an unlimited amount of time. This is in addition to the per-line timeout
+     *                  specified by {@link #setTimeout(Long)}.
+     *
+     * @return a handle that may be used to wait for or cancel the operation.
+     *
+     * @throws IllegalArgumentException if the positions or callback are null, or the number of positions is odd.
+     */
+    public TerrainIntersectionEngine.Batch submitIntersections(List<Position> positions, IntersectionCallback callback,
+        Long timeout)
+    {
+        return this.getIntersectionEngine().submit(this, positions, callback, timeout);
     }
 
     /**
@@ -1074,6 +1110,9 @@ public class HighResolutionTerrain extends WWObjectImpl implements Terrain
                 if (System.currentTimeMillis() - this.startTime.get() > timeout)
                     throw new WWTimeoutException("Terrain convergence timed out");
             }
+
+            if (this.deadline.get() != null && System.currentTimeMillis() > this.deadline.get())
+                throw new WWTimeoutException("Terrain convergence timed out");
         }
     }
 
@@ -292,6 +292,77 @@ public class LocalElevationModel extends AbstractElevationModel
         return this.getBestResolution(sector);
     }
 
+    @Override
+    public double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        return this.doGetElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+            bufferOffset, true);
+    }
+
+    @Override
+    public double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes, int offset,
+        int stride, int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        return this.doGetElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+            bufferOffset, false);
+    }
+
+    /**
+     * Performs the lookup and assembly of elevations for a strided range of locations specified as parallel arrays.
+     * This method is provided to enable subclasses to override this operation.
+     *
+     * @param sector           the sector containing the specified locations.
+     * @param latitudes        the latitudes, in degrees, of the locations.
+     * @param longitudes       the longitudes, in degrees, of the locations.
+     * @param offset           the index of the first location in the latitude and longitude arrays.
+     * @param stride           the distance between consecutive locations in the latitude and longitude arrays.
+     * @param count            the number of locations.
+     * @param targetResolution the desired maximum horizontal resolution of the elevation data to draw from.
+     * @param buffer           a buffer in which to return the elevations.
+     * @param bufferOffset     the index in the buffer at which to place the first elevation.
+     * @param mapMissingData   indicates whether to replace any elevations that match this elevation model's missing
+     *                         data signal to this model's missing data replacement value.
+     *
+     * @return the resolution achieved, in radians, or {@link Double#MAX_VALUE} if individual elevations cannot be
+     *         determined for all of the locations.
+     *
+     * @throws IllegalArgumentException if the sector or any array is null, or if the offsets, stride or count do not
+     *                                  describe a range within the arrays.
+     */
+    @SuppressWarnings( {"UnusedParameters"})
+    protected double doGetElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset, boolean mapMissingData)
+    {
+        checkElevationArrays(sector, latitudes, longitudes, offset, stride, count, buffer, bufferOffset);
+
+        if (this.intersects(sector) == -1)
+            return Double.MAX_VALUE; // as stated in the javadoc above, this is the sentinel for "not in my domain"
+
+        // Mark the model as used this frame.
+        this.setValue(AVKey.FRAME_TIMESTAMP, System.currentTimeMillis());
+
+        for (int i = 0, k = offset; i < count; i++, k += stride)
+        {
+            double latRadians = Math.toRadians(latitudes[k]);
+            double lonRadians = Math.toRadians(longitudes[k]);
+
+            // Locations outside every tile are outside this elevation model's coverage, so their buffer elements are
+            // not modified.
+            LocalTile tile = this.findTile(latRadians, lonRadians);
+            if (tile == null)
+                continue;
+
+            double e = this.lookupElevation(tile, latRadians, lonRadians);
+            if (e != this.missingDataFlag)
+                buffer[bufferOffset + i] = e;
+            else if (mapMissingData)
+                buffer[bufferOffset + i] = this.getMissingDataReplacement();
+        }
+
+        return this.getBestResolution(sector);
+    }
+
     /**
      * Adds the specified elevation data to this elevation model.
      *
@@ -571,6 +642,21 @@ public class LocalElevationModel extends AbstractElevationModel
         if (tile == null)
             return null;
 
+        return this.lookupElevation(tile, latRadians, lonRadians);
+    }
+
+    /**
+     * Looks up an elevation for a specified location within a specified tile.
+     *
+     * @param tile       the tile containing the location.
+     * @param latRadians the latitude of the location, in radians.
+     * @param lonRadians the longitude of the location, in radians.
+     *
+     * @return the elevation at the specified location, or this elevation model's missing data flag if that's the value
+     *         at the specified location.
+     */
+    protected double lookupElevation(LocalTile tile, final double latRadians, final double lonRadians)
+    {
         final double sectorDeltaLat = tile.sector.getDeltaLat().radians;
         final double sectorDeltaLon = tile.sector.getDeltaLon().radians;
         final double dLat = tile.sector.getMaxLatitude().radians - latRadians;
@@ -449,7 +449,7 @@ public class RectangularTessellator extends WWObjectImpl implements Tessellator
         if (!WorldWind.getMemoryCacheSet().containsCache(CACHE_ID))
         {
             long size = Configuration.getLongValue(AVKey.SECTOR_GEOMETRY_CACHE_SIZE, 10000000L);
-            MemoryCache cache = new BasicMemoryCache((long) (0.85 * size), size);
+            MemoryCache cache = WorldWind.getMemoryCacheSet().createCache(CACHE_ID, (long) (0.85 * size), size);
             cache.setName(CACHE_NAME);
             WorldWind.getMemoryCacheSet().addCache(CACHE_ID, cache);
         }
@@ -698,9 +698,12 @@ public class RectangularTessellator extends WWObjectImpl implements Tessellator
             verts.rewind();
         }
 
-        ArrayList<LatLon> latlons = this.computeLocations(tile);
-        double[] elevations = new double[latlons.size()];
-        dc.getGlobe().getElevations(tile.sector, latlons, tile.getResolution(), elevations);
+        double[] latitudes = new double[numVertices];
+        double[] longitudes = new double[numVertices];
+        this.computeLocations(tile, latitudes, longitudes);
+
+        double[] elevations = new double[numVertices];
+        dc.getGlobe().getElevations(tile.sector, latitudes, longitudes, tile.getResolution(), elevations);
 
         double verticalExaggeration = dc.getVerticalExaggeration();
 
@@ -712,35 +715,31 @@ public class RectangularTessellator extends WWObjectImpl implements Tessellator
         // minimum, then exaggeration will push the skirt bases above 0. That the globe reports a minimum elevation that
         // is not its true minimum is a bug, and this constraint on applying exaggeration to the minimum here is a
         // workaround for that bug. See WWJINT-435.
-        Double exaggeratedMinElevation = makeSkirts ? globe.getMinElevation() : null;
-        if (exaggeratedMinElevation != null && (exaggeratedMinElevation < 0 || verticalExaggeration <= 0))
+        double exaggeratedMinElevation = makeSkirts ? globe.getMinElevation() : 0;
+        if (makeSkirts && (exaggeratedMinElevation < 0 || verticalExaggeration <= 0))
             exaggeratedMinElevation *= verticalExaggeration;
 
         LatLon centroid = tile.sector.getCentroid();
         Vec4 refCenter = globe.computePointFromPosition(centroid.getLatitude(), centroid.getLongitude(), 0d);
 
         int ie = 0;
-        int iv = 0;
-        Iterator<LatLon> latLonIter = latlons.iterator();
         for (int j = 0; j <= density + 2; j++)
         {
             for (int i = 0; i <= density + 2; i++)
             {
-                LatLon latlon = latLonIter.next();
-                double elevation = verticalExaggeration * elevations[ie++];
-
                 // Tile edges use min elevation to draw the skirts
-                if (exaggeratedMinElevation != null &&
-                    (j == 0 || j >= tile.density + 2 || i == 0 || i >= tile.density + 2))
-                    elevation = exaggeratedMinElevation;
-
-                Vec4 p = globe.computePointFromPosition(latlon.getLatitude(), latlon.getLongitude(), elevation);
-                verts.put(iv++, (float) (p.x - refCenter.x));
-                verts.put(iv++, (float) (p.y - refCenter.y));
-                verts.put(iv++, (float) (p.z - refCenter.z));
+                if (makeSkirts && (j == 0 || j >= tile.density + 2 || i == 0 || i >= tile.density + 2))
+                    elevations[ie] = exaggeratedMinElevation;
+                else
+                    elevations[ie] *= verticalExaggeration;
+
+                ie++;
             }
         }
 
+        verts.rewind();
+        globe.computePointsFromPositions(latitudes, longitudes, elevations, verts, refCenter);
+
         verts.rewind();
 
         if (tile.ri != null)
@@ -753,6 +752,55 @@ public class RectangularTessellator extends WWObjectImpl implements Tessellator
         return true;
     }
 
+    /**
+     * Computes the vertex locations of a tile, including its skirt vertices, in row-major order starting at the tile's
+     * southwest corner. Locations are written as degrees to the specified arrays, which must contain at least
+     * <code>(density + 3) * (density + 3)</code> elements.
+     *
+     * @param tile       the tile to compute locations for.
+     * @param latitudes  the array in which to return vertex latitudes, in degrees.
+     * @param longitudes the array in which to return vertex longitudes, in degrees.
+     */
+    protected void computeLocations(RectTile tile, double[] latitudes, double[] longitudes)
+    {
+        int density = tile.density;
+
+        double latMax = tile.sector.getMaxLatitude().degrees;
+        double dLat = tile.sector.getDeltaLatDegrees() / density;
+        double lat = tile.sector.getMinLatitude().degrees;
+
+        double lonMin = tile.sector.getMinLongitude().degrees;
+        double lonMax = tile.sector.getMaxLongitude().degrees;
+        double dLon = tile.sector.getDeltaLonDegrees() / density;
+
+        int k = 0;
+        for (int j = 0; j <= density + 2; j++)
+        {
+            double lon = lonMin;
+            for (int i = 0; i <= density + 2; i++)
+            {
+                latitudes[k] = lat;
+                longitudes[k] = lon;
+                k++;
+
+                if (i > density)
+                    lon = lonMax;
+                else if (i != 0)
+                    lon += dLon;
+
+                if (lon < -180)
+                    lon = -180;
+                else if (lon > 180)
+                    lon = 180;
+            }
+
+            if (j > density)
+                lat = latMax;
+            else if (j != 0)
+                lat += dLat;
+        }
+    }
+
     protected ArrayList<LatLon> computeLocations(RectTile tile)
     {
         int density = tile.density;
@@ -0,0 +1,568 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.*;
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.exception.WWTimeoutException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.util.Logging;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Intersects batches of line segments with a {@link HighResolutionTerrain} on a long-lived pool of worker threads.
+ * Unlike creating a thread pool for each batch, the engine's threads and the terrain's cached tile geometry remain
+ * available from one batch to the next.
+ * <p>
+ * Each batch's segments are sorted by the terrain tile containing their midpoint, along a Z-order curve through the
+ * terrain's tile grid, then divided into groups of neighboring segments. Each group runs on a single worker, so the
+ * tiles computed by {@link HighResolutionTerrain#makeVerts(HighResolutionTerrain.RectTile)} for one segment are reused
+ * by the following segments while they are still cached. Intersections are passed to the batch's callback as each
+ * segment completes, from the worker threads, so callbacks must be thread safe.
+ * <p>
+ * A callback may itself submit a batch to the same engine. Such a batch runs on the calling worker thread, one group at
+ * a time, before {@link #submit(HighResolutionTerrain, java.util.List, HighResolutionTerrain.IntersectionCallback,
+ * Long)} returns, rather than being queued behind the batch that submitted it. Waiting for a queued batch from a worker
+ * would deadlock once every worker is waiting.
+ * <p>
+ * {@link #submit(HighResolutionTerrain, java.util.List, HighResolutionTerrain.IntersectionCallback, Long)} returns a
+ * {@link Batch} that may be awaited or cancelled. A batch may also be given a timeout, after which its remaining
+ * segments are abandoned and the callback receives a single {@link WWTimeoutException}.
+ * <p>
+ * {@link #getSharedInstance()} returns an engine shared by all terrains whose pool size is given by the configuration
+ * value {@link AVKey#TERRAIN_INTERSECTION_POOL_SIZE}, or the number of available processors if that value is not
+ * specified.
+ */
+public class TerrainIntersectionEngine implements Disposable
+{
+    /** Keep idle threads alive this many seconds. */
+    protected static final long THREAD_TIMEOUT = 2;
+    /** The maximum number of segments a single worker intersects before the batch's next group is taken. */
+    protected static final int MAX_GROUP_SIZE = 64;
+
+    protected static TerrainIntersectionEngine sharedInstance;
+
+    /**
+     * Returns the engine shared by all {@link HighResolutionTerrain} instances that have not been assigned their own.
+     *
+     * @return the shared engine.
+     */
+    public static synchronized TerrainIntersectionEngine getSharedInstance()
+    {
+        if (sharedInstance == null)
+        {
+            int poolSize = Configuration.getIntegerValue(AVKey.TERRAIN_INTERSECTION_POOL_SIZE,
+                Runtime.getRuntime().availableProcessors());
+            sharedInstance = new TerrainIntersectionEngine(Math.max(1, poolSize));
+        }
+
+        return sharedInstance;
+    }
+
+    /** A handle to a submitted batch of segments, used to wait for, cancel, or monitor the batch. */
+    public static class Batch
+    {
+        protected final HighResolutionTerrain terrain;
+        protected final HighResolutionTerrain.IntersectionCallback callback;
+        protected final int segmentCount;
+        protected final Long timeout;
+        protected final Long deadline;
+        protected final List<Future<?>> groups = new ArrayList<Future<?>>();
+        protected final AtomicInteger remainingGroups = new AtomicInteger();
+        protected final AtomicInteger completedSegmentCount = new AtomicInteger();
+        protected final AtomicBoolean timedOut = new AtomicBoolean();
+        protected final CountDownLatch doneLatch = new CountDownLatch(1);
+        protected volatile boolean cancelled;
+
+        protected Batch(HighResolutionTerrain terrain, HighResolutionTerrain.IntersectionCallback callback,
+            int segmentCount, Long timeout)
+        {
+            this.terrain = terrain;
+            this.callback = callback;
+            this.segmentCount = segmentCount;
+            this.timeout = timeout;
+            this.deadline = timeout != null ? System.currentTimeMillis() + timeout : null;
+        }
+
+        /**
+         * Indicates the number of segments in this batch.
+         *
+         * @return the number of segments.
+         */
+        public int getSegmentCount()
+        {
+            return this.segmentCount;
+        }
+
+        /**
+         * Indicates the number of segments whose intersections have been computed, whether or not they intersect the
+         * terrain.
+         *
+         * @return the number of completed segments.
+         */
+        public int getCompletedSegmentCount()
+        {
+            return this.completedSegmentCount.get();
+        }
+
+        /**
+         * Indicates whether this batch has been cancelled.
+         *
+         * @return true if {@link #cancel()} has been called, otherwise false.
+         */
+        public boolean isCancelled()
+        {
+            return this.cancelled;
+        }
+
+        /**
+         * Indicates whether this batch exceeded its timeout before all its segments completed.
+         *
+         * @return true if the batch timed out, otherwise false.
+         */
+        public boolean isTimedOut()
+        {
+            return this.timedOut.get();
+        }
+
+        /**
+         * Indicates whether this batch has finished, either because all its segments completed or because it was
+         * cancelled or timed out.
+         *
+         * @return true if the batch has finished, otherwise false.
+         */
+        public boolean isDone()
+        {
+            return this.doneLatch.getCount() == 0;
+        }
+
+        /**
+         * Cancels this batch. Segments that have not started are abandoned, and segments waiting for terrain data are
+         * interrupted. The callback is not called for segments that have not completed.
+         */
+        public void cancel()
+        {
+            this.cancelled = true;
+
+            for (Future<?> group : this.groups)
+            {
+                group.cancel(true);
+            }
+        }
+
+        /**
+         * Waits until this batch has finished.
+         *
+         * @throws InterruptedException if the current thread is interrupted while waiting.
+         */
+        public void await() throws InterruptedException
+        {
+            this.doneLatch.await();
+        }
+
+        /**
+         * Waits until this batch has finished, or the specified time has elapsed.
+         *
+         * @param timeout the maximum time to wait.
+         * @param unit    the unit of the timeout argument.
+         *
+         * @return true if the batch has finished, false if the waiting time elapsed first.
+         *
+         * @throws InterruptedException if the current thread is interrupted while waiting.
+         */
+        public boolean await(long timeout, TimeUnit unit) throws InterruptedException
+        {
+            return this.doneLatch.await(timeout, unit);
+        }
+
+        protected boolean isExpired()
+        {
+            return this.deadline != null && System.currentTimeMillis() >= this.deadline;
+        }
+
+        protected void timeOut()
+        {
+            // Report the timeout once, regardless of how many groups observe it.
+            if (this.timedOut.compareAndSet(false, true) && !this.cancelled)
+            {
+                String message = Logging.getMessage("TerrainIntersectionEngine.BatchTimedOut", this.timeout,
+                    this.completedSegmentCount.get(), this.segmentCount);
+                this.callback.exception(new WWTimeoutException(message));
+            }
+        }
+
+        protected void groupDone()
+        {
+            if (this.remainingGroups.decrementAndGet() == 0)
+            {
+                this.doneLatch.countDown();
+            }
+        }
+    }
+
+    /** Intersects a group of a batch's segments, in order, on one worker thread. */
+    protected static class SegmentGroup implements Runnable
+    {
+        protected final Batch batch;
+        protected final List<Position> positions;
+        protected final int[] segments;
+
+        public SegmentGroup(Batch batch, List<Position> positions, int[] segments)
+        {
+            this.batch = batch;
+            this.positions = positions;
+            this.segments = segments;
+        }
+
+        @Override
+        public void run()
+        {
+            HighResolutionTerrain terrain = this.batch.terrain;
+            // A batch submitted from a worker runs inside the worker's current group, so restore that group's deadline.
+            Long previousDeadline = terrain.deadline.get();
+            terrain.deadline.set(this.batch.deadline); // stops terrain data retrieval when the batch times out
+
+            try
+            {
+                for (int segment : this.segments)
+                {
+                    if (this.batch.isCancelled() || Thread.currentThread().isInterrupted())
+                        return;
+
+                    if (this.batch.isExpired())
+                    {
+                        this.batch.timeOut();
+                        return;
+                    }
+
+                    if (!this.intersect(terrain, segment))
+                        return;
+
+                    this.batch.completedSegmentCount.incrementAndGet();
+                }
+            }
+            finally
+            {
+                if (previousDeadline != null)
+                    terrain.deadline.set(previousDeadline);
+                else
+                    terrain.deadline.remove();
+            }
+        }
+
+        protected boolean intersect(HighResolutionTerrain terrain, int segment)
+        {
+            Position pA = this.positions.get(2 * segment);
+            Position pB = this.positions.get(2 * segment + 1);
+
+            try
+            {
+                Intersection[] intersections = terrain.intersect(pA, pB);
+                if (intersections != null && !this.batch.isCancelled())
+                {
+                    this.batch.callback.intersection(pA, pB, intersections);
+                }
+
+                return true;
+            }
+            catch (WWTimeoutException e)
+            {
+                if (!this.batch.isExpired())
+                {
+                    this.batch.callback.exception(e); // the terrain's own timeout expired for this segment
+                    return true;
+                }
+
+                this.batch.timeOut();
+                return false;
+            }
+            catch (Exception e)
+            {
+                if (this.batch.isCancelled())
+                    return false;
+
+                this.batch.callback.exception(e);
+                return true;
+            }
+        }
+    }
+
+    /** Runs a segment group and notifies its batch when the group finishes or is cancelled. */
+    protected static class GroupTask extends FutureTask<Object>
+    {
+        protected final Batch batch;
+
+        public GroupTask(SegmentGroup group)
+        {
+            super(group, null);
+            this.batch = group.batch;
+        }
+
+        @Override
+        protected void done()
+        {
+            this.batch.groupDone();
+        }
+    }
+
+    protected final int poolSize;
+    protected final ThreadPoolExecutor executor;
+    /** Identifies this engine's worker threads. */
+    protected final ThreadLocal<Boolean> workerThread = new ThreadLocal<Boolean>();
+
+    /**
+     * Constructs an engine with a specified number of worker threads. The threads are daemon threads that are created
+     * when needed and exit after being idle for a short time.
+     *
+     * @param poolSize the maximum number of segments to intersect concurrently.
+     *
+     * @throws IllegalArgumentException if the pool size is less than 1.
+     */
+    public TerrainIntersectionEngine(int poolSize)
+    {
+        if (poolSize < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "poolSize < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.poolSize = poolSize;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, THREAD_TIMEOUT, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(final Runnable runnable)
+            {
+                Thread thread = new Thread(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        workerThread.set(Boolean.TRUE);
+                        runnable.run();
+                    }
+                });
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Indicates the number of worker threads used by this engine.
+     *
+     * @return the engine's pool size.
+     */
+    public int getPoolSize()
+    {
+        return this.poolSize;
+    }
+
+    /**
+     * Indicates whether the current thread is one of this engine's worker threads, such as a thread calling a batch's
+     * callback.
+     *
+     * @return true if the current thread is a worker thread of this engine, otherwise false.
+     */
+    public boolean isWorkerThread()
+    {
+        return this.workerThread.get() != null;
+    }
+
+    /**
+     * Starts intersecting a list of two-position line segments with a terrain, and returns without waiting for the
+     * intersections to be computed. If this is called from one of this engine's worker threads, for example by a
+     * batch's callback, the batch is instead intersected on the calling thread and has finished when this returns.
+     *
+     * @param terrain   the terrain to intersect.
+     * @param positions the positions to intersect, with the line segments formed by each pair of positions, e.g. the
+     *                  first line is formed by positions[0] and positions[1], the second by positions[2] and
+     *                  positions[3], etc. Position altitudes are relative to the terrain. The list must not be modified
+     *                  until the batch has finished.
+     * @param callback  the object to receive the computed intersections and any exceptions.
+     * @param timeout   the number of milliseconds allowed for the entire batch. May be null, to indicate that the batch
+     *                  has an unlimited amount of time.
+     *
+     * @return a handle to the submitted batch.
+     *
+     * @throws IllegalArgumentException if the terrain, positions or callback are null, or the number of positions is
+     *                                  odd.
+     */
+    public Batch submit(HighResolutionTerrain terrain, List<Position> positions,
+        HighResolutionTerrain.IntersectionCallback callback, Long timeout)
+    {
+        if (terrain == null)
+        {
+            String message = Logging.getMessage("nullValue.TerrainIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (positions == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionsListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (positions.size() % 2 != 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "positions.size() is odd");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (callback == null)
+        {
+            String message = Logging.getMessage("nullValue.CallbackIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int segmentCount = positions.size() / 2;
+        Batch batch = new Batch(terrain, callback, segmentCount, timeout);
+
+        List<int[]> groups = this.groupSegments(terrain, positions, segmentCount);
+        if (groups.isEmpty())
+        {
+            batch.doneLatch.countDown();
+            return batch;
+        }
+
+        // Create every group task before running any, so that the batch can't finish before all its groups exist.
+        batch.remainingGroups.set(groups.size());
+        for (int[] group : groups)
+        {
+            batch.groups.add(new GroupTask(new SegmentGroup(batch, positions, group)));
+        }
+
+        // Queuing a batch from a worker and waiting for it would deadlock once every worker is waiting, so a worker
+        // runs the batch itself.
+        boolean runInline = this.isWorkerThread();
+        for (Future<?> group : batch.groups)
+        {
+            if (runInline)
+                ((Runnable) group).run();
+            else
+                this.executor.execute((Runnable) group);
+        }
+
+        return batch;
+    }
+
+    /**
+     * Orders a batch's segments so that segments crossing the same terrain tiles are adjacent, and divides them into
+     * groups that are each intersected by a single worker. Segments are ordered by the Z-order index of the terrain
+     * tile containing their midpoint. The group size divides the batch into several groups per worker, so that workers
+     * remain evenly loaded while each still reuses its tiles.
+     *
+     * @param terrain      the terrain to intersect.
+     * @param positions    the segments' positions.
+     * @param segmentCount the number of segments.
+     *
+     * @return the groups, each containing segment indices.
+     */
+    protected List<int[]> groupSegments(HighResolutionTerrain terrain, List<Position> positions, int segmentCount)
+    {
+        final long[] keys = new long[segmentCount];
+        Integer[] order = new Integer[segmentCount];
+
+        for (int i = 0; i < segmentCount; i++)
+        {
+            Position pA = positions.get(2 * i);
+            Position pB = positions.get(2 * i + 1);
+            Angle midLat = Angle.fromDegrees(0.5 * (pA.getLatitude().degrees + pB.getLatitude().degrees));
+            Angle midLon = Angle.fromDegrees(0.5 * (pA.getLongitude().degrees + pB.getLongitude().degrees));
+            int row = Math.max(0, terrain.computeRow(terrain.getSector(), midLat));
+            int col = Math.max(0, terrain.computeColumn(terrain.getSector(), midLon));
+
+            keys[i] = interleave(row, col);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer a, Integer b)
+            {
+                return Long.compare(keys[a], keys[b]);
+            }
+        });
+
+        int groupSize = Math.max(1, Math.min(MAX_GROUP_SIZE, segmentCount / (4 * this.poolSize)));
+        List<int[]> groups = new ArrayList<int[]>((segmentCount + groupSize - 1) / groupSize);
+
+        for (int first = 0; first < segmentCount; first += groupSize)
+        {
+            int[] group = new int[Math.min(groupSize, segmentCount - first)];
+            for (int i = 0; i < group.length; i++)
+            {
+                group[i] = order[first + i];
+            }
+
+            groups.add(group);
+        }
+
+        return groups;
+    }
+
+    /**
+     * Computes the Z-order index of a tile by interleaving the bits of its row and column.
+     *
+     * @param row the tile's row.
+     * @param col the tile's column.
+     *
+     * @return the tile's Z-order index.
+     */
+    protected static long interleave(int row, int col)
+    {
+        long index = 0;
+        for (int bit = 0; bit < 31; bit++)
+        {
+            index |= ((long) (row >>> bit) & 1L) << (2 * bit + 1);
+            index |= ((long) (col >>> bit) & 1L) << (2 * bit);
+        }
+
+        return index;
+    }
+
+    /** Stops this engine's worker threads. Batches that have not finished are cancelled. */
+    @Override
+    public void dispose()
+    {
+        for (Runnable group : this.executor.shutdownNow())
+        {
+            ((Future<?>) group).cancel(false); // lets the group's batch finish
+        }
+    }
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.data.*;
+import gov.nasa.worldwind.exception.*;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import gov.nasa.worldwind.util.Logging;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Computes the terrain visible from an observer within a specified radius, the viewshed, as a raster. The terrain is
+ * sampled on a regular grid centered on the observer, whose elevations are retrieved in bulk from the terrain's
+ * elevation model. Visibility is then computed with a radial sweep in the manner of the R2 algorithm: a ray is stepped
+ * from the observer's cell to each cell on the grid's perimeter, tracking the steepest terrain slope seen so far, and
+ * each cell the ray passes through is visible if its target point rises above that slope. Every grid cell lies on at
+ * least one ray, and a cell is marked visible if any ray passing through it sees it. The rays are divided into
+ * angular sectors that are computed concurrently.
+ * <p>
+ * Elevations are reduced by the earth's curvature, less the atmospheric refraction given by {@link
+ * #setRefractionCoefficient(double)}. The observer's altitude and the target height are both relative to the terrain.
+ * <p>
+ * The result is a {@link BufferWrapperRaster} of 8-bit values covering the grid's sector, one value per grid cell,
+ * with row 0 at the sector's northern edge. Each value is {@link #VISIBLE}, {@link #HIDDEN}, or {@link #OUTSIDE} for
+ * cells beyond the radius. The raster's missing data signal is <code>OUTSIDE</code>. {@link
+ * #createImage(BufferWrapperRaster, java.awt.Color, java.awt.Color)} converts the raster to an image that may be
+ * draped on the globe with a {@link gov.nasa.worldwind.render.SurfaceImage} covering the raster's sector.
+ * <p>
+ * Like {@link HighResolutionTerrain}, the computation blocks until the elevation model has elevations at the
+ * requested resolution, or the terrain's timeout expires. The viewshed's grid may not cross the antimeridian or either
+ * pole.
+ */
+public class Viewshed
+{
+    /** The raster value of grid cells visible from the observer. */
+    public static final byte VISIBLE = 1;
+    /** The raster value of grid cells hidden from the observer by the terrain. */
+    public static final byte HIDDEN = 0;
+    /** The raster value of grid cells beyond the viewshed's radius. */
+    public static final byte OUTSIDE = -1;
+
+    /** The number of angular sectors computed per available processor, to keep the processors evenly loaded. */
+    protected static final int SECTORS_PER_PROCESSOR = 4;
+    /** The largest number of grid cells, limited by the largest array the grid's elevations may be stored in. */
+    protected static final long MAX_GRID_CELLS = Integer.MAX_VALUE - 8;
+
+    /** The elevation grid and the observer's place in it, shared by the sector tasks of one computation. */
+    protected static class Grid
+    {
+        protected int size;
+        protected int center;
+        protected double cellWidth; // meters
+        protected double cellHeight; // meters
+        protected double radius; // meters
+        protected double eyeHeight; // meters, relative to the curved surface at the observer
+        protected double targetHeight;
+        protected double curvature; // elevation drop per square meter of distance
+        protected double[] elevations;
+        protected byte[] visibility;
+    }
+
+    protected final HighResolutionTerrain terrain;
+    protected double refractionCoefficient;
+    protected int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Constructs a viewshed calculator for a specified terrain. The terrain provides the globe and its elevation
+     * model, and the timeout for retrieving elevations.
+     *
+     * @param terrain the terrain.
+     *
+     * @throws IllegalArgumentException if the terrain is null.
+     */
+    public Viewshed(HighResolutionTerrain terrain)
+    {
+        if (terrain == null)
+        {
+            String message = Logging.getMessage("nullValue.TerrainIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.terrain = terrain;
+    }
+
+    /**
+     * Indicates the terrain used by this viewshed calculator.
+     *
+     * @return the terrain.
+     */
+    public HighResolutionTerrain getTerrain()
+    {
+        return this.terrain;
+    }
+
+    /**
+     * Indicates the atmospheric refraction coefficient. See {@link #setRefractionCoefficient(double)}.
+     *
+     * @return the refraction coefficient.
+     */
+    public double getRefractionCoefficient()
+    {
+        return this.refractionCoefficient;
+    }
+
+    /**
+     * Specifies the atmospheric refraction coefficient, the ratio of the earth's radius to the radius of curvature of
+     * a line of sight. Refraction bends lines of sight toward the earth, partially offsetting the earth's curvature. A
+     * value of 0.13 is typical for visible light, and 0.25 for radio waves. The default is 0, no refraction.
+     *
+     * @param refractionCoefficient the refraction coefficient.
+     *
+     * @throws IllegalArgumentException if the coefficient is not less than 1.
+     */
+    public void setRefractionCoefficient(double refractionCoefficient)
+    {
+        if (refractionCoefficient >= 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "refractionCoefficient >= 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.refractionCoefficient = refractionCoefficient;
+    }
+
+    /**
+     * Indicates the number of threads used to compute visibility. See {@link #setParallelism(int)}.
+     *
+     * @return the number of threads.
+     */
+    public int getParallelism()
+    {
+        return this.parallelism;
+    }
+
+    /**
+     * Specifies the number of threads used to compute visibility. When greater than 1, the grid's angular sectors are
+     * computed on a fork-join pool of that many threads, created for each computation. The default is the number of
+     * available processors.
+     *
+     * @param parallelism the number of threads.
+     *
+     * @throws IllegalArgumentException if the number of threads is less than 1.
+     */
+    public void setParallelism(int parallelism)
+    {
+        if (parallelism < 1)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "parallelism < 1");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Computes the viewshed of an observer.
+     *
+     * @param observer     the observer's location. The altitude is the observer's height above the terrain, in
+     *                     meters.
+     * @param radius       the distance from the observer, in meters, within which to compute visibility.
+     * @param resolution   the size of a grid cell, in meters.
+     * @param targetHeight the height above the terrain, in meters, of the points whose visibility is computed. A
+     *                     value of 0 computes the visibility of the terrain itself.
+     *
+     * @return a raster of the visibility of each grid cell.
+     *
+     * @throws IllegalArgumentException if the observer is null, if the radius or resolution are not positive, if the
+     *                                  radius is less than the resolution, if the target height is negative, if
+     *                                  the grid would have more than {@link #MAX_GRID_CELLS} cells, or if the
+     *                                  viewshed's grid would cross the antimeridian or a pole.
+     * @throws InterruptedException     if the operation is interrupted.
+     * @throws WWTimeoutException       if the terrain's timeout is exceeded while retrieving elevations.
+     */
+    public BufferWrapperRaster compute(Position observer, double radius, double resolution, double targetHeight)
+        throws InterruptedException
+    {
+        if (observer == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (!(resolution > 0) || !(radius >= resolution))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange",
+                String.format("radius %f, resolution %f", radius, resolution));
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (targetHeight < 0)
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "targetHeight < 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        // Reject grids whose cell count cannot be indexed by an int before sizing anything from it.
+        double cellsPerSide = 2 * Math.ceil(radius / resolution) + 1;
+        if (cellsPerSide * cellsPerSide > MAX_GRID_CELLS)
+        {
+            String message = Logging.getMessage("Viewshed.GridTooLarge", String.format("%.0f", cellsPerSide),
+                MAX_GRID_CELLS);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        Globe globe = this.terrain.getGlobe();
+        double globeRadius = globe.getRadiusAt(observer);
+
+        Grid grid = new Grid();
+        grid.center = (int) Math.ceil(radius / resolution);
+        grid.size = 2 * grid.center + 1;
+        grid.cellHeight = resolution;
+        grid.cellWidth = resolution;
+        grid.radius = radius;
+        grid.targetHeight = targetHeight;
+        grid.curvature = (1 - this.refractionCoefficient) / (2 * globeRadius);
+
+        // The grid's cells are centered on the grid's latitudes and longitudes, with the observer at the center cell.
+        // The grid must not cross the antimeridian or a pole, since its sector could not then describe where the
+        // raster's cells lie.
+        double dLat = Math.toDegrees(resolution / globeRadius);
+        double dLon = dLat / Math.max(observer.getLatitude().cos(), 1e-6);
+        double minLat = observer.getLatitude().degrees - (grid.center + 0.5) * dLat;
+        double maxLat = observer.getLatitude().degrees + (grid.center + 0.5) * dLat;
+        double minLon = observer.getLongitude().degrees - (grid.center + 0.5) * dLon;
+        double maxLon = observer.getLongitude().degrees + (grid.center + 0.5) * dLon;
+        if (minLat < -90 || maxLat > 90 || minLon < -180 || maxLon > 180)
+        {
+            String message = Logging.getMessage("Viewshed.ExtentCrossesAntimeridianOrPole",
+                String.format("(%f, %f, %f, %f)", minLat, maxLat, minLon, maxLon));
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        double[] latitudes = new double[grid.size * grid.size];
+        double[] longitudes = new double[grid.size * grid.size];
+        for (int row = 0; row < grid.size; row++)
+        {
+            double lat = observer.getLatitude().degrees + (grid.center - row) * dLat; // row 0 is the northern edge
+            for (int col = 0; col < grid.size; col++)
+            {
+                int index = row * grid.size + col;
+                latitudes[index] = lat;
+                longitudes[index] = observer.getLongitude().degrees + (col - grid.center) * dLon;
+            }
+        }
+
+        Sector sector = Sector.fromDegrees(minLat, maxLat, minLon, maxLon);
+
+        grid.elevations = this.retrieveElevations(sector, latitudes, longitudes, resolution / globeRadius);
+        grid.eyeHeight = grid.elevations[grid.center * grid.size + grid.center] + observer.getAltitude();
+        grid.visibility = new byte[grid.size * grid.size];
+
+        this.computeVisibility(grid);
+
+        return this.createRaster(grid, sector);
+    }
+
+    /**
+     * Retrieves the elevations of the grid's locations from the terrain's elevation model, waiting until elevations at
+     * the target resolution are available or the terrain's timeout expires.
+     *
+     * @param sector           the sector containing the locations.
+     * @param latitudes        the locations' latitudes, in degrees.
+     * @param longitudes       the locations' longitudes, in degrees.
+     * @param targetResolution the desired resolution, in radians.
+     *
+     * @return the elevations, in meters.
+     *
+     * @throws InterruptedException if the operation is interrupted.
+     * @throws WWTimeoutException   if the terrain's timeout is exceeded.
+     */
+    protected double[] retrieveElevations(Sector sector, double[] latitudes, double[] longitudes,
+        double targetResolution) throws InterruptedException
+    {
+        ElevationModel elevationModel = this.terrain.getGlobe().getElevationModel();
+        targetResolution = Math.max(targetResolution, elevationModel.getBestResolution(sector));
+
+        double[] elevations = new double[latitudes.length];
+        long startTime = System.currentTimeMillis();
+
+        while (true)
+        {
+            double actualResolution = elevationModel.getElevations(sector, latitudes, longitudes, 0, 1,
+                latitudes.length, targetResolution, elevations, 0);
+            if (actualResolution <= targetResolution || this.terrain.isUseCachedElevationsOnly())
+                return elevations;
+
+            // Give the system a chance to retrieve data from the disk cache or the server. Also catches interrupts
+            // and throws interrupt exceptions.
+            Thread.sleep(5L);
+
+            Long timeout = this.terrain.getTimeout();
+            if (timeout != null && System.currentTimeMillis() - startTime > timeout)
+                throw new WWTimeoutException("Terrain convergence timed out");
+        }
+    }
+
+    /**
+     * Computes the visibility of every grid cell, dividing the rays to the grid's perimeter cells into angular sectors
+     * that are computed concurrently.
+     *
+     * @param grid the grid.
+     *
+     * @throws InterruptedException if the operation is interrupted.
+     */
+    protected void computeVisibility(final Grid grid) throws InterruptedException
+    {
+        int perimeterCount = 4 * (grid.size - 1);
+        int sectorCount = this.parallelism > 1 ? Math.min(perimeterCount, SECTORS_PER_PROCESSOR * this.parallelism) : 1;
+
+        if (sectorCount == 1)
+        {
+            this.computeSector(grid, 0, perimeterCount);
+        }
+        else
+        {
+            List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(sectorCount);
+            for (int i = 0; i < sectorCount; i++)
+            {
+                final int first = (int) ((long) i * perimeterCount / sectorCount);
+                final int last = (int) ((long) (i + 1) * perimeterCount / sectorCount);
+                tasks.add(new Callable<Object>()
+                {
+                    @Override
+                    public Object call()
+                    {
+                        computeSector(grid, first, last);
+                        return null;
+                    }
+                });
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+            try
+            {
+                for (Future<Object> future : pool.invokeAll(tasks))
+                {
+                    try
+                    {
+                        future.get();
+                    }
+                    catch (ExecutionException e)
+                    {
+                        throw new WWRuntimeException(e.getCause());
+                    }
+                }
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+        }
+
+        // The observer's cell is always visible, and cells beyond the radius are marked as outside the viewshed.
+        grid.visibility[grid.center * grid.size + grid.center] = VISIBLE;
+        for (int row = 0; row < grid.size; row++)
+        {
+            for (int col = 0; col < grid.size; col++)
+            {
+                if (this.distance(grid, row, col) > grid.radius)
+                    grid.visibility[row * grid.size + col] = OUTSIDE;
+            }
+        }
+    }
+
+    /**
+     * Casts the rays from the observer to a range of the grid's perimeter cells. The perimeter cells are numbered
+     * clockwise from the grid's north-west corner.
+     *
+     * @param grid  the grid.
+     * @param first the number of the first perimeter cell.
+     * @param last  one more than the number of the last perimeter cell.
+     */
+    protected void computeSector(Grid grid, int first, int last)
+    {
+        int side = grid.size - 1;
+
+        for (int i = first; i < last; i++)
+        {
+            int row, col;
+            if (i < side) // northern edge, west to east
+            {
+                row = 0;
+                col = i;
+            }
+            else if (i < 2 * side) // eastern edge, north to south
+            {
+                row = i - side;
+                col = side;
+            }
+            else if (i < 3 * side) // southern edge, east to west
+            {
+                row = side;
+                col = 3 * side - i;
+            }
+            else // western edge, south to north
+            {
+                row = 4 * side - i;
+                col = 0;
+            }
+
+            this.castRay(grid, row, col);
+        }
+    }
+
+    /**
+     * Steps a ray from the observer's cell to a perimeter cell, one cell at a time along the ray's major axis, and
+     * marks the cells whose target points are above the steepest terrain slope between them and the observer.
+     *
+     * @param grid the grid.
+     * @param row  the perimeter cell's row.
+     * @param col  the perimeter cell's column.
+     */
+    protected void castRay(Grid grid, int row, int col)
+    {
+        int dRow = row - grid.center;
+        int dCol = col - grid.center;
+        int steps = Math.max(Math.abs(dRow), Math.abs(dCol));
+        double maxSlope = Double.NEGATIVE_INFINITY;
+
+        for (int step = 1; step <= steps; step++)
+        {
+            int r = grid.center + (int) Math.round((double) step * dRow / steps);
+            int c = grid.center + (int) Math.round((double) step * dCol / steps);
+
+            double distance = this.distance(grid, r, c);
+            if (distance > grid.radius)
+                return; // the rest of the ray is outside the viewshed
+
+            int index = r * grid.size + c;
+            double height = grid.elevations[index] - grid.curvature * distance * distance - grid.eyeHeight;
+            double targetSlope = (height + grid.targetHeight) / distance;
+
+            if (targetSlope >= maxSlope)
+                grid.visibility[index] = VISIBLE; // rays only ever mark cells visible, so rays may share cells
+
+            double slope = height / distance;
+            if (slope > maxSlope)
+                maxSlope = slope;
+        }
+    }
+
+    protected double distance(Grid grid, int row, int col)
+    {
+        double dx = (col - grid.center) * grid.cellWidth;
+        double dy = (row - grid.center) * grid.cellHeight;
+
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    protected BufferWrapperRaster createRaster(Grid grid, Sector sector)
+    {
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.DATA_TYPE, AVKey.INT8);
+        params.setValue(AVKey.MISSING_DATA_SIGNAL, (double) OUTSIDE);
+
+        return new ByteBufferRaster(grid.size, grid.size, sector, ByteBuffer.wrap(grid.visibility), params);
+    }
+
+    /**
+     * Creates an image from a viewshed raster, suitable for draping on the globe with a {@link
+     * gov.nasa.worldwind.render.SurfaceImage} covering the raster's sector. Cells outside the viewshed are
+     * transparent.
+     *
+     * @param raster       a raster computed by {@link #compute(gov.nasa.worldwind.geom.Position, double, double,
+     *                     double)}.
+     * @param visibleColor the color of visible cells. May include transparency.
+     * @param hiddenColor  the color of hidden cells. May include transparency.
+     *
+     * @return an image with one pixel per raster cell.
+     *
+     * @throws IllegalArgumentException if the raster or either color is null.
+     */
+    public static BufferedImage createImage(BufferWrapperRaster raster, Color visibleColor, Color hiddenColor)
+    {
+        if (raster == null)
+        {
+            String message = Logging.getMessage("nullValue.RasterIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (visibleColor == null || hiddenColor == null)
+        {
+            String message = Logging.getMessage("nullValue.ColorIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int width = raster.getWidth();
+        int height = raster.getHeight();
+        int[] pixels = new int[width * height];
+
+        for (int i = 0; i < pixels.length; i++)
+        {
+            double value = raster.getBuffer().getDouble(i);
+            pixels[i] = value == VISIBLE ? visibleColor.getRGB() : value == HIDDEN ? hiddenColor.getRGB() : 0;
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+
+        return image;
+    }
+}
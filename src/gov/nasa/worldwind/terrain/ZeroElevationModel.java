@@ -80,6 +80,26 @@ public class ZeroElevationModel extends AbstractElevationModel
         return this.getElevations(sector, latlons, targetResolution, buffer);
     }
 
+    @Override
+    public double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+        int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        java.util.Arrays.fill(buffer, bufferOffset, bufferOffset + count, 0);
+
+        // Mark the model as used this frame.
+        this.setValue(AVKey.FRAME_TIMESTAMP, System.currentTimeMillis());
+
+        return 0;
+    }
+
+    @Override
+    public double getUnmappedElevations(Sector sector, double[] latitudes, double[] longitudes, int offset,
+        int stride, int count, double targetResolution, double[] buffer, int bufferOffset)
+    {
+        return this.getElevations(sector, latitudes, longitudes, offset, stride, count, targetResolution, buffer,
+            bufferOffset);
+    }
+
     public int intersects(Sector sector)
     {
         return 0;
@@ -128,13 +128,27 @@ public class EGM96
             throw new IllegalArgumentException(msg);
         }
 
+        return this.getOffsetDegrees(latitude.degrees, longitude.degrees);
+    }
+
+    /**
+     * Returns the geoid offset at a location specified in degrees. This is equivalent to {@link #getOffset(Angle,
+     * Angle)}, but does not require the caller to allocate angles.
+     *
+     * @param latitude  the location's latitude, in degrees.
+     * @param longitude the location's longitude, in degrees.
+     *
+     * @return the geoid offset at the location, in meters.
+     */
+    public double getOffsetDegrees(double latitude, double longitude)
+    {
         // Return 0 for all offsets if the file failed to load. A log message of the failure will have been generated
         // by the load method.
         if (this.deltas == null)
             return 0;
 
-        double lat = latitude.degrees;
-        double lon = longitude.degrees >= 0 ? longitude.degrees : longitude.degrees + 360;
+        double lat = latitude;
+        double lon = longitude >= 0 ? longitude : longitude + 360;
 
         int topRow = (int) ((90 - lat) / INTERVAL.degrees);
         if (lat <= -90)
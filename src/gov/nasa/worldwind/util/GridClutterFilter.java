@@ -0,0 +1,340 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.render.*;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.*;
+import java.util.List;
+
+/**
+ * A clutter filter that accepts the same shapes as {@link BasicClutterFilter}, but finds overlapping regions with a
+ * uniform screen-space grid rather than by comparing each region to every region already accepted. Each accepted
+ * region is recorded in the grid cells it covers, and a candidate is compared only to the regions recorded in the
+ * cells it covers, so the filter's cost grows linearly with the number of shapes rather than quadratically.
+ * <p>
+ * The grid spans the bounding rectangle of each frame's candidate regions, clipped to the view's viewport. Regions
+ * partially or entirely outside the viewport are recorded in the grid's edge cells, so they are filtered exactly as
+ * regions inside it are, while distant outliers cannot stretch the grid and coarsen its cells. The grid's storage is
+ * retained and reused from one frame to the next, and cells are emptied by advancing a frame stamp rather than by
+ * clearing them.
+ * <p>
+ * Shapes are considered in the order given to {@link #apply(DrawContext, java.util.List)}, which for the scene
+ * controller is nearest to the eye first. A priority comparator may be specified to consider some shapes first
+ * instead, for example by label importance. Shapes that compare equal keep their given order.
+ */
+public class GridClutterFilter implements ClutterFilter
+{
+    /** The default width and height of a grid cell, in pixels. */
+    protected static final double DEFAULT_CELL_SIZE = 64;
+    /** The maximum number of grid cells. Larger extents use proportionally larger cells. */
+    protected static final int MAX_CELL_COUNT = 1 << 20;
+
+    protected double cellSize;
+    protected Comparator<? super Declutterable> priorityComparator;
+
+    // Grid state retained between frames.
+    protected int stamp;
+    protected int[] cellStamps = new int[0];
+    protected int[] cellHeads = new int[0];
+    protected int[] entryNext = new int[256];
+    protected int[] entryRegion = new int[256];
+    protected int entryCount;
+    protected ArrayList<Rectangle2D> regions = new ArrayList<Rectangle2D>();
+    protected ArrayList<Rectangle2D> candidateBounds = new ArrayList<Rectangle2D>();
+    // Grid geometry for the current frame.
+    protected double originX;
+    protected double originY;
+    protected double currentCellSize;
+    protected int numCols;
+    protected int numRows;
+
+    /** Constructs a clutter filter with the default cell size of 64 pixels and no priority comparator. */
+    public GridClutterFilter()
+    {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Constructs a clutter filter with a specified cell size. Cells somewhat larger than a typical region, such as a
+     * label, give the best performance.
+     *
+     * @param cellSize the width and height of a grid cell, in pixels.
+     *
+     * @throws IllegalArgumentException if the cell size is not positive.
+     */
+    public GridClutterFilter(double cellSize)
+    {
+        if (!(cellSize > 0))
+        {
+            String message = Logging.getMessage("generic.ArgumentOutOfRange", "cellSize <= 0");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Indicates the width and height of a grid cell.
+     *
+     * @return the cell size, in pixels.
+     */
+    public double getCellSize()
+    {
+        return this.cellSize;
+    }
+
+    /**
+     * Indicates the comparator that orders shapes before they are filtered. See {@link
+     * #setPriorityComparator(java.util.Comparator)}.
+     *
+     * @return the priority comparator, or null if shapes are filtered in the order given.
+     */
+    public Comparator<? super Declutterable> getPriorityComparator()
+    {
+        return this.priorityComparator;
+    }
+
+    /**
+     * Specifies a comparator that orders shapes before they are filtered. Shapes ordered first are accepted in
+     * preference to the shapes they overlap. The sort is stable, so shapes the comparator considers equal remain
+     * nearest to the eye first.
+     *
+     * @param priorityComparator the priority comparator. May be null, in which case shapes are filtered in the order
+     *                           given.
+     */
+    public void setPriorityComparator(Comparator<? super Declutterable> priorityComparator)
+    {
+        this.priorityComparator = priorityComparator;
+    }
+
+    public void apply(DrawContext dc, List<Declutterable> shapes)
+    {
+        if (this.priorityComparator != null)
+        {
+            shapes = new ArrayList<Declutterable>(shapes);
+            Collections.sort(shapes, this.priorityComparator);
+        }
+
+        try
+        {
+            // Compute each shape's bounds once, and size the grid to the bounds' extent.
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (Declutterable shape : shapes)
+            {
+                Rectangle2D bounds = shape.getBounds(dc);
+                this.candidateBounds.add(bounds);
+
+                if (bounds != null && !bounds.isEmpty())
+                {
+                    minX = Math.min(minX, bounds.getMinX());
+                    minY = Math.min(minY, bounds.getMinY());
+                    maxX = Math.max(maxX, bounds.getMaxX());
+                    maxY = Math.max(maxY, bounds.getMaxY());
+                }
+            }
+
+            // Clip the grid to the viewport. Regions beyond the viewport fall in the grid's edge cells.
+            Rectangle viewport = dc.getView() != null ? dc.getView().getViewport() : null;
+            if (viewport != null && !viewport.isEmpty())
+            {
+                minX = Math.max(minX, viewport.getMinX());
+                minY = Math.max(minY, viewport.getMinY());
+                maxX = Math.min(maxX, viewport.getMaxX());
+                maxY = Math.min(maxY, viewport.getMaxY());
+            }
+
+            this.beginFrame(minX, minY, maxX, maxY);
+
+            for (int i = 0; i < shapes.size(); i++)
+            {
+                Rectangle2D bounds = this.candidateBounds.get(i);
+                if (bounds == null)
+                    continue;
+
+                // Check for an intersecting region. If none, then add the incoming region to the grid. Subsequent
+                // regions will be checked for intersection with it.
+                if (this.intersects(bounds) == null)
+                {
+                    dc.addOrderedRenderable(shapes.get(i));
+                    this.addRegion(bounds);
+                }
+            }
+        }
+        finally
+        {
+            this.clear();
+        }
+    }
+
+    /** Releases the regions recorded during the most recent filter application, but retains the grid's storage. */
+    protected void clear()
+    {
+        this.regions.clear();
+        this.candidateBounds.clear();
+        this.entryCount = 0;
+    }
+
+    /**
+     * Prepares the grid to cover a specified extent, and empties its cells. Coordinates outside the extent map to the
+     * grid's edge cells. An empty extent, one whose minimum exceeds its maximum, is covered by a single cell.
+     *
+     * @param minX the extent's minimum X coordinate.
+     * @param minY the extent's minimum Y coordinate.
+     * @param maxX the extent's maximum X coordinate.
+     * @param maxY the extent's maximum Y coordinate.
+     */
+    protected void beginFrame(double minX, double minY, double maxX, double maxY)
+    {
+        this.originX = minX <= maxX ? minX : 0;
+        this.originY = minY <= maxY ? minY : 0;
+        double width = Math.max(0, maxX - minX);
+        double height = Math.max(0, maxY - minY);
+
+        // Enlarge the cells if the extent would otherwise need too many of them.
+        this.currentCellSize = this.cellSize;
+        double cellCount = (width / this.currentCellSize + 1) * (height / this.currentCellSize + 1);
+        if (cellCount > MAX_CELL_COUNT)
+            this.currentCellSize *= Math.sqrt(cellCount / MAX_CELL_COUNT);
+
+        this.numCols = (int) Math.min(MAX_CELL_COUNT, Math.floor(width / this.currentCellSize) + 1);
+        this.numRows = (int) Math.max(1, Math.min(MAX_CELL_COUNT / this.numCols,
+            Math.floor(height / this.currentCellSize) + 1));
+
+        int numCells = this.numCols * this.numRows;
+        if (this.cellStamps.length < numCells)
+        {
+            this.cellStamps = new int[numCells];
+            this.cellHeads = new int[numCells];
+            this.stamp = 0;
+        }
+
+        // Advancing the stamp empties every cell. Cells whose stamp differs from the current stamp are empty.
+        if (++this.stamp == Integer.MAX_VALUE)
+        {
+            Arrays.fill(this.cellStamps, 0);
+            this.stamp = 1;
+        }
+    }
+
+    /**
+     * Indicates whether a specified region intersects a region in the filter.
+     *
+     * @param rectangle the region to test.
+     *
+     * @return the intersected region if the input region intersects one or more other regions in the filter,
+     * otherwise null.
+     */
+    protected Rectangle2D intersects(Rectangle2D rectangle)
+    {
+        if (rectangle == null || rectangle.isEmpty())
+            return null; // empty rectangles intersect nothing
+
+        int col0 = this.computeColumn(rectangle.getMinX());
+        int col1 = this.computeColumn(rectangle.getMaxX());
+        int row0 = this.computeRow(rectangle.getMinY());
+        int row1 = this.computeRow(rectangle.getMaxY());
+
+        for (int row = row0; row <= row1; row++)
+        {
+            for (int col = col0; col <= col1; col++)
+            {
+                int cell = row * this.numCols + col;
+                if (this.cellStamps[cell] != this.stamp)
+                    continue;
+
+                for (int entry = this.cellHeads[cell]; entry >= 0; entry = this.entryNext[entry])
+                {
+                    Rectangle2D region = this.regions.get(this.entryRegion[entry]);
+                    if (rectangle.intersects(region))
+                        return region;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds a region to the grid cells it covers.
+     *
+     * @param rectangle the region to add.
+     */
+    protected void addRegion(Rectangle2D rectangle)
+    {
+        if (rectangle.isEmpty())
+            return; // empty rectangles intersect nothing, so need not be recorded
+
+        int regionIndex = this.regions.size();
+        this.regions.add(rectangle);
+
+        int col0 = this.computeColumn(rectangle.getMinX());
+        int col1 = this.computeColumn(rectangle.getMaxX());
+        int row0 = this.computeRow(rectangle.getMinY());
+        int row1 = this.computeRow(rectangle.getMaxY());
+
+        for (int row = row0; row <= row1; row++)
+        {
+            for (int col = col0; col <= col1; col++)
+            {
+                int cell = row * this.numCols + col;
+                if (this.cellStamps[cell] != this.stamp)
+                {
+                    this.cellStamps[cell] = this.stamp;
+                    this.cellHeads[cell] = -1;
+                }
+
+                if (this.entryCount == this.entryNext.length)
+                {
+                    this.entryNext = Arrays.copyOf(this.entryNext, 2 * this.entryCount);
+                    this.entryRegion = Arrays.copyOf(this.entryRegion, 2 * this.entryCount);
+                }
+
+                this.entryNext[this.entryCount] = this.cellHeads[cell];
+                this.entryRegion[this.entryCount] = regionIndex;
+                this.cellHeads[cell] = this.entryCount++;
+            }
+        }
+    }
+
+    protected int computeColumn(double x)
+    {
+        int col = (int) ((x - this.originX) / this.currentCellSize);
+        return col < 0 ? 0 : col >= this.numCols ? this.numCols - 1 : col;
+    }
+
+    protected int computeRow(double y)
+    {
+        int row = (int) ((y - this.originY) / this.currentCellSize);
+        return row < 0 ? 0 : row >= this.numRows ? this.numRows - 1 : row;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.geom.Position;
+
+import java.nio.DoubleBuffer;
+import java.util.*;
+
+/**
+ * An immutable list of positions stored as packed (longitude, latitude, elevation) tuples in a single
+ * <code>double</code> array, the coordinate order used by KML and GeoJSON. Each position occupies 24 bytes. Positions
+ * are created only when they are requested from the list, and the coordinates may be read without creating positions
+ * by {@link #getLatitude(int)}, {@link #getLongitude(int)} and {@link #getElevation(int)}, or as a {@link VecBuffer}
+ * by {@link #getVecBuffer()}.
+ */
+public class PackedPositionList extends AbstractList<Position> implements RandomAccess
+{
+    /** The number of coordinates stored for each position. */
+    public static final int COORDS_PER_POSITION = 3;
+
+    protected final double[] coords;
+    protected final int size;
+
+    /**
+     * Creates a list backed by an array of (longitude, latitude, elevation) tuples, in degrees and meters. The list
+     * uses the array without copying it, so the array must not be modified afterwards.
+     *
+     * @param coords the packed coordinates. The array's length must be a multiple of {@link #COORDS_PER_POSITION}.
+     *
+     * @throws IllegalArgumentException if the array is null or its length is not a multiple of three.
+     */
+    public PackedPositionList(double[] coords)
+    {
+        if (coords == null)
+        {
+            String message = Logging.getMessage("nullValue.ArrayIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        if (coords.length % COORDS_PER_POSITION != 0)
+        {
+            String message = Logging.getMessage("generic.ArrayInvalidLength", coords.length);
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        this.coords = coords;
+        this.size = coords.length / COORDS_PER_POSITION;
+    }
+
+    /**
+     * Creates a list holding the specified positions.
+     *
+     * @param positions the positions to copy into the list. Null positions are skipped.
+     *
+     * @return a new list holding the positions' coordinates.
+     *
+     * @throws IllegalArgumentException if the positions are null.
+     */
+    public static PackedPositionList fromPositions(Iterable<? extends Position> positions)
+    {
+        if (positions == null)
+        {
+            String message = Logging.getMessage("nullValue.PositionsListIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        double[] array = new double[COORDS_PER_POSITION * 16];
+        int length = 0;
+
+        for (Position position : positions)
+        {
+            if (position == null)
+                continue;
+
+            if (length == array.length)
+                array = Arrays.copyOf(array, 2 * array.length);
+
+            array[length++] = position.getLongitude().degrees;
+            array[length++] = position.getLatitude().degrees;
+            array[length++] = position.getElevation();
+        }
+
+        return new PackedPositionList(Arrays.copyOf(array, length));
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public Position get(int index)
+    {
+        this.checkIndex(index);
+
+        int i = COORDS_PER_POSITION * index;
+        return Position.fromDegrees(this.coords[i + 1], this.coords[i], this.coords[i + 2]);
+    }
+
+    /**
+     * Returns the latitude of a position, in degrees.
+     *
+     * @param index the position's index.
+     *
+     * @return the position's latitude in degrees.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public double getLatitude(int index)
+    {
+        this.checkIndex(index);
+
+        return this.coords[COORDS_PER_POSITION * index + 1];
+    }
+
+    /**
+     * Returns the longitude of a position, in degrees.
+     *
+     * @param index the position's index.
+     *
+     * @return the position's longitude in degrees.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public double getLongitude(int index)
+    {
+        this.checkIndex(index);
+
+        return this.coords[COORDS_PER_POSITION * index];
+    }
+
+    /**
+     * Returns the elevation of a position, in meters.
+     *
+     * @param index the position's index.
+     *
+     * @return the position's elevation in meters.
+     *
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public double getElevation(int index)
+    {
+        this.checkIndex(index);
+
+        return this.coords[COORDS_PER_POSITION * index + 2];
+    }
+
+    /**
+     * Indicates whether the first and last positions of this list have equal coordinates.
+     *
+     * @return true if this list has at least one position and its first and last positions are equal.
+     */
+    public boolean isClosed()
+    {
+        if (this.size == 0)
+            return false;
+
+        int last = COORDS_PER_POSITION * (this.size - 1);
+        for (int i = 0; i < COORDS_PER_POSITION; i++)
+        {
+            if (this.coords[i] != this.coords[last + i])
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a list holding this list's positions followed by a copy of its first position, unless the list is empty
+     * or already closed, in which case this list is returned.
+     *
+     * @return a closed list of this list's positions.
+     */
+    public PackedPositionList closed()
+    {
+        if (this.size == 0 || this.isClosed())
+            return this;
+
+        double[] array = Arrays.copyOf(this.coords, this.coords.length + COORDS_PER_POSITION);
+        System.arraycopy(this.coords, 0, array, this.coords.length, COORDS_PER_POSITION);
+
+        return new PackedPositionList(array);
+    }
+
+    /**
+     * Returns a view of this list's coordinates as a {@link VecBuffer} of (longitude, latitude, elevation) tuples. The
+     * buffer shares this list's storage and is read-only.
+     *
+     * @return a buffer of this list's coordinates.
+     */
+    public VecBuffer getVecBuffer()
+    {
+        DoubleBuffer buffer = DoubleBuffer.wrap(this.coords).asReadOnlyBuffer();
+        return new VecBuffer(COORDS_PER_POSITION, new BufferWrapper.DoubleBufferWrapper(buffer));
+    }
+
+    protected void checkIndex(int index)
+    {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException(Logging.getMessage("generic.indexOutOfRange", index));
+    }
+}
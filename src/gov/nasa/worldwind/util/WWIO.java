@@ -38,6 +38,7 @@ import java.net.*;
 import java.nio.*;
 import java.nio.channels.*;
 import java.nio.charset.Charset;
+import java.nio.file.*;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.zip.*;
@@ -49,6 +50,11 @@ import java.util.zip.*;
 public class WWIO
 {
     public static final String DELETE_ON_EXIT_PREFIX = "WWJDeleteOnExit";
+    /**
+     * The protocol of URLs referring to files packed by {@link gov.nasa.worldwind.cache.PackedFileStore}. The files'
+     * modification times are read from their URL connections; see {@link #isFileOutOfDate(java.net.URL, long)}.
+     */
+    public static final String PACKED_FILE_PROTOCOL = "wwpack";
     public static final String ILLEGAL_FILE_PATH_PART_CHARACTERS = "[" + "?/\\\\=+<>:;\\,\"\\|^\\[\\]" + "]";
     /** The default character encoding used if none is specified. */
     protected static final String DEFAULT_CHARACTER_ENCODING = "UTF-8";
@@ -280,6 +286,23 @@ public class WWIO
         }
     }
 
+    /**
+     * Saves a buffer's bytes to a file. The bytes are first written to a temporary file in the same directory, which
+     * then replaces the destination file. A destination file that exists is therefore never truncated or rewritten in
+     * place: readers that have it open or mapped into memory continue to see its previous contents, and readers that
+     * open it afterwards see the new contents. On systems that do not allow a file to be replaced while it is open or
+     * mapped, such as Windows, saving to a file in use fails with an {@link IOException}.
+     *
+     * @param buffer               the bytes to save.
+     * @param file                 the file to save them to.
+     * @param forceFilesystemWrite true to force the bytes to be written to the storage device before the file is
+     *                             replaced, otherwise false.
+     *
+     * @return true if the file was saved.
+     *
+     * @throws IllegalArgumentException if the buffer or file is null.
+     * @throws IOException              if an I/O error occurs.
+     */
     @SuppressWarnings({"ResultOfMethodCallIgnored"})
     public static boolean saveBuffer(ByteBuffer buffer, File file, boolean forceFilesystemWrite) throws IOException
     {
@@ -297,27 +320,18 @@ public class WWIO
             throw new IllegalArgumentException(message);
         }
 
+        File tempFile = null;
         FileOutputStream fos = null;
         FileChannel channel = null;
-        FileLock lock;
-        int numBytesWritten = 0;
         try
         {
-            fos = new FileOutputStream(file);
+            tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+            fos = new FileOutputStream(tempFile);
             channel = fos.getChannel();
 
-            lock = channel.tryLock();
-            if (lock == null)
-            {
-                // The file is being written to, or some other process is keeping it to itself.
-                // This is an okay condition, but worth noting.
-                Logging.logger().log(Level.FINER, "WWIO.UnableToAcquireLockFor", file.getPath());
-                return false;
-            }
-
             for (buffer.rewind(); buffer.hasRemaining(); )
             {
-                numBytesWritten += channel.write(buffer);
+                channel.write(buffer);
             }
 
             // Optionally force writing to the underlying storage device. Doing so ensures that all contents are
@@ -325,31 +339,56 @@ public class WWIO
             if (forceFilesystemWrite)
                 channel.force(true);
             fos.flush();
+
+            // The temporary file must be closed before it can replace the destination. Closing the channel also closes
+            // the stream.
+            channel.close();
+            channel = null;
+            fos = null;
+
+            replaceFile(tempFile, file);
+            tempFile = null;
             return true;
         }
         catch (ClosedByInterruptException e)
         {
             Logging.logger().log(Level.FINE,
                 Logging.getMessage("generic.interrupted", "WWIO.saveBuffer", file.getPath()), e);
-
-            if (numBytesWritten > 0) // don't leave behind incomplete files
-                file.delete();
-
             throw e;
         }
         catch (IOException e)
         {
             Logging.logger().log(Level.SEVERE, Logging.getMessage("WWIO.ErrorSavingBufferTo", file.getPath()), e);
-
-            if (numBytesWritten > 0) // don't leave behind incomplete files
-                file.delete();
-
             throw e;
         }
         finally
         {
-            WWIO.closeStream(channel, file.getPath()); // also releases the lock
+            WWIO.closeStream(channel, file.getPath());
             WWIO.closeStream(fos, file.getPath());
+
+            if (tempFile != null) // don't leave behind incomplete files
+                tempFile.delete();
+        }
+    }
+
+    /**
+     * Replaces a file with another file in the same directory, atomically if the file system supports it.
+     *
+     * @param source      the replacement file.
+     * @param destination the file to replace.
+     *
+     * @throws IOException if the file cannot be replaced.
+     */
+    protected static void replaceFile(File source, File destination) throws IOException
+    {
+        try
+        {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(source.toPath(), destination.toPath(), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
@@ -536,6 +575,38 @@ public class WWIO
         }
     }
 
+    /**
+     * Returns the bytes of the specified <code>{@link URL}</code> as a read-only {@link java.nio.MappedByteBuffer} if
+     * the URL refers to a file, otherwise reads the bytes into a heap buffer as {@link
+     * #readURLContentToBuffer(java.net.URL)} does. A mapped buffer consumes no heap, and its pages are shared with
+     * other processes mapping the same file.
+     * <p>
+     * The file must not be truncated or rewritten in place while the buffer is in use. Accessing the buffer after the
+     * file is truncated causes an {@link InternalError}. Files saved with {@link #saveBuffer(java.nio.ByteBuffer,
+     * java.io.File, boolean)} are replaced rather than rewritten, so a buffer mapped from such a file keeps the file's
+     * previous contents after the file is saved again or deleted.
+     *
+     * @param url the URL to map or read.
+     *
+     * @return a buffer containing the bytes from the URL.
+     *
+     * @throws IllegalArgumentException if the URL is null.
+     * @throws IOException              if an I/O error occurs.
+     */
+    public static ByteBuffer mapURLContentToBuffer(URL url) throws IOException
+    {
+        if (url == null)
+        {
+            String message = Logging.getMessage("nullValue.URLIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        File file = convertURLToFile(url);
+
+        return file != null ? mapFile(file) : readURLContentToBuffer(url);
+    }
+
     /**
      * Reads all the bytes from the specified <code>{@link URL}</code>, returning the bytes as a String. The bytes are
      * interpreted according to the specified encoding, or UTF-8 if no encoding is specified.
@@ -1239,6 +1310,19 @@ public class WWIO
             if (uri.isOpaque())
                 return false; // TODO: Determine how to check the date of non-Files
 
+            // Packed files report their modification time through their URL connection, which reads the pack's
+            // index rather than the network. The dates of resources with other schemes are not checked, since
+            // opening a connection to them may make a network request.
+            if (PACKED_FILE_PROTOCOL.equalsIgnoreCase(uri.getScheme()))
+            {
+                long lastModified = url.openConnection().getLastModified();
+                return lastModified != 0 && lastModified < expiryTime;
+            }
+            else if (!"file".equalsIgnoreCase(uri.getScheme()))
+            {
+                return false;
+            }
+
             File file = new File(uri);
 
             return file.exists() && file.lastModified() < expiryTime;
@@ -1248,6 +1332,11 @@ public class WWIO
             Logging.logger().log(Level.SEVERE, "WWIO.ExceptionValidatingFileExpiration", url);
             return false;
         }
+        catch (IOException e)
+        {
+            Logging.logger().log(Level.SEVERE, "WWIO.ExceptionValidatingFileExpiration", url);
+            return false;
+        }
     }
 
     public static Proxy configureProxy()
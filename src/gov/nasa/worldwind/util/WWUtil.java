@@ -44,6 +44,15 @@ import java.util.regex.Pattern;
  */
 public class WWUtil
 {
+    /** The largest mantissa that a double represents exactly, 2^53. */
+    protected static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /** Powers of ten that a double represents exactly. */
+    protected static final double[] EXACT_POWERS_OF_TEN =
+        {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18,
+            1e19, 1e20, 1e21, 1e22
+        };
+
     /**
      * Converts a specified string to an integer value. Returns null if the string cannot be converted.
      *
@@ -323,6 +332,71 @@ public class WWUtil
         }
     }
 
+    /**
+     * Parses a plain decimal number, such as <code>-123.45</code>, from a range of characters without creating a
+     * string. Numbers whose digits and scale a double represents exactly are computed directly, which rounds them
+     * exactly as {@link Double#parseDouble(String)} does. This returns NaN for any other form, such as a number with
+     * an exponent, too many digits, or no digits at all, in which case the caller should parse the characters with
+     * <code>Double.parseDouble</code>.
+     *
+     * @param chars the characters to parse.
+     * @param start the index of the number's first character.
+     * @param end   the index following the number's last character.
+     *
+     * @return the number, or NaN if the range does not contain a plain decimal number that can be computed exactly.
+     *
+     * @throws IllegalArgumentException if the characters are null.
+     */
+    public static double parseExactDecimal(CharSequence chars, int start, int end)
+    {
+        if (chars == null)
+        {
+            String message = Logging.getMessage("nullValue.CharSequenceIsNull");
+            Logging.logger().severe(message);
+            throw new IllegalArgumentException(message);
+        }
+
+        int index = start;
+        boolean negative = false;
+        if (index < end && (chars.charAt(index) == '-' || chars.charAt(index) == '+'))
+            negative = chars.charAt(index++) == '-';
+
+        long mantissa = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+
+        for (; index < end; index++)
+        {
+            char ch = chars.charAt(index);
+            if (ch >= '0' && ch <= '9')
+            {
+                mantissa = 10 * mantissa + (ch - '0');
+                if (mantissa > MAX_EXACT_MANTISSA)
+                    return Double.NaN;
+
+                digitCount++;
+                if (inFraction)
+                    fractionDigits++;
+            }
+            else if (ch == '.' && !inFraction)
+            {
+                inFraction = true;
+            }
+            else
+            {
+                return Double.NaN;
+            }
+        }
+
+        if (digitCount == 0 || fractionDigits >= EXACT_POWERS_OF_TEN.length)
+            return Double.NaN;
+
+        // Both operands are exact, so the quotient is the correctly rounded value of the decimal number.
+        double value = mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
     /**
      * Returns a sub sequence of the specified {@link CharSequence}, with leading and trailing whitespace omitted. If
      * the CharSequence has length zero, this returns a reference to the CharSequence. If the CharSequence represents
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.cache;
+
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BasicDataFileStoreTest
+{
+    private File dir;
+    private BasicDataFileStore store;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.dir = File.createTempFile("BasicDataFileStoreTest", "");
+        assertTrue(this.dir.delete());
+        assertTrue(new File(this.dir, "Earth/Tiles/0").mkdirs());
+
+        for (int i = 0; i < 10; i++)
+        {
+            WWIO.writeTextFile("tile " + i, new File(this.dir, "Earth/Tiles/0/" + i + ".txt"));
+        }
+
+        this.store = new BasicDataFileStore(this.dir);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        deleteRecursively(this.dir);
+    }
+
+    private static void deleteRecursively(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                deleteRecursively(child);
+            }
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    @Test
+    public void testIndexScan() throws Exception
+    {
+        this.store.startIndexScan().join();
+        assertEquals("Indexed files", 10, this.store.getIndexedFileCount());
+
+        URL url = this.store.findFile("Earth/Tiles/0/3.txt", false);
+        assertNotNull("Indexed file", url);
+        assertTrue("Indexed file contains", this.store.containsFile("Earth\\Tiles\\0\\3.txt"));
+        assertEquals("Indexed file URL", new File(this.dir, "Earth/Tiles/0/3.txt").toURI().toURL(), url);
+
+        // Removing the file through the store removes it from the index.
+        this.store.removeFile(url);
+        assertNull("Removed file", this.store.findFile("Earth/Tiles/0/3.txt", false));
+        assertEquals("Indexed files after removal", 9, this.store.getIndexedFileCount());
+    }
+
+    @Test
+    public void testRemovingFileOutsideLocationKeepsIndex() throws Exception
+    {
+        assertNotNull("Found file", this.store.findFile("Earth/Tiles/0/3.txt", false));
+        assertEquals("Indexed files", 1, this.store.getIndexedFileCount());
+
+        // A sibling directory whose name begins with the location's name, holding a file whose path after that prefix
+        // matches the indexed file's name.
+        File sibling = new File(this.dir.getPath() + "Earth");
+        try
+        {
+            File file = new File(sibling, "Tiles/0/3.txt");
+            assertTrue(file.getParentFile().mkdirs());
+            WWIO.writeTextFile("not in the store", file);
+
+            this.store.removeFile(file.toURI().toURL());
+            assertEquals("Indexed files after removal", 1, this.store.getIndexedFileCount());
+        }
+        finally
+        {
+            deleteRecursively(sibling);
+        }
+    }
+
+    @Test
+    public void testFindFileIndexesResult() throws Exception
+    {
+        assertEquals("Initially indexed files", 0, this.store.getIndexedFileCount());
+
+        URL url = this.store.findFile("Earth/Tiles/0/5.txt", false);
+        assertNotNull("Found file", url);
+        assertEquals("Indexed files", 1, this.store.getIndexedFileCount());
+
+        // A second lookup is answered from the index.
+        assertEquals("Indexed file URL", url, this.store.findFile("/Earth/Tiles/0/5.txt/", false));
+        assertNull("Missing file", this.store.findFile("Earth/Tiles/0/99.txt", false));
+        assertEquals("Indexed files after miss", 1, this.store.getIndexedFileCount());
+    }
+
+    @Test
+    public void testExternallyDeletedFileIsEvicted() throws Exception
+    {
+        assertNotNull("Found file", this.store.findFile("Earth/Tiles/0/7.txt", false));
+        assertEquals("Indexed files", 1, this.store.getIndexedFileCount());
+
+        // Delete the file without the store's knowledge, as an external cache cleaner would.
+        assertTrue(new File(this.dir, "Earth/Tiles/0/7.txt").delete());
+
+        assertFalse("Deleted file contains", this.store.containsFile("Earth/Tiles/0/7.txt"));
+        assertNull("Deleted file", this.store.findFile("Earth/Tiles/0/7.txt", false));
+        assertEquals("Indexed files after deletion", 0, this.store.getIndexedFileCount());
+    }
+
+    @Test
+    public void testConcurrentRequestFile() throws Exception
+    {
+        final AtomicInteger misses = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            for (int t = 0; t < 8; t++)
+            {
+                executor.submit(new Runnable()
+                {
+                    public void run()
+                    {
+                        for (int i = 0; i < 1000; i++)
+                        {
+                            String address = new File(dir, "Earth/Tiles/0/" + (i % 10) + ".txt").getPath();
+                            if (store.requestFile(address) == null)
+                                misses.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        assertEquals("Misses", 0, misses.get());
+        assertNotNull("Content type", this.store.getContentType(new File(this.dir, "Earth/Tiles/0/1.txt").getPath()));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.cache;
+
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.net.URL;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class PackedFileStoreTest
+{
+    private File dir;
+    private PackedFileStore store;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.dir = File.createTempFile("PackedFileStoreTest", "");
+        assertTrue(this.dir.delete());
+
+        this.store = this.createStore();
+        for (int i = 0; i < 10; i++)
+        {
+            WWIO.writeTextFile("tile " + i, this.store.newFile("Earth/Tiles/0/" + i + ".png"));
+        }
+        WWIO.writeTextFile("config", this.store.newFile("Earth/Tiles/config.xml"));
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        this.store.dispose();
+        deleteRecursively(this.dir);
+    }
+
+    private static void deleteRecursively(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                deleteRecursively(child);
+            }
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private PackedFileStore createStore()
+    {
+        PackedFileStore store = new PackedFileStore(this.dir);
+        store.maintenanceService.shutdownNow(); // pack explicitly
+        store.settleTime = 0;
+        return store;
+    }
+
+    @Test
+    public void testPackStagedFiles() throws Exception
+    {
+        assertEquals("Packed files", 10, this.store.packStagedFiles());
+        assertEquals("Packed file count", 10, this.store.getPackedFileCount());
+        assertFalse("Loose file deleted", new File(this.dir, "Earth/Tiles/0/3.png").exists());
+        assertTrue("Unpacked file kept", new File(this.dir, "Earth/Tiles/config.xml").exists());
+
+        URL url = this.store.findFile("Earth/Tiles/0/3.png", false);
+        assertNotNull("Packed file", url);
+        assertEquals("Packed file protocol", PackedFileStore.PROTOCOL, url.getProtocol());
+        assertTrue("Packed file contains", this.store.containsFile("Earth\\Tiles\\0\\3.png"));
+        assertEquals("Packed file contents", "tile 3", WWIO.readURLContentToString(url, null));
+        assertEquals("Packed file content type", "image/png", url.openConnection().getContentType());
+        assertFalse("Packed file out of date", WWIO.isFileOutOfDate(url, 0));
+        assertTrue("Packed file out of date", WWIO.isFileOutOfDate(url, System.currentTimeMillis() + 1000));
+
+        // The dates of remote resources are not checked, since that would make a network request.
+        assertFalse("Remote file out of date", WWIO.isFileOutOfDate(new URL("http://127.0.0.1:9/Earth/0.png"),
+            System.currentTimeMillis() + 1000));
+    }
+
+    @Test
+    public void testAveragePackedFileSize() throws Exception
+    {
+        assertEquals("Average size before packing", 0, this.store.computeAveragePackedFileSize("Earth/Tiles/0", 100));
+
+        this.store.packStagedFiles();
+
+        assertEquals("Average size", "tile 0".length(), this.store.computeAveragePackedFileSize("Earth/Tiles/0", 100));
+        assertEquals("Average size of other directory", 0,
+            this.store.computeAveragePackedFileSize("Earth/Tiles/1", 100));
+    }
+
+    @Test
+    public void testRewriteAndRemove() throws Exception
+    {
+        this.store.packStagedFiles();
+
+        // A rewritten file supersedes the packed file, and is packed in turn.
+        WWIO.writeTextFile("tile 3 again", this.store.newFile("Earth/Tiles/0/3.png"));
+        assertEquals("Staged file URL", "file", this.store.findFile("Earth/Tiles/0/3.png", false).getProtocol());
+        this.store.packStagedFiles();
+        assertEquals("Repacked file contents", "tile 3 again",
+            WWIO.readURLContentToString(this.store.findFile("Earth/Tiles/0/3.png", false), null));
+
+        this.store.removeFile(this.store.findFile("Earth/Tiles/0/4.png", false));
+        assertNull("Removed file", this.store.findFile("Earth/Tiles/0/4.png", false));
+        assertEquals("Packed file count", 9, this.store.getPackedFileCount());
+
+        // The index is rebuilt from the pack files.
+        this.store.dispose();
+        this.store = this.createStore();
+        assertEquals("Reopened packed file count", 9, this.store.getPackedFileCount());
+        assertNull("Reopened removed file", this.store.findFile("Earth/Tiles/0/4.png", false));
+        assertEquals("Reopened file contents", "tile 3 again",
+            WWIO.readURLContentToString(this.store.findFile("Earth/Tiles/0/3.png", false), null));
+    }
+
+    @Test
+    public void testExpireAndCompact() throws Exception
+    {
+        this.store.packStagedFiles();
+        assertEquals("Packs", 1, this.store.getPackCount());
+
+        assertEquals("Expired files", 10, this.store.removeFilesOlderThan(System.currentTimeMillis() + 1000));
+        assertEquals("Packed file count", 0, this.store.getPackedFileCount());
+
+        WWIO.writeTextFile("tile 11", this.store.newFile("Earth/Tiles/0/11.png"));
+        this.store.packStagedFiles();
+
+        assertEquals("Compacted packs", 1, this.store.compact());
+        assertEquals("Packs", 1, this.store.getPackCount());
+        assertEquals("Compacted file contents", "tile 11",
+            WWIO.readURLContentToString(this.store.findFile("Earth/Tiles/0/11.png", false), null));
+    }
+}
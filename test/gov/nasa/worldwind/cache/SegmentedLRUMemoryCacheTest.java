@@ -0,0 +1,227 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.cache;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class SegmentedLRUMemoryCacheTest
+{
+    @Test
+    public void testAddAndGet()
+    {
+        SegmentedLRUMemoryCache cache = new SegmentedLRUMemoryCache(80, 100);
+
+        assertTrue(cache.add("a", "A", 10));
+        assertTrue(cache.add("b", "B", 10));
+
+        assertEquals("A", cache.getObject("a"));
+        assertEquals("B", cache.getObject("b"));
+        assertNull(cache.getObject("c"));
+        assertEquals(2, cache.getNumObjects());
+        assertEquals(20, cache.getUsedCapacity());
+        assertEquals(80, cache.getFreeCapacity());
+    }
+
+    @Test
+    public void testRejectsOversizedEntry()
+    {
+        SegmentedLRUMemoryCache cache = new SegmentedLRUMemoryCache(80, 100);
+
+        assertFalse(cache.add("a", "A", 101));
+        assertFalse(cache.add("a", "A", 0));
+        assertEquals(0, cache.getNumObjects());
+    }
+
+    @Test
+    public void testReplaceNotifiesListener()
+    {
+        SegmentedLRUMemoryCache cache = new SegmentedLRUMemoryCache(80, 100);
+        final List<Object> removed = new ArrayList<Object>();
+        cache.addCacheListener(new RecordingListener(removed));
+
+        cache.add("a", "A1", 10);
+        cache.add("a", "A2", 20);
+
+        assertEquals("A2", cache.getObject("a"));
+        assertEquals(20, cache.getUsedCapacity());
+        assertEquals(Arrays.asList((Object) "A1"), removed);
+    }
+
+    /** Test that overflowing the cache evicts down to the low water level. */
+    @Test
+    public void testEvictsToLowWater()
+    {
+        SegmentedLRUMemoryCache cache = new SegmentedLRUMemoryCache(50, 100);
+        final List<Object> removed = new ArrayList<Object>();
+        cache.addCacheListener(new RecordingListener(removed));
+
+        for (int i = 0; i < 10; i++)
+        {
+            cache.add(i, i, 10);
+        }
+        assertEquals(100, cache.getUsedCapacity());
+
+        cache.add(10, 10, 10);
+
+        assertEquals(60, cache.getUsedCapacity());
+        assertTrue(cache.contains(10));
+        // Entries that were never read are evicted in insertion order.
+        assertEquals(Arrays.asList((Object) 0, 1, 2, 3, 4), removed);
+    }
+
+    /** Test that entries which have been read survive eviction of entries which have not. */
+    @Test
+    public void testRecentlyReadEntriesAreRetained()
+    {
+        SegmentedLRUMemoryCache cache = new SegmentedLRUMemoryCache(50, 100);
+
+        for (int i = 0; i < 10; i++)
+        {
+            cache.add(i, i, 10);
+        }
+
+        cache.getObject(0);
+        cache.getObject(1);
+        cache.add(10, 10, 10);
+
+        assertTrue(cache.contains(0));
+        assertTrue(cache.contains(1));
+        assertFalse(cache.contains(2));
+    }
+
+    @Test
+    public void testRemoveAndClear()
+    {
+        SegmentedLRUMemoryCache cache = new SegmentedLRUMemoryCache(80, 100);
+        final List<Object> removed = new ArrayList<Object>();
+        cache.addCacheListener(new RecordingListener(removed));
+
+        cache.add("a", "A", 10);
+        cache.add("b", "B", 10);
+        cache.add("c", "C", 10);
+        cache.getObject("b");
+
+        cache.remove("a");
+        assertFalse(cache.contains("a"));
+        assertEquals(20, cache.getUsedCapacity());
+
+        cache.clear();
+        assertEquals(0, cache.getNumObjects());
+        assertEquals(0, cache.getUsedCapacity());
+        assertEquals(3, removed.size());
+    }
+
+    /** Test that concurrent readers and writers leave the cache within capacity and with consistent accounting. */
+    @Test
+    public void testConcurrentAccess() throws Exception
+    {
+        final SegmentedLRUMemoryCache cache = new SegmentedLRUMemoryCache(800, 1000);
+        final AtomicInteger removedCount = new AtomicInteger();
+        cache.addCacheListener(new MemoryCache.CacheListener()
+        {
+            public void entryRemoved(Object key, Object clientObject)
+            {
+                removedCount.incrementAndGet();
+            }
+
+            public void removalException(Throwable exception, Object key, Object clientObject)
+            {
+            }
+        });
+
+        int numThreads = 8;
+        final int numOperations = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for (int t = 0; t < numThreads; t++)
+        {
+            final int seed = t;
+            futures.add(executor.submit(new Callable<Integer>()
+            {
+                public Integer call()
+                {
+                    Random random = new Random(seed);
+                    int adds = 0;
+                    for (int i = 0; i < numOperations; i++)
+                    {
+                        Integer key = random.nextInt(500);
+                        if (cache.getObject(key) == null && cache.add(key, key, 1 + random.nextInt(10)))
+                            adds++;
+                    }
+                    return adds;
+                }
+            }));
+        }
+
+        int totalAdds = 0;
+        for (Future<Integer> future : futures)
+        {
+            totalAdds += future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(cache.getUsedCapacity() <= cache.getCapacity());
+        assertEquals(totalAdds, cache.getNumObjects() + removedCount.get());
+
+        long size = 0;
+        for (SegmentedLRUMemoryCache.CacheEntry entry : cache.entries.values())
+        {
+            size += entry.clientObjectSize;
+        }
+        assertEquals(size, cache.getUsedCapacity());
+    }
+
+    protected static class RecordingListener implements MemoryCache.CacheListener
+    {
+        protected final List<Object> removed;
+
+        public RecordingListener(List<Object> removed)
+        {
+            this.removed = removed;
+        }
+
+        public void entryRemoved(Object key, Object clientObject)
+        {
+            this.removed.add(clientObject);
+        }
+
+        public void removalException(Throwable exception, Object key, Object clientObject)
+        {
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.data;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.awt.image.BufferedImage;
+import java.beans.*;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class TiledImageProducerTest
+{
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.dir = File.createTempFile("TiledImageProducerTest", "");
+        assertTrue(this.dir.delete());
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        deleteRecursively(this.dir);
+    }
+
+    private static void deleteRecursively(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                deleteRecursively(child);
+            }
+        }
+
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    @Test
+    public void testParallelProductionMatchesSerial() throws Exception
+    {
+        AtomicInteger serialSubtrees = new AtomicInteger();
+        AtomicInteger parallelSubtrees = new AtomicInteger();
+        Map<String, byte[]> serial = this.produce("Serial", 1, serialSubtrees);
+        Map<String, byte[]> parallel = this.produce("Parallel", 4, parallelSubtrees);
+
+        assertTrue("Tiles produced", serial.size() >= 4 + 16 + 64 + 256);
+        assertEquals("Tile names", serial.keySet(), parallel.keySet());
+        for (String name : serial.keySet())
+        {
+            assertTrue("Tile " + name, Arrays.equals(serial.get(name), parallel.get(name)));
+        }
+
+        assertTrue("Subtrees completed", serialSubtrees.get() > 0);
+        assertEquals("Subtrees completed", serialSubtrees.get(), parallelSubtrees.get());
+    }
+
+    private Map<String, byte[]> produce(String name, int parallelism, final AtomicInteger subtrees) throws Exception
+    {
+        BufferedImage image = new BufferedImage(1024, 1024, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < image.getHeight(); y++)
+        {
+            for (int x = 0; x < image.getWidth(); x++)
+            {
+                image.setRGB(x, y, 0xFF000000 | (x * 31 + y * 17) % 0x1000000 | ((x ^ y) & 0xFF) << 16);
+            }
+        }
+
+        BufferedImageRaster raster = new BufferedImageRaster(Sector.fromDegrees(10, 12, 20, 22), image);
+        raster.setValue(AVKey.PIXEL_FORMAT, AVKey.IMAGE);
+
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.FILE_STORE_LOCATION, this.dir.getAbsolutePath());
+        params.setValue(AVKey.DATA_CACHE_NAME, name);
+        params.setValue(AVKey.DATASET_NAME, name);
+        params.setValue(AVKey.TILE_WIDTH, 64);
+        params.setValue(AVKey.TILE_HEIGHT, 64);
+        params.setValue(AVKey.LEVEL_ZERO_TILE_DELTA, LatLon.fromDegrees(1, 1));
+        params.setValue(AVKey.NUM_LEVELS, 4);
+        params.setValue(AVKey.TILED_RASTER_PRODUCER_PARALLELISM, parallelism);
+
+        TiledImageProducer producer = new TiledImageProducer();
+        producer.addPropertyChangeListener(AVKey.TILED_RASTER_PRODUCER_SUBTREE_COMPLETE,
+            new PropertyChangeListener()
+            {
+                public void propertyChange(PropertyChangeEvent event)
+                {
+                    subtrees.incrementAndGet();
+                }
+            });
+        producer.setStoreParameters(params);
+        producer.offerDataSource(raster, null);
+        producer.startProduction();
+
+        Map<String, byte[]> tiles = new TreeMap<String, byte[]>();
+        File root = new File(this.dir, name);
+        for (File file : this.listFiles(root, new ArrayList<File>()))
+        {
+            if (!file.getName().endsWith(".xml"))
+                tiles.put(root.toURI().relativize(file.toURI()).getPath(), Files.readAllBytes(file.toPath()));
+        }
+
+        return tiles;
+    }
+
+    private List<File> listFiles(File dir, List<File> files)
+    {
+        File[] children = dir.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                if (child.isDirectory())
+                    this.listFiles(child, files);
+                else
+                    files.add(child);
+            }
+        }
+
+        return files;
+    }
+}
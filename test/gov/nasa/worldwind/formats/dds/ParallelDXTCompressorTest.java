@@ -0,0 +1,181 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.formats.dds;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.awt.image.BufferedImage;
+import java.nio.*;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ParallelDXTCompressorTest
+{
+    private static final String[] COMPRESSION_TYPES =
+        {
+            DXTCompressionAttributes.COLOR_BLOCK_COMPRESSION_BBOX,
+            DXTCompressionAttributes.COLOR_BLOCK_COMPRESSION_EUCLIDEAN_DISTANCE,
+            DXTCompressionAttributes.COLOR_BLOCK_COMPRESSION_LUMINANCE_DISTANCE,
+        };
+
+    @Test
+    public void testBlocksMatchSerialCompressors()
+    {
+        ParallelDXTCompressor parallel = new ParallelDXTCompressor();
+        int[][] sizes = {{1, 1}, {2, 4}, {5, 3}, {64, 64}, {67, 41}};
+
+        for (int[] size : sizes)
+        {
+            for (int imageType : new int[] {BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB})
+            {
+                BufferedImage image = createImage(size[0], size[1], imageType);
+
+                for (String type : COMPRESSION_TYPES)
+                {
+                    for (int flags = 0; flags < 4; flags++)
+                    {
+                        DXTCompressionAttributes attributes = new DXTCompressionAttributes();
+                        attributes.setColorBlockCompressionType(type);
+                        attributes.setEnableDXT1Alpha((flags & 1) != 0);
+                        attributes.setPremultiplyAlpha((flags & 2) != 0);
+
+                        String description = size[0] + "x" + size[1] + " type " + imageType + " " + type
+                            + " flags " + flags;
+                        assertSameBlocks(description, new DXT1Compressor(), DDSConstants.D3DFMT_DXT1, parallel,
+                            image, attributes);
+                        assertSameBlocks(description, new DXT3Compressor(), DDSConstants.D3DFMT_DXT3, parallel,
+                            image, attributes);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDDSFileMatchesSerialCompression()
+    {
+        DDSCompressor serialCompressor = new DDSCompressor()
+        {
+            @Override
+            protected boolean isBlockParallelCompression(DXTCompressor compressor)
+            {
+                return false;
+            }
+        };
+        DDSCompressor parallelCompressor = new DDSCompressor();
+
+        BufferedImage image = createImage(256, 128, BufferedImage.TYPE_INT_ARGB);
+
+        for (int dxtFormat : new int[] {DDSConstants.D3DFMT_DXT1, DDSConstants.D3DFMT_DXT3})
+        {
+            for (boolean mipmaps : new boolean[] {false, true})
+            {
+                DXTCompressionAttributes attributes = new DXTCompressionAttributes();
+                attributes.setDXTFormat(dxtFormat);
+                attributes.setBuildMipmaps(mipmaps);
+
+                ByteBuffer expected = serialCompressor.compressImage(image, attributes);
+                ByteBuffer actual = parallelCompressor.compressImage(image, attributes);
+                assertEquals("format " + dxtFormat + " mipmaps " + mipmaps, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelCompressionUsesBuildMipMaps()
+    {
+        // A subclass that builds a shorter mip map chain must see that chain in the compressed file.
+        DDSCompressor compressor = new DDSCompressor()
+        {
+            @Override
+            protected BufferedImage[] buildMipMaps(BufferedImage image, DXTCompressionAttributes attributes)
+            {
+                BufferedImage[] levels = super.buildMipMaps(image, attributes);
+                return new BufferedImage[] {levels[0], levels[1]};
+            }
+        };
+
+        BufferedImage image = createImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        DXTCompressionAttributes attributes = new DXTCompressionAttributes();
+        attributes.setDXTFormat(DDSConstants.D3DFMT_DXT1);
+        attributes.setBuildMipmaps(true);
+
+        ByteBuffer buffer = compressor.compressImage(image, attributes);
+        int headerSize = 4 + new DDSHeader().getSize();
+        int expectedSize = headerSize + ParallelDXTCompressor.getCompressedSize(DDSConstants.D3DFMT_DXT1, 64, 64)
+            + ParallelDXTCompressor.getCompressedSize(DDSConstants.D3DFMT_DXT1, 32, 32);
+
+        assertEquals("File size", expectedSize, buffer.remaining());
+        assertEquals("Mip map count", 2, buffer.order(ByteOrder.LITTLE_ENDIAN).getInt(28));
+    }
+
+    private static void assertSameBlocks(String description, DXTCompressor serial, int dxtFormat,
+        ParallelDXTCompressor parallel, BufferedImage image, DXTCompressionAttributes attributes)
+    {
+        int size = ParallelDXTCompressor.getCompressedSize(dxtFormat, image.getWidth(), image.getHeight());
+
+        ByteBuffer expected = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        serial.compressImage(image, attributes, expected);
+        expected.flip();
+
+        // Offset the output to verify the blocks are written relative to the buffer's position.
+        ByteBuffer actual = ByteBuffer.allocate(size + 3);
+        actual.position(3);
+        parallel.compressImage(image, dxtFormat, attributes, actual);
+        assertEquals(description, size + 3, actual.position());
+        actual.position(3);
+
+        assertEquals(description, expected, actual);
+    }
+
+    private static BufferedImage createImage(int width, int height, int imageType)
+    {
+        // Smooth gradients with noise exercise every palette index, and random alpha exercises the DXT1 alpha blocks.
+        Random random = new Random(width * 31 + height);
+        BufferedImage image = new BufferedImage(width, height, imageType);
+
+        for (int y = 0; y < height; y++)
+        {
+            for (int x = 0; x < width; x++)
+            {
+                int a = random.nextInt(4) == 0 ? random.nextInt(256) : 255;
+                int r = (x * 4 + random.nextInt(24)) & 0xFF;
+                int g = (y * 3 + random.nextInt(24)) & 0xFF;
+                int b = random.nextInt(256);
+                image.setRGB(x, y, (a << 24) | (r << 16) | (g << 8) | b);
+            }
+        }
+
+        return image;
+    }
+}
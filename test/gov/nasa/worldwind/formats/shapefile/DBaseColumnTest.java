@@ -0,0 +1,204 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.shapefile;
+
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class DBaseColumnTest
+{
+    private static final String WORLD_BORDERS_PATH = "testData/shapefiles/TM_WORLD_BORDERS-0.3.dbf";
+
+    private File tempFile;
+
+    @After
+    public void tearDown()
+    {
+        if (this.tempFile != null)
+        {
+            //noinspection ResultOfMethodCallIgnored
+            this.tempFile.delete();
+        }
+    }
+
+    @Test
+    public void testColumnsMatchRecords()
+    {
+        List<DBaseRecord> records = new ArrayList<DBaseRecord>();
+        DBaseFile dbaseFile = new DBaseFile(new File(WORLD_BORDERS_PATH));
+        while (dbaseFile.hasNext())
+        {
+            records.add(dbaseFile.nextRecord());
+        }
+
+        List<String> names = new ArrayList<String>();
+        for (DBaseField field : dbaseFile.getFields())
+        {
+            names.add(field.getName());
+        }
+
+        Map<String, DBaseColumn> columns = dbaseFile.getColumns(names);
+        assertEquals(names, new ArrayList<String>(columns.keySet()));
+
+        for (DBaseColumn column : columns.values())
+        {
+            assertEquals(records.size(), column.getNumberOfRows());
+
+            for (int row = 0; row < records.size(); row++)
+            {
+                Object expected = records.get(row).getValue(column.getName());
+                Object actual = column.getValue(row);
+                assertEquals(column.getName() + " row " + row, expected, actual);
+                assertEquals(expected == null, column.isNull(row));
+
+                if (expected instanceof Number)
+                    assertEquals(((Number) expected).doubleValue(), column.getDouble(row), 0);
+                else if (expected instanceof String)
+                    assertEquals(expected, column.getString(row));
+            }
+        }
+
+        assertNull(dbaseFile.getColumn("NOT_A_FIELD"));
+        dbaseFile.close();
+    }
+
+    @Test
+    public void testSelectedFieldNames()
+    {
+        DBaseFile dbaseFile = new DBaseFile(new File(WORLD_BORDERS_PATH));
+        dbaseFile.setSelectedFieldNames(Arrays.asList("NAME", "REGION"));
+
+        DBaseColumn names = dbaseFile.getColumn("NAME");
+        DBaseColumn regions = dbaseFile.getColumn("REGION");
+
+        int row = 0;
+        while (dbaseFile.hasNext())
+        {
+            DBaseRecord record = dbaseFile.nextRecord();
+            assertEquals(new HashSet<String>(Arrays.asList("NAME", "REGION")), keys(record));
+            assertEquals(names.getString(row), record.getValue("NAME"));
+            assertEquals(regions.getLong(row, -1), ((Number) record.getValue("REGION")).longValue());
+            row++;
+        }
+
+        dbaseFile.close();
+    }
+
+    @Test
+    public void testIntegersParsedExactly() throws IOException
+    {
+        String[] values = {"9007199254740993", "-9223372036854775808", "9223372036854775807", "  -42", "12.75", "1e3"};
+        DBaseFile dbaseFile = new DBaseFile(this.writeNumberFile(20, 0, values));
+        DBaseColumn column = dbaseFile.getColumn("VALUE");
+
+        assertEquals(9007199254740993L, column.getLong(0, -1));
+        assertEquals(Long.MIN_VALUE, column.getLong(1, -1));
+        assertEquals(Long.MAX_VALUE, column.getLong(2, -1));
+        assertEquals(-42L, column.getLong(3, -1));
+        assertEquals(12L, column.getLong(4, -1));
+        assertEquals(1000L, column.getLong(5, -1));
+        assertEquals((int) 9007199254740993L, column.getInt(0, -1));
+
+        for (int row = 0; row < 4; row++)
+        {
+            DBaseRecord record = dbaseFile.nextRecord();
+            assertEquals("Row " + row, record.getValue("VALUE"), column.getValue(row));
+        }
+
+        dbaseFile.close();
+    }
+
+    @Test
+    public void testDecimalsCorrectlyRounded() throws IOException
+    {
+        String[] values = {"0.1", "-2.675", "123456789.123456789", "1.00000000000000000001",
+            "0.00000000000000000000001", "9007199254740993.5"};
+        DBaseFile dbaseFile = new DBaseFile(this.writeNumberFile(26, 10, values));
+        DBaseColumn column = dbaseFile.getColumn("VALUE");
+
+        for (int row = 0; row < values.length; row++)
+        {
+            assertEquals(values[row], Double.parseDouble(values[row]), column.getDouble(row), 0);
+        }
+
+        dbaseFile.close();
+    }
+
+    /** Writes a dBase file with one number field named VALUE, with one record for each value. */
+    private File writeNumberFile(int length, int decimals, String[] values) throws IOException
+    {
+        int headerLength = 32 + 32 + 1;
+        int recordLength = 1 + length;
+        ByteBuffer buffer = ByteBuffer.allocate(headerLength + values.length * recordLength + 1);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.put((byte) 3).put((byte) 120).put((byte) 1).put((byte) 1);
+        buffer.putInt(values.length).putShort((short) headerLength).putShort((short) recordLength);
+        buffer.position(32);
+        buffer.put("VALUE".getBytes("US-ASCII"));
+        buffer.position(32 + 11);
+        buffer.put((byte) 'N');
+        buffer.position(32 + 16);
+        buffer.put((byte) length).put((byte) decimals);
+        buffer.position(64);
+        buffer.put((byte) 0x0D);
+
+        for (String value : values)
+        {
+            buffer.put((byte) ' ');
+            byte[] bytes = String.format("%" + length + "s", value).getBytes("US-ASCII");
+            buffer.put(bytes);
+        }
+        buffer.put((byte) 0x1A);
+        buffer.flip();
+
+        this.tempFile = File.createTempFile("DBaseColumnTest", ".dbf");
+        WWIO.saveBuffer(buffer, this.tempFile);
+
+        return this.tempFile;
+    }
+
+    private static Set<String> keys(DBaseRecord record)
+    {
+        Set<String> keys = new HashSet<String>();
+        for (Map.Entry<String, Object> entry : record.getEntries())
+        {
+            keys.add(entry.getKey());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.shapefile;
+
+import gov.nasa.worldwind.geom.Sector;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ShapefilePolygonsSchedulingTest
+{
+    private static final String BAY_AREA_PATH = "testData/shapefiles/BayArea.shp";
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private ShapefilePolygons shape;
+    private ShapefilePolygons.GeometryScheduler scheduler;
+    private CountDownLatch release;
+    private List<ShapefileGeometryRun> runs;
+
+    @Before
+    public void setUp()
+    {
+        this.shape = new ShapefilePolygons(new Shapefile(BAY_AREA_PATH));
+        this.scheduler = new ShapefilePolygons.GeometryScheduler(1);
+        this.release = new CountDownLatch(1);
+        this.runs = Collections.synchronizedList(new ArrayList<ShapefileGeometryRun>());
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.release.countDown();
+        this.scheduler.executor.shutdownNow();
+    }
+
+    @Test
+    public void testNearestRequestRunsFirst() throws InterruptedException
+    {
+        ShapefileGeometryRun blocker = this.submitBlocker();
+        ShapefileGeometryRun far = this.submit(30);
+        ShapefileGeometryRun near = this.submit(10);
+        ShapefileGeometryRun middle = this.submit(20);
+
+        this.release.countDown();
+        this.awaitRuns(4);
+
+        assertEquals(Arrays.asList(blocker, near, middle, far), this.runs);
+    }
+
+    @Test
+    public void testReprioritizeMovesQueuedRequest() throws InterruptedException
+    {
+        ShapefileGeometryRun blocker = this.submitBlocker();
+        ShapefileGeometryRun first = this.submit(10);
+        ShapefileGeometryRun second = this.submit(20);
+
+        assertTrue(this.scheduler.reprioritize(second, 5));
+        assertTrue(this.scheduler.reprioritize(second, 5)); // unchanged priority, still queued
+        assertEquals("Expecting the moved request to be queued once", 2, this.scheduler.getQueueSize());
+
+        this.release.countDown();
+        this.awaitRuns(3);
+
+        assertEquals(Arrays.asList(blocker, second, first), this.runs);
+        assertFalse("Expecting a request that has run not to be moved", this.scheduler.reprioritize(first, 1));
+    }
+
+    @Test
+    public void testCancelledRequestNeverRuns() throws InterruptedException
+    {
+        ShapefileGeometryRun blocker = this.submitBlocker();
+        ShapefileGeometryRun cancelled = this.submit(10);
+        ShapefileGeometryRun kept = this.submit(20);
+
+        this.scheduler.cancel(cancelled);
+        assertTrue(cancelled.isCancelled());
+
+        this.release.countDown();
+        this.awaitRuns(2);
+
+        assertEquals(Arrays.asList(blocker, kept), this.runs);
+        assertEquals(0, this.scheduler.getQueueSize());
+    }
+
+    @Test
+    public void testRequestsForTilesNoLongerCurrentAreCancelled()
+    {
+        Sector[] sectors = this.shape.getSector().subdivide();
+        ShapefilePolygons.ShapefileTile stale = new ShapefilePolygons.ShapefileTile(this.shape, sectors[0], 1.0e-3);
+        ShapefilePolygons.ShapefileTile current = new ShapefilePolygons.ShapefileTile(this.shape, sectors[1], 1.0e-3);
+
+        // A request is pending for a tile that is no longer in the current tiles. Only the other tile is requested
+        // this frame.
+        ShapefilePolygons.ShapefileGeometry pending = new ShapefilePolygons.ShapefileGeometry(this.shape,
+            stale.sector, stale.resolution);
+        this.shape.pendingRequests.put(stale, pending);
+        ShapefilePolygons.ShapefileGeometry request = new ShapefilePolygons.ShapefileGeometry(this.shape,
+            current.sector, current.resolution);
+        this.shape.requests.put(current, request);
+
+        this.shape.sendRequests();
+
+        assertTrue("Expecting the stale request to be cancelled", pending.isCancelled());
+        assertFalse("Expecting the stale request to be removed", this.shape.pendingRequests.containsKey(stale));
+        assertFalse(request.isCancelled());
+        assertTrue(this.shape.requests.isEmpty());
+    }
+
+    @Test
+    public void testFinishedRequestKeepsNewerRequestForTile()
+    {
+        ShapefilePolygons.ShapefileTile tile = new ShapefilePolygons.ShapefileTile(this.shape,
+            this.shape.getSector(), 1.0e-3);
+        ConcurrentHashMap<ShapefilePolygons.ShapefileTile, ShapefilePolygons.ShapefileGeometry> pendingRequests =
+            new ConcurrentHashMap<ShapefilePolygons.ShapefileTile, ShapefilePolygons.ShapefileGeometry>();
+
+        // A cancelled request finishes after a newer, equal request has replaced it for the same tile.
+        ShapefilePolygons.ShapefileGeometry cancelled = new ShapefilePolygons.ShapefileGeometry(this.shape,
+            tile.sector, tile.resolution);
+        ShapefilePolygons.ShapefileGeometry newer = new ShapefilePolygons.ShapefileGeometry(this.shape,
+            tile.sector, tile.resolution);
+        assertEquals(cancelled, newer);
+
+        cancelled.pendingRequests = pendingRequests;
+        cancelled.memoryCacheKey = tile;
+        cancelled.cancel();
+        pendingRequests.put(tile, newer);
+        cancelled.run();
+
+        assertSame("Expecting the newer request to remain pending", newer, pendingRequests.get(tile));
+
+        newer.pendingRequests = pendingRequests;
+        newer.memoryCacheKey = tile;
+        newer.cancel();
+        newer.run();
+
+        assertNull("Expecting the finished request to be removed", pendingRequests.get(tile));
+    }
+
+    private ShapefileGeometryRun submitBlocker() throws InterruptedException
+    {
+        // Occupy the only worker until the test releases it, so that the remaining requests wait in the queue.
+        ShapefileGeometryRun geom = this.submit(-1);
+        assertTrue("Timed out waiting for the worker", geom.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return geom;
+    }
+
+    private ShapefileGeometryRun submit(double priority)
+    {
+        ShapefileGeometryRun geom = new ShapefileGeometryRun(this.shape, priority, this.release, this.runs);
+        this.scheduler.submit(geom, priority);
+        return geom;
+    }
+
+    private void awaitRuns(int count) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (this.runs.size() < count || this.scheduler.getQueueSize() > 0)
+        {
+            assertTrue("Timed out waiting for requests to run", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class ShapefileGeometryRun extends ShapefilePolygons.ShapefileGeometry
+    {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private final List<ShapefileGeometryRun> runs;
+
+        public ShapefileGeometryRun(ShapefilePolygons shape, double id, CountDownLatch release,
+            List<ShapefileGeometryRun> runs)
+        {
+            super(shape, shape.getSector(), id); // distinct resolutions keep the requests unequal
+            this.release = release;
+            this.runs = runs;
+        }
+
+        @Override
+        public void run()
+        {
+            this.started.countDown();
+
+            try
+            {
+                this.release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            this.runs.add(this);
+        }
+    }
+}
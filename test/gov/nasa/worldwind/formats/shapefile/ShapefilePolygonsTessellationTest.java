@@ -0,0 +1,115 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.shapefile;
+
+import gov.nasa.worldwind.cache.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.IntBuffer;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ShapefilePolygonsTessellationTest
+{
+    private static final String BAY_AREA_PATH = "testData/shapefiles/BayArea.shp";
+    private static final double RESOLUTION = 1.0e-6;
+
+    private ShapefilePolygons shape;
+
+    @Before
+    public void setUp()
+    {
+        this.shape = new ShapefilePolygons(new Shapefile(BAY_AREA_PATH));
+    }
+
+    @Test
+    public void testParallelTessellationMatchesSerialTessellation()
+    {
+        ShapefilePolygons.ShapefileGeometry serial = this.tessellate(Integer.MAX_VALUE);
+        ShapefilePolygons.ShapefileGeometry parallel = this.tessellate(2);
+
+        assertTrue("Expecting records to be tessellated", serial.vertexCount > 0);
+        assertEquals("Vertex count", serial.vertexCount, parallel.vertexCount);
+        assertEquals("Vertex offset", serial.vertexOffset, parallel.vertexOffset);
+        for (int i = 0; i < 2 * serial.vertexCount; i++)
+        {
+            assertEquals("Vertex component " + i, serial.vertices.get(i), parallel.vertices.get(i), 0);
+        }
+
+        assertEquals("Record count", serial.recordIndices.size(), parallel.recordIndices.size());
+        for (int i = 0; i < serial.recordIndices.size(); i++)
+        {
+            ShapefilePolygons.RecordIndices expected = serial.recordIndices.get(i);
+            ShapefilePolygons.RecordIndices actual = parallel.recordIndices.get(i);
+            assertEquals("Record ordinal", expected.ordinal, actual.ordinal);
+            assertEquals("Vertex range location", expected.vertexRange.location, actual.vertexRange.location);
+            assertEquals("Vertex range length", expected.vertexRange.length, actual.vertexRange.length);
+            assertIndicesEqual(expected.interiorIndices, actual.interiorIndices);
+            assertIndicesEqual(expected.outlineIndices, actual.outlineIndices);
+        }
+    }
+
+    @Test
+    public void testCancelledGeometryIsNotCached()
+    {
+        MemoryCache cache = new BasicMemoryCache(1000000, 2000000);
+        Object key = new Object();
+
+        ShapefilePolygons.ShapefileGeometry geom = new ShapefilePolygons.ShapefileGeometry(this.shape,
+            this.shape.getSector(), RESOLUTION);
+        geom.memoryCache = cache;
+        geom.memoryCacheKey = key;
+        geom.cancel();
+        geom.run();
+
+        assertTrue("Expecting cancelled geometry to be empty", geom.recordIndices.isEmpty());
+        assertNull("Expecting cancelled geometry not to be cached", cache.getObject(key));
+    }
+
+    private ShapefilePolygons.ShapefileGeometry tessellate(int recordSplitThreshold)
+    {
+        ShapefilePolygons.ShapefileGeometry geom = new ShapefilePolygons.ShapefileGeometry(this.shape,
+            this.shape.getSector(), RESOLUTION);
+        this.shape.setRecordSplitThreshold(recordSplitThreshold);
+        this.shape.tessellate(geom);
+
+        return geom;
+    }
+
+    private static void assertIndicesEqual(IntBuffer expected, IntBuffer actual)
+    {
+        assertEquals("Index count", expected.remaining(), actual.remaining());
+        for (int i = expected.position(); i < expected.limit(); i++)
+        {
+            assertEquals("Index " + i, expected.get(i), actual.get(i));
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.shapefile;
+
+import gov.nasa.worldwind.WorldWind;
+import gov.nasa.worldwind.geom.Sector;
+import gov.nasa.worldwind.render.DrawContext;
+import gov.nasa.worldwind.util.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ShapefileSpatialIndexTest
+{
+    private static final String BAY_AREA_PATH = "testData/shapefiles/BayArea";
+    private static final String SPRINGFIELD_URBAN_GROWTH_PATH = "testData/shapefiles/SPR_UGB";
+    private static final String[] SUFFIXES = {".shp", ".shx", ".dbf", ".prj"};
+
+    private File tempDir;
+    private File indexFile;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.tempDir = File.createTempFile("ShapefileSpatialIndexTest", "");
+        assertTrue(this.tempDir.delete());
+        assertTrue(this.tempDir.mkdir());
+    }
+
+    @After
+    public void tearDown()
+    {
+        File[] files = this.tempDir.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        this.tempDir.delete();
+
+        if (this.indexFile != null)
+        {
+            //noinspection ResultOfMethodCallIgnored
+            this.indexFile.delete();
+            //noinspection ResultOfMethodCallIgnored
+            this.indexFile.getParentFile().delete();
+        }
+    }
+
+    @Test
+    public void testIndexQueryMatchesBruteForce()
+    {
+        Random random = new Random(42);
+        int numRecords = 1000;
+        int[] recordNumbers = new int[numRecords];
+        double[] bounds = new double[4 * numRecords];
+        for (int i = 0; i < numRecords; i++)
+        {
+            double lat = -80 + 160 * random.nextDouble();
+            double lon = -170 + 340 * random.nextDouble();
+            recordNumbers[i] = i + 1;
+            bounds[4 * i] = lat;
+            bounds[4 * i + 1] = lat + 5 * random.nextDouble();
+            bounds[4 * i + 2] = lon;
+            bounds[4 * i + 3] = lon + 5 * random.nextDouble();
+        }
+
+        ShapefileSpatialIndex index = new ShapefileSpatialIndex(recordNumbers, bounds, 8);
+        assertEquals(numRecords, index.getNumberOfRecords());
+
+        for (int q = 0; q < 50; q++)
+        {
+            double lat = -90 + 170 * random.nextDouble();
+            double lon = -180 + 340 * random.nextDouble();
+            Sector sector = Sector.fromDegrees(lat, lat + 20 * random.nextDouble(), lon,
+                lon + 20 * random.nextDouble());
+
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < numRecords; i++)
+            {
+                Sector recordSector = Sector.fromDegrees(bounds[4 * i], bounds[4 * i + 1], bounds[4 * i + 2],
+                    bounds[4 * i + 3]);
+                if (recordSector.intersects(sector))
+                    expected.add(recordNumbers[i]);
+            }
+
+            assertEquals("Query " + sector, expected, toList(index.getRecordNumbers(sector)));
+        }
+    }
+
+    @Test
+    public void testRecordsInSector() throws IOException
+    {
+        File shpFile = this.copyShapefile(BAY_AREA_PATH);
+
+        // Read every record in sequence to establish the expected query results.
+        Shapefile shapefile = new Shapefile(shpFile);
+        List<ShapefileRecord> allRecords = new ArrayList<ShapefileRecord>();
+        while (shapefile.hasNext())
+        {
+            allRecords.add(shapefile.nextRecord());
+        }
+        shapefile.close();
+
+        Sector bounds = Sector.fromDegrees(shapefile.getBoundingRectangle());
+        Sector sector = Sector.fromDegrees(bounds.getMinLatitude().degrees, bounds.getCentroid().getLatitude().degrees,
+            bounds.getMinLongitude().degrees, bounds.getCentroid().getLongitude().degrees);
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (ShapefileRecord record : allRecords)
+        {
+            if (Sector.fromDegrees(record.getBoundingRectangle()).intersects(sector))
+                expected.add(record.getRecordNumber());
+        }
+        assertFalse("Test sector contains no records", expected.isEmpty());
+        assertTrue("Test sector contains all records", expected.size() < allRecords.size());
+
+        shapefile = new Shapefile(shpFile);
+        assertTrue(shapefile.isRandomAccessSupported());
+
+        List<Integer> actual = new ArrayList<Integer>();
+        for (ShapefileRecord record : shapefile.getRecordsInSector(sector))
+        {
+            actual.add(record.getRecordNumber());
+
+            ShapefileRecord sequential = allRecords.get(record.getRecordNumber() - 1);
+            assertEquals(sequential.getNumberOfPoints(), record.getNumberOfPoints());
+            assertEquals(sequential.getAttributes().getEntries(), record.getAttributes().getEntries());
+        }
+        assertEquals(expected, actual);
+
+        // Random access does not disturb sequential reading.
+        assertTrue(shapefile.hasNext());
+        assertEquals(1, shapefile.nextRecord().getRecordNumber());
+        shapefile.close();
+
+        // The index is written to a sidecar file in the file store rather than next to the Shapefile, and read back
+        // by the next Shapefile.
+        URL url = WorldWind.getDataFileStore().findFile(shapefile.getSpatialIndexCachePath(), false);
+        assertNotNull("Sidecar index not written", url);
+        this.indexFile = WWIO.convertURLToFile(url);
+        assertFalse("Sidecar index written next to Shapefile",
+            new File(WWIO.replaceSuffix(shpFile.getPath(), Shapefile.SPATIAL_INDEX_FILE_SUFFIX)).exists());
+        ShapefileSpatialIndex index = ShapefileSpatialIndex.read(this.indexFile);
+        assertEquals(shpFile.length(), index.getSourceLength());
+        assertEquals(expected, toList(index.getRecordNumbers(sector)));
+    }
+
+    @Test
+    public void testProjectedRecordReadTwice() throws IOException
+    {
+        File shpFile = this.copyShapefile(SPRINGFIELD_URBAN_GROWTH_PATH);
+
+        Shapefile shapefile = new Shapefile(shpFile);
+        ShapefileRecord first = shapefile.getRecord(1);
+        double[] expected = first.getBoundingRectangle();
+        VecBuffer expectedPoints = first.getPointBuffer(0);
+        double[] expectedPoint = expectedPoints.get(0, new double[2]);
+
+        // Reading the record again, at random and in sequence, must not convert its UTM coordinates a second time.
+        ShapefileRecord second = shapefile.getRecord(1);
+        ShapefileRecord third = shapefile.nextRecord();
+        for (ShapefileRecord record : Arrays.asList(second, third))
+        {
+            assertTrue(Arrays.equals(expected, record.getBoundingRectangle()));
+            double[] point = record.getPointBuffer(0).get(0, new double[2]);
+            assertEquals(expectedPoint[0], point[0], 0);
+            assertEquals(expectedPoint[1], point[1], 0);
+        }
+        assertTrue(Sector.fromDegrees(shapefile.getBoundingRectangle()).contains(
+            expectedPoints.getPosition(0)));
+
+        shapefile.close();
+    }
+
+    @Test
+    public void testRecordsLoadedOnDemand() throws IOException
+    {
+        File shpFile = this.copyShapefile(BAY_AREA_PATH);
+        Shapefile shapefile = new Shapefile(shpFile);
+        Sector bounds = Sector.fromDegrees(shapefile.getBoundingRectangle());
+        Sector sector = bounds.subdivide()[0];
+        int[] expected = shapefile.getSpatialIndex().getRecordNumbers(sector);
+        this.indexFile = WWIO.convertURLToFile(
+            WorldWind.getDataFileStore().findFile(shapefile.getSpatialIndexCachePath(), false));
+
+        ShapefilePolylines polylines = new ShapefilePolylines(shapefile, null, null, null, true);
+        assertTrue(polylines.isLoadRecordsOnDemand());
+        assertEquals("Records read before display", 0, polylines.getRecordCount());
+
+        polylines.loadRecordsInSector(sector);
+        assertEquals(expected.length, polylines.getRecordCount());
+        assertEquals(expected.length, countTileRecords(polylines.rootTile));
+        for (ShapefileRenderable.Record record : polylines)
+        {
+            assertTrue("Record outside sector", record.getSector().intersects(sector));
+        }
+
+        // Loading a sector again, or a sector containing records already read, reads each record once.
+        polylines.loadRecordsInSector(sector);
+        polylines.loadRecordsInSector(bounds);
+        assertEquals(shapefile.getNumberOfRecords(), polylines.getRecordCount());
+        assertEquals(shapefile.getNumberOfRecords(), countTileRecords(polylines.rootTile));
+        shapefile.close();
+
+        // Tiles tessellated after their records are read on demand match tiles whose records were all read up front.
+        ShapefilePolygons allRecords = new ShapefilePolygons(new Shapefile(shpFile));
+        shapefile = new Shapefile(shpFile);
+        ShapefilePolygons onDemand = new ShapefilePolygons(shapefile, null, null, null, true);
+        onDemand.loadRecordsInSector(sector);
+        assertEquals(expected.length, onDemand.getRecordCount());
+
+        ShapefilePolygons.ShapefileGeometry expectedGeom = new ShapefilePolygons.ShapefileGeometry(allRecords,
+            sector, 1.0e-6);
+        allRecords.tessellate(expectedGeom);
+        ShapefilePolygons.ShapefileGeometry actualGeom = new ShapefilePolygons.ShapefileGeometry(onDemand,
+            sector, 1.0e-6);
+        onDemand.tessellate(actualGeom);
+        assertTrue("Expecting records to be tessellated", expectedGeom.vertexCount > 0);
+        assertEquals(expectedGeom.vertexCount, actualGeom.vertexCount);
+        assertEquals(expectedGeom.recordIndices.size(), actualGeom.recordIndices.size());
+        shapefile.close();
+    }
+
+    @Test
+    public void testSequentialPointFilterMatchesIndex() throws IOException
+    {
+        File shpFile = new File(this.tempDir, "points.shp");
+        writePointShapefile(shpFile, new double[] {10, 10, 50, 50, -100, -30, 20, 20});
+        Sector sector = Sector.fromDegrees(0, 20, 0, 20);
+
+        Shapefile shapefile = new Shapefile(shpFile);
+        List<Integer> indexed = new ArrayList<Integer>();
+        for (ShapefileRecord record : shapefile.getRecordsInSector(sector))
+        {
+            indexed.add(record.getRecordNumber());
+        }
+        assertEquals(Arrays.asList(1, 4), indexed);
+        this.indexFile = WWIO.convertURLToFile(
+            WorldWind.getDataFileStore().findFile(shapefile.getSpatialIndexCachePath(), false));
+        shapefile.close();
+
+        // A Shapefile read from a stream has no random access, so the records are read in sequence and filtered.
+        InputStream stream = new FileInputStream(shpFile);
+        try
+        {
+            shapefile = new Shapefile(stream, null, null);
+            assertFalse(shapefile.isRandomAccessSupported());
+
+            PointRenderable renderable = new PointRenderable(shapefile, Arrays.asList(sector));
+            assertEquals(indexed.size(), renderable.getRecordCount());
+            for (ShapefileRenderable.Record record : renderable)
+            {
+                assertEquals(indexed.get(record.getOrdinal()), renderable.recordNumbers.get(record.getOrdinal()));
+            }
+        }
+        finally
+        {
+            WWIO.closeStream(stream, null);
+        }
+    }
+
+    private File copyShapefile(String basePath) throws IOException
+    {
+        File shpFile = null;
+        for (String suffix : SUFFIXES)
+        {
+            File source = new File(basePath + suffix);
+            File dest = new File(this.tempDir, source.getName());
+            WWIO.copyFile(source, dest);
+            if (suffix.equals(".shp"))
+                shpFile = dest;
+        }
+
+        return shpFile;
+    }
+
+    private static int countTileRecords(ShapefilePolylines.Tile tile)
+    {
+        int count = tile.records.size();
+        if (tile.children != null)
+        {
+            for (ShapefilePolylines.Tile child : tile.children)
+            {
+                count += countTileRecords(child);
+            }
+        }
+        return count;
+    }
+
+    private static void writePointShapefile(File file, double[] xy) throws IOException
+    {
+        int numPoints = xy.length / 2;
+        ByteBuffer buffer = ByteBuffer.allocate(100 + 28 * numPoints);
+
+        // File header: the file code and file length are big endian, the remaining fields are little endian.
+        buffer.order(ByteOrder.BIG_ENDIAN).putInt(0, 9994).putInt(24, buffer.capacity() / 2);
+        buffer.order(ByteOrder.LITTLE_ENDIAN).putInt(28, 1000).putInt(32, 1); // version, point shape type
+        buffer.putDouble(36, -180).putDouble(44, -90).putDouble(52, 180).putDouble(60, 90);
+
+        for (int i = 0; i < numPoints; i++)
+        {
+            int offset = 100 + 28 * i;
+            buffer.order(ByteOrder.BIG_ENDIAN).putInt(offset, i + 1).putInt(offset + 4, 10); // number, content length
+            buffer.order(ByteOrder.LITTLE_ENDIAN).putInt(offset + 8, 1);
+            buffer.putDouble(offset + 12, xy[2 * i]).putDouble(offset + 20, xy[2 * i + 1]);
+        }
+
+        WWIO.saveBuffer(buffer, file);
+    }
+
+    private static class PointRenderable extends ShapefileRenderable
+    {
+        private List<Integer> recordNumbers = new ArrayList<Integer>();
+
+        public PointRenderable(Shapefile shapefile, Iterable<? extends Sector> sectors)
+        {
+            this.init(shapefile, null, null, null, sectors);
+        }
+
+        @Override
+        protected void assembleRecord(ShapefileRecord shapefileRecord)
+        {
+            super.assembleRecord(shapefileRecord);
+            this.recordNumbers.add(shapefileRecord.getRecordNumber());
+        }
+
+        @Override
+        public void render(DrawContext dc)
+        {
+        }
+    }
+
+    private static List<Integer> toList(int[] array)
+    {
+        List<Integer> list = new ArrayList<Integer>(array.length);
+        for (int i : array)
+        {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.vpf;
+
+import gov.nasa.worldwind.util.VecBuffer;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class VPFMappedRecordDataTest
+{
+    private static final int NUM_ROWS = 25;
+    private static final String[] COLUMNS = {"id", "tile_id", "name", "edge_ptr", "coordinates", "length"};
+
+    private File tableFile;
+    private File indexFile;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.tableFile = File.createTempFile("VPFMappedRecordDataTest", ".tab");
+        this.indexFile = new File(this.tableFile.getParent(),
+            VPFTableReader.getRecordIndexFilename(this.tableFile.getName()));
+        writeTable(this.tableFile, this.indexFile);
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.tableFile.delete();
+        this.indexFile.delete();
+    }
+
+    @Test
+    public void testMappedValuesMatchBufferedValues()
+    {
+        VPFBufferedRecordData buffered = new VPFTableReader(false).read(this.tableFile);
+        VPFBufferedRecordData mapped = new VPFTableReader(true).read(this.tableFile);
+
+        assertTrue("Table is not mapped", mapped instanceof VPFMappedRecordData);
+        assertEquals("Record count not as expected", NUM_ROWS, mapped.getNumRecords());
+
+        for (int id = 1; id <= NUM_ROWS; id++)
+        {
+            VPFRecord expected = buffered.getRecord(id);
+            VPFRecord actual = mapped.getRecord(id);
+
+            for (String column : COLUMNS)
+            {
+                assertEquals("Value presence not as expected", expected.hasValue(column), actual.hasValue(column));
+                assertValueEquals(expected.getValue(column), actual.getValue(column));
+            }
+        }
+    }
+
+    @Test
+    public void testRowsDecodedWithoutDecodingColumns()
+    {
+        VPFMappedRecordData mapped = (VPFMappedRecordData) new VPFTableReader(true).read(this.tableFile);
+
+        int count = 0;
+        for (VPFRecord row : mapped)
+        {
+            if (((Number) row.getValue("tile_id")).intValue() == 2)
+            {
+                assertEquals("Name not as expected", "Row " + row.getId(), row.getValue("name"));
+                count++;
+            }
+        }
+
+        assertEquals("Matching row count not as expected", 8, count);
+        assertFalse("Column decoded by row access", mapped.isDecoded("tile_id"));
+        assertFalse("Column decoded by row access", mapped.isDecoded("name"));
+
+        // Searching by value decodes the searched column.
+        VPFRecord row = mapped.getRecord("name", "Row 17");
+        assertNotNull("Row not found", row);
+        assertEquals("Row id not as expected", 17, row.getId());
+        assertTrue("Searched column not decoded", mapped.isDecoded("name"));
+        assertEquals("Value not as expected", 17, ((Number) row.getValue("id")).intValue());
+    }
+
+    private static void assertValueEquals(Object expected, Object actual)
+    {
+        if (expected instanceof VecBuffer)
+        {
+            VecBuffer expectedCoords = (VecBuffer) expected;
+            VecBuffer actualCoords = (VecBuffer) actual;
+            assertEquals("Coordinate count not as expected", expectedCoords.getSize(), actualCoords.getSize());
+
+            double[] expectedValues = new double[2];
+            double[] actualValues = new double[2];
+            for (int i = 0; i < expectedCoords.getSize(); i++)
+            {
+                expectedCoords.get(i, expectedValues);
+                actualCoords.get(i, actualValues);
+                assertEquals("Longitude not as expected", expectedValues[0], actualValues[0], 0);
+                assertEquals("Latitude not as expected", expectedValues[1], actualValues[1], 0);
+            }
+        }
+        else if (expected instanceof VPFTripletId)
+        {
+            VPFTripletId expectedId = (VPFTripletId) expected;
+            VPFTripletId actualId = (VPFTripletId) actual;
+            assertEquals("Triplet id not as expected", expectedId.getId(), actualId.getId());
+            assertEquals("Triplet tile id not as expected", expectedId.getTileId(), actualId.getTileId());
+            assertEquals("Triplet external id not as expected", expectedId.getExtId(), actualId.getExtId());
+        }
+        else
+        {
+            assertEquals("Value not as expected", expected, actual);
+        }
+    }
+
+    /**
+     * Writes a table whose variable length text, triplet id and coordinate columns precede a fixed length column, and
+     * its variable-length record index.
+     */
+    private static void writeTable(File tableFile, File indexFile) throws IOException
+    {
+        String header = "L;Test table;-;"
+            + "id=I,1,P,Row Identifier,-,-,-,:"
+            + "tile_id=S,1,N,Tile Reference Identifier,-,-,-,:"
+            + "name=T,*,N,Name,-,-,-,:"
+            + "edge_ptr=K,1,N,Edge Pointer,-,-,-,:"
+            + "coordinates=C,*,N,Coordinates,-,-,-,:"
+            + "length=F,1,N,Length,-,-,-,:;";
+
+        ByteBuffer table = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+        table.putInt(header.length());
+        table.put(header.getBytes("US-ASCII"));
+
+        ByteBuffer index = ByteBuffer.allocate(8 + 8 * NUM_ROWS).order(ByteOrder.LITTLE_ENDIAN);
+        index.putInt(NUM_ROWS);
+        index.putInt(header.length());
+
+        for (int id = 1; id <= NUM_ROWS; id++)
+        {
+            int offset = table.position();
+
+            table.putInt(id);
+            table.putShort((short) (id % 3));
+
+            byte[] name = ("Row " + id).getBytes("US-ASCII");
+            table.putInt(name.length);
+            table.put(name);
+
+            if (id % 5 == 0)
+            {
+                table.put((byte) 0); // Null triplet id.
+            }
+            else
+            {
+                table.put((byte) 0x64); // 8 bit id, 16 bit tile id, 8 bit external id.
+                table.put((byte) id);
+                table.putShort((short) (id * 100));
+                table.put((byte) 7);
+            }
+
+            int numCoords = 1 + id % 3;
+            table.putInt(numCoords);
+            for (int i = 0; i < numCoords; i++)
+            {
+                table.putFloat(id + i);
+                table.putFloat(-id - i);
+            }
+
+            table.putFloat(id * 0.5f);
+
+            index.putInt(offset);
+            index.putInt(table.position() - offset);
+        }
+
+        writeBuffer(table, tableFile);
+        writeBuffer(index, indexFile);
+    }
+
+    private static void writeBuffer(ByteBuffer buffer, File file) throws IOException
+    {
+        buffer.flip();
+
+        FileOutputStream stream = new FileOutputStream(file);
+        try
+        {
+            stream.getChannel().write(buffer);
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.formats.vpf;
+
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class VPFTileLoaderTest
+{
+    private VPFTileLoader loader;
+
+    @Before
+    public void setUp()
+    {
+        this.loader = new VPFTileLoader(1);
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.loader.dispose();
+    }
+
+    @Test
+    public void testPriorityOrderAndCancellation() throws InterruptedException
+    {
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+
+        Task blocker = new Task("blocker", order, started, release, finished);
+        Task a = new Task("a", order, null, null, finished);
+        Task b = new Task("b", order, null, null, finished);
+        Task c = new Task("c", order, null, null, finished);
+
+        // Occupy the single worker so the other tasks queue up behind it.
+        assertTrue(this.loader.submit(blocker, 0));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(this.loader.submit(c, 3));
+        assertTrue(this.loader.submit(a, 1));
+        assertTrue(this.loader.submit(b, 2));
+        assertFalse("Duplicate task scheduled", this.loader.submit(new Task("a", order, null, null, finished), 1));
+
+        // Move c ahead of a, and cancel b because it is no longer requested.
+        assertFalse(this.loader.submit(c, 0));
+        this.loader.retainAll(Arrays.asList(blocker, a, c));
+
+        VPFTileLoader.Metrics metrics = this.loader.getMetrics();
+        assertEquals(1, metrics.getActiveCount());
+        assertEquals(2, metrics.getQueuedCount());
+        assertEquals(1, metrics.getCancelledCount());
+        assertTrue(metrics.isLoading());
+        assertTrue(metrics.getProgress() < 1);
+
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        waitUntilIdle(this.loader);
+
+        assertEquals(Arrays.asList("blocker", "c", "a"), order);
+
+        metrics = this.loader.getMetrics();
+        assertEquals(0, metrics.getQueuedCount());
+        assertEquals(0, metrics.getActiveCount());
+        assertEquals(3, metrics.getCompletedCount());
+        assertEquals(1, metrics.getCancelledCount());
+        assertEquals(0, metrics.getFailedCount());
+        assertEquals(1.0, metrics.getProgress(), 0);
+        assertFalse(metrics.isLoading());
+    }
+
+    @Test
+    public void testRunningTaskObservesCancellation() throws InterruptedException
+    {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final boolean[] observed = new boolean[1];
+
+        this.loader.submit(new Runnable()
+        {
+            public void run()
+            {
+                started.countDown();
+                long deadline = System.currentTimeMillis() + 5000;
+                while (System.currentTimeMillis() < deadline)
+                {
+                    if (VPFTileLoader.isCurrentTaskCancelled())
+                    {
+                        observed[0] = true;
+                        break;
+                    }
+                    Thread.yield();
+                }
+                cancelled.countDown();
+            }
+        }, 0);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(VPFTileLoader.isCurrentTaskCancelled());
+
+        this.loader.cancelAll();
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertTrue("Running task did not see its cancellation", observed[0]);
+        assertEquals(1, this.loader.getMetrics().getCancelledCount());
+        assertEquals(0, this.loader.getMetrics().getCompletedCount());
+    }
+
+    private static void waitUntilIdle(VPFTileLoader loader) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loader.getMetrics().isLoading() && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class Task implements Runnable
+    {
+        private final String name;
+        private final List<String> order;
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+        private final CountDownLatch finished;
+
+        public Task(String name, List<String> order, CountDownLatch started, CountDownLatch release,
+            CountDownLatch finished)
+        {
+            this.name = name;
+            this.order = order;
+            this.started = started;
+            this.release = release;
+            this.finished = finished;
+        }
+
+        public void run()
+        {
+            if (this.started != null)
+                this.started.countDown();
+
+            try
+            {
+                if (this.release != null)
+                    this.release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            this.order.add(this.name);
+            this.finished.countDown();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof Task && ((Task) o).name.equals(this.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.name.hashCode();
+        }
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.geom.coords;
+
+import gov.nasa.worldwind.avlist.AVKey;
+import gov.nasa.worldwind.geom.Angle;
+import gov.nasa.worldwind.globes.Globe;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link BatchCoordConverter} produces bit for bit the results of the single coordinate factories, and
+ * fails exactly where they throw, for random valid and invalid inputs.
+ */
+@RunWith(JUnit4.class)
+public class BatchCoordConverterTest
+{
+    private static final int COUNT = 5000;
+
+    private Random random;
+    private BatchCoordConverter converter;
+
+    @Before
+    public void setUp()
+    {
+        this.random = new Random(20190413L);
+        this.converter = new BatchCoordConverter();
+        // Exercise the parallel path as well as the sequential one.
+        this.converter.setSplitThreshold(700);
+    }
+
+    @Test
+    public void testLatLonToUTMMatchesUTMCoord()
+    {
+        double[] lats = this.randomLatitudes();
+        double[] lons = this.randomLongitudes();
+        int[] zones = new int[COUNT];
+        char[] hemispheres = new char[COUNT];
+        double[] eastings = new double[COUNT];
+        double[] northings = new double[COUNT];
+
+        int failures = this.converter.latLonToUTM(lats, lons, 0, COUNT, zones, hemispheres, eastings, northings);
+
+        int expectedFailures = 0;
+        for (int i = 0; i < COUNT; i++)
+        {
+            UTMCoord coord;
+            try
+            {
+                coord = UTMCoord.fromLatLon(Angle.fromDegrees(lats[i]), Angle.fromDegrees(lons[i]), (Globe) null);
+            }
+            catch (IllegalArgumentException e)
+            {
+                expectedFailures++;
+                assertEquals(0, zones[i]);
+                assertTrue(Double.isNaN(eastings[i]) && Double.isNaN(northings[i]));
+                continue;
+            }
+
+            assertEquals(coord.getZone(), zones[i]);
+            assertEquals(hemisphereChar(coord.getHemisphere()), hemispheres[i]);
+            assertBitsEqual(coord.getEasting(), eastings[i]);
+            assertBitsEqual(coord.getNorthing(), northings[i]);
+        }
+
+        assertEquals(expectedFailures, failures);
+        assertTrue("Too few valid inputs", failures < COUNT / 2);
+    }
+
+    @Test
+    public void testUTMToLatLonMatchesUTMCoord()
+    {
+        int[] zones = new int[COUNT];
+        char[] hemispheres = new char[COUNT];
+        double[] eastings = new double[COUNT];
+        double[] northings = new double[COUNT];
+        for (int i = 0; i < COUNT; i++)
+        {
+            zones[i] = this.random.nextInt(64);
+            hemispheres[i] = this.randomHemisphere();
+            eastings[i] = -100000 + 1200000 * this.random.nextDouble();
+            northings[i] = -100000 + 10200000 * this.random.nextDouble();
+        }
+        double[] lats = new double[COUNT];
+        double[] lons = new double[COUNT];
+
+        int failures = this.converter.utmToLatLon(zones, hemispheres, eastings, northings, 0, COUNT, lats, lons);
+
+        int expectedFailures = 0;
+        for (int i = 0; i < COUNT; i++)
+        {
+            UTMCoord coord;
+            try
+            {
+                coord = UTMCoord.fromUTM(zones[i], hemisphereKey(hemispheres[i]), eastings[i], northings[i], null);
+            }
+            catch (IllegalArgumentException e)
+            {
+                expectedFailures++;
+                assertTrue(Double.isNaN(lats[i]) && Double.isNaN(lons[i]));
+                continue;
+            }
+
+            assertBitsEqual(coord.getLatitude().degrees, lats[i]);
+            assertBitsEqual(coord.getLongitude().degrees, lons[i]);
+        }
+
+        assertEquals(expectedFailures, failures);
+        assertTrue("Too few valid inputs", failures < COUNT / 2);
+    }
+
+    @Test
+    public void testLatLonToUPSMatchesUPSCoord()
+    {
+        double[] lats = new double[COUNT];
+        double[] lons = this.randomLongitudes();
+        for (int i = 0; i < COUNT; i++)
+        {
+            // Mostly polar latitudes, with some outside the UPS zones.
+            lats[i] = (this.random.nextBoolean() ? 1 : -1) * (75 + 20 * this.random.nextDouble());
+        }
+        char[] hemispheres = new char[COUNT];
+        double[] eastings = new double[COUNT];
+        double[] northings = new double[COUNT];
+
+        int failures = this.converter.latLonToUPS(lats, lons, 0, COUNT, hemispheres, eastings, northings);
+
+        int expectedFailures = 0;
+        for (int i = 0; i < COUNT; i++)
+        {
+            UPSCoord coord;
+            try
+            {
+                coord = UPSCoord.fromLatLon(Angle.fromDegrees(lats[i]), Angle.fromDegrees(lons[i]), (Globe) null);
+            }
+            catch (IllegalArgumentException e)
+            {
+                expectedFailures++;
+                assertEquals('\0', hemispheres[i]);
+                assertTrue(Double.isNaN(eastings[i]) && Double.isNaN(northings[i]));
+                continue;
+            }
+
+            assertEquals(hemisphereChar(coord.getHemisphere()), hemispheres[i]);
+            assertBitsEqual(coord.getEasting(), eastings[i]);
+            assertBitsEqual(coord.getNorthing(), northings[i]);
+        }
+
+        assertEquals(expectedFailures, failures);
+        assertTrue("Too few valid inputs", failures < COUNT / 2);
+    }
+
+    @Test
+    public void testUPSToLatLonMatchesUPSCoord()
+    {
+        char[] hemispheres = new char[COUNT];
+        double[] eastings = new double[COUNT];
+        double[] northings = new double[COUNT];
+        for (int i = 0; i < COUNT; i++)
+        {
+            hemispheres[i] = this.randomHemisphere();
+            eastings[i] = -100000 + 4200000 * this.random.nextDouble();
+            northings[i] = -100000 + 4200000 * this.random.nextDouble();
+        }
+        double[] lats = new double[COUNT];
+        double[] lons = new double[COUNT];
+
+        int failures = this.converter.upsToLatLon(hemispheres, eastings, northings, 0, COUNT, lats, lons);
+
+        int expectedFailures = 0;
+        for (int i = 0; i < COUNT; i++)
+        {
+            UPSCoord coord;
+            try
+            {
+                coord = UPSCoord.fromUPS(hemisphereKey(hemispheres[i]), eastings[i], northings[i], null);
+            }
+            catch (IllegalArgumentException e)
+            {
+                expectedFailures++;
+                assertTrue(Double.isNaN(lats[i]) && Double.isNaN(lons[i]));
+                continue;
+            }
+
+            assertBitsEqual(coord.getLatitude().degrees, lats[i]);
+            assertBitsEqual(coord.getLongitude().degrees, lons[i]);
+        }
+
+        assertEquals(expectedFailures, failures);
+        assertTrue("Too few valid inputs", failures < COUNT / 2);
+    }
+
+    @Test
+    public void testLatLonToMGRSMatchesMGRSCoord()
+    {
+        double[] lats = this.randomLatitudes();
+        double[] lons = this.randomLongitudes();
+        char[] chars = new char[COUNT * BatchCoordConverter.MGRS_RECORD_LENGTH];
+        int[] lengths = new int[COUNT];
+
+        for (int precision = 0; precision <= 6; precision++)
+        {
+            int failures = this.converter.latLonToMGRS(lats, lons, precision, 0, COUNT, chars, lengths);
+
+            int expectedFailures = 0;
+            for (int i = 0; i < COUNT; i++)
+            {
+                MGRSCoord coord;
+                try
+                {
+                    coord = MGRSCoord.fromLatLon(Angle.fromDegrees(lats[i]), Angle.fromDegrees(lons[i]), null,
+                        precision);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    expectedFailures++;
+                    assertEquals(0, lengths[i]);
+                    continue;
+                }
+
+                String s = new String(chars, i * BatchCoordConverter.MGRS_RECORD_LENGTH, lengths[i]);
+                assertEquals(coord.toString(), s);
+            }
+
+            assertEquals(expectedFailures, failures);
+        }
+    }
+
+    @Test
+    public void testMGRSToLatLonMatchesMGRSCoord()
+    {
+        // Valid strings formatted from random locations, then some lower cased, spaced out or corrupted.
+        String[] strings = new String[COUNT];
+        double[] lats = this.randomLatitudes();
+        double[] lons = this.randomLongitudes();
+        for (int i = 0; i < COUNT; i++)
+        {
+            String s;
+            try
+            {
+                s = MGRSCoord.fromLatLon(Angle.fromDegrees(lats[i]), Angle.fromDegrees(lons[i]), null,
+                    this.random.nextInt(6)).toString();
+            }
+            catch (IllegalArgumentException e)
+            {
+                s = "";
+            }
+
+            strings[i] = this.mutate(s);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        int[] starts = new int[COUNT];
+        int[] lengths = new int[COUNT];
+        for (int i = 0; i < COUNT; i++)
+        {
+            starts[i] = sb.length();
+            lengths[i] = strings[i].length();
+            sb.append(strings[i]);
+        }
+        char[] chars = sb.toString().toCharArray();
+
+        int failures = this.converter.mgrsToLatLon(chars, starts, lengths, 0, COUNT, lats, lons);
+
+        int expectedFailures = 0;
+        for (int i = 0; i < COUNT; i++)
+        {
+            MGRSCoord coord;
+            try
+            {
+                coord = MGRSCoord.fromString(strings[i], null);
+            }
+            catch (RuntimeException e)
+            {
+                expectedFailures++;
+                assertTrue(strings[i], Double.isNaN(lats[i]) && Double.isNaN(lons[i]));
+                continue;
+            }
+
+            assertBitsEqual(coord.getLatitude().degrees, lats[i]);
+            assertBitsEqual(coord.getLongitude().degrees, lons[i]);
+        }
+
+        assertEquals(expectedFailures, failures);
+        assertTrue("Too few valid inputs", failures < COUNT / 2);
+    }
+
+    @Test
+    public void testOffsetAndCount()
+    {
+        double[] lats = {10, 20, 30, 40};
+        double[] lons = {10, 20, 30, 40};
+        int[] zones = new int[4];
+        char[] hemispheres = new char[4];
+        double[] eastings = new double[4];
+        double[] northings = new double[4];
+
+        assertEquals(0, this.converter.latLonToUTM(lats, lons, 1, 2, zones, hemispheres, eastings, northings));
+        assertEquals(0, zones[0]);
+        assertEquals(UTMCoord.fromLatLon(Angle.fromDegrees(20), Angle.fromDegrees(20)).getZone(), zones[1]);
+        assertEquals(UTMCoord.fromLatLon(Angle.fromDegrees(30), Angle.fromDegrees(30)).getZone(), zones[2]);
+        assertEquals(0, zones[3]);
+
+        try
+        {
+            this.converter.latLonToUTM(lats, lons, 2, 3, zones, hemispheres, eastings, northings);
+            fail("Expected an IllegalArgumentException for a range outside the arrays");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Expected.
+        }
+    }
+
+    private String mutate(String s)
+    {
+        switch (this.random.nextInt(6))
+        {
+            case 0:
+                return s.toLowerCase();
+            case 1:
+                // Space separated, as MGRS strings are often written.
+                return s.length() < 5 ? s : s.substring(0, 3) + " " + s.substring(3, 5) + " " + s.substring(5);
+            case 2:
+                if (s.length() == 0)
+                    return s;
+                char[] chars = s.toCharArray();
+                chars[this.random.nextInt(chars.length)] = (char) ('0' + this.random.nextInt('Z' - '0' + 1));
+                return new String(chars);
+            case 3:
+                return s.length() == 0 ? s : s.substring(0, this.random.nextInt(s.length()));
+            default:
+                return s;
+        }
+    }
+
+    private double[] randomLatitudes()
+    {
+        double[] values = new double[COUNT];
+        for (int i = 0; i < COUNT; i++)
+        {
+            values[i] = this.random.nextInt(50) == 0 ? Double.NaN : -95 + 190 * this.random.nextDouble();
+        }
+        return values;
+    }
+
+    private double[] randomLongitudes()
+    {
+        double[] values = new double[COUNT];
+        for (int i = 0; i < COUNT; i++)
+        {
+            values[i] = -190 + 380 * this.random.nextDouble();
+        }
+        return values;
+    }
+
+    private char randomHemisphere()
+    {
+        int r = this.random.nextInt(20);
+        return r == 0 ? 'X' : r % 2 == 0 ? BatchCoordConverter.NORTH : BatchCoordConverter.SOUTH;
+    }
+
+    private static char hemisphereChar(String hemisphere)
+    {
+        return AVKey.NORTH.equals(hemisphere) ? BatchCoordConverter.NORTH : BatchCoordConverter.SOUTH;
+    }
+
+    private static String hemisphereKey(char hemisphere)
+    {
+        return hemisphere == BatchCoordConverter.NORTH ? AVKey.NORTH
+            : hemisphere == BatchCoordConverter.SOUTH ? AVKey.SOUTH : "X";
+    }
+
+    private static void assertBitsEqual(double expected, double actual)
+    {
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(actual));
+    }
+}
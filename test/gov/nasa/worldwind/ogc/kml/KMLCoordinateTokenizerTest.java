@@ -0,0 +1,117 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.geom.Position;
+import gov.nasa.worldwind.util.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class KMLCoordinateTokenizerTest
+{
+    @Test
+    public void testLenientWhitespace()
+    {
+        KMLCoordinateTokenizer tokenizer = new KMLCoordinateTokenizer(
+            "-18.3,23.56,9     34.9, 56.0, 2     56.9, 19     90.0,23.9,44");
+
+        List<Position> positions = new ArrayList<Position>();
+        while (tokenizer.hasMoreTokens())
+        {
+            positions.add(tokenizer.nextPosition());
+        }
+
+        assertEquals(Arrays.asList(
+            Position.fromDegrees(23.56, -18.3, 9),
+            Position.fromDegrees(56.0, 34.9, 2),
+            Position.fromDegrees(19, 56.9, 0),
+            Position.fromDegrees(23.9, 90.0, 44)), positions);
+    }
+
+    @Test
+    public void testNumbersMatchDoubleParsing()
+    {
+        Random random = new Random(7);
+        String[] special = {"1e3", "-2.5E-4", "0", "-0", "+7", ".5", "5.", "123456789012345678901",
+            "0.1234567890123456789"};
+
+        StringBuilder sb = new StringBuilder();
+        List<String> words = new ArrayList<String>();
+        for (int i = 0; i < 3000; i++)
+        {
+            String word = (i < special.length) ? special[i]
+                : String.format(Locale.US, "%." + random.nextInt(17) + "f", 360 * random.nextDouble() - 180);
+            words.add(word);
+            sb.append(word).append((i % 3 == 2) ? " " : ",");
+        }
+
+        KMLCoordinateTokenizer tokenizer = new KMLCoordinateTokenizer(sb.toString());
+        double[] coords = new double[3];
+        for (int i = 0; i < words.size(); i += 3)
+        {
+            assertEquals(3, tokenizer.nextCoordinates(coords));
+            for (int j = 0; j < 3; j++)
+            {
+                assertEquals(words.get(i + j), Double.doubleToLongBits(Double.parseDouble(words.get(i + j))),
+                    Double.doubleToLongBits(coords[j]));
+            }
+        }
+
+        assertFalse(tokenizer.hasMoreTokens());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidNumber()
+    {
+        new KMLCoordinateTokenizer("1.5,abc,0").nextCoordinates(new double[3]);
+    }
+
+    @Test
+    public void testParserProducesPackedPositions() throws Exception
+    {
+        String kml = "<kml xmlns=\"" + KMLConstants.KML_NAMESPACE + "\"><Placemark><LineString><coordinates>"
+            + "1,2,3 4,5 bad,6,7 8,9,10</coordinates></LineString></Placemark></kml>";
+        KMLRoot root = new KMLRoot(WWIO.getInputStreamFromString(kml), KMLConstants.KML_MIME_TYPE).parse();
+
+        KMLLineString lineString = (KMLLineString) ((KMLPlacemark) root.getFeature()).getGeometry();
+        List<? extends Position> positions = lineString.getCoordinates().list;
+
+        assertTrue(positions instanceof PackedPositionList);
+        assertEquals(Arrays.asList(
+            Position.fromDegrees(2, 1, 3),
+            Position.fromDegrees(5, 4, 0),
+            Position.fromDegrees(9, 8, 10)), positions);
+    }
+}
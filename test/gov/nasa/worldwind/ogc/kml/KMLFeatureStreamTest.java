@@ -0,0 +1,142 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class KMLFeatureStreamTest
+{
+    @Test
+    public void testFeaturesDeliveredInDocumentOrder() throws Exception
+    {
+        KMLRoot root = newRoot(newDocument(3));
+        final List<KMLAbstractFeature> features = new ArrayList<KMLAbstractFeature>();
+
+        root.parseFeatures(new KMLFeatureHandler()
+        {
+            public boolean handleFeature(KMLAbstractFeature feature)
+            {
+                features.add(feature);
+                return true;
+            }
+        });
+
+        assertEquals("Feature count not as expected", 3, features.size());
+        for (int i = 0; i < features.size(); i++)
+        {
+            KMLAbstractFeature feature = features.get(i);
+            assertTrue("Feature is not a placemark", feature instanceof KMLPlacemark);
+            assertEquals("Feature name not as expected", "Placemark " + i, feature.getName());
+            assertTrue("Geometry is not a point", ((KMLPlacemark) feature).getGeometry() instanceof KMLPoint);
+
+            KMLFolder folder = (KMLFolder) feature.getParent();
+            assertEquals("Folder name not as expected", "Tracks", folder.getName());
+            assertTrue("Folder retains features", folder.getFeatures().isEmpty());
+            assertSame("Feature root not as expected", root, feature.getRoot());
+        }
+
+        assertNull("Root retains a feature", root.getFeature());
+    }
+
+    @Test
+    public void testStyleUrlsResolveAgainstSharedStyles() throws Exception
+    {
+        KMLRoot root = newRoot(newDocument(2));
+        final List<KMLAbstractFeature> features = new ArrayList<KMLAbstractFeature>();
+
+        root.parseFeatures(new KMLFeatureHandler()
+        {
+            public boolean handleFeature(KMLAbstractFeature feature)
+            {
+                features.add(feature);
+                return true;
+            }
+        });
+
+        for (KMLAbstractFeature feature : features)
+        {
+            KMLIconStyle iconStyle = (KMLIconStyle) feature.getSubStyle(new KMLIconStyle(null), KMLConstants.NORMAL);
+            assertEquals("Icon scale not as expected", 2.5, iconStyle.getScale(), 0);
+        }
+
+        // Only the shared style remains in the identifier table.
+        Map<String, Object> idTable = root.getParserContext().getIdTable();
+        assertEquals("Identifier table not as expected", Collections.singleton("shared"), idTable.keySet());
+    }
+
+    @Test
+    public void testHandlerStopsParsing() throws Exception
+    {
+        KMLRoot root = newRoot(newDocument(5));
+        final int[] count = new int[1];
+
+        root.parseFeatures(new KMLFeatureHandler()
+        {
+            public boolean handleFeature(KMLAbstractFeature feature)
+            {
+                return ++count[0] < 2;
+            }
+        });
+
+        assertEquals("Feature count not as expected", 2, count[0]);
+    }
+
+    private static KMLRoot newRoot(String document) throws Exception
+    {
+        return new KMLRoot(WWIO.getInputStreamFromString(document), KMLConstants.KML_MIME_TYPE);
+    }
+
+    private static String newDocument(int placemarkCount)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<kml xmlns=\"").append(KMLConstants.KML_NAMESPACE).append("\"><Document>");
+        sb.append("<Style id=\"shared\"><IconStyle><scale>2.5</scale></IconStyle></Style>");
+        sb.append("<Folder><name>Tracks</name>");
+
+        for (int i = 0; i < placemarkCount; i++)
+        {
+            sb.append("<Placemark id=\"p").append(i).append("\">");
+            sb.append("<name>Placemark ").append(i).append("</name>");
+            sb.append("<styleUrl>#shared</styleUrl>");
+            sb.append("<Point id=\"g").append(i).append("\"><coordinates>").append(i).append(",1,0</coordinates>");
+            sb.append("</Point></Placemark>");
+        }
+
+        sb.append("</Folder></Document></kml>");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.ogc.kml;
+
+import gov.nasa.worldwind.util.WWIO;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class KMLParseSchedulerTest
+{
+    private File directory;
+    private KMLParseScheduler scheduler;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        this.directory = File.createTempFile("kmlParseScheduler", "");
+        assertTrue("Unable to create test directory", this.directory.delete() && this.directory.mkdir());
+
+        this.scheduler = new KMLParseScheduler(2, 16);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        this.scheduler.dispose();
+        WWIO.deleteDirectory(this.directory);
+        this.directory.delete();
+    }
+
+    @Test
+    public void testLinksPrefetchedRecursively() throws Exception
+    {
+        this.writeDocument("a.kml", networkLink("c.kml"));
+        this.writeDocument("b.kml", placemark("b"));
+        this.writeDocument("c.kml", placemark("c"));
+        KMLRoot root = this.parseRoot(networkLink("a.kml") + networkLink("b.kml") + networkLink("a.kml"));
+
+        assertTrue("Scheduler did not become idle", this.scheduler.waitUntilIdle(10000));
+
+        KMLRoot a = this.scheduler.getCachedRoot(this.path("a.kml"));
+        KMLRoot b = this.scheduler.getCachedRoot(this.path("b.kml"));
+        KMLRoot c = this.scheduler.getCachedRoot(this.path("c.kml"));
+        assertNotNull("Linked document not prefetched", a);
+        assertNotNull("Linked document not prefetched", b);
+        assertNotNull("Nested linked document not prefetched", c);
+        assertSame("Linked document does not inherit the scheduler", this.scheduler, a.getParseScheduler());
+
+        // Resolving the links returns the prefetched documents rather than parsing them again.
+        assertSame("Duplicate link parsed again", a, root.resolveNetworkLink("a.kml", false, 0));
+        assertSame("Linked document parsed again", b, root.resolveNetworkLink("b.kml", false, 0));
+    }
+
+    @Test
+    public void testOnlyChangedDocumentsParsedAgain() throws Exception
+    {
+        this.writeDocument("a.kml", placemark("a"));
+        this.writeDocument("b.kml", placemark("b"));
+        KMLRoot root = this.parseRoot(networkLink("a.kml") + networkLink("b.kml"));
+        assertTrue("Scheduler did not become idle", this.scheduler.waitUntilIdle(10000));
+
+        KMLRoot a = this.scheduler.getCachedRoot(this.path("a.kml"));
+        KMLRoot b = this.scheduler.getCachedRoot(this.path("b.kml"));
+
+        this.writeDocument("b.kml", placemark("b changed"));
+        long updateTime = System.currentTimeMillis();
+
+        assertSame("Unchanged document parsed again", a, root.resolveNetworkLink("a.kml", false, updateTime));
+
+        Object o = root.resolveNetworkLink("b.kml", false, updateTime);
+        assertTrue("Changed document not resolved", o instanceof KMLRoot);
+        assertNotSame("Changed document not parsed again", b, o);
+        assertEquals("Changed document content not as expected", "b changed",
+            ((KMLAbstractContainer) ((KMLRoot) o).getFeature()).getFeatures().get(0).getName());
+    }
+
+    @Test
+    public void testMissingLinkMarkedAbsent() throws Exception
+    {
+        KMLRoot root = this.parseRoot(networkLink("missing.kml"));
+        assertTrue("Scheduler did not become idle", this.scheduler.waitUntilIdle(10000));
+
+        assertTrue("Missing document not marked absent", root.absentResourceList.isResourceAbsent("missing.kml"));
+        assertNull("Missing document resolved", root.resolveNetworkLink("missing.kml", false, 0));
+    }
+
+    @Test
+    public void testLinkCacheabilityPassedToResolution() throws Exception
+    {
+        final Map<String, Boolean> cacheRemoteFiles = new ConcurrentHashMap<String, Boolean>();
+        this.scheduler.dispose();
+        this.scheduler = new KMLParseScheduler(2, 16)
+        {
+            @Override
+            protected Object doResolve(KMLRoot parent, String path, boolean cacheRemoteFile, long updateTime)
+            {
+                cacheRemoteFiles.put(new File(path).getName(), cacheRemoteFile);
+                return super.doResolve(parent, path, cacheRemoteFile, updateTime);
+            }
+        };
+
+        this.writeDocument("a.kml", placemark("a"));
+        this.writeDocument("b.kml", placemark("b"));
+        this.parseRoot(networkLink("a.kml")
+            + "<NetworkLink><Link><href>b.kml</href><refreshMode>onInterval</refreshMode></Link></NetworkLink>");
+        assertTrue("Scheduler did not become idle", this.scheduler.waitUntilIdle(10000));
+
+        assertEquals("Cacheable link not cached", Boolean.TRUE, cacheRemoteFiles.get("a.kml"));
+        assertEquals("Refreshing link cached", Boolean.FALSE, cacheRemoteFiles.get("b.kml"));
+    }
+
+    private KMLRoot parseRoot(String content) throws Exception
+    {
+        File file = this.writeDocument("root.kml", content);
+
+        KMLRoot root = new KMLRoot(file);
+        root.setParseScheduler(this.scheduler);
+        root.parse();
+
+        return root;
+    }
+
+    private File writeDocument(String name, String content) throws IOException
+    {
+        File file = new File(this.directory, name);
+        String document = "<kml xmlns=\"http://www.opengis.net/kml/2.2\"><Document>" + content + "</Document></kml>";
+        WWIO.writeTextFile(document, file);
+
+        return file;
+    }
+
+    private String path(String name)
+    {
+        return new File(this.directory, name).getPath();
+    }
+
+    private static String networkLink(String href)
+    {
+        return "<NetworkLink><Link><href>" + href + "</href></Link></NetworkLink>";
+    }
+
+    private static String placemark(String name)
+    {
+        return "<Placemark><name>" + name + "</name></Placemark>";
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.pick;
+
+import gov.nasa.worldwind.geom.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class GeometricPickSupportTest
+{
+    /** Ensures that picking through the hierarchy finds the same extents as a brute force search, nearest first. */
+    @Test
+    public void testPickMatchesBruteForce()
+    {
+        Random random = new Random(7);
+        List<Sphere> spheres = new ArrayList<Sphere>();
+        GeometricPickSupport pickSupport = new GeometricPickSupport();
+        for (int i = 0; i < 2000; i++)
+        {
+            Vec4 center = new Vec4(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100,
+                random.nextDouble() * 200 - 100);
+            Sphere sphere = new Sphere(center, 1 + random.nextDouble() * 4);
+            spheres.add(sphere);
+            pickSupport.addExtent(sphere, sphere, null);
+        }
+
+        for (int r = 0; r < 50; r++)
+        {
+            Vec4 origin = new Vec4(random.nextDouble() * 400 - 200, random.nextDouble() * 400 - 200, -300);
+            Vec4 target = new Vec4(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50, 0);
+            Line ray = new Line(origin, target.subtract3(origin));
+
+            List<Object> expected = new ArrayList<Object>();
+            for (Sphere sphere : spheres)
+            {
+                if (sphere.intersects(ray))
+                    expected.add(sphere);
+            }
+
+            PickedObjectList picked = pickSupport.pick(ray, null, null, null);
+            assertEquals("Unexpected pick count", expected.size(), picked.size());
+
+            double previous = 0;
+            for (PickedObject po : picked)
+            {
+                assertTrue("Unexpected picked object", expected.contains(po.getObject()));
+                double distance = nearestDistance((Sphere) po.getObject(), ray);
+                assertTrue("Expecting picked objects nearest first", distance >= previous);
+                previous = distance;
+            }
+
+            if (picked.size() > 0)
+                assertSame("Expecting the nearest object on top", picked.get(0), picked.getTopPickedObject());
+        }
+    }
+
+    /** Ensures that screen rectangles are picked by the pick point and ordered with extents by eye distance. */
+    @Test
+    public void testScreenRectangles()
+    {
+        Sphere near = new Sphere(new Vec4(0, 0, 10), 1);
+        Sphere far = new Sphere(new Vec4(0, 0, 30), 1);
+        String label = "label";
+        String adjacent = "adjacent";
+
+        GeometricPickSupport pickSupport = new GeometricPickSupport();
+        pickSupport.addExtent(near, near, null);
+        pickSupport.addExtent(far, far, null);
+        pickSupport.addScreenRectangle(new Rectangle(90, 90, 20, 20), 20, label, Position.ZERO, null);
+        pickSupport.addScreenRectangle(new Rectangle(110, 90, 20, 20), 5, adjacent, null, null);
+
+        Line ray = new Line(Vec4.ZERO, Vec4.UNIT_Z);
+        PickedObjectList picked = pickSupport.pick(ray, new Point(100, 100), null, null);
+        assertEquals(3, picked.size());
+        assertSame(near, picked.get(0).getObject());
+        assertSame(label, picked.get(1).getObject());
+        assertEquals(Position.ZERO, picked.get(1).getPosition());
+        assertSame(far, picked.get(2).getObject());
+        assertTrue("Expecting the nearest object on top", picked.get(0).isOnTop());
+
+        // A rectangle's maximum edges are excluded, as with Rectangle.contains.
+        picked = pickSupport.pick(null, new Point(110, 100), null, null);
+        assertEquals(1, picked.size());
+        assertSame(adjacent, picked.get(0).getObject());
+
+        pickSupport.clear();
+        assertEquals(0, pickSupport.getCandidateCount());
+        assertTrue(pickSupport.pick(ray, new Point(100, 100), null, null).isEmpty());
+    }
+
+    private static double nearestDistance(Sphere sphere, Line ray)
+    {
+        double nearest = Double.MAX_VALUE;
+        for (Intersection intersection : sphere.intersect(ray))
+        {
+            Vec4 point = intersection.getIntersectionPoint();
+            if (point.subtract3(ray.getOrigin()).dot3(ray.getDirection()) >= 0)
+                nearest = Math.min(nearest, point.distanceTo3(ray.getOrigin()));
+        }
+
+        return nearest;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.retrieve;
+
+import gov.nasa.worldwind.WWObjectImpl;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class BasicRetrievalServiceTest
+{
+    private BasicRetrievalService service;
+    private List<String> completed;
+    private CountDownLatch blockerStarted;
+    private CountDownLatch releaseBlocker;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.service = new BasicRetrievalService();
+        this.service.setRetrieverPoolSize(1);
+        this.completed = Collections.synchronizedList(new ArrayList<String>());
+        this.blockerStarted = new CountDownLatch(1);
+        this.releaseBlocker = new CountDownLatch(1);
+
+        // Occupy the single retrieval thread so that subsequent requests remain queued.
+        this.service.runRetriever(new TestRetriever("blocker"), 1);
+        assertTrue("Blocker started", this.blockerStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.releaseBlocker.countDown();
+        this.service.shutdown(true);
+    }
+
+    @Test
+    public void testDuplicateReturnsPendingRequest()
+    {
+        RetrievalFuture first = this.service.runRetriever(new TestRetriever("a"), 10);
+        RetrievalFuture second = this.service.runRetriever(new TestRetriever("a"), 10);
+
+        assertSame("Duplicate request", first, second);
+        assertTrue("Contains", this.service.contains(new TestRetriever("a")));
+        assertEquals("Pending", 2, this.service.getNumRetrieversPending());
+    }
+
+    @Test
+    public void testRaisePriority() throws Exception
+    {
+        this.service.runRetriever(new TestRetriever("a"), 10);
+        RetrievalFuture b = this.service.runRetriever(new TestRetriever("b"), 20);
+        RetrievalFuture c = this.service.runRetriever(new TestRetriever("c"), 30);
+
+        assertTrue("Raised c", this.service.raisePriority("c", 1));
+        assertFalse("Lower priority ignored", this.service.raisePriority("c", 40));
+        assertSame("Repeated request raises b", b, this.service.runRetriever(new TestRetriever("b"), 5));
+
+        this.releaseBlocker.countDown();
+        b.get(5, TimeUnit.SECONDS);
+        c.get(5, TimeUnit.SECONDS);
+        this.awaitIdle();
+
+        assertEquals("Execution order", Arrays.asList("blocker", "c", "b", "a"), this.completed);
+    }
+
+    @Test
+    public void testRepeatedRaisePriorityKeepsQueueBounded() throws Exception
+    {
+        RetrievalFuture a = this.service.runRetriever(new TestRetriever("a"), 10000);
+        this.service.runRetriever(new TestRetriever("b"), 20000);
+
+        for (int i = 1; i <= 1000; i++)
+        {
+            assertTrue("Raised a", this.service.raisePriority("a", 10000 - i));
+        }
+
+        assertEquals("Queue size", 2, this.service.getQueueSize());
+
+        this.releaseBlocker.countDown();
+        a.get(5, TimeUnit.SECONDS);
+        this.awaitIdle();
+
+        assertEquals("Execution order", Arrays.asList("blocker", "a", "b"), this.completed);
+    }
+
+    @Test
+    public void testCancelPendingRetrievers() throws Exception
+    {
+        RetrievalFuture a = this.service.runRetriever(new TestRetriever("stale-a"), 10);
+        RetrievalFuture b = this.service.runRetriever(new TestRetriever("b"), 20);
+        RetrievalFuture c = this.service.runRetriever(new TestRetriever("stale-c"), 30);
+
+        int numCancelled = this.service.cancelPendingRetrievers(new RetrievalService.RetrieverFilter()
+        {
+            public boolean accept(Retriever retriever)
+            {
+                return retriever.getName().startsWith("stale") || retriever.getName().equals("blocker");
+            }
+        });
+
+        assertEquals("Cancelled", 2, numCancelled);
+        assertTrue("a cancelled", a.isCancelled());
+        assertTrue("c cancelled", c.isCancelled());
+        assertFalse("Cancelled request removed", this.service.contains(new TestRetriever("stale-a")));
+
+        this.releaseBlocker.countDown();
+        b.get(5, TimeUnit.SECONDS);
+        this.awaitIdle();
+
+        assertEquals("Executed", Arrays.asList("blocker", "b"), this.completed);
+    }
+
+    private void awaitIdle() throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (this.service.getNumRetrieversPending() > 0 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+    }
+
+    private class TestRetriever extends WWObjectImpl implements Retriever
+    {
+        private final String name;
+        private long submitTime;
+        private long beginTime;
+        private long endTime;
+
+        public TestRetriever(String name)
+        {
+            this.name = name;
+        }
+
+        public Retriever call() throws Exception
+        {
+            if (this.name.equals("blocker"))
+            {
+                blockerStarted.countDown();
+                releaseBlocker.await();
+            }
+
+            completed.add(this.name);
+            return this;
+        }
+
+        public ByteBuffer getBuffer()
+        {
+            return null;
+        }
+
+        public int getContentLength()
+        {
+            return 0;
+        }
+
+        public int getContentLengthRead()
+        {
+            return 0;
+        }
+
+        public String getName()
+        {
+            return this.name;
+        }
+
+        public String getState()
+        {
+            return RETRIEVER_STATE_NOT_STARTED;
+        }
+
+        public String getContentType()
+        {
+            return null;
+        }
+
+        public long getExpirationTime()
+        {
+            return 0;
+        }
+
+        public long getSubmitTime()
+        {
+            return this.submitTime;
+        }
+
+        public void setSubmitTime(long submitTime)
+        {
+            this.submitTime = submitTime;
+        }
+
+        public long getBeginTime()
+        {
+            return this.beginTime;
+        }
+
+        public void setBeginTime(long beginTime)
+        {
+            this.beginTime = beginTime;
+        }
+
+        public long getEndTime()
+        {
+            return this.endTime;
+        }
+
+        public void setEndTime(long endTime)
+        {
+            this.endTime = endTime;
+        }
+
+        public int getConnectTimeout()
+        {
+            return 0;
+        }
+
+        public int getReadTimeout()
+        {
+            return 0;
+        }
+
+        public void setReadTimeout(int readTimeout)
+        {
+        }
+
+        public void setConnectTimeout(int connectTimeout)
+        {
+        }
+
+        public int getStaleRequestLimit()
+        {
+            return -1;
+        }
+
+        public void setStaleRequestLimit(int staleRequestLimit)
+        {
+        }
+    }
+}
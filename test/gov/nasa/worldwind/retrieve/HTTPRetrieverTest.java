@@ -0,0 +1,233 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.retrieve;
+
+import com.sun.net.httpserver.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/** Exercises conditional requests and the per-host connection limit against an HTTP server embedded in the test. */
+@RunWith(JUnit4.class)
+public class HTTPRetrieverTest
+{
+    private HttpServer server;
+    private File file;
+    private int initialMaxConnectionsPerHost;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/", new HttpHandler()
+        {
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                serve(exchange);
+            }
+        });
+        this.server.start();
+
+        this.initialMaxConnectionsPerHost = HTTPRetriever.getMaxConnectionsPerHost();
+    }
+
+    @After
+    public void tearDown()
+    {
+        HTTPRetriever.setMaxConnectionsPerHost(this.initialMaxConnectionsPerHost);
+        this.server.stop(0);
+
+        if (this.file != null)
+        {
+            //noinspection ResultOfMethodCallIgnored
+            this.file.delete();
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException
+    {
+        int active = this.activeRequests.incrementAndGet();
+        try
+        {
+            int max;
+            while ((max = this.maxActiveRequests.get()) < active && !this.maxActiveRequests.compareAndSet(max, active))
+            {
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = path.getBytes("UTF-8");
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            if (path.startsWith("/missing"))
+            {
+                exchange.sendResponseHeaders(404, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            else if (path.startsWith("/cached") && exchange.getRequestHeaders().getFirst("If-Modified-Since") != null)
+            {
+                exchange.sendResponseHeaders(304, -1);
+            }
+            else
+            {
+                if (path.startsWith("/slow"))
+                    Thread.sleep(50);
+
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.activeRequests.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Test
+    public void testContentAndErrorResponses() throws Exception
+    {
+        HTTPRetriever retriever = this.retrieve("/tile/1", null);
+        assertEquals("Response code", 200, retriever.getResponseCode());
+        assertEquals("Content", "/tile/1", this.toString(retriever.getBuffer()));
+
+        retriever = this.retrieve("/missing/1", null);
+        assertEquals("Error response code", 404, retriever.getResponseCode());
+        assertNull("Error content", retriever.getBuffer());
+
+        retriever = this.retrieve("/tile/2", null);
+        assertEquals("Content after error", "/tile/2", this.toString(retriever.getBuffer()));
+    }
+
+    @Test
+    public void testNotModifiedRefreshesFile() throws Exception
+    {
+        File file = this.file = File.createTempFile("HTTPRetrieverTest", ".txt");
+        long staleTime = System.currentTimeMillis() - 3600000;
+        assertTrue(file.setLastModified(staleTime));
+        long revalidations = HTTPRetriever.getMetrics().getRevalidations();
+
+        HTTPRetriever retriever = this.retrieve("/cached/1", file);
+        retriever.setIfModifiedSince(staleTime);
+
+        retriever.call();
+
+        assertTrue("Not modified", retriever.isNotModified());
+        assertEquals("Response code", 304, retriever.getResponseCode());
+        assertNull("Content", retriever.getBuffer());
+        assertTrue("File refreshed", file.lastModified() > staleTime);
+        assertEquals("Revalidations", revalidations + 1, HTTPRetriever.getMetrics().getRevalidations());
+    }
+
+    @Test
+    public void testMaxConnectionsPerHost() throws Exception
+    {
+        HTTPRetriever.setMaxConnectionsPerHost(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try
+        {
+            List<Future<HTTPRetriever>> futures = new ArrayList<Future<HTTPRetriever>>();
+            for (int i = 0; i < 16; i++)
+            {
+                final String path = "/slow/" + i;
+                futures.add(executor.submit(new Callable<HTTPRetriever>()
+                {
+                    public HTTPRetriever call() throws Exception
+                    {
+                        return retrieve(path, null);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++)
+            {
+                HTTPRetriever retriever = futures.get(i).get(10, TimeUnit.SECONDS);
+                assertEquals("Content", "/slow/" + i, this.toString(retriever.getBuffer()));
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertTrue("Concurrent requests " + this.maxActiveRequests.get(), this.maxActiveRequests.get() <= 2);
+    }
+
+    /**
+     * Creates a retriever for a path on the test server. The retriever is run immediately unless an output file is
+     * specified, in which case the caller runs it.
+     */
+    private HTTPRetriever retrieve(String path, final File outputFile) throws Exception
+    {
+        URL url = new URL("http", "127.0.0.1", this.server.getAddress().getPort(), path);
+        HTTPRetriever retriever = new HTTPRetriever(url, new AbstractRetrievalPostProcessor()
+        {
+            @Override
+            protected File doGetOutputFile()
+            {
+                return outputFile;
+            }
+
+            @Override
+            protected ByteBuffer handleSuccessfulRetrieval()
+            {
+                return this.getRetriever().getBuffer();
+            }
+        });
+        retriever.setConnectTimeout(10000);
+
+        if (outputFile == null)
+            retriever.call();
+
+        return retriever;
+    }
+
+    private String toString(ByteBuffer buffer) throws Exception
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        return new String(bytes, "UTF-8");
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.retrieve;
+
+import com.sun.net.httpserver.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/** Exercises {@link VirtualThreadRetrievalService} against an HTTP server embedded in the test. */
+@RunWith(JUnit4.class)
+public class VirtualThreadRetrievalServiceTest
+{
+    private HttpServer server;
+    private VirtualThreadRetrievalService service;
+    private final AtomicInteger numConcurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final List<String> requestedPaths = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch releaseBlocker = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0), 0);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.createContext("/", new HttpHandler()
+        {
+            public void handle(HttpExchange exchange) throws IOException
+            {
+                serveTile(exchange);
+            }
+        });
+        this.server.start();
+
+        this.service = new VirtualThreadRetrievalService();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.releaseBlocker.countDown();
+        this.service.shutdown(true);
+        this.server.stop(0);
+    }
+
+    private void serveTile(HttpExchange exchange) throws IOException
+    {
+        String path = exchange.getRequestURI().getPath();
+        int n = this.numConcurrent.incrementAndGet();
+        synchronized (this.maxConcurrent)
+        {
+            this.maxConcurrent.set(Math.max(n, this.maxConcurrent.get()));
+        }
+
+        try
+        {
+            if (path.equals("/block"))
+                this.releaseBlocker.await(10, TimeUnit.SECONDS);
+            else
+                Thread.sleep(100);
+
+            this.requestedPaths.add(path);
+            byte[] body = path.getBytes("UTF-8");
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream os = exchange.getResponseBody();
+            os.write(body);
+            os.close();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.numConcurrent.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    @Test
+    public void testRetrievesContent() throws Exception
+    {
+        final ByteBuffer[] result = new ByteBuffer[1];
+        HTTPRetriever retriever = new HTTPRetriever(this.url("127.0.0.1", "/tile/1"), new RetrievalPostProcessor()
+        {
+            public ByteBuffer run(Retriever retriever)
+            {
+                result[0] = retriever.getBuffer();
+                return result[0];
+            }
+        });
+
+        RetrievalFuture future = this.service.runRetriever(retriever);
+        assertNotNull("Future", future);
+        ((Future) future).get(10, TimeUnit.SECONDS);
+
+        assertNotNull("Content", result[0]);
+        byte[] bytes = new byte[result[0].remaining()];
+        result[0].get(bytes);
+        assertEquals("Content", "/tile/1", new String(bytes, "UTF-8"));
+    }
+
+    @Test
+    public void testHostConcurrencyLimit() throws Exception
+    {
+        this.service.setHostConcurrencyLimit(2);
+
+        List<Future> futures = new ArrayList<Future>();
+        for (int i = 0; i < 8; i++)
+        {
+            futures.add((Future) this.service.runRetriever(this.retriever("127.0.0.1", "/tile/" + i)));
+        }
+        this.awaitAll(futures);
+
+        assertEquals("Requests served", 8, this.requestedPaths.size());
+        assertEquals("Maximum concurrent requests", 2, this.maxConcurrent.get());
+    }
+
+    @Test
+    public void testHostsHaveSeparateLimits() throws Exception
+    {
+        this.service.setHostConcurrencyLimit(2);
+
+        List<Future> futures = new ArrayList<Future>();
+        for (int i = 0; i < 6; i++)
+        {
+            futures.add((Future) this.service.runRetriever(this.retriever("127.0.0.1", "/a/" + i)));
+            futures.add((Future) this.service.runRetriever(this.retriever("localhost", "/b/" + i)));
+        }
+        this.awaitAll(futures);
+
+        assertEquals("Requests served", 12, this.requestedPaths.size());
+        assertTrue("Maximum concurrent requests", this.maxConcurrent.get() > 2 && this.maxConcurrent.get() <= 4);
+    }
+
+    @Test
+    public void testPriorityAdmission() throws Exception
+    {
+        this.service.setRetrieverPoolSize(1);
+
+        Future blocker = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/block"), 1);
+        this.awaitRequestInProgress();
+
+        List<Future> futures = new ArrayList<Future>();
+        futures.add((Future) this.service.runRetriever(this.retriever("127.0.0.1", "/a"), 30));
+        futures.add((Future) this.service.runRetriever(this.retriever("127.0.0.1", "/b"), 10));
+        futures.add((Future) this.service.runRetriever(this.retriever("127.0.0.1", "/c"), 20));
+        assertSame("Duplicate request", futures.get(0),
+            this.service.runRetriever(this.retriever("127.0.0.1", "/a"), 30));
+        assertEquals("Pending", 4, this.service.getNumRetrieversPending());
+
+        this.releaseBlocker.countDown();
+        blocker.get(10, TimeUnit.SECONDS);
+        this.awaitAll(futures);
+
+        assertEquals("Admission order", Arrays.asList("/block", "/b", "/c", "/a"), this.requestedPaths);
+    }
+
+    @Test
+    public void testCancelPendingRetrievers() throws Exception
+    {
+        this.service.setRetrieverPoolSize(1);
+
+        Future blocker = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/block"), 1);
+        this.awaitRequestInProgress();
+
+        RetrievalFuture stale = this.service.runRetriever(this.retriever("127.0.0.1", "/stale"), 10);
+        Future fresh = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/fresh"), 20);
+
+        int numCancelled = this.service.cancelPendingRetrievers(new RetrievalService.RetrieverFilter()
+        {
+            public boolean accept(Retriever retriever)
+            {
+                return retriever.getName().contains("stale") || retriever.getName().contains("block");
+            }
+        });
+        assertEquals("Cancelled", 1, numCancelled);
+        assertTrue("Stale request cancelled", ((Future) stale).isCancelled());
+
+        this.releaseBlocker.countDown();
+        blocker.get(10, TimeUnit.SECONDS);
+        fresh.get(10, TimeUnit.SECONDS);
+
+        assertEquals("Requests served", Arrays.asList("/block", "/fresh"), this.requestedPaths);
+    }
+
+    @Test
+    public void testCancelledRequestCanBeResubmitted() throws Exception
+    {
+        this.service.setRetrieverPoolSize(1);
+
+        Future blocker = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/block"), 1);
+        this.awaitRequestInProgress();
+
+        Future cancelled = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/a"), 10);
+        assertTrue("Cancelled", cancelled.cancel(false));
+        assertEquals("Pending", 1, this.service.getNumRetrieversPending());
+        assertEquals("Queue size", 0, this.service.getQueueSize());
+        assertFalse("Contains cancelled", this.service.contains(this.retriever("127.0.0.1", "/a")));
+
+        Future resubmitted = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/a"), 10);
+        assertNotSame("Resubmitted future", cancelled, resubmitted);
+
+        this.releaseBlocker.countDown();
+        blocker.get(10, TimeUnit.SECONDS);
+        resubmitted.get(10, TimeUnit.SECONDS);
+
+        assertEquals("Requests served", Arrays.asList("/block", "/a"), this.requestedPaths);
+    }
+
+    @Test
+    public void testRaisePriorityDoesNotGrowQueue() throws Exception
+    {
+        this.service.setRetrieverPoolSize(1);
+
+        Future blocker = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/block"), 1);
+        this.awaitRequestInProgress();
+
+        Future a = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/a"), 10000);
+        Future b = (Future) this.service.runRetriever(this.retriever("127.0.0.1", "/b"), 5000);
+        for (int i = 1; i <= 1000; i++)
+        {
+            assertTrue("Raised /a", this.service.raisePriority(this.url("127.0.0.1", "/a").toString(), 5000 - i));
+        }
+
+        assertEquals("Queue size", 2, this.service.getQueueSize());
+
+        this.releaseBlocker.countDown();
+        blocker.get(10, TimeUnit.SECONDS);
+        a.get(10, TimeUnit.SECONDS);
+        b.get(10, TimeUnit.SECONDS);
+
+        assertEquals("Admission order", Arrays.asList("/block", "/a", "/b"), this.requestedPaths);
+    }
+
+    private URL url(String host, String path) throws MalformedURLException
+    {
+        return new URL("http", host, this.server.getAddress().getPort(), path);
+    }
+
+    private Retriever retriever(String host, String path) throws MalformedURLException
+    {
+        return new HTTPRetriever(this.url(host, path), new RetrievalPostProcessor()
+        {
+            public ByteBuffer run(Retriever retriever)
+            {
+                return retriever.getBuffer();
+            }
+        });
+    }
+
+    private void awaitRequestInProgress() throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (this.numConcurrent.get() == 0 && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitAll(List<Future> futures) throws Exception
+    {
+        for (Future future : futures)
+        {
+            future.get(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.avlist.*;
+import gov.nasa.worldwind.geom.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.*;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ArrayElevationsTest
+{
+    private static final Sector SECTOR = Sector.fromDegrees(10, 11, 20, 21);
+    private static final int SIZE = 64;
+
+    private LocalElevationModel model;
+    private double[] latitudes;
+    private double[] longitudes;
+    private List<LatLon> locations;
+
+    @Before
+    public void setUp()
+    {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(SIZE * SIZE * 4).order(ByteOrder.nativeOrder());
+        FloatBuffer floats = byteBuffer.asFloatBuffer();
+        for (int j = 0; j < SIZE; j++)
+        {
+            for (int i = 0; i < SIZE; i++)
+            {
+                floats.put(i == 5 && j == 5 ? -9999 : (float) (100 * Math.sin(i * 0.1) + 50 * Math.cos(j * 0.2)));
+            }
+        }
+
+        AVList params = new AVListImpl();
+        params.setValue(AVKey.DATA_TYPE, AVKey.FLOAT32);
+        params.setValue(AVKey.BYTE_ORDER, ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? AVKey.BIG_ENDIAN
+            : AVKey.LITTLE_ENDIAN);
+        params.setValue(AVKey.MISSING_DATA_SIGNAL, -9999d);
+
+        this.model = new LocalElevationModel();
+        this.model.setMissingDataSignal(-9999);
+        this.model.setMissingDataReplacement(-1);
+        this.model.addElevations(byteBuffer, SECTOR, SIZE, SIZE, params);
+
+        // Include locations outside the model's coverage, which must leave the buffer untouched.
+        Random random = new Random(7);
+        int count = 500;
+        this.latitudes = new double[count];
+        this.longitudes = new double[count];
+        this.locations = new ArrayList<LatLon>(count);
+        for (int i = 0; i < count; i++)
+        {
+            this.latitudes[i] = 9.9 + random.nextDouble() * 1.2;
+            this.longitudes[i] = 19.9 + random.nextDouble() * 1.2;
+            this.locations.add(LatLon.fromDegrees(this.latitudes[i], this.longitudes[i]));
+        }
+    }
+
+    @Test
+    public void testLocalModelMatchesListQuery()
+    {
+        double[] expected = filled(this.locations.size(), 12345);
+        double[] actual = filled(this.locations.size(), 12345);
+
+        double r0 = this.model.getElevations(SECTOR, this.locations, 0, expected);
+        double r1 = this.model.getElevations(SECTOR, this.latitudes, this.longitudes, 0, actual);
+
+        assertEquals("Resolution", r0, r1, 0);
+        assertElevationsEqual(expected, actual);
+
+        expected = filled(this.locations.size(), 12345);
+        actual = filled(this.locations.size(), 12345);
+        this.model.getUnmappedElevations(SECTOR, this.locations, 0, expected);
+        this.model.getUnmappedElevations(SECTOR, this.latitudes, this.longitudes, 0, actual);
+
+        assertElevationsEqual(expected, actual);
+    }
+
+    @Test
+    public void testCompoundModelMatchesListQuery()
+    {
+        CompoundElevationModel compound = new CompoundElevationModel();
+        compound.addElevationModel(new ZeroElevationModel());
+        compound.addElevationModel(this.model);
+
+        double[] expected = filled(this.locations.size(), 12345);
+        double[] actual = filled(this.locations.size(), 12345);
+
+        compound.getElevations(SECTOR, this.locations, 0, expected);
+        compound.getElevations(SECTOR, this.latitudes, this.longitudes, 0, actual);
+
+        assertElevationsEqual(expected, actual);
+    }
+
+    @Test
+    public void testOffsetAndStride()
+    {
+        int offset = 3;
+        int stride = 4;
+        int count = (this.latitudes.length - offset - 1) / stride + 1;
+        int bufferOffset = 2;
+
+        double[] expected = filled(this.locations.size(), 12345);
+        this.model.getElevations(SECTOR, this.locations, 0, expected);
+
+        double[] actual = filled(bufferOffset + count + 1, 12345);
+        this.model.getElevations(SECTOR, this.latitudes, this.longitudes, offset, stride, count, 0, actual,
+            bufferOffset);
+
+        assertEquals("Before range", 12345, actual[bufferOffset - 1], 0);
+        assertEquals("After range", 12345, actual[bufferOffset + count], 0);
+        for (int i = 0; i < count; i++)
+        {
+            assertEquals("Elevation " + i, expected[offset + i * stride], actual[bufferOffset + i], 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRangeOutsideArrays()
+    {
+        this.model.getElevations(SECTOR, this.latitudes, this.longitudes, 1, 2, this.latitudes.length / 2 + 1, 0,
+            new double[this.latitudes.length], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferTooSmall()
+    {
+        this.model.getElevations(SECTOR, this.latitudes, this.longitudes, 0, 1, this.latitudes.length, 0,
+            new double[this.latitudes.length], 1);
+    }
+
+    private static void assertElevationsEqual(double[] expected, double[] actual)
+    {
+        assertEquals("Length", expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++)
+        {
+            assertEquals("Elevation " + i, expected[i], actual[i], 0);
+        }
+    }
+
+    private static double[] filled(int length, double value)
+    {
+        double[] array = new double[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.exception.WWTimeoutException;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class TerrainIntersectionEngineTest
+{
+    private static final Sector SECTOR = Sector.fromDegrees(36, 37, -122, -121);
+    private static final int SEGMENT_COUNT = 200;
+
+    private HighResolutionTerrain terrain;
+    private TerrainIntersectionEngine engine;
+
+    @Before
+    public void setUp()
+    {
+        Globe globe = new Earth();
+        globe.setElevationModel(new ZeroElevationModel());
+
+        this.terrain = new HighResolutionTerrain(globe, SECTOR, 100d, 1d);
+        this.engine = new TerrainIntersectionEngine(4);
+        this.terrain.setIntersectionEngine(this.engine);
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.engine.dispose();
+    }
+
+    @Test
+    public void testBatchMatchesIndividualIntersections() throws InterruptedException
+    {
+        List<Position> positions = createRadarFan(SEGMENT_COUNT);
+        final Map<Position, Intersection[]> results = Collections.synchronizedMap(
+            new IdentityHashMap<Position, Intersection[]>());
+        final List<Exception> exceptions = Collections.synchronizedList(new ArrayList<Exception>());
+
+        this.terrain.intersect(positions, new HighResolutionTerrain.IntersectionCallback()
+        {
+            @Override
+            public void intersection(Position pA, Position pB, Intersection[] intersections)
+            {
+                assertNull("Expecting each segment to be reported once", results.put(pB, intersections));
+            }
+
+            @Override
+            public void exception(Exception exception)
+            {
+                exceptions.add(exception);
+            }
+        });
+
+        assertTrue("Unexpected exceptions " + exceptions, exceptions.isEmpty());
+        assertEquals("Segments intersected", SEGMENT_COUNT, results.size());
+
+        for (int i = 0; i < positions.size(); i += 2)
+        {
+            Intersection[] expected = this.terrain.intersect(positions.get(i), positions.get(i + 1));
+            Intersection[] actual = results.get(positions.get(i + 1));
+            assertNotNull("Expecting segment " + i / 2 + " to intersect", actual);
+            assertEquals("Intersection count", expected.length, actual.length);
+            assertEquals("Intersection point", 0,
+                expected[0].getIntersectionPoint().distanceTo3(actual[0].getIntersectionPoint()), 1e-6);
+        }
+    }
+
+    @Test
+    public void testExpiredBatchReportsTimeoutOnce() throws InterruptedException
+    {
+        final List<Exception> exceptions = Collections.synchronizedList(new ArrayList<Exception>());
+
+        TerrainIntersectionEngine.Batch batch = this.terrain.submitIntersections(createRadarFan(SEGMENT_COUNT),
+            new HighResolutionTerrain.IntersectionCallback()
+            {
+                @Override
+                public void intersection(Position pA, Position pB, Intersection[] intersections)
+                {
+                }
+
+                @Override
+                public void exception(Exception exception)
+                {
+                    exceptions.add(exception);
+                }
+            }, 0L);
+
+        assertTrue("Expecting the batch to finish", batch.await(10, TimeUnit.SECONDS));
+        assertTrue("Expecting the batch to time out", batch.isTimedOut());
+        assertEquals("Expecting no segments to complete", 0, batch.getCompletedSegmentCount());
+        assertEquals("Expecting one exception", 1, exceptions.size());
+        assertTrue("Expecting a timeout exception", exceptions.get(0) instanceof WWTimeoutException);
+    }
+
+    @Test
+    public void testCancelledBatchFinishes() throws InterruptedException
+    {
+        TerrainIntersectionEngine.Batch batch = this.terrain.submitIntersections(createRadarFan(SEGMENT_COUNT),
+            new HighResolutionTerrain.IntersectionCallback()
+            {
+                @Override
+                public void intersection(Position pA, Position pB, Intersection[] intersections)
+                {
+                }
+
+                @Override
+                public void exception(Exception exception)
+                {
+                }
+            }, null);
+        batch.cancel();
+
+        assertTrue("Expecting the batch to finish", batch.await(10, TimeUnit.SECONDS));
+        assertTrue("Expecting the batch to be cancelled", batch.isCancelled());
+        assertTrue("Expecting the batch to be done", batch.isDone());
+    }
+
+    @Test
+    public void testNestedIntersectionFromCallbackCompletes() throws InterruptedException
+    {
+        // With one worker, a callback waiting for a queued batch would wait forever for the worker it occupies.
+        this.engine.dispose();
+        this.engine = new TerrainIntersectionEngine(1);
+        this.terrain.setIntersectionEngine(this.engine);
+
+        final List<Position> nestedPositions = createRadarFan(4);
+        final List<Intersection[]> nestedResults = Collections.synchronizedList(new ArrayList<Intersection[]>());
+        final List<Exception> exceptions = Collections.synchronizedList(new ArrayList<Exception>());
+
+        final HighResolutionTerrain.IntersectionCallback nestedCallback =
+            new HighResolutionTerrain.IntersectionCallback()
+        {
+            @Override
+            public void intersection(Position pA, Position pB, Intersection[] intersections)
+            {
+                nestedResults.add(intersections);
+            }
+
+            @Override
+            public void exception(Exception exception)
+            {
+                exceptions.add(exception);
+            }
+        };
+
+        TerrainIntersectionEngine.Batch batch = this.terrain.submitIntersections(createRadarFan(2),
+            new HighResolutionTerrain.IntersectionCallback()
+            {
+                @Override
+                public void intersection(Position pA, Position pB, Intersection[] intersections)
+                {
+                    try
+                    {
+                        assertTrue("Expecting a worker thread", engine.isWorkerThread());
+                        terrain.intersect(nestedPositions, nestedCallback);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        exceptions.add(e);
+                    }
+                }
+
+                @Override
+                public void exception(Exception exception)
+                {
+                    exceptions.add(exception);
+                }
+            }, null);
+
+        assertTrue("Expecting the batch to finish", batch.await(30, TimeUnit.SECONDS));
+        assertTrue("Unexpected exceptions " + exceptions, exceptions.isEmpty());
+        assertEquals("Nested segments intersected", 2 * 4, nestedResults.size());
+        assertFalse("Expecting the test thread not to be a worker", this.engine.isWorkerThread());
+    }
+
+    /** Creates segments from a point above the sector's center to points below the terrain around it. */
+    private static List<Position> createRadarFan(int segmentCount)
+    {
+        LatLon center = SECTOR.getCentroid();
+        Position origin = new Position(center, 100);
+        List<Position> positions = new ArrayList<Position>(2 * segmentCount);
+
+        for (int i = 0; i < segmentCount; i++)
+        {
+            Angle azimuth = Angle.fromDegrees(360d * i / segmentCount);
+            LatLon target = LatLon.greatCircleEndPosition(center, azimuth, Angle.fromDegrees(0.2));
+            positions.add(origin);
+            positions.add(new Position(target, -100));
+        }
+
+        return positions;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.terrain;
+
+import gov.nasa.worldwind.data.BufferWrapperRaster;
+import gov.nasa.worldwind.geom.*;
+import gov.nasa.worldwind.globes.*;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class ViewshedTest
+{
+    /** Flat terrain with a 1000 meter ridge running north to south between 0.05 and 0.06 degrees east. */
+    private static class RidgeElevationModel extends ZeroElevationModel
+    {
+        @Override
+        public double getElevations(Sector sector, double[] latitudes, double[] longitudes, int offset, int stride,
+            int count, double targetResolution, double[] buffer, int bufferOffset)
+        {
+            for (int i = 0; i < count; i++)
+            {
+                double lon = longitudes[offset + i * stride];
+                buffer[bufferOffset + i] = lon >= 0.05 && lon <= 0.06 ? 1000 : 0;
+            }
+
+            return this.getBestResolution(sector);
+        }
+    }
+
+    private static final Position OBSERVER = Position.fromDegrees(0, 0, 10);
+
+    private Viewshed viewshed;
+
+    @Before
+    public void setUp()
+    {
+        Globe globe = new Earth();
+        globe.setElevationModel(new RidgeElevationModel());
+        this.viewshed = new Viewshed(new HighResolutionTerrain(globe, null));
+    }
+
+    @Test
+    public void testFlatTerrainIsVisibleWithinRadius() throws InterruptedException
+    {
+        Globe globe = new Earth();
+        globe.setElevationModel(new ZeroElevationModel());
+        Viewshed flat = new Viewshed(new HighResolutionTerrain(globe, null));
+
+        BufferWrapperRaster raster = flat.compute(OBSERVER, 2000, 50, 0);
+
+        assertEquals("Raster width", 81, raster.getWidth());
+        assertEquals("Raster height", 81, raster.getHeight());
+        assertTrue("Expecting the sector to contain the observer", raster.getSector().contains(OBSERVER));
+        assertEquals("Corner", Viewshed.OUTSIDE, raster.getDoubleAtPosition(0, 0), 0);
+        assertEquals("Missing data signal", Viewshed.OUTSIDE, raster.getTransparentValue(), 0);
+
+        for (int row = 0; row < raster.getHeight(); row++)
+        {
+            for (int col = 0; col < raster.getWidth(); col++)
+            {
+                double dx = (col - 40) * 50;
+                double dy = (row - 40) * 50;
+                if (Math.sqrt(dx * dx + dy * dy) <= 2000)
+                    assertEquals("Cell " + row + ", " + col, Viewshed.VISIBLE, raster.getDoubleAtPosition(row, col), 0);
+            }
+        }
+
+        BufferedImage image = Viewshed.createImage(raster, Color.GREEN, Color.RED);
+        assertEquals("Visible pixel", Color.GREEN.getRGB(), image.getRGB(40, 40));
+        assertEquals("Outside pixel", 0, image.getRGB(0, 0));
+    }
+
+    @Test
+    public void testRidgeHidesTerrainBehindIt() throws InterruptedException
+    {
+        BufferWrapperRaster raster = this.viewshed.compute(OBSERVER, 20000, 100, 0);
+        int center = 200;
+        double metersPerDegree = Math.toRadians(1) * this.viewshed.getTerrain().getGlobe().getRadiusAt(OBSERVER);
+
+        assertEquals("Observer", Viewshed.VISIBLE, raster.getDoubleAtPosition(center, center), 0);
+        assertEquals("Leading edge of the ridge", Viewshed.VISIBLE,
+            raster.getDoubleAtPosition(center, center + (int) Math.ceil(0.05 * metersPerDegree / 100)), 0);
+        assertEquals("Behind the ridge", Viewshed.HIDDEN,
+            raster.getDoubleAtPosition(center, center + (int) Math.round(0.1 * metersPerDegree / 100)), 0);
+        assertEquals("Away from the ridge", Viewshed.VISIBLE,
+            raster.getDoubleAtPosition(center, center - (int) Math.round(0.1 * metersPerDegree / 100)), 0);
+        assertEquals("North of the observer", Viewshed.VISIBLE,
+            raster.getDoubleAtPosition(center - (int) Math.round(0.1 * metersPerDegree / 100), center), 0);
+    }
+
+    @Test
+    public void testParallelMatchesSerial() throws InterruptedException
+    {
+        this.viewshed.setParallelism(1);
+        BufferWrapperRaster serial = this.viewshed.compute(OBSERVER, 10000, 100, 2);
+
+        this.viewshed.setParallelism(8);
+        BufferWrapperRaster parallel = this.viewshed.compute(OBSERVER, 10000, 100, 2);
+
+        assertEquals("Sector", serial.getSector(), parallel.getSector());
+        for (int i = 0; i < serial.getBuffer().length(); i++)
+        {
+            assertEquals("Cell " + i, serial.getBuffer().getDouble(i), parallel.getBuffer().getDouble(i), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtentCrossingAntimeridianIsRejected() throws InterruptedException
+    {
+        this.viewshed.compute(Position.fromDegrees(0, 179.99, 10), 2000, 50, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtentCrossingPoleIsRejected() throws InterruptedException
+    {
+        this.viewshed.compute(Position.fromDegrees(89.99, 0, 10), 2000, 50, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGridTooLargeIsRejected() throws InterruptedException
+    {
+        // 2 * 25000 + 1 cells per side, whose square overflows an int.
+        this.viewshed.compute(OBSERVER, 25000, 1, 0);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+package gov.nasa.worldwind.util;
+
+import gov.nasa.worldwind.render.*;
+import gov.nasa.worldwind.view.orbit.BasicOrbitView;
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.*;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class GridClutterFilterTest
+{
+    private static class Label implements Declutterable
+    {
+        private final Rectangle2D bounds;
+        private final int importance;
+
+        public Label(Rectangle2D bounds, int importance)
+        {
+            this.bounds = bounds;
+            this.importance = importance;
+        }
+
+        public boolean isEnableDecluttering()
+        {
+            return true;
+        }
+
+        public Rectangle2D getBounds(DrawContext dc)
+        {
+            return this.bounds;
+        }
+
+        public double getDistanceFromEye()
+        {
+            return 0;
+        }
+
+        public void pick(DrawContext dc, Point pickPoint)
+        {
+        }
+
+        public void render(DrawContext dc)
+        {
+        }
+    }
+
+    /** Records the ordered renderables a clutter filter accepts. */
+    private static class RecordingDrawContext extends DrawContextImpl
+    {
+        private final List<OrderedRenderable> accepted = new ArrayList<OrderedRenderable>();
+
+        @Override
+        public void addOrderedRenderable(OrderedRenderable orderedRenderable)
+        {
+            this.accepted.add(orderedRenderable);
+        }
+    }
+
+    @Test
+    public void testAcceptsSameShapesAsBasicClutterFilter()
+    {
+        GridClutterFilter gridFilter = new GridClutterFilter(32);
+        Random random = new Random(1);
+
+        // Apply the same grid filter to several frames to exercise reuse of its storage.
+        for (int frame = 0; frame < 3; frame++)
+        {
+            List<Declutterable> labels = createLabels(random, 3000, frame == 1 ? 20000 : 2000);
+
+            RecordingDrawContext expected = new RecordingDrawContext();
+            new BasicClutterFilter().apply(expected, labels);
+
+            RecordingDrawContext actual = new RecordingDrawContext();
+            gridFilter.apply(actual, labels);
+
+            assertTrue("Expecting some labels to be eliminated", expected.accepted.size() < labels.size());
+            assertEquals("Accepted labels in frame " + frame, expected.accepted, actual.accepted);
+        }
+    }
+
+    @Test
+    public void testOutliersDoNotStretchGrid()
+    {
+        List<Declutterable> labels = createLabels(new Random(2), 2000, 1000);
+        // Distant and overlapping regions beyond each edge of the viewport.
+        double[] outliers = {-1e12, -1e7, 1e7, 1e12};
+        for (double outlier : outliers)
+        {
+            labels.add(new Label(new Rectangle2D.Double(outlier, 500, 100, 20), 0));
+            labels.add(new Label(new Rectangle2D.Double(outlier + 50, 510, 100, 20), 0));
+            labels.add(new Label(new Rectangle2D.Double(500, outlier, 100, 20), 0));
+            labels.add(new Label(new Rectangle2D.Double(outlier, outlier, 100, 20), 0));
+        }
+
+        RecordingDrawContext expected = new RecordingDrawContext();
+        new BasicClutterFilter().apply(expected, labels);
+
+        GridClutterFilter filter = new GridClutterFilter(32);
+        RecordingDrawContext actual = new RecordingDrawContext();
+        actual.setView(new BasicOrbitView()
+        {
+            @Override
+            public Rectangle getViewport()
+            {
+                return new Rectangle(0, 0, 1000, 1000);
+            }
+        });
+        filter.apply(actual, labels);
+
+        assertEquals("Accepted labels", expected.accepted, actual.accepted);
+        assertFalse("Expecting overlapping outliers to be eliminated",
+            actual.accepted.contains(labels.get(labels.size() - 3)));
+        assertEquals("Cell size", 32, filter.currentCellSize, 0);
+        assertTrue("Expecting the grid to span the viewport", filter.numCols <= 1000 / 32 + 1);
+        assertTrue("Expecting the grid to span the viewport", filter.numRows <= 1000 / 32 + 1);
+    }
+
+    @Test
+    public void testPriorityComparatorOrdersCandidates()
+    {
+        Label near = new Label(new Rectangle2D.Double(0, 0, 100, 20), 1);
+        Label important = new Label(new Rectangle2D.Double(50, 10, 100, 20), 5);
+        Label separate = new Label(new Rectangle2D.Double(500, 500, 100, 20), 0);
+        List<Declutterable> labels = Arrays.<Declutterable>asList(near, important, separate);
+
+        GridClutterFilter filter = new GridClutterFilter();
+        RecordingDrawContext dc = new RecordingDrawContext();
+        filter.apply(dc, labels);
+        assertEquals(Arrays.<OrderedRenderable>asList(near, separate), dc.accepted);
+
+        filter.setPriorityComparator(new Comparator<Declutterable>()
+        {
+            public int compare(Declutterable a, Declutterable b)
+            {
+                return ((Label) b).importance - ((Label) a).importance; // most important first
+            }
+        });
+        dc = new RecordingDrawContext();
+        filter.apply(dc, labels);
+        assertEquals(Arrays.<OrderedRenderable>asList(important, separate), dc.accepted);
+    }
+
+    /** Creates labels of random sizes scattered over and around a square screen, with some null and empty bounds. */
+    private static List<Declutterable> createLabels(Random random, int count, double screenSize)
+    {
+        List<Declutterable> labels = new ArrayList<Declutterable>(count);
+        for (int i = 0; i < count; i++)
+        {
+            Rectangle2D bounds;
+            if (i % 100 == 0)
+                bounds = null;
+            else if (i % 100 == 1)
+                bounds = new Rectangle2D.Double(random.nextDouble() * screenSize, 0, 0, 10);
+            else
+                bounds = new Rectangle2D.Double(random.nextDouble() * 1.2 * screenSize - 0.1 * screenSize,
+                    random.nextDouble() * 1.2 * screenSize - 0.1 * screenSize, 5 + random.nextInt(200),
+                    5 + random.nextInt(30));
+
+            labels.add(new Label(bounds, 0));
+        }
+
+        return labels;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2006-2009, 2017, 2020 United States Government, as represented by the
+ * Administrator of the National Aeronautics and Space Administration.
+ * All rights reserved.
+ * 
+ * The NASA World Wind Java (WWJ) platform is licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed
+ * under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ * 
+ * NASA World Wind Java (WWJ) also contains the following 3rd party Open Source
+ * software:
+ * 
+ *     Jackson Parser – Licensed under Apache 2.0
+ *     GDAL – Licensed under MIT
+ *     JOGL – Licensed under  Berkeley Software Distribution (BSD)
+ *     Gluegen – Licensed under Berkeley Software Distribution (BSD)
+ * 
+ * A complete listing of 3rd Party software notices and licenses included in
+ * NASA World Wind Java (WWJ)  can be found in the WorldWindJava-v2.2 3rd-party
+ * notices and licenses PDF found in code directory.
+ */
+
+package gov.nasa.worldwind.util;
+
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class WWIOTest
+{
+    private File file;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        this.file = File.createTempFile("WWIOTest", ".bil");
+
+        ByteBuffer buffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) 1).putShort((short) -2).putShort((short) 3).putShort((short) 8848);
+        buffer.flip();
+        WWIO.saveBuffer(buffer, this.file);
+    }
+
+    @After
+    public void tearDown()
+    {
+        //noinspection ResultOfMethodCallIgnored
+        this.file.delete();
+    }
+
+    @Test
+    public void testMapFileURL() throws Exception
+    {
+        ByteBuffer buffer = WWIO.mapURLContentToBuffer(this.file.toURI().toURL());
+
+        assertTrue("Mapped buffer", buffer instanceof MappedByteBuffer);
+        assertTrue("Read only", buffer.isReadOnly());
+        assertEquals("Mapped buffer", WWIO.readURLContentToBuffer(this.file.toURI().toURL()), buffer);
+
+        ShortBuffer elevations = buffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        assertEquals("Elevation", -2, elevations.get(1));
+        assertEquals("Elevation", 8848, elevations.get(3));
+    }
+
+    @Test
+    public void testMapNonFileURL() throws Exception
+    {
+        URL url = Test.class.getResource("Test.class"); // an entry in the JUnit jar
+        ByteBuffer buffer = WWIO.mapURLContentToBuffer(url);
+
+        assertFalse("Read buffer", buffer instanceof MappedByteBuffer);
+        assertEquals("Read buffer", WWIO.readURLContentToBuffer(url), buffer);
+    }
+
+    @Test
+    public void testMappedBufferSurvivesSave() throws Exception
+    {
+        ByteBuffer buffer = WWIO.mapURLContentToBuffer(this.file.toURI().toURL());
+
+        // Saving replaces the file rather than truncating it, so the mapping keeps the previous contents.
+        WWIO.saveBuffer(ByteBuffer.allocate(2), this.file);
+        assertEquals("Saved file", 2, this.file.length());
+
+        ShortBuffer elevations = buffer.order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+        assertEquals("Elevation", 8848, elevations.get(3));
+
+        assertTrue("Deleted", this.file.delete());
+        assertEquals("Elevation", -2, elevations.get(1));
+    }
+
+    @Test
+    public void testSaveLeavesNoTemporaryFiles() throws Exception
+    {
+        WWIO.saveBuffer(ByteBuffer.allocate(2), this.file);
+
+        String[] names = this.file.getParentFile().list();
+        assertNotNull("Directory", names);
+        for (String name : names)
+        {
+            assertFalse("Temporary file " + name, name.startsWith(this.file.getName()) && name.endsWith(".tmp"));
+        }
+    }
+}
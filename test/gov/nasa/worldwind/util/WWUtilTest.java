@@ -70,4 +70,26 @@ public class WWUtilTest
         time = WWUtil.parseTimeString("invalid time");
         assertNull(time);
     }
+
+    /** Test parsing plain decimal numbers, and that other forms are left to Double.parseDouble. */
+    @Test
+    public void testParseExactDecimal()
+    {
+        String[] exact = {"0", "-0", "+12", "-123.45", "0.1", ".5", "7.", "9007199254740992",
+            "0.0000000000000000000001"};
+        for (String s : exact)
+        {
+            assertEquals(s, Double.doubleToLongBits(Double.parseDouble(s)),
+                Double.doubleToLongBits(WWUtil.parseExactDecimal(s, 0, s.length())));
+        }
+
+        String[] inexact = {"", "-", ".", "1e5", "1..2", "12a", "9007199254740993", "0.00000000000000000000001"};
+        for (String s : inexact)
+        {
+            assertTrue(s, Double.isNaN(WWUtil.parseExactDecimal(s, 0, s.length())));
+        }
+
+        // A range within a longer sequence.
+        assertEquals(23.5, WWUtil.parseExactDecimal("-18.3,23.5,0", 6, 10), 0);
+    }
 }